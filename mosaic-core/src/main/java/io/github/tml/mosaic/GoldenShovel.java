@@ -1,11 +1,15 @@
 package io.github.tml.mosaic;
 
 import io.github.tml.mosaic.actuator.CubeActuatorProxy;
+import io.github.tml.mosaic.actuator.SlotHandle;
 import io.github.tml.mosaic.core.tools.guid.DotNotationId;
 import io.github.tml.mosaic.core.tools.guid.GUID;
 import io.github.tml.mosaic.slot.service.SlotManager;
 import io.github.tml.mosaic.slot.support.SlotBuilder;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * 金铲铲工具类
  * 为开发者，框架使用者提供的全局工具类，能方便便利的进行槽构建，方块执行。
@@ -20,6 +24,13 @@ public class GoldenShovel {
         cubeActuatorProxy = proxy;
     }
 
+    /**
+     * 获取槽的执行句柄，适合需要反复执行同一个槽的场景
+     */
+    public static SlotHandle slotHandle(String slotId){
+        return cubeActuatorProxy.slotHandle(new DotNotationId(slotId));
+    }
+
     public static void loadSlotManager(SlotManager manager){
         slotManager = manager;
     }
@@ -46,6 +57,10 @@ public class GoldenShovel {
 
         private Object[] args;
 
+        private Long timeoutMillis;
+
+        private int parallelism = 1;
+
         private ExecuteBootstrap() {
         }
 
@@ -56,7 +71,46 @@ public class GoldenShovel {
 
         public <T> T run(Object... args){
             this.args = args;
-            return cubeActuatorProxy.execute(new DotNotationId(slotId), this.args);
+            return handle().run(this.args);
+        }
+
+        /**
+         * 异步执行的超时时间（毫秒），不设置时使用执行器的默认超时时间
+         */
+        public ExecuteBootstrap timeout(long timeoutMillis){
+            this.timeoutMillis = timeoutMillis;
+            return this;
+        }
+
+        /**
+         * 异步执行，扩展点在异步执行器中运行，超时或取消返回的future时会中断插件调用
+         */
+        public <T> CompletableFuture<T> runAsync(Object... args){
+            this.args = args;
+            if (timeoutMillis == null) {
+                return handle().runAsync(this.args);
+            }
+            return handle().runAsync(timeoutMillis, this.args);
+        }
+
+        /**
+         * 批量执行的并行度，大于1时大批量会拆分到ForkJoin线程池中执行
+         */
+        public ExecuteBootstrap parallelism(int parallelism){
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        /**
+         * 批量执行同一个槽，槽只解析一次，结果顺序与入参一致，单条执行失败时对应位置为null
+         * 标记为异步的扩展点同样在调用线程（并行拆分时为ForkJoin线程）中直接执行，不经过异步执行器，也不受异步超时限制
+         */
+        public <T> List<T> runBatch(List<Object[]> argsList){
+            return handle().runBatch(argsList, parallelism);
+        }
+
+        public SlotHandle handle(){
+            return slotHandle(slotId);
         }
     }
 
@@ -1,17 +1,26 @@
 package io.github.tml.mosaic.actuator;
 
 import io.github.tml.mosaic.core.execption.ActuatorException;
+import io.github.tml.mosaic.core.execption.CubeException;
+import io.github.tml.mosaic.cube.CubeInstancePool;
+import io.github.tml.mosaic.cube.ExtPointBatcher;
+import io.github.tml.mosaic.cube.ExtPointInvoker;
 import io.github.tml.mosaic.cube.ExtPointResult;
 import io.github.tml.mosaic.cube.ExtensionPoint;
+import io.github.tml.mosaic.cube.external.AbstractMosaicResult;
+import io.github.tml.mosaic.cube.external.MosaicItemResult;
 import io.github.tml.mosaic.cube.external.MosaicExtPackage;
 import io.github.tml.mosaic.cube.external.MosaicResult;
 import io.github.tml.mosaic.cube.external.MosaicVoid;
 import lombok.extern.slf4j.Slf4j;
 
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.util.Objects;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import static io.github.tml.mosaic.core.CubeConstant.DEFAULT_RETURN_NAME;
 
@@ -22,43 +31,187 @@ public abstract class AbstractCubeActuator implements CubeActuator{
 
     }
 
-    //TODO 优化 结果处理应该抽离
     protected <T> T execute0(ExecuteContext executeContext) throws ActuatorException{
+        Object obj = invoke0(executeContext);
+        return resolveResult(executeContext, obj);
+    }
+
+    /**
+     * 批量执行区间[from, to)内的参数，结果按下标写入results
+     * 复用同一个执行上下文，不经过执行前日志与执行器派发，单条失败时该条结果为null
+     */
+    void executeRange(SlotBinding binding, List<Object[]> argsList, int from, int to, Object[] results) {
+        ExecuteContext executeContext = binding.newContext(null);
+        ExtPointBatcher batcher = binding.getExPoint().getBatcher();
+        if (batcher != null && executeRangeByBatcher(batcher, executeContext, argsList, from, to, results)) {
+            return;
+        }
+        for (int i = from; i < to; i++) {
+            executeContext.setArgs(argsList.get(i));
+            try {
+                results[i] = execute0(executeContext);
+            } catch (ActuatorException e) {
+                log.error("batch execute error, slot:{} index:{} error:{}", binding.getSlot().getId(), i, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 扩展点声明了批量方法时，区间内的参数直接交给批量方法一次处理
+     * @return 批量调用失败时返回false，由调用方退回逐条执行
+     */
+    private boolean executeRangeByBatcher(ExtPointBatcher batcher, ExecuteContext executeContext,
+                                          List<Object[]> argsList, int from, int to, Object[] results) {
+        List<Object> rets;
+        try {
+            rets = batcher.invokeAll(argsList.subList(from, to));
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable e) {
+            log.warn("batch method invoke error, fallback to single invoke, slot:{} error:{}",
+                    executeContext.getSlot().getId(), e.getMessage());
+            return false;
+        }
+        for (int i = from; i < to; i++) {
+            executeContext.setArgs(argsList.get(i));
+            try {
+                results[i] = resolveResult(executeContext, rets.get(i - from));
+            } catch (ActuatorException e) {
+                log.error("batch execute error, slot:{} index:{} error:{}", executeContext.getSlot().getId(), i, e.getMessage());
+            }
+        }
+        return true;
+    }
 
+    /**
+     * 调用扩展点方法，返回方法的原始返回值
+     * 扩展点声明了批量方法时，本次调用与其他并发调用合并后经批量方法执行
+     */
+    protected Object invoke0(ExecuteContext executeContext) throws ActuatorException{
         MosaicExtPackage<?> mosaicExtPackage = executeContext.getExPackage();
-        ExtensionPoint exPoint = executeContext.getExPoint();
+        ExtPointBatcher batcher = executeContext.getExPoint().getBatcher();
+        if (batcher != null) {
+            return invokeByBatcher(batcher, executeContext.getArgs());
+        }
+        if (executeContext.getInstancePool() != null) {
+            return invokeByPool(executeContext.getInstancePool(), executeContext);
+        }
+        try {
+            return getInvoker(executeContext.getExPoint(), mosaicExtPackage)
+                    .invoke(mosaicExtPackage, executeContext.getArgs());
+        } catch (ActuatorException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new ActuatorException("invoke method error:" + e.getMessage());
+        }
+    }
 
+    /**
+     * 池化范围的Cube从实例池借出实例，在该实例绑定的扩展包上调用，调用结束后归还
+     */
+    private Object invokeByPool(CubeInstancePool instancePool, ExecuteContext executeContext) throws ActuatorException{
+        CubeInstancePool.PooledInstance instance;
         try {
-            Method method = mosaicExtPackage.getClass().getMethod(exPoint.getMethodName(), exPoint.getParameterTypes());
-            Object obj = method.invoke(mosaicExtPackage, executeContext.getArgs());
-            Class<?> returnType = exPoint.getReturnType();
-
-            MosaicResult mosaicResult = null;
-            if(returnType.isAssignableFrom(MosaicResult.class)){
-                mosaicResult = (MosaicResult) obj;
-                mosaicResult.put(DEFAULT_RETURN_NAME, obj);
-            }else if(!MosaicVoid.isVoid(returnType)){
-                mosaicResult= MosaicResult.build()
-                        .put(DEFAULT_RETURN_NAME, obj)
-                        .build();
+            instance = instancePool.borrow();
+        } catch (CubeException e) {
+            throw new ActuatorException(e.getMessage());
+        }
+        try {
+            MosaicExtPackage<?> mosaicExtPackage = instance.getExtPackage(executeContext.getExPackage().getClass());
+            if (mosaicExtPackage == null) {
+                throw new ActuatorException("pooled instance has no exPackage:" + executeContext.getExPackage().extPackageId());
             }
-            ExtPointResult extPointResult = executeContext.getExPoint().getReturnResult();
-            if(Objects.nonNull(mosaicResult)){
-                String resName = Optional.ofNullable(executeContext.getSlot().getSetupCubeInfo().getResName())
-                        .orElse(DEFAULT_RETURN_NAME);
+            return getInvoker(executeContext.getExPoint(), mosaicExtPackage)
+                    .invoke(mosaicExtPackage, executeContext.getArgs());
+        } catch (ActuatorException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new ActuatorException("invoke method error:" + e.getMessage());
+        } finally {
+            instancePool.giveBack(instance);
+        }
+    }
 
-                ExtPointResult.ExtPointResultItem resultItem = extPointResult.getResultItem(resName);
-                return (T) mosaicResult.getResult(resultItem.getItemName(), resultItem.getItemClass());
-            }else{
-                return (T) exPoint.getReturnType().cast(obj);
+    /**
+     * 等待合并后的批量结果，超时或被中断时放弃本条调用，中断状态保留给调用方
+     */
+    private Object invokeByBatcher(ExtPointBatcher batcher, Object[] args) throws ActuatorException{
+        CompletableFuture<Object> future = batcher.submit(args);
+        try {
+            return batcher.getTimeoutMillis() > 0
+                    ? future.get(batcher.getTimeoutMillis(), TimeUnit.MILLISECONDS)
+                    : future.get();
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new ActuatorException("batch invoke interrupted");
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            throw new ActuatorException(String.format("batch invoke timeout after %dms", batcher.getTimeoutMillis()));
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof Error) {
+                throw (Error) cause;
             }
+            throw new ActuatorException("invoke method error:" + cause.getMessage());
+        }
+    }
+
+    /**
+     * 获取扩展点调用器，扩展点未在装配阶段生成调用器时在此补齐
+     */
+    private ExtPointInvoker getInvoker(ExtensionPoint exPoint, MosaicExtPackage<?> mosaicExtPackage) throws ActuatorException{
+        ExtPointInvoker invoker = exPoint.getInvoker();
+        if (invoker != null) {
+            return invoker;
+        }
+        try {
+            Method method = mosaicExtPackage.getClass().getMethod(exPoint.getMethodName(), exPoint.getParameterTypes());
+            invoker = ExtPointInvoker.of(method);
+            exPoint.setInvoker(invoker);
+            return invoker;
         } catch (NoSuchMethodException e) {
             throw new ActuatorException("no such method error:" + e.getMessage());
-        } catch (InvocationTargetException | IllegalAccessException e) {
+        } catch (IllegalAccessException e) {
             throw new ActuatorException("invoke method error:" + e.getMessage());
+        }
+    }
+
+    /**
+     * 按槽需要的返回项处理扩展点的返回值
+     * 单值返回直接透传，多返回项按装配阶段确定的返回项取值，均不再额外包装
+     */
+    protected <T> T resolveResult(ExecuteContext executeContext, Object obj) throws ActuatorException{
+        ExtensionPoint exPoint = executeContext.getExPoint();
+        try {
+            if (MosaicVoid.isVoid(exPoint.getReturnType())) {
+                return null;
+            }
+            if (!(obj instanceof AbstractMosaicResult)) {
+                return (T) obj;
+            }
+            ExtPointResult.ExtPointResultItem resultItem = executeContext.getResultItem();
+            if (resultItem == null) {
+                String resName = Optional.ofNullable(executeContext.getSlot().getSetupCubeInfo().getResName())
+                        .orElse(DEFAULT_RETURN_NAME);
+                resultItem = exPoint.getReturnResult().getResultItem(resName);
+            }
+            if (DEFAULT_RETURN_NAME.equals(resultItem.getItemName()) && !hasDefaultItem(obj)) {
+                // 未声明返回项的扩展点，默认返回项即返回值本身
+                return (T) obj;
+            }
+            if (obj instanceof MosaicItemResult) {
+                ((MosaicItemResult) obj).bindItems(exPoint.getReturnResult());
+            }
+            return ((AbstractMosaicResult) obj).getResult(resultItem);
         } catch (Exception e){
             throw new ActuatorException("cube actuator execute point error:" + e.getMessage());
         }
     }
 
+    private boolean hasDefaultItem(Object obj) {
+        return (obj instanceof MosaicResult && ((MosaicResult) obj).containsKey(DEFAULT_RETURN_NAME))
+                || obj instanceof MosaicItemResult;
+    }
+
 }
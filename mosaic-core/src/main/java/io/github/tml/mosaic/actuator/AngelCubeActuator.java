@@ -1,5 +1,6 @@
 package io.github.tml.mosaic.actuator;
 
+import io.github.tml.mosaic.actuator.config.ActuatorProperties;
 import io.github.tml.mosaic.core.NamedThreadFactory;
 import io.github.tml.mosaic.core.execption.ActuatorException;
 import io.github.tml.mosaic.cube.external.AngelCube;
@@ -7,63 +8,59 @@ import io.github.tml.mosaic.cube.external.MosaicCube;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.*;
 
+/**
+ * 天使方块执行器
+ * 以监督者模式管理天使方块：有界工作线程池运行start，定时器负责停止期限与重启退避，
+ * 每个天使方块的状态见{@link AngelState}
+ */
 @Slf4j
 public class AngelCubeActuator extends AbstractCubeActuator{
 
     private final Map<String, AngelCubeWorker> angelCubeWorkerMap = new ConcurrentHashMap<>();
 
+    /**
+     * 天使方块工作线程池，start阻塞运行的天使方块会独占一个线程
+     */
     private final ExecutorService angelCubeExecutor;
 
     /**
-     * 清道夫线程池，负责清理stop还未结束的cube
+     * 停止线程池，负责执行天使方块的stop
      */
-    private final ExecutorService scavenger;
+    private final ExecutorService stopExecutor;
 
     /**
-     * 临终关怀任务队列
-     * 等待stop关闭的cube
+     * 监督者定时器，负责停止期限检查与重启退避，替代原先轮询的清道夫线程
      */
-    private final BlockingQueue<AngelCubeWorker> deathbedCareList = new LinkedBlockingQueue<>();
+    private final ScheduledExecutorService supervisor;
 
-    public AngelCubeActuator() {
-        angelCubeExecutor = new ThreadPoolExecutor(0 ,Integer.MAX_VALUE, 60L, TimeUnit.SECONDS,
-                new SynchronousQueue<>(),
-                new NamedThreadFactory("angel-cube-thread")
-        );
-        scavenger = Executors.newSingleThreadExecutor(new NamedThreadFactory("angel-cube-scavenger"));
+    private final ActuatorProperties.Angel config;
 
-        runScavenger();
+    public AngelCubeActuator() {
+        this(new ActuatorProperties.Angel());
     }
 
-    /**
-     * 清道夫线程启动
-     * 负责对正在运行stop的天使线程进行清道夫处理
-     * 如果在2s内未完成stop操作则强制清理
-     */
-    private void runScavenger() {
-        scavenger.execute(()->{
-            for(;;){
-                AngelCubeWorker worker = deathbedCareList.poll();
-                if (worker != null){
-                    log.info("scavenger ready handle angle cube {} stop", worker.angelCube.cubeId());
-                    Future<?> stopFuture = worker.getStopFuture();
-                    if (stopFuture != null && !stopFuture.isDone()){
-                        try {
-                            stopFuture.get(2, TimeUnit.SECONDS);
-                        } catch (Exception e) {
-                            log.error("scavenger handle angle cube {} stop get error:{}", worker.angelCube.cubeId(), e.getMessage());
-                        }
-                        log.error("angle cube:{} stop time over 2s, force stop", worker.angelCube.cubeId());
-                        stopFuture.cancel(true);
-                    }
-                    removeAngleCube(worker.angelCube.cubeId());
-                }
-            }
-        });
+    public AngelCubeActuator(ActuatorProperties.Angel config) {
+        this.config = config;
+        ThreadFactory workerThreadFactory = config.isVirtualThreads()
+                ? NamedThreadFactory.virtualOrNamed("angel-cube-thread")
+                : new NamedThreadFactory("angel-cube-thread");
+        angelCubeExecutor = new ThreadPoolExecutor(0, config.getMaxWorkers(), 60L, TimeUnit.SECONDS,
+                new SynchronousQueue<>(),
+                workerThreadFactory
+        );
+        // 停止线程耗尽时拒绝，不在调用方线程执行可能阻塞的stop
+        stopExecutor = new ThreadPoolExecutor(0, config.getMaxWorkers(), 60L, TimeUnit.SECONDS,
+                new SynchronousQueue<>(),
+                new NamedThreadFactory("angel-cube-stopper")
+        );
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, new NamedThreadFactory("angel-cube-supervisor"));
+        scheduler.setRemoveOnCancelPolicy(true);
+        supervisor = scheduler;
     }
 
     /**
@@ -82,54 +79,79 @@ public class AngelCubeActuator extends AbstractCubeActuator{
     @Override
     public <T> T execute(ExecuteContext executeContext) {
         AngelCube cube = checkAndGetAngleCube(executeContext);
-        String cubeId = cube.cubeId();
-        synchronized (cubeId){
-            AngelCubeWorker worker = angelCubeWorkerMap.getOrDefault(cubeId, new AngelCubeWorker(cube));
-            if (!angelCubeWorkerMap.containsKey(cubeId)) {
-                worker.start();
-                angelCubeWorkerMap.put(cubeId, worker);
-            }
+        AngelCubeWorker created = new AngelCubeWorker(cube);
+        // 已有存活的工作者时不重复启动，已停止的工作者被替换
+        AngelCubeWorker worker = angelCubeWorkerMap.compute(cube.cubeId(),
+                (cubeId, existing) -> existing != null && existing.getState().isAlive() ? existing : created);
+        if (worker == created) {
+            worker.start();
         }
         return null;
     }
 
-
-
     @Override
     public boolean stop(ExecuteContext executeContext) {
         AngelCube cube = checkAndGetAngleCube(executeContext);
-        String cubeId = cube.cubeId();
-        synchronized (cubeId){
-            AngelCubeWorker worker = angelCubeWorkerMap.get(cubeId);
-            if(Objects.isNull(worker)){
-                return false;
-            }
-            if(Objects.isNull(worker.getStopFuture())){
-                worker.stop();
-            }else{
-                // 再次停止会交给清道夫去关停cube
-                deathbedCareList.add(worker);
-            }
-            return true;
+        AngelCubeWorker worker = angelCubeWorkerMap.get(cube.cubeId());
+        if(Objects.isNull(worker)){
+            return false;
         }
+        return worker.stop();
     }
 
     public void removeAngleCube(String cubeId){
-        synchronized (cubeId){
-            angelCubeWorkerMap.remove(cubeId);
-        }
+        angelCubeWorkerMap.remove(cubeId);
+    }
+
+    /**
+     * 获取天使方块的运行状态，从未启动过时返回null
+     */
+    public AngelState getAngelState(String cubeId) {
+        AngelCubeWorker worker = angelCubeWorkerMap.get(cubeId);
+        return worker != null ? worker.getState() : null;
+    }
+
+    public Map<String, AngelState> getAngelStates() {
+        Map<String, AngelState> states = new HashMap<>();
+        angelCubeWorkerMap.forEach((cubeId, worker) -> states.put(cubeId, worker.getState()));
+        return states;
     }
+
+    /**
+     * 停止全部天使方块，并在停止期限过后释放线程资源
+     */
+    public void shutdown() {
+        angelCubeWorkerMap.values().forEach(AngelCubeWorker::stop);
+        supervisor.schedule(() -> {
+            angelCubeExecutor.shutdownNow();
+            stopExecutor.shutdownNow();
+            supervisor.shutdown();
+        }, config.getStopTimeoutMillis(), TimeUnit.MILLISECONDS);
+    }
+
     public class AngelCubeWorker{
 
         private final AngelCube angelCube;
 
         private final String name;
 
-        private Future<?> startFuture;
+        @Getter
+        private volatile AngelState state = AngelState.STARTING;
 
+        /**
+         * 连续重启次数
+         */
         @Getter
+        private volatile int restartCount;
+
+        private boolean stopRequested;
+
+        private Future<?> runFuture;
+
         private Future<?> stopFuture;
 
+        private ScheduledFuture<?> pendingRestart;
+
         private static final String workerNamePrefix = "angel-cube-worker-";
 
         public AngelCubeWorker(AngelCube angelCube) {
@@ -137,22 +159,153 @@ public class AngelCubeActuator extends AbstractCubeActuator{
             this.name = workerNamePrefix+angelCube.cubeId();
         }
 
-        public void start() {
-            startFuture = angelCubeExecutor.submit(()->{
-                log.info("Starting AngelCubeWorker: {}", name);
+        public synchronized void start() {
+            if (stopRequested) {
+                return;
+            }
+            state = AngelState.STARTING;
+            try {
+                runFuture = angelCubeExecutor.submit(this::run);
+            } catch (RejectedExecutionException e) {
+                state = AngelState.FAILED;
+                throw new ActuatorException(String.format("angel cube %s start rejected, worker pool exhausted (max %d)",
+                        angelCube.cubeId(), config.getMaxWorkers()));
+            }
+        }
+
+        private void run() {
+            synchronized (this) {
+                if (stopRequested) {
+                    return;
+                }
+                state = AngelState.RUNNING;
+            }
+            log.info("Starting AngelCubeWorker: {}", name);
+            long begin = System.currentTimeMillis();
+            Throwable failure = null;
+            try {
                 angelCube.start();
-            });
+            } catch (Throwable e) {
+                failure = e;
+            }
+            onRunExit(failure, System.currentTimeMillis() - begin);
         }
 
-        public void stop(){
-            stopFuture = angelCubeExecutor.submit(() -> {
-                log.info("Stopping AngelCubeWorker: {}", name);
-                angelCube.stop();
-                if (!startFuture.isDone()) {
-                    startFuture.cancel(true);
+        /**
+         * start退出后按重启策略决定是否重启
+         */
+        private synchronized void onRunExit(Throwable failure, long elapsedMillis) {
+            if (stopRequested) {
+                // 停止流程负责收尾
+                return;
+            }
+            if (failure != null) {
+                log.error("AngelCubeWorker {} start failed: {}", name, failure.getMessage(), failure);
+            }
+            AngelRestartPolicy policy = config.getRestartPolicy();
+            boolean restart = failure != null ? policy != AngelRestartPolicy.NEVER : policy == AngelRestartPolicy.ALWAYS;
+            if (!restart) {
+                state = failure != null ? AngelState.FAILED : AngelState.COMPLETED;
+                log.info("AngelCubeWorker {} exited, state:{}", name, state);
+                return;
+            }
+            if (elapsedMillis >= config.getMaxBackoffMillis()) {
+                restartCount = 0;
+            }
+            if (config.getMaxRestarts() >= 0 && restartCount >= config.getMaxRestarts()) {
+                log.error("AngelCubeWorker {} reached max restarts {}, give up", name, config.getMaxRestarts());
+                state = AngelState.FAILED;
+                return;
+            }
+            long backoff = backoffMillis(restartCount++);
+            log.warn("AngelCubeWorker {} will restart in {}ms, restart count:{}", name, backoff, restartCount);
+            state = AngelState.STARTING;
+            pendingRestart = supervisor.schedule(this::restart, backoff, TimeUnit.MILLISECONDS);
+        }
+
+        private void restart() {
+            try {
+                start();
+            } catch (ActuatorException e) {
+                log.error("AngelCubeWorker {} restart failed: {}", name, e.getMessage());
+            }
+        }
+
+        private long backoffMillis(int attempt) {
+            double backoff = config.getInitialBackoffMillis() * Math.pow(config.getBackoffMultiplier(), attempt);
+            return (long) Math.min(backoff, config.getMaxBackoffMillis());
+        }
+
+        /**
+         * 停止天使方块，stop在停止线程池中执行，超过停止期限未完成则强制中断
+         * 停止期限先于stop提交，停止线程耗尽时不执行stop，中断运行线程并标记为FAILED
+         * @return 已停止、启动失败或无法执行stop时返回false
+         */
+        public boolean stop(){
+            synchronized (this) {
+                if (state == AngelState.DEAD || state == AngelState.FAILED) {
+                    return false;
+                }
+                if (stopRequested) {
+                    // 已在停止流程中，由停止期限兜底
+                    return true;
                 }
-                removeAngleCube(angelCube.cubeId());
-            });
+                stopRequested = true;
+                state = AngelState.STOPPING;
+                if (pendingRestart != null) {
+                    pendingRestart.cancel(false);
+                }
+            }
+            ScheduledFuture<?> deadline = supervisor.schedule(this::checkStopDeadline,
+                    config.getStopTimeoutMillis(), TimeUnit.MILLISECONDS);
+            Future<?> future;
+            try {
+                future = stopExecutor.submit(this::doStop);
+            } catch (RejectedExecutionException e) {
+                deadline.cancel(false);
+                log.error("AngelCubeWorker {} stop rejected, stopper pool exhausted (max {})", name, config.getMaxWorkers());
+                finish(AngelState.FAILED);
+                return false;
+            }
+            synchronized (this) {
+                stopFuture = future;
+            }
+            return true;
+        }
+
+        private void doStop() {
+            log.info("Stopping AngelCubeWorker: {}", name);
+            try {
+                angelCube.stop();
+            } catch (Throwable e) {
+                log.error("AngelCubeWorker {} stop error: {}", name, e.getMessage(), e);
+            }
+            finish(AngelState.DEAD);
+        }
+
+        private void checkStopDeadline() {
+            if (!state.isAlive()) {
+                return;
+            }
+            log.error("angle cube:{} stop time over {}ms, force stop", angelCube.cubeId(), config.getStopTimeoutMillis());
+            Future<?> future;
+            synchronized (this) {
+                future = stopFuture;
+            }
+            if (future != null) {
+                future.cancel(true);
+            }
+            finish(AngelState.DEAD);
+        }
+
+        private synchronized void finish(AngelState finalState) {
+            if (state == AngelState.DEAD || state == AngelState.FAILED) {
+                return;
+            }
+            if (runFuture != null && !runFuture.isDone()) {
+                runFuture.cancel(true);
+            }
+            state = finalState;
         }
     }
 
@@ -0,0 +1,22 @@
+package io.github.tml.mosaic.actuator;
+
+/**
+ * 天使方块重启策略
+ */
+public enum AngelRestartPolicy {
+
+    /**
+     * 从不重启
+     */
+    NEVER,
+
+    /**
+     * start抛出异常时重启
+     */
+    ON_FAILURE,
+
+    /**
+     * start抛出异常或在未被停止的情况下返回时都会重启，适用于start阻塞运行的天使方块
+     */
+    ALWAYS
+}
@@ -0,0 +1,44 @@
+package io.github.tml.mosaic.actuator;
+
+/**
+ * 天使方块运行状态
+ */
+public enum AngelState {
+
+    /**
+     * 等待工作线程启动（含重启退避等待）
+     */
+    STARTING,
+
+    /**
+     * 已调用start，守护运行中
+     */
+    RUNNING,
+
+    /**
+     * 已调用stop，等待停止完成
+     */
+    STOPPING,
+
+    /**
+     * start正常返回且按重启策略不再重启，监督者不再守护；仍可调用stop释放天使方块自行创建的资源
+     */
+    COMPLETED,
+
+    /**
+     * 启动失败且不再重启，或停止线程耗尽无法执行stop
+     */
+    FAILED,
+
+    /**
+     * 已停止
+     */
+    DEAD;
+
+    /**
+     * 是否仍由监督者守护，COMPLETED、FAILED与DEAD均为终止状态
+     */
+    public boolean isAlive() {
+        return this == STARTING || this == RUNNING || this == STOPPING;
+    }
+}
@@ -1,22 +1,158 @@
 package io.github.tml.mosaic.actuator;
 
+import io.github.tml.mosaic.actuator.config.ActuatorProperties;
+import io.github.tml.mosaic.core.NamedThreadFactory;
+import io.github.tml.mosaic.core.execption.ActuatorException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 /**
  * 异步执行器
- * TODO
+ * 标记为异步的扩展点在有界线程池中执行，超时或取消时中断正在执行的插件调用
  */
+@Slf4j
 public class AsyncCubeActuator extends AbstractCubeActuator{
 
+    private final ExecutorService asyncExecutor;
+
+    private final long defaultTimeoutMillis;
+
     protected AsyncCubeActuator() {
+        this(new ActuatorProperties.Async());
+    }
 
+    protected AsyncCubeActuator(ActuatorProperties.Async config) {
+        this.defaultTimeoutMillis = config.getDefaultTimeoutMillis();
+        ThreadFactory threadFactory = config.isVirtualThreads()
+                ? NamedThreadFactory.virtualOrNamed("async-cube")
+                : new NamedThreadFactory("async-cube");
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(config.getCorePoolSize(), config.getMaxPoolSize(),
+                config.getKeepAliveSeconds(), TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(config.getQueueCapacity()),
+                threadFactory);
+        executor.allowCoreThreadTimeOut(true);
+        this.asyncExecutor = executor;
     }
 
+    /**
+     * 同步调用异步扩展点，派发到异步线程池后在默认超时时间内等待结果
+     */
     @Override
     public <T> T execute(ExecuteContext executeContext) {
-        return null;
+        return join(executeAsync(executeContext, defaultTimeoutMillis));
+    }
+
+    /**
+     * 等待异步执行的结果，超时、取消与执行异常统一转换为ActuatorException
+     */
+    <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException | CancellationException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof ActuatorException) {
+                throw (ActuatorException) cause;
+            }
+            if (cause instanceof TimeoutException) {
+                throw new ActuatorException("async execute timeout after " + defaultTimeoutMillis + "ms");
+            }
+            throw new ActuatorException("async execute error:" + cause.getMessage());
+        }
+    }
+
+    public <T> CompletableFuture<T> executeAsync(ExecuteContext executeContext) {
+        return executeAsync(executeContext, defaultTimeoutMillis);
+    }
+
+    public <T> CompletableFuture<T> executeAsync(ExecuteContext executeContext, long timeoutMillis) {
+        return executeAsync(executeContext, timeoutMillis, null);
+    }
+
+    /**
+     * 异步执行扩展点
+     * 返回的future超时或被取消时，会中断仍在执行的插件调用
+     * @param timeoutMillis 超时时间（毫秒），小于等于0表示不超时
+     * @param onFinished 插件调用结束或确定不再执行时回调一次，插件调用仍在执行时不会回调，可为null
+     */
+    public <T> CompletableFuture<T> executeAsync(ExecuteContext executeContext, long timeoutMillis, Runnable onFinished) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        // 任务开始执行与放弃排队中的任务只会发生其一，由先置位的一方回调onFinished
+        AtomicBoolean claimed = new AtomicBoolean();
+        // 插件调用已返回，此后不再中断工作线程
+        AtomicBoolean ended = new AtomicBoolean();
+        Future<?> task;
+        try {
+            task = asyncExecutor.submit(() -> {
+                if (!claimed.compareAndSet(false, true)) {
+                    return;
+                }
+                T value = null;
+                Throwable failure = null;
+                try {
+                    // 排队期间已超时或被取消则不再执行
+                    if (!result.isDone()) {
+                        value = execute0(executeContext);
+                    }
+                } catch (Throwable e) {
+                    failure = e;
+                } finally {
+                    ended.set(true);
+                    finished(onFinished);
+                }
+                // 先回调onFinished再完成，完成回调在本线程上执行时不会把本线程当作仍在执行的插件调用中断
+                if (failure != null) {
+                    result.completeExceptionally(failure);
+                } else {
+                    result.complete(value);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            finished(onFinished);
+            result.completeExceptionally(new ActuatorException("async cube executor is saturated, exPoint:"
+                    + executeContext.getExPoint().getId()));
+            return result;
+        }
+
+        if (timeoutMillis > 0) {
+            result.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+        result.whenComplete((r, e) -> {
+            if (e == null) {
+                return;
+            }
+            if (claimed.compareAndSet(false, true)) {
+                // 仍在排队，任务不会再执行
+                task.cancel(false);
+                finished(onFinished);
+            } else if (!ended.get() && !task.isDone()) {
+                interrupt(task, executeContext, e);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 超时或取消时中断仍在执行的插件调用
+     */
+    void interrupt(Future<?> task, ExecuteContext executeContext, Throwable reason) {
+        log.warn("async execute interrupted, exPoint:{}, reason:{}", executeContext.getExPoint().getId(), reason.toString());
+        task.cancel(true);
+    }
+
+    private void finished(Runnable onFinished) {
+        if (onFinished != null) {
+            onFinished.run();
+        }
     }
 
     @Override
     public boolean stop(ExecuteContext executeContext) {
         return true;
     }
+
+    public void shutdown() {
+        asyncExecutor.shutdownNow();
+    }
 }
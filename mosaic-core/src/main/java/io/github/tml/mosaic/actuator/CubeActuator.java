@@ -1,5 +1,6 @@
 package io.github.tml.mosaic.actuator;
 
+import io.github.tml.mosaic.cube.CubeInstancePool;
 import io.github.tml.mosaic.cube.ExtPointResult;
 import io.github.tml.mosaic.cube.ExtensionPoint;
 import io.github.tml.mosaic.cube.external.MosaicCube;
@@ -35,5 +36,19 @@ public interface CubeActuator {
 
         private Object[] args;
 
+        /**
+         * 槽需要的返回项，为空时按槽的resName实时解析
+         */
+        private ExtPointResult.ExtPointResultItem resultItem;
+
+        /**
+         * 池化范围Cube的实例池，调用扩展点时从池中借出实例
+         */
+        private CubeInstancePool instancePool;
+
+        public ExecuteContext(Slot slot, MosaicCube cube, boolean isAngleCube, MosaicExtPackage<? extends MosaicCube> exPackage,
+                              ExtensionPoint exPoint, Object[] args, ExtPointResult.ExtPointResultItem resultItem) {
+            this(slot, cube, isAngleCube, exPackage, exPoint, args, resultItem, null);
+        }
     }
 }
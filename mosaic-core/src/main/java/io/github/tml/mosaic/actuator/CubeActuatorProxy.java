@@ -1,7 +1,13 @@
 package io.github.tml.mosaic.actuator;
 
+import io.github.tml.mosaic.actuator.config.ActuatorProperties;
+import io.github.tml.mosaic.core.event.DefaultMosaicEventBroadcaster;
+import io.github.tml.mosaic.core.event.event.CubeDefinitionRegisteredEvent;
+import io.github.tml.mosaic.core.event.event.CubeInvalidateEvent;
+import io.github.tml.mosaic.core.event.event.MosaicEvent;
+import io.github.tml.mosaic.core.event.event.SlotChangeEvent;
+import io.github.tml.mosaic.core.event.listener.SelectiveMosaicEventListener;
 import io.github.tml.mosaic.core.execption.ActuatorException;
-import io.github.tml.mosaic.cube.external.MosaicCube;
 import io.github.tml.mosaic.cube.factory.context.CubeContext;
 import io.github.tml.mosaic.core.tools.guid.GUID;
 import io.github.tml.mosaic.cube.Cube;
@@ -12,9 +18,16 @@ import io.github.tml.mosaic.slot.Slot;
 import io.github.tml.mosaic.slot.service.SlotManager;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import static io.github.tml.mosaic.core.CubeConstant.DEFAULT_RETURN_NAME;
 
 /**
  * 方块执行器代理
@@ -28,48 +41,281 @@ public class CubeActuatorProxy {
 
     protected SlotManager slotManager;
 
+    private final Map<GUID, SlotHandle> slotHandles = new ConcurrentHashMap<>();
+
     private static final Object[] EMPTY_ARGS = new Object[]{};
 
+    private static final int MAX_ACQUIRE_ATTEMPTS = 3;
+
+    private ActuatorProperties properties = new ActuatorProperties();
+
+    /**
+     * 并行批量执行线程池，首次使用时创建
+     */
+    private volatile ForkJoinPool batchPool;
+
     public void init(CubeContext context, SlotManager slotManager) {
+        init(context, slotManager, new ActuatorProperties());
+    }
+
+    public void init(CubeContext context, SlotManager slotManager, ActuatorProperties properties) {
         this.context = context;
         this.slotManager = slotManager;
+        this.properties = properties;
         initActuators();
+        DefaultMosaicEventBroadcaster.broadcaster().registerListener(new SlotHandleInvalidator());
     }
 
     public void initActuators() {
         actuatorMap.put(GenericCubeActuator.class, new GenericCubeActuator());
-        actuatorMap.put(AsyncCubeActuator.class, new AsyncCubeActuator());
-        actuatorMap.put(AngelCubeActuator.class, new AngelCubeActuator());
+        actuatorMap.put(AsyncCubeActuator.class, new AsyncCubeActuator(properties.getAsync()));
+        actuatorMap.put(AngelCubeActuator.class, new AngelCubeActuator(properties.getAngel()));
+    }
+
+    /**
+     * 关闭执行器持有的线程资源
+     */
+    public void shutdown() {
+        ((AsyncCubeActuator) actuator(AsyncCubeActuator.class)).shutdown();
+        ((AngelCubeActuator) actuator(AngelCubeActuator.class)).shutdown();
+        if (batchPool != null) {
+            batchPool.shutdown();
+        }
+    }
+
+    /**
+     * 获取天使方块运行状态，从未启动过时返回null
+     */
+    public AngelState getAngelState(String cubeId) {
+        return ((AngelCubeActuator) actuator(AngelCubeActuator.class)).getAngelState(cubeId);
+    }
+
+    public Map<String, AngelState> getAngelStates() {
+        return ((AngelCubeActuator) actuator(AngelCubeActuator.class)).getAngelStates();
     }
 
     private CubeActuator actuator(Class<? extends CubeActuator> actuatorClass) {
         return actuatorMap.get(actuatorClass);
     }
 
+    /**
+     * 获取槽的执行句柄，句柄会缓存槽的解析结果
+     */
+    /**
+     * 获取槽的执行句柄，只缓存已存在的槽的句柄，不存在的槽返回不缓存绑定的句柄，避免不存在的槽ID使缓存无限增长
+     */
+    public SlotHandle slotHandle(GUID slotId) {
+        SlotHandle handle = slotHandles.get(slotId);
+        if (handle != null) {
+            return handle;
+        }
+        if (slotManager.getSlot(slotId) == null) {
+            return detachedHandle(slotId);
+        }
+        handle = slotHandles.computeIfAbsent(slotId, id -> new SlotHandle(id, this));
+        // 缓存期间槽被移除时，移除事件可能早于缓存发生
+        if (slotManager.getSlot(slotId) == null && slotHandles.remove(slotId, handle)) {
+            handle.detach();
+        }
+        return handle;
+    }
+
+    private SlotHandle detachedHandle(GUID slotId) {
+        SlotHandle handle = new SlotHandle(slotId, this);
+        handle.detach();
+        return handle;
+    }
+
     public <T> T execute(GUID slotId, Object... args) throws ActuatorException {
+        return execute(slotHandle(slotId), args);
+    }
+
+    public <T> T execute(SlotHandle handle, Object... args) throws ActuatorException {
         try {
-            AbstractCubeActuator.ExecuteContext executeContext = getExecuteContext(slotId, args);
-            Object execute = chooseActuator(executeContext)
-                    .execute(executeContext);
-            log.info("[TEST] execute result:{}", execute);
-            return execute != null ? (T) execute : null;
+            SlotBinding binding = acquireBinding(handle);
+            if (binding.getActuator() instanceof AsyncCubeActuator) {
+                // 超时返回时插件调用可能仍在执行，实例在插件调用结束后归还
+                AsyncCubeActuator asyncActuator = (AsyncCubeActuator) binding.getActuator();
+                return asyncActuator.join(asyncActuator.executeAsync(binding.newContext(args),
+                        defaultAsyncTimeoutMillis(), () -> releaseBinding(binding)));
+            }
+            try {
+                Object execute = binding.getActuator()
+                        .execute(binding.newContext(args));
+                return execute != null ? (T) execute : null;
+            } finally {
+                releaseBinding(binding);
+            }
         }catch (ActuatorException e){
-            log.error("execute error, slot:{} error:{}", slotId, e.getMessage());
+            log.error("execute error, slot:{} error:{}", handle.getSlotId(), e.getMessage());
         }
         return null;
     }
 
+    public <T> CompletableFuture<T> executeAsync(GUID slotId, Object... args) {
+        return executeAsync(slotHandle(slotId), defaultAsyncTimeoutMillis(), args);
+    }
+
+    long defaultAsyncTimeoutMillis() {
+        return properties.getAsync().getDefaultTimeoutMillis();
+    }
+
+    /**
+     * 异步执行槽，扩展点在异步执行器中运行
+     * @param timeoutMillis 超时时间（毫秒），超时或取消时中断插件调用，小于等于0表示不超时
+     */
+    public <T> CompletableFuture<T> executeAsync(SlotHandle handle, long timeoutMillis, Object[] args) {
+        try {
+            SlotBinding binding = handle.binding();
+            if (binding.isAngleCube()) {
+                throw new ActuatorException(String.format("angel cube slot %s can not execute async", handle.getSlotId()));
+            }
+            SlotBinding acquired = acquireBinding(handle);
+            AsyncCubeActuator asyncActuator = (AsyncCubeActuator) actuator(AsyncCubeActuator.class);
+            // 实例在插件调用结束后归还，而不是在future超时或取消时，避免执行中的实例被淘汰或销毁
+            CompletableFuture<T> future = asyncActuator.executeAsync(acquired.newContext(args), timeoutMillis,
+                    () -> releaseBinding(acquired));
+            future.whenComplete((r, e) -> {
+                if (e != null) {
+                    log.error("async execute error, slot:{} error:{}", handle.getSlotId(), e.toString());
+                }
+            });
+            // 返回源future，调用方取消时能够中断插件调用
+            return future;
+        }catch (ActuatorException e){
+            log.error("async execute error, slot:{} error:{}", handle.getSlotId(), e.getMessage());
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    public <T> List<T> executeBatch(GUID slotId, List<Object[]> argsList) {
+        return executeBatch(slotHandle(slotId), argsList, 1);
+    }
+
+    /**
+     * 批量执行同一个槽，槽只解析一次后在循环中直接调用扩展点
+     * 标记为异步的扩展点不经过异步执行器，同样在调用线程或ForkJoin线程中直接执行
+     * @param parallelism 并行度，大于1时拆分到ForkJoin线程池中执行
+     * @return 与入参顺序一致的结果列表，单条执行失败时对应位置为null
+     */
+    public <T> List<T> executeBatch(SlotHandle handle, List<Object[]> argsList, int parallelism) {
+        if (argsList == null || argsList.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Object[] results = new Object[argsList.size()];
+        try {
+            SlotBinding binding = handle.binding();
+            if (binding.isAngleCube()) {
+                throw new ActuatorException(String.format("angel cube slot %s can not execute batch", handle.getSlotId()));
+            }
+            binding = acquireBinding(handle);
+            try {
+                AbstractCubeActuator batchActuator = (AbstractCubeActuator) binding.getActuator();
+                int chunkSize = Math.max(properties.getBatch().getMinChunkSize(),
+                        (argsList.size() + Math.max(parallelism, 1) - 1) / Math.max(parallelism, 1));
+                if (parallelism <= 1 || argsList.size() <= chunkSize) {
+                    batchActuator.executeRange(binding, argsList, 0, argsList.size(), results);
+                } else {
+                    batchPool().invoke(new BatchExecuteTask(batchActuator, binding, argsList, 0, argsList.size(), chunkSize, results));
+                }
+            } finally {
+                releaseBinding(binding);
+            }
+        }catch (ActuatorException e){
+            log.error("batch execute error, slot:{} error:{}", handle.getSlotId(), e.getMessage());
+        }
+        List<T> resultList = new ArrayList<>(results.length);
+        for (Object result : results) {
+            resultList.add((T) result);
+        }
+        return resultList;
+    }
+
+    /**
+     * 获取绑定并借用绑定的方块实例，实例在解析后被空闲淘汰时重新解析
+     */
+    private SlotBinding acquireBinding(SlotHandle handle) throws ActuatorException {
+        for (int attempt = 0; attempt < MAX_ACQUIRE_ATTEMPTS; attempt++) {
+            SlotHandle current = handle.current();
+            SlotBinding binding = current.binding();
+            if (context.getCubeManager().acquire(binding.getCube())) {
+                return binding;
+            }
+            current.invalidate();
+        }
+        throw new ActuatorException(String.format("slot %s cube instance evicted, please retry", handle.getSlotId()));
+    }
+
+    private void releaseBinding(SlotBinding binding) {
+        context.getCubeManager().release(binding.getCube());
+    }
+
+    private ForkJoinPool batchPool() {
+        ForkJoinPool pool = batchPool;
+        if (pool == null) {
+            synchronized (this) {
+                if ((pool = batchPool) == null) {
+                    pool = batchPool = new ForkJoinPool(properties.getBatch().getPoolParallelism());
+                }
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * 批量执行拆分任务，按下标区间二分直到不超过分片大小
+     */
+    private static class BatchExecuteTask extends RecursiveAction {
+
+        private final AbstractCubeActuator actuator;
+        private final SlotBinding binding;
+        private final List<Object[]> argsList;
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+        private final Object[] results;
+
+        BatchExecuteTask(AbstractCubeActuator actuator, SlotBinding binding, List<Object[]> argsList,
+                         int from, int to, int chunkSize, Object[] results) {
+            this.actuator = actuator;
+            this.binding = binding;
+            this.argsList = argsList;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+            this.results = results;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= chunkSize) {
+                actuator.executeRange(binding, argsList, from, to, results);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new BatchExecuteTask(actuator, binding, argsList, from, mid, chunkSize, results),
+                    new BatchExecuteTask(actuator, binding, argsList, mid, to, chunkSize, results));
+        }
+    }
+
     public boolean stop(GUID slotId) throws ActuatorException {
+        return stop(slotHandle(slotId));
+    }
+
+    public boolean stop(SlotHandle handle) throws ActuatorException {
         try {
-            AbstractCubeActuator.ExecuteContext executeContext = getExecuteContext(slotId, EMPTY_ARGS);
-            return chooseActuator(executeContext).stop(executeContext);
+            SlotBinding binding = handle.binding();
+            return binding.getActuator().stop(binding.newContext(EMPTY_ARGS));
         }catch (ActuatorException e){
-            log.error("slot {} try to stop running cube error:{}", slotId, e.getMessage());
+            log.error("slot {} try to stop running cube error:{}", handle.getSlotId(), e.getMessage());
         }
         return true;
     }
 
-    private AbstractCubeActuator.ExecuteContext getExecuteContext(GUID slotId, Object[] args) throws ActuatorException{
+    /**
+     * 解析槽的绑定信息 slot -> cube -> exPackage -> exPoint -> resultItem
+     */
+    SlotBinding resolveBinding(GUID slotId) throws ActuatorException{
         Slot slot = Optional.ofNullable(slotManager.getSlot(slotId))
                 .orElseThrow(()->new ActuatorException("actuator execute slot is null"));
 
@@ -80,11 +326,11 @@ public class CubeActuatorProxy {
         GUID exPackageId = setupCubeInfo.getExPackageId();
         GUID exPointId = setupCubeInfo.getExPointId();
 
-        Cube cube = Optional.ofNullable(context.getCube(cubeId, setupCubeInfo.getConfigId()))
+        Cube cube = Optional.ofNullable(context.getEvictableCube(cubeId, setupCubeInfo.getConfigId()))
                 .orElseThrow(()->new ActuatorException(String.format("cube not found :%s", executeInfoLog(cubeId, null, null))));
 
         if (cube.isAngleCube()) {
-            return new CubeActuator.ExecuteContext(slot, cube.getMosaicCube(), cube.isAngleCube(), null, null, args);
+            return new SlotBinding(slot, setupCubeInfo, cube, null, null, null, actuator(AngelCubeActuator.class));
         }
 
         ExtensionPackage exPackage = Optional.ofNullable(cube.findExPackage(exPackageId))
@@ -97,23 +343,77 @@ public class CubeActuatorProxy {
 
         ExtPointResult returnResult = exPoint.getReturnResult();
 
-        String resName = slot.getSetupCubeInfo().getResName();
+        String resName = Optional.ofNullable(setupCubeInfo.getResName()).orElse(DEFAULT_RETURN_NAME);
 
         if (!returnResult.containsResultItem(resName)) {
             throw new ActuatorException(String.format("resName %s not found : %s", resName, executeInfoLog(cubeId, exPackageId, exPointId)));
         }
 
-        return new CubeActuator.ExecuteContext(slot, cube.getMosaicCube(), cube.isAngleCube(), exPackage.getMosaicExtPackage(), exPoint, args);
+        return new SlotBinding(slot, setupCubeInfo, cube, exPackage.getMosaicExtPackage(), exPoint,
+                returnResult.getResultItem(resName), chooseActuator(cube, exPoint));
     }
 
-    //TODO 待丰富
-    private CubeActuator chooseActuator(CubeActuator.ExecuteContext executeContext) {
-        if (executeContext.isAngleCube()) {
+    private CubeActuator chooseActuator(Cube cube, ExtensionPoint exPoint) {
+        if (cube.isAngleCube()) {
             return actuator(AngelCubeActuator.class);
         }
+        if (exPoint.isAsyncFlag()) {
+            return actuator(AsyncCubeActuator.class);
+        }
         return actuator(GenericCubeActuator.class);
     }
 
+    /**
+     * 槽变更、方块实例失效、方块重新注册时使对应的执行句柄失效
+     */
+    private class SlotHandleInvalidator extends SelectiveMosaicEventListener {
+
+        @Override
+        protected List<Class<? extends MosaicEvent>> getListenedEventTypes() {
+            return List.of(SlotChangeEvent.class, CubeInvalidateEvent.class, CubeDefinitionRegisteredEvent.class);
+        }
+
+        @Override
+        protected void onSelectiveEvent(MosaicEvent event) {
+            when(event, SlotChangeEvent.class, this::onSlotChange)
+                    .orWhen(CubeInvalidateEvent.class, e -> invalidateByCube(e.getCubeId()))
+                    .orWhen(CubeDefinitionRegisteredEvent.class, e -> invalidateByCube(e.getCubeId()));
+        }
+
+        private void onSlotChange(SlotChangeEvent event) {
+            // 槽移除时从缓存中移除句柄，避免槽频繁增删时缓存无限增长；
+            // 外部仍持有的句柄转交重新获取的句柄执行，槽重新注册后仍可继续使用
+            if (event.getChangeType() == SlotChangeEvent.ChangeType.REMOVE) {
+                Optional.ofNullable(slotHandles.remove(event.getSlotId())).ifPresent(SlotHandle::detach);
+            } else {
+                Optional.ofNullable(slotHandles.get(event.getSlotId())).ifPresent(SlotHandle::invalidate);
+            }
+            // 槽安装时在后台创建尚未创建的（懒加载）Cube
+            Slot.SetupCubeInfo setupCubeInfo = event.getSetupCubeInfo();
+            if (event.getChangeType() == SlotChangeEvent.ChangeType.SETUP && setupCubeInfo != null
+                    && setupCubeInfo.getCubeId() != null) {
+                context.warmUpCube(setupCubeInfo.getCubeId(), setupCubeInfo.getConfigId());
+            }
+        }
+
+        private void invalidateByCube(GUID cubeId) {
+            slotHandles.values().stream()
+                    .filter(handle -> handle.mayBindTo(cubeId))
+                    .forEach(SlotHandle::invalidate);
+        }
+
+        @Override
+        public int getPriority() {
+            return 0;
+        }
+
+        @Override
+        public boolean isAsyncSupported() {
+            // 失效必须在变更返回前完成
+            return false;
+        }
+    }
+
     private String executeInfoLog(GUID cube, GUID exPackage, GUID exPoint) {
         StringBuilder sb = new StringBuilder();
         if(cube != null){
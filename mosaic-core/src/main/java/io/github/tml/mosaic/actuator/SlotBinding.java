@@ -0,0 +1,45 @@
+package io.github.tml.mosaic.actuator;
+
+import io.github.tml.mosaic.cube.Cube;
+import io.github.tml.mosaic.cube.ExtPointResult;
+import io.github.tml.mosaic.cube.ExtensionPoint;
+import io.github.tml.mosaic.cube.external.MosaicCube;
+import io.github.tml.mosaic.cube.external.MosaicExtPackage;
+import io.github.tml.mosaic.slot.Slot;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 槽的解析结果
+ * slot -> cube -> exPackage -> exPoint -> resultItem 以及选定的执行器，创建后不可变
+ */
+@Getter
+@AllArgsConstructor
+public final class SlotBinding {
+
+    private final Slot slot;
+
+    private final Slot.SetupCubeInfo setupCubeInfo;
+
+    private final Cube cube;
+
+    private final MosaicExtPackage<? extends MosaicCube> exPackage;
+
+    private final ExtensionPoint exPoint;
+
+    private final ExtPointResult.ExtPointResultItem resultItem;
+
+    private final CubeActuator actuator;
+
+    public boolean isAngleCube() {
+        return cube.isAngleCube();
+    }
+
+    /**
+     * 基于绑定信息构建本次执行的上下文
+     */
+    public CubeActuator.ExecuteContext newContext(Object[] args) {
+        return new CubeActuator.ExecuteContext(slot, cube.getMosaicCube(), cube.isAngleCube(), exPackage, exPoint, args, resultItem,
+                cube.getInstancePool());
+    }
+}
@@ -0,0 +1,128 @@
+package io.github.tml.mosaic.actuator;
+
+import io.github.tml.mosaic.core.execption.ActuatorException;
+import io.github.tml.mosaic.core.tools.guid.GUID;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 槽执行句柄
+ * 首次执行时解析并缓存槽的绑定信息，槽安装变更、配置更新、方块重装时由{@link CubeActuatorProxy}使其失效，
+ * 绑定有效期间执行只需一次volatile读取
+ */
+public class SlotHandle {
+
+    @Getter
+    private final GUID slotId;
+
+    private final CubeActuatorProxy proxy;
+
+    private volatile SlotBinding binding;
+
+    /**
+     * 失效计数，防止解析过程中发生的失效被旧的解析结果覆盖
+     */
+    private long invalidateCount;
+
+    /**
+     * 槽移除后或槽不存在时句柄不在执行器的缓存中，不接收失效通知，此后不缓存绑定，转交当前的句柄执行
+     */
+    private volatile boolean detached;
+
+    SlotHandle(GUID slotId, CubeActuatorProxy proxy) {
+        this.slotId = slotId;
+        this.proxy = proxy;
+    }
+
+    public <T> T run(Object... args) {
+        return proxy.execute(this, args);
+    }
+
+    public <T> CompletableFuture<T> runAsync(Object... args) {
+        return proxy.executeAsync(this, proxy.defaultAsyncTimeoutMillis(), args);
+    }
+
+    public <T> CompletableFuture<T> runAsync(long timeoutMillis, Object[] args) {
+        return proxy.executeAsync(this, timeoutMillis, args);
+    }
+
+    /**
+     * 批量执行，结果顺序与入参一致
+     */
+    public <T> List<T> runBatch(List<Object[]> argsList) {
+        return proxy.executeBatch(this, argsList, 1);
+    }
+
+    public <T> List<T> runBatch(List<Object[]> argsList, int parallelism) {
+        return proxy.executeBatch(this, argsList, parallelism);
+    }
+
+    public boolean stop() {
+        return proxy.stop(this);
+    }
+
+    /**
+     * 获取绑定信息，未解析或已失效时重新解析
+     */
+    SlotBinding binding() throws ActuatorException {
+        if (detached) {
+            SlotHandle current = current();
+            // 槽仍不存在时直接解析，由解析报告槽不存在
+            return current.detached ? proxy.resolveBinding(slotId) : current.binding();
+        }
+        SlotBinding current = binding;
+        if (current != null) {
+            return current;
+        }
+        long expectCount;
+        synchronized (this) {
+            expectCount = invalidateCount;
+        }
+        SlotBinding resolved = proxy.resolveBinding(slotId);
+        synchronized (this) {
+            if (expectCount == invalidateCount) {
+                binding = resolved;
+            }
+        }
+        return resolved;
+    }
+
+    synchronized void invalidate() {
+        invalidateCount++;
+        binding = null;
+    }
+
+    /**
+     * 句柄已从执行器的缓存中移除或从未被缓存
+     */
+    void detach() {
+        detached = true;
+        invalidate();
+    }
+
+    /**
+     * 执行器当前缓存的同一槽的句柄，未移除时为自身
+     */
+    SlotHandle current() {
+        return detached ? proxy.slotHandle(slotId) : this;
+    }
+
+    public boolean isDetached() {
+        return detached;
+    }
+
+    /**
+     * 是否可能绑定到指定方块，解析中的句柄同样视为可能绑定
+     */
+    boolean mayBindTo(GUID cubeId) {
+        SlotBinding current = binding;
+        return current == null || Objects.equals(current.getSetupCubeInfo().getCubeId(), cubeId);
+    }
+
+    public boolean isResolved() {
+        return binding != null;
+    }
+}
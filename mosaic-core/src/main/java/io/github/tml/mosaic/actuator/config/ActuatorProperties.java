@@ -0,0 +1,118 @@
+package io.github.tml.mosaic.actuator.config;
+
+import io.github.tml.mosaic.actuator.AngelRestartPolicy;
+import lombok.Data;
+
+/**
+ * 执行器配置
+ */
+@Data
+public class ActuatorProperties {
+
+    /**
+     * 异步执行器配置
+     */
+    private Async async = new Async();
+
+    /**
+     * 天使方块执行器配置
+     */
+    private Angel angel = new Angel();
+
+    /**
+     * 批量执行配置
+     */
+    private Batch batch = new Batch();
+
+    @Data
+    public static class Async {
+
+        /**
+         * 核心线程数
+         */
+        private int corePoolSize = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * 最大线程数
+         */
+        private int maxPoolSize = Runtime.getRuntime().availableProcessors() * 4;
+
+        /**
+         * 等待队列容量，队列满时提交直接失败
+         */
+        private int queueCapacity = 1024;
+
+        /**
+         * 空闲线程存活时间（秒）
+         */
+        private long keepAliveSeconds = 60;
+
+        /**
+         * 异步扩展点默认超时时间（毫秒），小于等于0表示不超时
+         */
+        private long defaultTimeoutMillis = 30_000;
+
+        /**
+         * 是否使用虚拟线程，运行在JDK 21以下时自动退化为平台线程
+         */
+        private boolean virtualThreads = false;
+    }
+
+    @Data
+    public static class Angel {
+
+        /**
+         * 天使方块工作线程上限，超过上限时启动失败
+         */
+        private int maxWorkers = 64;
+
+        /**
+         * 停止期限（毫秒），stop超过期限未完成则强制中断
+         */
+        private long stopTimeoutMillis = 2_000;
+
+        /**
+         * 重启策略
+         */
+        private AngelRestartPolicy restartPolicy = AngelRestartPolicy.ON_FAILURE;
+
+        /**
+         * 连续重启次数上限，小于0表示不限制
+         */
+        private int maxRestarts = 5;
+
+        /**
+         * 首次重启退避时间（毫秒）
+         */
+        private long initialBackoffMillis = 1_000;
+
+        /**
+         * 最大重启退避时间（毫秒），一次运行超过该时长后重新计算退避
+         */
+        private long maxBackoffMillis = 60_000;
+
+        /**
+         * 退避倍数
+         */
+        private double backoffMultiplier = 2.0;
+
+        /**
+         * 是否使用虚拟线程，运行在JDK 21以下时自动退化为平台线程
+         */
+        private boolean virtualThreads = false;
+    }
+
+    @Data
+    public static class Batch {
+
+        /**
+         * 并行批量执行使用的ForkJoin线程池并行度
+         */
+        private int poolParallelism = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * 并行拆分时每个子任务的最小条数，批量小于该值时不拆分
+         */
+        private int minChunkSize = 64;
+    }
+}
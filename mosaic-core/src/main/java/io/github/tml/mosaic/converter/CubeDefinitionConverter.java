@@ -24,6 +24,11 @@ public class CubeDefinitionConverter {
                 cubeInfo.getClassLoader()
         );
         cubeDef.setConfigInfo(cubeInfo.getConfigInfo());
+        cubeDef.setDependsOn(new ArrayList<>(cubeInfo.getDependsOn()));
+        cubeDef.setLazy(cubeInfo.isLazy());
+        cubeDef.setPoolMaxSize(cubeInfo.getPoolMaxSize());
+        cubeDef.setPoolPrewarm(cubeInfo.getPoolPrewarm());
+        cubeDef.setPoolBorrowTimeoutMillis(cubeInfo.getPoolBorrowTimeoutMillis());
 
         // 处理扩展包
         for (ExtensionPackageInfo epInfo : cubeInfo.getExtensionPackages()) {
@@ -47,6 +52,10 @@ public class CubeDefinitionConverter {
                         pointInfo.getReturnType(),
                         pointInfo.getParameterTypes()
                 );
+                epoint.setBatchMethodName(pointInfo.getBatchMethodName());
+                epoint.setBatchMaxSize(pointInfo.getBatchMaxSize());
+                epoint.setBatchLingerMs(pointInfo.getBatchLingerMs());
+                epoint.setBatchTimeoutMs(pointInfo.getBatchTimeoutMs());
                 epDef.addExtensionPoint(epoint);
                 PointsResultInfo pointsResultInfo = pointInfo.getPointsResultInfo();
                 if(pointsResultInfo != null){
@@ -1,5 +1,6 @@
 package io.github.tml.mosaic.core;
 
+import java.lang.reflect.Method;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -17,4 +18,21 @@ public class NamedThreadFactory implements ThreadFactory {
         t.setName("mosaic-"+poolName + "-" + threadNumber.getAndIncrement());
         return t;
     }
+
+    /**
+     * 创建虚拟线程工厂，运行环境不支持虚拟线程（JDK 21以下）时返回普通的命名线程工厂
+     * 框架以JDK 11编译，因此通过反射访问Thread.ofVirtual
+     */
+    public static ThreadFactory virtualOrNamed(String poolName) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            builder = builderClass.getMethod("name", String.class, long.class)
+                    .invoke(builder, "mosaic-" + poolName + "-", 1L);
+            Method factory = builderClass.getMethod("factory");
+            return (ThreadFactory) factory.invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return new NamedThreadFactory(poolName);
+        }
+    }
 }
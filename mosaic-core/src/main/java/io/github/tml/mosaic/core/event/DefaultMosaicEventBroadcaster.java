@@ -1,16 +1,18 @@
 package io.github.tml.mosaic.core.event;
 
 import io.github.tml.mosaic.core.event.event.MosaicEvent;
-import io.github.tml.mosaic.core.event.listener.MosaicCommonListenerEventListener;
 import io.github.tml.mosaic.core.event.listener.MosaicEventListener;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.*;
 import java.util.concurrent.*;
-import java.util.stream.Collectors;
 
 /**
  * 描述: 事件广播器实现类
+ * 每个具体事件类型对应一张按优先级排好序的分发表，首次广播时构建，注册或注销监听器时整体清空
+ * 声明了分区键的异步监听器按分区键进入有序通道，同一分区键的事件按广播顺序处理
+ * 声明了合并键的异步监听器先进入合并窗口，窗口到期后合并结果投到有序通道，
+ * 同一分区键的未合并事件不会超越窗口内的合并结果
  * @author suifeng
  * 日期: 2025/6/14
  */
@@ -19,16 +21,52 @@ public class DefaultMosaicEventBroadcaster implements MosaicEventBroadcaster {
 
     private final Map<Class<? extends MosaicEvent>, List<MosaicEventListener<?>>> listenerRegistry = new ConcurrentHashMap<>();
     private final ExecutorService asyncExecutor;
+    private final PartitionedEventLanes partitionedLanes;
+    private final EventCoalescer coalescer;
     private final Object registryLock = new Object();
+
+    /**
+     * 具体事件类型 -> 分发表，包含精确类型、父类型与通用监听器，已按优先级排序
+     */
+    private final Map<Class<? extends MosaicEvent>, MosaicEventListener<?>[]> dispatchTables = new ConcurrentHashMap<>();
+
+    private static final MosaicEventListener<?>[] NO_LISTENERS = new MosaicEventListener<?>[0];
     private volatile boolean shutdown = false;
-    private final static DefaultMosaicEventBroadcaster BROADCASTER = new DefaultMosaicEventBroadcaster();
+    /**
+     * 全局广播器实现的系统属性，值为ring时使用环形缓冲区实现
+     */
+    public static final String BROADCASTER_PROPERTY = "mosaic.event.broadcaster";
+
+    /**
+     * 有序通道数量的系统属性，默认为CPU核数
+     */
+    public static final String LANES_PROPERTY = "mosaic.event.lanes";
+
+    private static final int LANE_CAPACITY = 1024;
+
+    private final static DefaultMosaicEventBroadcaster BROADCASTER = createBroadcaster();
+
+    private static DefaultMosaicEventBroadcaster createBroadcaster() {
+        return "ring".equalsIgnoreCase(System.getProperty(BROADCASTER_PROPERTY))
+                ? new RingBufferMosaicEventBroadcaster()
+                : new DefaultMosaicEventBroadcaster();
+    }
 
     public static DefaultMosaicEventBroadcaster broadcaster() {
         return BROADCASTER;
     }
 
     public DefaultMosaicEventBroadcaster() {
+        this(Integer.getInteger(LANES_PROPERTY, Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * @param laneCount 有序通道数量
+     */
+    public DefaultMosaicEventBroadcaster(int laneCount) {
         this.asyncExecutor = createAsyncExecutor();
+        this.partitionedLanes = new PartitionedEventLanes(laneCount, LANE_CAPACITY, "event-lane");
+        this.coalescer = new EventCoalescer(partitionedLanes, this::invokeCoalesced);
     }
 
     @Override
@@ -47,6 +85,7 @@ public class DefaultMosaicEventBroadcaster implements MosaicEventBroadcaster {
             listenerRegistry.computeIfAbsent(eventType, k -> new ArrayList<>()).add(listener);
             // 按优先级排序
             listenerRegistry.get(eventType).sort(Comparator.comparingInt(MosaicEventListener::getPriority));
+            dispatchTables.clear();
         }
 
         log.debug("Registered event listener [{}] for event type [{}] with priority [{}]",
@@ -68,6 +107,7 @@ public class DefaultMosaicEventBroadcaster implements MosaicEventBroadcaster {
                     listenerRegistry.remove(eventType);
                 }
                 if (removed) {
+                    dispatchTables.clear();
                     log.debug("Unregistered event listener [{}] for event type [{}]",
                             listener.getListenerName(), eventType.getSimpleName());
                 }
@@ -82,26 +122,32 @@ public class DefaultMosaicEventBroadcaster implements MosaicEventBroadcaster {
         if (event == null || shutdown) return;
 
         Class<? extends MosaicEvent> eventType = event.getClass();
-        List<MosaicEventListener<?>> listeners = getListenersForEvent(eventType);
+        MosaicEventListener<?>[] listeners = getDispatchTable(eventType);
 
-        if (listeners.isEmpty()) {
+        if (listeners.length == 0) {
             log.debug("No listeners found for event type [{}]", eventType.getSimpleName());
             return;
         }
 
-        log.debug("Broadcasting event [{}] to [{}] listeners", event.getEventType(), listeners.size());
+        log.debug("Broadcasting event [{}] to [{}] listeners", event.getEventType(), listeners.length);
 
-        List<CompletableFuture<Void>> asyncTasks = new ArrayList<>();
+        List<CompletableFuture<Void>> asyncTasks = null;
 
         for (MosaicEventListener<?> listener : listeners) {
             try {
                 if (listener.isAsyncSupported() && !shutdown) {
+                    if (offerToCoalescer(listener, event) || dispatchToLane(listener, event)) {
+                        continue;
+                    }
                     CompletableFuture<Void> future = CompletableFuture.runAsync(
                                     () -> invokeListener(listener, event), asyncExecutor)
                             .exceptionally(throwable -> {
                                 handleListenerException(listener, event, throwable);
                                 return null;
                             });
+                    if (asyncTasks == null) {
+                        asyncTasks = new ArrayList<>();
+                    }
                     asyncTasks.add(future);
                 } else {
                     invokeListener(listener, event);
@@ -112,7 +158,7 @@ public class DefaultMosaicEventBroadcaster implements MosaicEventBroadcaster {
         }
 
         // 等待异步任务完成
-        if (!asyncTasks.isEmpty()) {
+        if (asyncTasks != null) {
             CompletableFuture.allOf(asyncTasks.toArray(new CompletableFuture[0]))
                     .orTimeout(30, TimeUnit.SECONDS)
                     .exceptionally(throwable -> {
@@ -143,6 +189,8 @@ public class DefaultMosaicEventBroadcaster implements MosaicEventBroadcaster {
     @Override
     public void shutdown() {
         shutdown = true;
+        coalescer.shutdown();
+        partitionedLanes.shutdown(TimeUnit.SECONDS.toMillis(10));
         asyncExecutor.shutdown();
         try {
             if (!asyncExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
@@ -155,56 +203,118 @@ public class DefaultMosaicEventBroadcaster implements MosaicEventBroadcaster {
         log.info("Event broadcaster has been shutdown");
     }
 
-    private List<MosaicEventListener<?>> getListenersForEvent(Class<? extends MosaicEvent> eventType) {
-        List<MosaicEventListener<?>> result = new ArrayList<>();
+    /**
+     * 获取事件类型的分发表，返回的数组不可修改
+     */
+    protected MosaicEventListener<?>[] getDispatchTable(Class<? extends MosaicEvent> eventType) {
+        MosaicEventListener<?>[] listeners = dispatchTables.get(eventType);
+        return listeners != null ? listeners : buildDispatchTable(eventType);
+    }
 
-        // 1. 获取精确匹配的监听器
-        List<MosaicEventListener<?>> exactMatches = listenerRegistry.get(eventType);
-        if (exactMatches != null) {
-            result.addAll(exactMatches);
+    /**
+     * 监听器对该事件给出合并键时放入合并窗口
+     * @return 是否已放入，未给出合并键时返回false
+     */
+    protected boolean offerToCoalescer(MosaicEventListener<?> listener, MosaicEvent event) {
+        try {
+            return coalescer.offer(listener, event);
+        } catch (Exception e) {
+            handleListenerException(listener, event, e);
+            return false;
         }
+    }
 
-        // 2. 获取父类型的监听器（支持事件继承）
-        for (Map.Entry<Class<? extends MosaicEvent>, List<MosaicEventListener<?>>> entry : listenerRegistry.entrySet()) {
-            if (entry.getKey().isAssignableFrom(eventType) && !entry.getKey().equals(eventType)) {
-                result.addAll(entry.getValue());
+    /**
+     * 监听器对该事件给出分区键时，提交到分区键对应的有序通道
+     * @return 是否已提交，未给出分区键时返回false
+     */
+    @SuppressWarnings("unchecked")
+    protected boolean dispatchToLane(MosaicEventListener<?> listener, MosaicEvent event) {
+        Object key;
+        try {
+            key = ((MosaicEventListener<MosaicEvent>) listener).getPartitionKey(event);
+        } catch (Exception e) {
+            handleListenerException(listener, event, e);
+            return false;
+        }
+        if (key == null) {
+            return false;
+        }
+        coalescer.flushPartition(listener, key);
+        return partitionedLanes.execute(key, () -> {
+            try {
+                invokeListener(listener, event);
+            } catch (Exception e) {
+                handleListenerException(listener, event, e);
             }
+        });
+    }
+
+    /**
+     * 执行合并后的事件，在有序通道线程上执行
+     */
+    private void invokeCoalesced(MosaicEventListener<?> listener, MosaicEvent event) {
+        try {
+            invokeListener(listener, event);
+        } catch (Exception e) {
+            handleListenerException(listener, event, e);
         }
+    }
 
-        // 3. 【新增】强制添加所有MosaicCommonListenerEventListener
-        List<MosaicEventListener<?>> commonListeners = listenerRegistry.get(MosaicEvent.class);
-        if (commonListeners != null) {
-            for (MosaicEventListener<?> listener : commonListeners) {
-                if (listener instanceof MosaicCommonListenerEventListener && !result.contains(listener)) {
-                    result.add(listener);
-                }
+    /**
+     * 事件合并器，可查看合并节省的投递次数
+     */
+    public EventCoalescer getCoalescer() {
+        return coalescer;
+    }
+
+    public PartitionedEventLanes getPartitionedLanes() {
+        return partitionedLanes;
+    }
+
+    protected boolean isShutdown() {
+        return shutdown;
+    }
+
+    /**
+     * 构建事件类型的分发表：精确类型的监听器在前，父类型（含通用监听器）在后，再按优先级稳定排序
+     * 与注册、注销在同一把锁内构建并放入缓存，不会缓存到过期的分发表
+     */
+    private MosaicEventListener<?>[] buildDispatchTable(Class<? extends MosaicEvent> eventType) {
+        synchronized (registryLock) {
+            MosaicEventListener<?>[] cached = dispatchTables.get(eventType);
+            if (cached != null) {
+                return cached;
             }
-        }
+            List<MosaicEventListener<?>> result = new ArrayList<>();
+            Optional.ofNullable(listenerRegistry.get(eventType)).ifPresent(result::addAll);
+            listenerRegistry.forEach((registeredType, listeners) -> {
+                if (!registeredType.equals(eventType) && registeredType.isAssignableFrom(eventType)) {
+                    result.addAll(listeners);
+                }
+            });
+            result.removeIf(listener -> !listener.supportsEventType(eventType));
+            result.sort(Comparator.comparingInt(MosaicEventListener::getPriority));
 
-        return result.stream()
-                .sorted(Comparator.comparingInt(MosaicEventListener::getPriority))
-                .collect(Collectors.toList());
+            MosaicEventListener<?>[] table = result.isEmpty() ? NO_LISTENERS : result.toArray(NO_LISTENERS);
+            dispatchTables.put(eventType, table);
+            return table;
+        }
     }
 
     @SuppressWarnings("unchecked")
-    private void invokeListener(MosaicEventListener<?> listener, MosaicEvent event) {
+    protected void invokeListener(MosaicEventListener<?> listener, MosaicEvent event) {
         try {
-            // 类型安全检查
-            if (listener.getEventType().isAssignableFrom(event.getClass())) {
-                ((MosaicEventListener<MosaicEvent>) listener).onEvent(event);
-                log.trace("Successfully invoked listener [{}] for event [{}]",
-                        listener.getListenerName(), event.getEventType());
-            } else {
-                log.warn("Event type mismatch for listener [{}]. Expected: [{}], Actual: [{}]",
-                        listener.getListenerName(), listener.getEventType().getSimpleName(),
-                        event.getClass().getSimpleName());
-            }
+            // 分发表构建时已完成类型匹配
+            ((MosaicEventListener<MosaicEvent>) listener).onEvent(event);
+            log.trace("Successfully invoked listener [{}] for event [{}]",
+                    listener.getListenerName(), event.getEventType());
         } catch (Exception e) {
             throw new RuntimeException("Error invoking listener: " + listener.getListenerName(), e);
         }
     }
 
-    private void handleListenerException(MosaicEventListener<?> listener, MosaicEvent event, Throwable throwable) {
+    protected void handleListenerException(MosaicEventListener<?> listener, MosaicEvent event, Throwable throwable) {
         log.error("Error occurred while processing event [{}] in listener [{}]: {}",
                 event.getEventType(), listener.getListenerName(), throwable.getMessage(), throwable);
     }
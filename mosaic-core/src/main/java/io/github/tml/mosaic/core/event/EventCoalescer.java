@@ -0,0 +1,252 @@
+package io.github.tml.mosaic.core.event;
+
+import io.github.tml.mosaic.core.NamedThreadFactory;
+import io.github.tml.mosaic.core.event.event.MosaicEvent;
+import io.github.tml.mosaic.core.event.listener.MosaicEventListener;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * 描述: 事件合并器
+ * 同一监听器、同一事件类型、同一合并键的事件在窗口内合并为一个，窗口从第一个事件到达开始计时，
+ * 到期后把合并结果交给有序通道执行，因此突发事件最多延迟一个窗口
+ * 合并结果按监听器对第一个事件给出的分区键进入通道，未给出分区键时按合并键进入通道；
+ * 投到通道时不等待容量，与从窗口中移除在同一次原子操作内完成，定时线程不会被通道阻塞
+ * 同一监听器、同一分区键的未合并事件投递前，先提前结束该分区键上尚在窗口内的合并结果，
+ * 因此分区键上的顺序不会被未合并事件超越；不同合并键之间按窗口到期先后投递
+ */
+@Slf4j
+public class EventCoalescer {
+
+    private final Map<PendingKey, Pending> pending = new ConcurrentHashMap<>();
+
+    private final PartitionedEventLanes lanes;
+
+    /**
+     * 执行监听器并处理其异常
+     */
+    private final BiConsumer<MosaicEventListener<?>, MosaicEvent> invoker;
+
+    /**
+     * 核心线程在第一次调度时才创建
+     */
+    private final ScheduledThreadPoolExecutor scheduler;
+
+    /**
+     * 窗口内带分区键的合并结果数，为0时未合并事件无需检查窗口
+     */
+    private final AtomicInteger partitionedPending = new AtomicInteger();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final LongAdder receivedCount = new LongAdder();
+    private final LongAdder deliveredCount = new LongAdder();
+    private final LongAdder savedCount = new LongAdder();
+
+    private volatile boolean stopped;
+
+    public EventCoalescer(PartitionedEventLanes lanes, BiConsumer<MosaicEventListener<?>, MosaicEvent> invoker) {
+        this.lanes = lanes;
+        this.invoker = invoker;
+        this.scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new NamedThreadFactory("event-coalesce").newThread(runnable);
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * 监听器对该事件给出合并键时，放入合并窗口
+     * coalesce抛出异常时不丢弃任何事件：窗口内的合并结果立即投递，该事件重新开始合并
+     * @return 是否已接管该事件，未给出合并键或已停止时返回false，由调用方正常投递
+     */
+    @SuppressWarnings("unchecked")
+    public boolean offer(MosaicEventListener<?> listener, MosaicEvent event) {
+        MosaicEventListener<MosaicEvent> typed = (MosaicEventListener<MosaicEvent>) listener;
+        Object key = typed.getCoalescingKey(event);
+        if (key == null || stopped) {
+            return false;
+        }
+        Object partitionKey = typed.getPartitionKey(event);
+        PendingKey pendingKey = new PendingKey(listener, event.getClass(), key);
+        boolean[] accepted = {true};
+        pending.compute(pendingKey, (k, current) -> {
+            if (current == null) {
+                long window = Math.max(0, typed.getCoalescingWindowMillis());
+                try {
+                    scheduler.schedule(() -> flush(k), window, TimeUnit.MILLISECONDS);
+                } catch (RejectedExecutionException e) {
+                    // 合并器已停止
+                    accepted[0] = false;
+                    return null;
+                }
+                return newPending(event, partitionKey);
+            }
+            MosaicEvent merged = merge(typed, current.event, event);
+            if (merged == null) {
+                // 窗口内的结果先投递，保持顺序，该事件在原窗口内重新开始合并
+                emit(k, current);
+                return newPending(event, partitionKey);
+            }
+            current.event = merged;
+            current.merged++;
+            return current;
+        });
+        if (accepted[0]) {
+            receivedCount.increment();
+        }
+        return accepted[0];
+    }
+
+    /**
+     * 提前结束监听器在该分区键上尚在窗口内的合并结果，按进入窗口的先后投到通道
+     * 在同一分区键的未合并事件投递前调用
+     */
+    public void flushPartition(MosaicEventListener<?> listener, Object partitionKey) {
+        if (partitionedPending.get() == 0) {
+            return;
+        }
+        List<Map.Entry<PendingKey, Pending>> matched = new ArrayList<>();
+        pending.forEach((key, value) -> {
+            if (key.listener == listener && partitionKey.equals(value.partitionKey)) {
+                matched.add(Map.entry(key, value));
+            }
+        });
+        matched.sort(Comparator.comparingLong(entry -> entry.getValue().sequence));
+        matched.forEach(entry -> flush(entry.getKey()));
+    }
+
+    private MosaicEvent merge(MosaicEventListener<MosaicEvent> listener, MosaicEvent previous, MosaicEvent latest) {
+        try {
+            MosaicEvent merged = listener.coalesce(previous, latest);
+            if (merged == null) {
+                log.error("Listener [{}] coalesced [{}] events into null", listener.getListenerName(), latest.getEventType());
+            }
+            return merged;
+        } catch (Exception e) {
+            log.error("Listener [{}] failed to coalesce [{}] events: {}",
+                    listener.getListenerName(), latest.getEventType(), e.getMessage(), e);
+            return null;
+        }
+    }
+
+    private Pending newPending(MosaicEvent event, Object partitionKey) {
+        if (partitionKey != null) {
+            partitionedPending.incrementAndGet();
+        }
+        return new Pending(event, partitionKey, sequence.getAndIncrement());
+    }
+
+    private void flush(PendingKey key) {
+        pending.computeIfPresent(key, (k, flushed) -> {
+            emit(k, flushed);
+            return null;
+        });
+    }
+
+    /**
+     * 把合并结果投到通道，在窗口的原子操作内调用，不能阻塞
+     */
+    private void emit(PendingKey key, Pending flushed) {
+        if (flushed.partitionKey != null) {
+            partitionedPending.decrementAndGet();
+        }
+        deliveredCount.increment();
+        if (flushed.merged > 0) {
+            savedCount.add(flushed.merged);
+            log.debug("Coalesced {} [{}] events for listener [{}] into one",
+                    flushed.merged + 1, flushed.event.getEventType(), key.listener.getListenerName());
+        }
+        MosaicEvent event = flushed.event;
+        Object laneKey = flushed.partitionKey != null ? flushed.partitionKey : key;
+        if (!lanes.offer(laneKey, () -> invoker.accept(key.listener, event))) {
+            log.error("Deliver coalesced event [{}] to listener [{}] failed: event lanes have been shutdown",
+                    event.getEventType(), key.listener.getListenerName());
+        }
+    }
+
+    /**
+     * 进入合并窗口的事件数
+     */
+    public long getReceivedCount() {
+        return receivedCount.sum();
+    }
+
+    /**
+     * 合并后实际投递的事件数
+     */
+    public long getDeliveredCount() {
+        return deliveredCount.sum();
+    }
+
+    /**
+     * 因合并而省去的投递次数，尚在窗口内的事件不计入
+     */
+    public long getSavedCount() {
+        return savedCount.sum();
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * 停止接收新事件，按进入窗口的先后立即投递所有尚在窗口内的事件
+     */
+    public void shutdown() {
+        stopped = true;
+        scheduler.shutdownNow();
+        List<Map.Entry<PendingKey, Pending>> remaining = new ArrayList<>(pending.entrySet());
+        remaining.sort(Comparator.comparingLong(entry -> entry.getValue().sequence));
+        remaining.forEach(entry -> flush(entry.getKey()));
+    }
+
+    private static final class Pending {
+        private MosaicEvent event;
+        private int merged;
+        private final Object partitionKey;
+        private final long sequence;
+
+        private Pending(MosaicEvent event, Object partitionKey, long sequence) {
+            this.event = event;
+            this.partitionKey = partitionKey;
+            this.sequence = sequence;
+        }
+    }
+
+    private static final class PendingKey {
+        private final MosaicEventListener<?> listener;
+        private final Class<? extends MosaicEvent> eventType;
+        private final Object key;
+
+        private PendingKey(MosaicEventListener<?> listener, Class<? extends MosaicEvent> eventType, Object key) {
+            this.listener = listener;
+            this.eventType = eventType;
+            this.key = key;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof PendingKey)) return false;
+            PendingKey that = (PendingKey) o;
+            return listener == that.listener && eventType == that.eventType && key.equals(that.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(listener), eventType, key);
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package io.github.tml.mosaic.core.event;
+
+import io.github.tml.mosaic.core.NamedThreadFactory;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 描述: 按分区键划分的有序执行通道
+ * 分区键按哈希映射到固定的通道，每个通道由单个线程按提交顺序串行执行，
+ * 因此同一分区键的任务严格有序，不同分区键的任务在多个通道间并行
+ * 通道线程在首次提交时才创建，队列满时提交方等待；本组任一通道线程提交时不受容量限制，
+ * 以免两个通道互相提交时都因对方队列满而等待
+ * 停止后提交的任务被拒绝并计数，不会排在结束标记之后被静默丢弃
+ */
+@Slf4j
+public class PartitionedEventLanes {
+
+    private static final Task POISON = new Task(null, false);
+
+    /**
+     * 当前线程所属的通道组，非通道线程为null
+     */
+    private static final ThreadLocal<PartitionedEventLanes> OWNER = new ThreadLocal<>();
+
+    private final Lane[] lanes;
+
+    private final NamedThreadFactory threadFactory;
+
+    @Getter
+    private final int capacityPerLane;
+
+    private volatile boolean stopped;
+
+    private final LongAdder rejectedCount = new LongAdder();
+
+    /**
+     * @param laneCount 通道数量
+     * @param capacityPerLane 每个通道最多积压的任务数
+     */
+    public PartitionedEventLanes(int laneCount, int capacityPerLane, String name) {
+        this.capacityPerLane = Math.max(1, capacityPerLane);
+        this.threadFactory = new NamedThreadFactory(name);
+        this.lanes = new Lane[Math.max(1, laneCount)];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new Lane(this.capacityPerLane);
+        }
+    }
+
+    public int getLaneCount() {
+        return lanes.length;
+    }
+
+    /**
+     * 分区键对应的通道序号
+     */
+    public int laneOf(Object key) {
+        int hash = key.hashCode();
+        hash ^= hash >>> 16;
+        return (hash & Integer.MAX_VALUE) % lanes.length;
+    }
+
+    /**
+     * 提交任务到分区键对应的通道，排在该通道已提交的任务之后执行
+     * @return 已停止时返回false，任务不会执行
+     */
+    public boolean execute(Object key, Runnable task) {
+        return submit(key, task, true);
+    }
+
+    /**
+     * 提交任务到分区键对应的通道，通道积压已满时不等待，超出容量直接入队
+     * 用于不能阻塞的提交方，例如定时线程
+     * @return 已停止时返回false，任务不会执行
+     */
+    public boolean offer(Object key, Runnable task) {
+        return submit(key, task, false);
+    }
+
+    private boolean submit(Object key, Runnable task, boolean waitForCapacity) {
+        if (!stopped && lanes[laneOf(key)].submit(task, waitForCapacity)) {
+            return true;
+        }
+        rejectedCount.increment();
+        return false;
+    }
+
+    /**
+     * 停止后被拒绝的任务数
+     */
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    /**
+     * 当前线程是否为本通道组的通道线程
+     */
+    public boolean isLaneThread() {
+        return OWNER.get() == this;
+    }
+
+    /**
+     * 所有通道积压的任务数
+     */
+    public int getPendingCount() {
+        int pending = 0;
+        for (Lane lane : lanes) {
+            pending += lane.queue.size();
+        }
+        return pending;
+    }
+
+    /**
+     * 停止接收新任务，等待各通道执行完已提交的任务
+     */
+    public void shutdown(long timeoutMillis) {
+        stopped = true;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        for (Lane lane : lanes) {
+            lane.stop();
+        }
+        for (Lane lane : lanes) {
+            lane.await(deadline);
+        }
+    }
+
+    private final class Lane implements Runnable {
+
+        private final LinkedBlockingQueue<Task> queue = new LinkedBlockingQueue<>();
+
+        /**
+         * 外部线程提交占用的容量，通道线程取出任务后归还
+         */
+        private final Semaphore permits;
+
+        private volatile Thread thread;
+
+        /**
+         * 已放入结束标记，与入队在同一把锁内读写
+         */
+        private boolean closed;
+
+        private Lane(int capacity) {
+            this.permits = new Semaphore(capacity);
+        }
+
+        /**
+         * @return 通道已放入结束标记时返回false
+         */
+        boolean submit(Runnable runnable, boolean waitForCapacity) {
+            boolean permitted = false;
+            if (!waitForCapacity) {
+                permitted = permits.tryAcquire();
+            } else if (!isLaneThread()) {
+                try {
+                    permits.acquire();
+                    permitted = true;
+                } catch (InterruptedException e) {
+                    // 放弃等待但仍然入队，保证同一分区键的顺序
+                    Thread.currentThread().interrupt();
+                }
+            }
+            synchronized (this) {
+                if (closed) {
+                    if (permitted) {
+                        permits.release();
+                    }
+                    return false;
+                }
+                queue.add(new Task(runnable, permitted));
+                if (thread == null) {
+                    Thread created = threadFactory.newThread(this);
+                    created.setDaemon(true);
+                    thread = created;
+                    created.start();
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public void run() {
+            OWNER.set(PartitionedEventLanes.this);
+            while (true) {
+                Task task;
+                try {
+                    task = queue.take();
+                } catch (InterruptedException e) {
+                    if (stopped && queue.isEmpty()) {
+                        return;
+                    }
+                    continue;
+                }
+                if (task == POISON) {
+                    return;
+                }
+                if (task.permitted) {
+                    permits.release();
+                }
+                try {
+                    task.runnable.run();
+                } catch (Throwable t) {
+                    log.error("Partitioned event lane task failed: {}", t.getMessage(), t);
+                }
+            }
+        }
+
+        void stop() {
+            // 即使通道线程尚未创建也放入结束标记，停止前最后一刻提交的任务创建的线程同样能退出
+            synchronized (this) {
+                closed = true;
+                queue.add(POISON);
+            }
+        }
+
+        void await(long deadline) {
+            Thread current = thread;
+            if (current == null) {
+                return;
+            }
+            try {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                current.join(Math.max(1, remaining));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (current.isAlive()) {
+                log.warn("Partitioned event lane {} did not finish within timeout, {} tasks pending",
+                        current.getName(), queue.size());
+            }
+        }
+    }
+
+    private static final class Task {
+        private final Runnable runnable;
+        private final boolean permitted;
+
+        private Task(Runnable runnable, boolean permitted) {
+            this.runnable = runnable;
+            this.permitted = permitted;
+        }
+    }
+}
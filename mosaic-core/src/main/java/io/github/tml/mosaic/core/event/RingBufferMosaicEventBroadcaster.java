@@ -0,0 +1,491 @@
+package io.github.tml.mosaic.core.event;
+
+import io.github.tml.mosaic.core.NamedThreadFactory;
+import io.github.tml.mosaic.core.event.event.MosaicEvent;
+import io.github.tml.mosaic.core.event.listener.MosaicEventListener;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 描述: 基于预分配环形缓冲区的事件广播器
+ * 同步监听器仍在广播线程上按优先级执行；支持异步的监听器不再逐个提交线程池，
+ * 事件整体写入多生产者环形缓冲区，由单个消费线程批量取出后轮流交给工作通道，
+ * 每个事件的异步监听器在一个工作通道上按优先级依次执行，不同事件在多个工作通道间并行
+ * 缓冲区满时按背压策略处理，不会让广播线程代为执行异步监听器
+ * 声明了分区键的异步监听器由消费线程按出队顺序转交有序通道，同一分区键仍按广播顺序处理
+ * 声明了合并键的异步监听器由消费线程放入合并窗口
+ * 停止时封住序号，已申请序号但未及时写入的事件计入丢弃数
+ */
+@Slf4j
+public class RingBufferMosaicEventBroadcaster extends DefaultMosaicEventBroadcaster {
+
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    public static final int DEFAULT_BATCH_SIZE = 128;
+
+    /**
+     * 消费线程没有事件可处理时的等待方式
+     */
+    public enum WaitStrategy {
+        /** 忙等，延迟最低，独占一个CPU核 */
+        BUSY_SPIN,
+        /** 让出CPU后重试 */
+        YIELDING,
+        /** 先自旋、再让出CPU，最后短暂休眠 */
+        SLEEPING,
+        /** 挂起等待生产者唤醒，CPU占用最低 */
+        BLOCKING
+    }
+
+    /**
+     * 缓冲区满时的处理方式
+     */
+    public enum BackpressurePolicy {
+        /** 等待消费线程腾出空间 */
+        BLOCK,
+        /** 丢弃最早的未消费事件，为新事件腾出空间 */
+        DROP_OLDEST,
+        /** 丢弃新事件 */
+        DROP_NEWEST
+    }
+
+    private static final long UNPUBLISHED = -1L;
+
+    private static final MosaicEventListener<?>[] NO_LISTENERS = new MosaicEventListener<?>[0];
+
+    /**
+     * 停止后写入cursor的值，此后无法再申请序号
+     */
+    private static final long SEALED = Long.MAX_VALUE;
+
+    /**
+     * 停止时等待已申请序号的生产者写入事件的最长时间，超时仍未写入的计为丢弃
+     */
+    private static final long SEAL_GRACE_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final Object[] entries;
+
+    /**
+     * 每个槽位最近一次发布的序号，等于期望序号时表示该槽位可消费
+     * 槽位被消费或丢弃后由推进head的一方清空事件并重置为UNPUBLISHED，下一轮的生产者等到重置后才写入
+     */
+    private final AtomicLongArray published;
+
+    private final int mask;
+
+    @Getter
+    private final int capacity;
+
+    @Getter
+    private final int batchSize;
+
+    @Getter
+    private final WaitStrategy waitStrategy;
+
+    @Getter
+    private final BackpressurePolicy backpressurePolicy;
+
+    /**
+     * 下一个待申请的序号
+     */
+    private final AtomicLong cursor = new AtomicLong();
+
+    /**
+     * 下一个待消费的序号，消费线程与DROP_OLDEST的生产者都通过CAS推进
+     */
+    private final AtomicLong head = new AtomicLong();
+
+    private final Thread consumer;
+
+    /**
+     * 执行异步监听器的工作通道，消费线程按事件轮流提交
+     */
+    private final PartitionedEventLanes workers;
+
+    /**
+     * 下一个事件提交到的工作通道，只由消费线程读写
+     */
+    private int nextWorker;
+
+    private volatile boolean consumerWaiting;
+
+    private volatile boolean stopped;
+
+    private final LongAdder publishedCount = new LongAdder();
+    private final LongAdder deliveredCount = new LongAdder();
+    private final LongAdder droppedCount = new LongAdder();
+
+    public RingBufferMosaicEventBroadcaster() {
+        this(DEFAULT_CAPACITY, DEFAULT_BATCH_SIZE, WaitStrategy.BLOCKING, BackpressurePolicy.BLOCK);
+    }
+
+    /**
+     * @param capacity 缓冲区容量，向上取整为2的幂
+     * @param batchSize 消费线程每批最多取出的事件数
+     */
+    public RingBufferMosaicEventBroadcaster(int capacity, int batchSize,
+                                            WaitStrategy waitStrategy, BackpressurePolicy backpressurePolicy) {
+        this(capacity, batchSize, waitStrategy, backpressurePolicy,
+                Integer.getInteger(LANES_PROPERTY, Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * @param laneCount 有序通道与工作通道的数量
+     */
+    public RingBufferMosaicEventBroadcaster(int capacity, int batchSize, WaitStrategy waitStrategy,
+                                            BackpressurePolicy backpressurePolicy, int laneCount) {
+        super(laneCount);
+        this.capacity = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = this.capacity - 1;
+        this.batchSize = Math.max(1, batchSize);
+        this.waitStrategy = waitStrategy;
+        this.backpressurePolicy = backpressurePolicy;
+        this.entries = new Object[this.capacity];
+        this.published = new AtomicLongArray(this.capacity);
+        for (int i = 0; i < this.capacity; i++) {
+            published.set(i, UNPUBLISHED);
+        }
+        this.workers = new PartitionedEventLanes(laneCount, this.capacity, "event-ring-worker");
+        this.consumer = new NamedThreadFactory("event-ring").newThread(this::consumeLoop);
+        this.consumer.setDaemon(true);
+        this.consumer.start();
+    }
+
+    @Override
+    public void broadcastEvent(MosaicEvent event) {
+        if (event == null || stopped || isShutdown()) return;
+
+        MosaicEventListener<?>[] listeners = getDispatchTable(event.getClass());
+        boolean hasAsync = false;
+        for (MosaicEventListener<?> listener : listeners) {
+            if (listener.isAsyncSupported()) {
+                hasAsync = true;
+                continue;
+            }
+            try {
+                invokeListener(listener, event);
+            } catch (Exception e) {
+                handleListenerException(listener, event, e);
+            }
+        }
+        if (hasAsync) {
+            publish(event);
+        }
+    }
+
+    /**
+     * 申请序号并写入事件，缓冲区满时按背压策略处理
+     */
+    private void publish(MosaicEvent event) {
+        long sequence;
+        int attempts = 0;
+        for (;;) {
+            sequence = cursor.get();
+            if (sequence == SEALED) {
+                droppedCount.increment();
+                return;
+            }
+            if (sequence - head.get() >= capacity) {
+                if (!handleFull(event, attempts++)) {
+                    return;
+                }
+                continue;
+            }
+            if (cursor.compareAndSet(sequence, sequence + 1)) {
+                break;
+            }
+        }
+        int index = (int) (sequence & mask);
+        // 上一轮的事件刚被取出，等待取出方清空槽位，避免清空时覆盖本次写入
+        long previous = sequence - capacity;
+        while (previous >= 0 && published.get(index) == previous) {
+            Thread.onSpinWait();
+        }
+        entries[index] = event;
+        published.set(index, sequence);
+        publishedCount.increment();
+        if (consumerWaiting) {
+            LockSupport.unpark(consumer);
+        }
+    }
+
+    /**
+     * @return 是否继续尝试发布
+     */
+    private boolean handleFull(MosaicEvent event, int attempts) {
+        if (stopped) {
+            droppedCount.increment();
+            return false;
+        }
+        if (isDispatchThread()) {
+            // 异步监听器中再次广播且缓冲区已满，等待消费线程会形成环路等待，直接在当前线程上执行
+            deliver(event);
+            return false;
+        }
+        switch (backpressurePolicy) {
+            case DROP_NEWEST:
+                droppedCount.increment();
+                return false;
+            case DROP_OLDEST:
+                long oldest = head.get();
+                if (published.get((int) (oldest & mask)) == oldest && head.compareAndSet(oldest, oldest + 1)) {
+                    release(oldest);
+                    droppedCount.increment();
+                } else {
+                    Thread.onSpinWait();
+                }
+                return true;
+            case BLOCK:
+            default:
+                if (consumerWaiting) {
+                    LockSupport.unpark(consumer);
+                }
+                if (attempts < 100) {
+                    Thread.onSpinWait();
+                } else {
+                    LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+                }
+                return true;
+        }
+    }
+
+    private void consumeLoop() {
+        MosaicEvent[] batch = new MosaicEvent[batchSize];
+        int idleRounds = 0;
+        while (true) {
+            int count = claimBatch(batch);
+            if (count > 0) {
+                idleRounds = 0;
+                dispatch(batch, count);
+                continue;
+            }
+            if (stopped) {
+                drainSealed(batch);
+                return;
+            }
+            idleWait(idleRounds++);
+        }
+    }
+
+    /**
+     * 停止后封住cursor，处理完已申请序号的事件，超过等待时间仍未写入的事件计为丢弃
+     */
+    private void drainSealed(MosaicEvent[] batch) {
+        long end = cursor.getAndSet(SEALED);
+        long deadline = System.nanoTime() + SEAL_GRACE_NANOS;
+        while (head.get() < end) {
+            int count = claimBatch(batch);
+            if (count > 0) {
+                dispatch(batch, count);
+            } else if (System.nanoTime() - deadline > 0) {
+                break;
+            } else {
+                Thread.yield();
+            }
+        }
+        long stranded = end - head.get();
+        if (stranded > 0) {
+            droppedCount.add(stranded);
+            log.warn("Ring buffer event broadcaster stopped with {} claimed but unpublished events, dropped", stranded);
+        }
+    }
+
+    /**
+     * 在消费线程上按出队顺序完成合并与分区转交，其余异步监听器轮流交给工作通道
+     * 工作通道积压满时消费线程等待，背压随之传到缓冲区
+     */
+    private void dispatch(MosaicEvent[] batch, int count) {
+        int workerCount = workers.getLaneCount();
+        for (int i = 0; i < count; i++) {
+            MosaicEvent event = batch[i];
+            batch[i] = null;
+            MosaicEventListener<?>[] direct = route(event);
+            if (direct.length == 0) {
+                deliveredCount.increment();
+                continue;
+            }
+            nextWorker = nextWorker + 1 == workerCount ? 0 : nextWorker + 1;
+            if (!workers.execute(nextWorker, () -> invokeAll(direct, event))) {
+                // 工作通道已停止，只会出现在停止超时之后
+                invokeAll(direct, event);
+            }
+        }
+    }
+
+    /**
+     * 当前线程是否负责执行本广播器的异步监听器
+     */
+    private boolean isDispatchThread() {
+        return Thread.currentThread() == consumer || workers.isLaneThread() || getPartitionedLanes().isLaneThread();
+    }
+
+    /**
+     * 取出从head开始连续已发布的一批事件，通过CAS推进head后清空槽位，槽位随即可被生产者复用
+     */
+    private int claimBatch(MosaicEvent[] batch) {
+        for (;;) {
+            long first = head.get();
+            int count = 0;
+            while (count < batch.length) {
+                long sequence = first + count;
+                int index = (int) (sequence & mask);
+                if (published.get(index) != sequence) {
+                    break;
+                }
+                batch[count++] = (MosaicEvent) entries[index];
+            }
+            if (count == 0) {
+                return 0;
+            }
+            if (head.compareAndSet(first, first + count)) {
+                for (int i = 0; i < count; i++) {
+                    release(first + i);
+                }
+                return count;
+            }
+            // DROP_OLDEST的生产者丢弃了最早的事件，重新读取
+        }
+    }
+
+    /**
+     * 清空已取出或已丢弃的槽位，不再持有事件及其引用的方块对象
+     * 只由推进head越过该序号的一方调用
+     */
+    private void release(long sequence) {
+        int index = (int) (sequence & mask);
+        entries[index] = null;
+        published.set(index, UNPUBLISHED);
+    }
+
+    /**
+     * 在当前线程上投递事件，只用于缓冲区满时的重入广播
+     */
+    private void deliver(MosaicEvent event) {
+        MosaicEventListener<?>[] direct = route(event);
+        invokeAll(direct, event);
+    }
+
+    /**
+     * 声明了合并键或分区键的异步监听器按出队顺序转交，返回其余需直接执行的异步监听器，按优先级排列
+     */
+    private MosaicEventListener<?>[] route(MosaicEvent event) {
+        MosaicEventListener<?>[] listeners = getDispatchTable(event.getClass());
+        MosaicEventListener<?>[] direct = null;
+        int count = 0;
+        for (MosaicEventListener<?> listener : listeners) {
+            if (!listener.isAsyncSupported() || offerToCoalescer(listener, event) || dispatchToLane(listener, event)) {
+                continue;
+            }
+            if (direct == null) {
+                direct = new MosaicEventListener<?>[listeners.length];
+            }
+            direct[count++] = listener;
+        }
+        if (direct == null) {
+            return NO_LISTENERS;
+        }
+        return count == direct.length ? direct : Arrays.copyOf(direct, count);
+    }
+
+    private void invokeAll(MosaicEventListener<?>[] listeners, MosaicEvent event) {
+        for (MosaicEventListener<?> listener : listeners) {
+            try {
+                invokeListener(listener, event);
+            } catch (Exception e) {
+                handleListenerException(listener, event, e);
+            }
+        }
+        deliveredCount.increment();
+    }
+
+    private void idleWait(int idleRounds) {
+        switch (waitStrategy) {
+            case BUSY_SPIN:
+                Thread.onSpinWait();
+                break;
+            case YIELDING:
+                Thread.yield();
+                break;
+            case SLEEPING:
+                if (idleRounds < 100) {
+                    Thread.onSpinWait();
+                } else if (idleRounds < 200) {
+                    Thread.yield();
+                } else {
+                    LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+                }
+                break;
+            case BLOCKING:
+            default:
+                consumerWaiting = true;
+                // 设置等待标记后再检查一次，避免错过标记前发布的事件
+                if (published.get((int) (head.get() & mask)) != head.get()) {
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+                }
+                consumerWaiting = false;
+                break;
+        }
+    }
+
+    /**
+     * 仍持有事件的槽位数，已消费或已丢弃的槽位不计入
+     */
+    int getRetainedEntryCount() {
+        int retained = 0;
+        for (int i = 0; i < capacity; i++) {
+            if (published.get(i) != UNPUBLISHED) {
+                retained++;
+            }
+        }
+        return retained;
+    }
+
+    /**
+     * 已写入缓冲区尚未消费的事件数，不含已交给工作通道尚未执行的事件
+     */
+    public long getPendingCount() {
+        long current = cursor.get();
+        return current == SEALED ? 0 : Math.max(0, current - head.get());
+    }
+
+    public long getPublishedCount() {
+        return publishedCount.sum();
+    }
+
+    /**
+     * 异步监听器已执行完的事件数
+     */
+    public long getDeliveredCount() {
+        return deliveredCount.sum();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    /**
+     * 停止接收新事件，消费线程处理完已写入的事件后退出
+     */
+    @Override
+    public void shutdown() {
+        // 先让消费线程处理完缓冲区，再依次关闭工作通道与有序通道
+        stopped = true;
+        LockSupport.unpark(consumer);
+        try {
+            consumer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        workers.shutdown(TimeUnit.SECONDS.toMillis(10));
+        super.shutdown();
+        log.info("Ring buffer event broadcaster has been shutdown | published: {} | delivered: {} | dropped: {}",
+                getPublishedCount(), getDeliveredCount(), getDroppedCount());
+    }
+}
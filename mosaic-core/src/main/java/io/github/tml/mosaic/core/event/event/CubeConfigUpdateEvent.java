@@ -1,5 +1,6 @@
 package io.github.tml.mosaic.core.event.event;
 
+import io.github.tml.mosaic.core.tools.guid.GUID;
 import io.github.tml.mosaic.cube.external.MosaicCube;
 import lombok.Data;
 
@@ -13,12 +14,21 @@ import java.util.Map;
 @Data
 public class CubeConfigUpdateEvent extends MosaicEvent {
 
+    /**
+     * 配置更新的方块ID，可作为异步监听器的分区键保证同一方块的更新按序处理
+     */
+    private final GUID cubeId;
     private final MosaicCube mosaicCube;
     private final Map<String, Object> before;
     private final Map<String, Object> after;
 
     public CubeConfigUpdateEvent(MosaicCube mosaicCube, Map<String, Object> before, Map<String, Object> after) {
+        this(null, mosaicCube, before, after);
+    }
+
+    public CubeConfigUpdateEvent(GUID cubeId, MosaicCube mosaicCube, Map<String, Object> before, Map<String, Object> after) {
         super(null);
+        this.cubeId = cubeId;
         this.mosaicCube = mosaicCube;
         this.before = before;
         this.after = after;
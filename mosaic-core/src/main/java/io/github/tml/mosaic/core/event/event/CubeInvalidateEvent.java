@@ -0,0 +1,30 @@
+package io.github.tml.mosaic.core.event.event;
+
+import io.github.tml.mosaic.core.tools.guid.GUID;
+import lombok.Data;
+
+/**
+ * 描述: Cube实例失效事件
+ * 方块实例被移除或即将重建（配置更新、配置删除、单例移除）时发布，持有该实例引用的组件需要重新获取
+ */
+@Data
+public class CubeInvalidateEvent extends MosaicEvent {
+
+    private final GUID cubeId;
+
+    /**
+     * 失效的配置ID，为null表示该方块的所有实例
+     */
+    private final String configId;
+
+    public CubeInvalidateEvent(Object source, GUID cubeId, String configId) {
+        super(source);
+        this.cubeId = cubeId;
+        this.configId = configId;
+    }
+
+    @Override
+    public String getEventType() {
+        return "CUBE_INVALIDATE";
+    }
+}
@@ -0,0 +1,40 @@
+package io.github.tml.mosaic.core.event.event;
+
+import io.github.tml.mosaic.core.tools.guid.GUID;
+import io.github.tml.mosaic.slot.Slot;
+import lombok.Data;
+
+/**
+ * 描述: 槽变更事件（注册、安装、卸载、移除）
+ * 同一个槽的事件按变更发生的顺序发布，setupVersion为变更后的安装版本号，槽移除时为-1
+ */
+@Data
+public class SlotChangeEvent extends MosaicEvent {
+
+    private final GUID slotId;
+    private final ChangeType changeType;
+    private final Slot.SetupCubeInfo setupCubeInfo;
+    private final long setupVersion;
+
+    public SlotChangeEvent(Object source, GUID slotId, ChangeType changeType, Slot.SetupCubeInfo setupCubeInfo) {
+        this(source, slotId, changeType, setupCubeInfo, -1L);
+    }
+
+    public SlotChangeEvent(Object source, GUID slotId, ChangeType changeType, Slot.SetupCubeInfo setupCubeInfo,
+                           long setupVersion) {
+        super(source);
+        this.slotId = slotId;
+        this.changeType = changeType;
+        this.setupCubeInfo = setupCubeInfo;
+        this.setupVersion = setupVersion;
+    }
+
+    @Override
+    public String getEventType() {
+        return "SLOT_" + changeType.name();
+    }
+
+    public enum ChangeType {
+        REGISTER, SETUP, UNSETUP, REMOVE
+    }
+}
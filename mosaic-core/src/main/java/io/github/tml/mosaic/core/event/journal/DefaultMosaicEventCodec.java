@@ -0,0 +1,120 @@
+package io.github.tml.mosaic.core.event.journal;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.tml.mosaic.core.event.event.*;
+import io.github.tml.mosaic.core.tools.guid.DotNotationId;
+import io.github.tml.mosaic.core.tools.guid.GUID;
+import io.github.tml.mosaic.core.tools.guid.GUUID;
+import io.github.tml.mosaic.cube.factory.definition.CubeDefinition;
+import io.github.tml.mosaic.slot.journal.SlotRecord;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * 描述: 框架内置事件的JSON编解码器
+ * 支持方块注册、配置更新、实例失效与槽变更事件；方块定义与方块实例不写入日志，
+ * 方块定义在解码时通过definitionResolver按方块ID重新获取，配置更新事件解码后不带方块实例
+ */
+@Slf4j
+public class DefaultMosaicEventCodec implements MosaicEventCodec {
+
+    private static final String KIND = "kind";
+
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<Map<String, Object>>() {};
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final Function<GUID, CubeDefinition> definitionResolver;
+
+    public DefaultMosaicEventCodec() {
+        this(cubeId -> null);
+    }
+
+    /**
+     * @param definitionResolver 按方块ID获取方块定义，用于还原方块注册事件
+     */
+    public DefaultMosaicEventCodec(Function<GUID, CubeDefinition> definitionResolver) {
+        this.definitionResolver = definitionResolver;
+    }
+
+    @Override
+    public boolean supports(Class<? extends MosaicEvent> eventType) {
+        return eventType == CubeDefinitionRegisteredEvent.class
+                || eventType == CubeConfigUpdateEvent.class
+                || eventType == CubeInvalidateEvent.class
+                || eventType == SlotChangeEvent.class;
+    }
+
+    @Override
+    public byte[] encode(MosaicEvent event) {
+        if (event == null || !supports(event.getClass())) {
+            return null;
+        }
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put(KIND, event.getClass().getSimpleName());
+        if (event instanceof CubeDefinitionRegisteredEvent) {
+            data.put("cubeId", toString(((CubeDefinitionRegisteredEvent) event).getCubeId()));
+        } else if (event instanceof CubeConfigUpdateEvent) {
+            CubeConfigUpdateEvent update = (CubeConfigUpdateEvent) event;
+            data.put("cubeId", toString(update.getCubeId()));
+            data.put("before", update.getBefore());
+            data.put("after", update.getAfter());
+        } else if (event instanceof CubeInvalidateEvent) {
+            CubeInvalidateEvent invalidate = (CubeInvalidateEvent) event;
+            data.put("cubeId", toString(invalidate.getCubeId()));
+            data.put("configId", invalidate.getConfigId());
+        } else {
+            data.put("slot", SlotRecord.of((SlotChangeEvent) event));
+        }
+        try {
+            return objectMapper.writeValueAsBytes(data);
+        } catch (Exception e) {
+            log.warn("[Event][Journal] encode event [{}] failed: {}", event.getEventType(), e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public MosaicEvent decode(byte[] payload) {
+        Map<String, Object> data;
+        try {
+            data = objectMapper.readValue(payload, MAP_TYPE);
+        } catch (Exception e) {
+            log.warn("[Event][Journal] decode event failed: {}", e.getMessage());
+            return null;
+        }
+        String kind = (String) data.get(KIND);
+        GUID cubeId = toGuid(data.get("cubeId"));
+        if (CubeDefinitionRegisteredEvent.class.getSimpleName().equals(kind)) {
+            return new CubeDefinitionRegisteredEvent(null, cubeId, cubeId != null ? definitionResolver.apply(cubeId) : null);
+        }
+        if (CubeConfigUpdateEvent.class.getSimpleName().equals(kind)) {
+            return new CubeConfigUpdateEvent(cubeId, null,
+                    (Map<String, Object>) data.get("before"), (Map<String, Object>) data.get("after"));
+        }
+        if (CubeInvalidateEvent.class.getSimpleName().equals(kind)) {
+            return new CubeInvalidateEvent(null, cubeId, (String) data.get("configId"));
+        }
+        if (SlotChangeEvent.class.getSimpleName().equals(kind)) {
+            SlotRecord record = objectMapper.convertValue(data.get("slot"), SlotRecord.class);
+            return new SlotChangeEvent(null, new DotNotationId(record.getSlotId()), record.changeType(), record.toSetupCubeInfo());
+        }
+        return null;
+    }
+
+    private static String toString(GUID id) {
+        return Objects.isNull(id) ? null : id.toString();
+    }
+
+    private static GUID toGuid(Object id) {
+        return id == null ? null : new GUUID(id.toString());
+    }
+}
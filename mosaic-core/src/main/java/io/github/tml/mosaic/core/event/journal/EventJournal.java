@@ -0,0 +1,666 @@
+package io.github.tml.mosaic.core.event.journal;
+
+import io.github.tml.mosaic.core.NamedThreadFactory;
+import io.github.tml.mosaic.core.event.DefaultMosaicEventBroadcaster;
+import io.github.tml.mosaic.core.event.PartitionedEventLanes;
+import io.github.tml.mosaic.core.event.event.MosaicEvent;
+import io.github.tml.mosaic.core.event.listener.MosaicCommonListenerEventListener;
+import io.github.tml.mosaic.core.event.listener.MosaicEventListener;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * 描述: 可回放的事件日志
+ * 事件按广播顺序编码后追加到分段的内存映射文件，每段文件名为该段第一条记录的序号；
+ * 监听器可以从指定序号或时间开始订阅，先收到日志中的历史事件，再无缝衔接实时事件
+ * 每个订阅按自己的序号游标投递：历史记录在日志锁内分批读出、锁外投递，实时事件在锁内按序号放入订阅的队列、锁外投递，
+ * 同一订阅同一时刻只有一个线程投递，订阅者在事件中再次追加的事件排在当前事件之后
+ * 超过容量或保留时间的旧段整段删除，当前写入段不删除
+ * 记录格式：长度(4) + 序号(8) + 时间(8) + CRC32(4) + 内容，进程中断后重新打开时截断校验失败的尾部记录
+ * 写入内存映射区的记录在进程崩溃后仍然保留，只有滚动分段与关闭时才强制刷盘
+ */
+@Slf4j
+public class EventJournal implements Closeable {
+
+    public static final int DEFAULT_SEGMENT_BYTES = 16 * 1024 * 1024;
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private static final int HEADER_BYTES = 4 + 8 + 8 + 4;
+
+    private static final long RETENTION_CHECK_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    /**
+     * 回放时每次在日志锁内读取的最大记录数
+     */
+    private static final int REPLAY_CHUNK = 256;
+
+    @Getter
+    private final Path directory;
+
+    @Getter
+    private final int segmentBytes;
+
+    /**
+     * 所有分段占用的最大字节数，小于等于0表示不限制
+     */
+    @Getter
+    private final long retentionBytes;
+
+    /**
+     * 记录的最长保留时间，小于等于0表示不限制
+     */
+    @Getter
+    private final long retentionMillis;
+
+    private final MosaicEventCodec codec;
+
+    /**
+     * 段内第一条记录的序号 -> 分段，由this保护
+     */
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+
+    private Segment active;
+
+    private long nextOffset;
+
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    private final Recorder recorder = new Recorder();
+
+    private DefaultMosaicEventBroadcaster broadcaster;
+
+    private ScheduledExecutorService retentionScheduler;
+
+    private volatile boolean closed;
+
+    /**
+     * 打开日志目录，目录中已有的分段会被校验并继续追加
+     */
+    public EventJournal(Path directory, int segmentBytes, long retentionBytes, long retentionMillis,
+                        MosaicEventCodec codec) throws IOException {
+        this.directory = directory.toAbsolutePath().normalize();
+        this.segmentBytes = Math.max(segmentBytes, HEADER_BYTES + 1024);
+        this.retentionBytes = retentionBytes;
+        this.retentionMillis = retentionMillis;
+        this.codec = codec;
+        Files.createDirectories(this.directory);
+        load();
+        applyRetention();
+    }
+
+    /**
+     * 开始记录广播器上的事件；设置了保留时间时启动后台清理
+     */
+    public synchronized EventJournal attach(DefaultMosaicEventBroadcaster broadcaster) {
+        if (this.broadcaster != null) {
+            return this;
+        }
+        this.broadcaster = broadcaster;
+        broadcaster.registerListener(recorder);
+        if (retentionMillis > 0) {
+            long interval = Math.min(retentionMillis, RETENTION_CHECK_MILLIS);
+            retentionScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new NamedThreadFactory("event-journal").newThread(runnable);
+                thread.setDaemon(true);
+                return thread;
+            });
+            retentionScheduler.scheduleWithFixedDelay(this::applyRetention, interval, interval, TimeUnit.MILLISECONDS);
+        }
+        log.info("[Event][Journal] recording events to {} | next offset: {}", directory, nextOffset);
+        return this;
+    }
+
+    /**
+     * 追加事件，编解码器不支持的事件不记录
+     * @return 记录的序号，未记录时返回-1
+     */
+    public long append(MosaicEvent event) {
+        byte[] payload = codec.encode(event);
+        if (payload == null) {
+            return -1;
+        }
+        int size = HEADER_BYTES + payload.length;
+        if (size > segmentBytes) {
+            log.warn("[Event][Journal] event [{}] too large to journal | size: {} | segment: {}",
+                    event.getEventType(), size, segmentBytes);
+            return -1;
+        }
+        JournalEntry entry;
+        synchronized (this) {
+            if (closed) {
+                return -1;
+            }
+            if (active == null || active.remaining() < size) {
+                roll();
+            }
+            long offset = nextOffset++;
+            long timestamp = System.currentTimeMillis();
+            active.write(offset, timestamp, payload);
+            entry = new JournalEntry(offset, timestamp, event);
+            // 持有锁入队，各订阅队列中的实时事件按序号排列，与订阅时确定的回放终点衔接
+            for (Subscription subscription : subscriptions) {
+                subscription.live.add(entry);
+            }
+        }
+        for (Subscription subscription : subscriptions) {
+            subscription.drain();
+        }
+        return entry.getOffset();
+    }
+
+    /**
+     * 从指定序号开始订阅：先回放日志中的记录，再接收之后追加的事件
+     * 支持异步的监听器在独立的有序通道上接收；否则回放在订阅线程上进行，实时事件在追加事件的线程上接收，
+     * 均不持有日志锁
+     * @param fromOffset 起始序号，小于最早序号时从最早的记录开始
+     */
+    public Subscription subscribe(MosaicEventListener<?> listener, long fromOffset) {
+        Subscription subscription;
+        synchronized (this) {
+            subscription = new Subscription(listener, fromOffset, nextOffset);
+            subscriptions.add(subscription);
+        }
+        log.info("[Event][Journal] listener [{}] subscribed from offset {} | next offset: {}",
+                listener.getListenerName(), fromOffset, subscription.liveFrom);
+        subscription.drain();
+        return subscription;
+    }
+
+    /**
+     * 从指定时间开始订阅，回放写入时间不早于该时间的记录
+     */
+    public Subscription subscribeSince(MosaicEventListener<?> listener, long timestampMillis) {
+        return subscribe(listener, offsetAt(timestampMillis));
+    }
+
+    /**
+     * 按顺序回放从指定序号开始到当前为止的记录，无法解码的记录跳过，consumer在日志锁之外调用
+     */
+    public void replay(long fromOffset, Consumer<JournalEntry> consumer) {
+        long toOffset = getNextOffset();
+        List<JournalEntry> chunk = new ArrayList<>();
+        long cursor = fromOffset;
+        while (cursor < toOffset) {
+            chunk.clear();
+            cursor = readChunk(cursor, toOffset, chunk);
+            chunk.forEach(consumer);
+        }
+    }
+
+    /**
+     * 读取[fromOffset, toOffset)内的一批记录，已被清理的记录直接跳过
+     * @return 下一次读取的起始序号
+     */
+    private synchronized long readChunk(long fromOffset, long toOffset, List<JournalEntry> chunk) {
+        if (closed) {
+            return toOffset;
+        }
+        Map.Entry<Long, Segment> start = segments.floorEntry(fromOffset);
+        Collection<Segment> from = start != null
+                ? segments.tailMap(start.getKey(), true).values()
+                : segments.values();
+        long[] next = {toOffset};
+        for (Segment segment : from) {
+            if (segment.baseOffset >= toOffset) {
+                break;
+            }
+            segment.forEach(fromOffset, record -> {
+                if (record.offset >= toOffset) {
+                    return false;
+                }
+                if (chunk.size() >= REPLAY_CHUNK) {
+                    next[0] = record.offset;
+                    return false;
+                }
+                MosaicEvent event = codec.decode(record.payload);
+                if (event != null) {
+                    chunk.add(new JournalEntry(record.offset, record.timestamp, event));
+                }
+                return true;
+            });
+            if (next[0] != toOffset) {
+                break;
+            }
+        }
+        return next[0];
+    }
+
+    /**
+     * 第一条写入时间不早于指定时间的记录序号，没有时返回下一个待写入的序号
+     */
+    public synchronized long offsetAt(long timestampMillis) {
+        for (Segment segment : segments.values()) {
+            if (segment.count == 0 || segment.lastTimestamp < timestampMillis) {
+                continue;
+            }
+            long[] found = {-1};
+            segment.forEach(segment.baseOffset, record -> {
+                if (record.timestamp >= timestampMillis) {
+                    found[0] = record.offset;
+                    return false;
+                }
+                return true;
+            });
+            if (found[0] >= 0) {
+                return found[0];
+            }
+        }
+        return nextOffset;
+    }
+
+    /**
+     * 删除超出容量或保留时间的旧段，当前写入段的记录全部过期时先滚动出新段
+     */
+    public synchronized void applyRetention() {
+        if (closed) {
+            return;
+        }
+        long expireBefore = retentionMillis > 0 ? System.currentTimeMillis() - retentionMillis : Long.MIN_VALUE;
+        if (active != null && active.count > 0 && active.lastTimestamp < expireBefore) {
+            roll();
+        }
+        while (segments.size() > 1) {
+            Segment oldest = segments.firstEntry().getValue();
+            boolean overSize = retentionBytes > 0 && (long) segments.size() * segmentBytes > retentionBytes;
+            boolean expired = oldest.count == 0 || oldest.lastTimestamp < expireBefore;
+            if (!overSize && !expired) {
+                break;
+            }
+            segments.pollFirstEntry();
+            oldest.delete();
+            log.info("[Event][Journal] deleted segment {} | records: {}", oldest.path.getFileName(), oldest.count);
+        }
+    }
+
+    /**
+     * 最早一条可回放记录的序号，日志为空时等于下一个待写入的序号
+     */
+    public synchronized long getFirstOffset() {
+        for (Segment segment : segments.values()) {
+            if (segment.count > 0) {
+                return segment.baseOffset;
+            }
+        }
+        return nextOffset;
+    }
+
+    public synchronized long getNextOffset() {
+        return nextOffset;
+    }
+
+    public synchronized int getSegmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * 强制把当前写入段刷到磁盘
+     */
+    public synchronized void flush() {
+        if (active != null) {
+            active.buffer.force();
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        if (broadcaster != null) {
+            broadcaster.unregisterListener(recorder);
+        }
+        if (retentionScheduler != null) {
+            retentionScheduler.shutdownNow();
+        }
+        flush();
+        closed = true;
+        subscriptions.forEach(subscription -> subscription.closed = true);
+        subscriptions.clear();
+        segments.values().forEach(Segment::close);
+        segments.clear();
+        active = null;
+        log.info("[Event][Journal] closed | next offset: {}", nextOffset);
+    }
+
+    private void load() throws IOException {
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(directory)) {
+            files = stream.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX)).sorted()
+                    .collect(Collectors.toList());
+        }
+        for (Path file : files) {
+            long baseOffset;
+            try {
+                String name = file.getFileName().toString();
+                baseOffset = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+            } catch (NumberFormatException e) {
+                log.warn("[Event][Journal] skip unknown file {}", file);
+                continue;
+            }
+            Segment segment = Segment.open(file, baseOffset, segmentBytes);
+            segments.put(baseOffset, segment);
+            nextOffset = Math.max(nextOffset, segment.baseOffset + segment.count);
+        }
+        active = segments.isEmpty() ? null : segments.lastEntry().getValue();
+        if (active != null && active.baseOffset + active.count != nextOffset) {
+            // 最后一段的序号与之前的段不连续时不再向其追加
+            active = null;
+        }
+    }
+
+    private void roll() {
+        if (active != null && active.count == 0) {
+            return;
+        }
+        if (active != null) {
+            active.buffer.force();
+        }
+        Path file = directory.resolve(String.format("%020d%s", nextOffset, SEGMENT_SUFFIX));
+        try {
+            Segment segment = Segment.create(file, nextOffset, segmentBytes);
+            segments.put(nextOffset, segment);
+            active = segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Create event journal segment failed: " + file, e);
+        }
+        applyRetention();
+    }
+
+    /**
+     * 记录广播的事件，同步执行且优先级最高，保证日志顺序与广播顺序一致
+     */
+    private class Recorder implements MosaicCommonListenerEventListener {
+
+        @Override
+        public void onEvent(MosaicEvent event) {
+            append(event);
+        }
+
+        @Override
+        public boolean supportsEventType(Class<? extends MosaicEvent> eventType) {
+            return codec.supports(eventType);
+        }
+
+        @Override
+        public int getPriority() {
+            return Integer.MIN_VALUE;
+        }
+
+        @Override
+        public String getListenerName() {
+            return "EventJournalRecorder";
+        }
+    }
+
+    /**
+     * 日志订阅，关闭后不再接收事件
+     * 游标之前的记录已投递；游标小于实时起点时先从日志回放，之后从实时队列取出
+     */
+    public class Subscription implements Closeable {
+
+        private final MosaicEventListener<?> listener;
+
+        /**
+         * 订阅时下一个待写入的序号，之后追加的事件进入实时队列
+         */
+        private final long liveFrom;
+
+        private final Queue<JournalEntry> live = new ConcurrentLinkedQueue<>();
+
+        /**
+         * 待处理的投递请求数，从0变为非0的线程负责投递，其余线程只入队
+         */
+        private final AtomicInteger wip = new AtomicInteger();
+
+        /**
+         * 下一个待投递的序号，只由投递线程读写
+         */
+        private long cursor;
+
+        private volatile boolean closed;
+
+        @Getter
+        private volatile long lastOffset = -1;
+
+        private Subscription(MosaicEventListener<?> listener, long fromOffset, long liveFrom) {
+            this.listener = listener;
+            this.cursor = fromOffset;
+            this.liveFrom = liveFrom;
+        }
+
+        /**
+         * 按序号依次投递回放记录与实时事件，投递中再次调用（包括订阅者重入追加）只登记，由当前投递线程继续处理
+         */
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            List<JournalEntry> chunk = new ArrayList<>();
+            int missed = 1;
+            do {
+                while (!closed) {
+                    if (cursor < liveFrom) {
+                        chunk.clear();
+                        long next = readChunk(cursor, liveFrom, chunk);
+                        chunk.forEach(this::deliver);
+                        cursor = next;
+                        continue;
+                    }
+                    JournalEntry entry = live.poll();
+                    if (entry == null) {
+                        break;
+                    }
+                    deliver(entry);
+                    cursor = entry.getOffset() + 1;
+                }
+                if (closed) {
+                    live.clear();
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        @SuppressWarnings("unchecked")
+        private void deliver(JournalEntry entry) {
+            MosaicEvent event = entry.getEvent();
+            if (!listener.supportsEventType(event.getClass())) {
+                return;
+            }
+            lastOffset = entry.getOffset();
+            Runnable task = () -> {
+                try {
+                    ((MosaicEventListener<MosaicEvent>) listener).onEvent(event);
+                } catch (Exception e) {
+                    log.error("[Event][Journal] listener [{}] failed at offset {}: {}",
+                            listener.getListenerName(), entry.getOffset(), e.getMessage(), e);
+                }
+            };
+            PartitionedEventLanes lanes = broadcaster != null ? broadcaster.getPartitionedLanes() : null;
+            if (listener.isAsyncSupported() && lanes != null && lanes.execute(this, task)) {
+                return;
+            }
+            task.run();
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            subscriptions.remove(this);
+        }
+    }
+
+    private static final class Record {
+        private long offset;
+        private long timestamp;
+        private byte[] payload;
+    }
+
+    private static final class Segment {
+
+        private final Path path;
+
+        private final long baseOffset;
+
+        private final FileChannel channel;
+
+        private final MappedByteBuffer buffer;
+
+        private int position;
+
+        private int count;
+
+        private long lastTimestamp;
+
+        private Segment(Path path, long baseOffset, FileChannel channel, MappedByteBuffer buffer) {
+            this.path = path;
+            this.baseOffset = baseOffset;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        static Segment create(Path path, long baseOffset, int size) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return new Segment(path, baseOffset, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        }
+
+        /**
+         * 打开已有分段并扫描出有效记录，遇到校验失败的记录视为写入中断，清空其后的内容
+         */
+        static Segment open(Path path, long baseOffset, int size) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            int mapped = (int) Math.max(channel.size(), size);
+            Segment segment = new Segment(path, baseOffset, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, mapped));
+            boolean torn = segment.scan();
+            if (torn) {
+                ByteBuffer view = segment.buffer.duplicate();
+                view.position(segment.position);
+                view.put(new byte[mapped - segment.position]);
+                log.warn("[Event][Journal] truncated torn record in {} after offset {}",
+                        path.getFileName(), baseOffset + segment.count - 1);
+            }
+            return segment;
+        }
+
+        int remaining() {
+            return buffer.capacity() - position;
+        }
+
+        void write(long offset, long timestamp, byte[] payload) {
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            int at = position;
+            buffer.putLong(at + 4, offset);
+            buffer.putLong(at + 12, timestamp);
+            buffer.putInt(at + 20, (int) crc.getValue());
+            ByteBuffer view = buffer.duplicate();
+            view.position(at + HEADER_BYTES);
+            view.put(payload);
+            // 长度最后写入，长度非0即表示记录完整
+            buffer.putInt(at, payload.length);
+            position = at + HEADER_BYTES + payload.length;
+            count++;
+            lastTimestamp = timestamp;
+        }
+
+        /**
+         * 从指定序号开始按顺序遍历记录，之前的记录只读取长度跳过，consumer返回false时停止
+         */
+        void forEach(long fromOffset, Predicate<Record> consumer) {
+            Record record = new Record();
+            int at = 0;
+            for (int i = 0; i < count; i++) {
+                int length = buffer.getInt(at);
+                if (baseOffset + i >= fromOffset) {
+                    record.offset = buffer.getLong(at + 4);
+                    record.timestamp = buffer.getLong(at + 12);
+                    record.payload = read(at + HEADER_BYTES, length);
+                    if (!consumer.test(record)) {
+                        return;
+                    }
+                }
+                at += HEADER_BYTES + length;
+            }
+        }
+
+        /**
+         * 从头扫描有效记录，确定写入位置、记录数与最后写入时间
+         * @return 是否遇到不完整的记录
+         */
+        private boolean scan() {
+            int at = 0;
+            int limit = buffer.capacity();
+            boolean torn = false;
+            while (at + HEADER_BYTES <= limit) {
+                int length = buffer.getInt(at);
+                if (length == 0) {
+                    break;
+                }
+                if (length < 0 || at + HEADER_BYTES + length > limit) {
+                    torn = true;
+                    break;
+                }
+                long offset = buffer.getLong(at + 4);
+                CRC32 crc = new CRC32();
+                crc.update(read(at + HEADER_BYTES, length));
+                if (offset != baseOffset + count || (int) crc.getValue() != buffer.getInt(at + 20)) {
+                    torn = true;
+                    break;
+                }
+                lastTimestamp = buffer.getLong(at + 12);
+                at += HEADER_BYTES + length;
+                count++;
+            }
+            position = at;
+            return torn;
+        }
+
+        private byte[] read(int at, int length) {
+            byte[] bytes = new byte[length];
+            ByteBuffer view = buffer.duplicate();
+            view.position(at);
+            view.get(bytes);
+            return bytes;
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("[Event][Journal] close segment {} failed: {}", path.getFileName(), e.getMessage());
+            }
+        }
+
+        void delete() {
+            close();
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                log.warn("[Event][Journal] delete segment {} failed: {}", path.getFileName(), e.getMessage());
+            }
+        }
+    }
+}
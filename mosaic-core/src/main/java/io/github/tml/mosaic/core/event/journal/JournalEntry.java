@@ -0,0 +1,34 @@
+package io.github.tml.mosaic.core.event.journal;
+
+import io.github.tml.mosaic.core.event.event.MosaicEvent;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 描述: 事件日志中的一条记录
+ */
+@Getter
+@ToString
+public class JournalEntry {
+
+    /**
+     * 日志序号，从0开始连续递增，重启后继续递增
+     */
+    private final long offset;
+
+    /**
+     * 写入日志的时间
+     */
+    private final long timestampMillis;
+
+    /**
+     * 实时推送时为原事件，回放时为解码得到的事件
+     */
+    private final MosaicEvent event;
+
+    public JournalEntry(long offset, long timestampMillis, MosaicEvent event) {
+        this.offset = offset;
+        this.timestampMillis = timestampMillis;
+        this.event = event;
+    }
+}
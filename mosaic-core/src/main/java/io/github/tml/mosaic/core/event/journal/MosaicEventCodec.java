@@ -0,0 +1,25 @@
+package io.github.tml.mosaic.core.event.journal;
+
+import io.github.tml.mosaic.core.event.event.MosaicEvent;
+
+/**
+ * 描述: 事件日志的编解码器
+ * 只有能编码的事件类型才会写入日志，解码得到的事件不再持有进程内对象（如方块实例）
+ */
+public interface MosaicEventCodec {
+
+    /**
+     * 是否记录该事件类型
+     */
+    boolean supports(Class<? extends MosaicEvent> eventType);
+
+    /**
+     * 编码事件，返回null表示不记录
+     */
+    byte[] encode(MosaicEvent event);
+
+    /**
+     * 解码事件，无法识别时返回null
+     */
+    MosaicEvent decode(byte[] payload);
+}
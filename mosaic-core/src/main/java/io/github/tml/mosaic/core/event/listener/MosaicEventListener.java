@@ -21,6 +21,13 @@ public interface MosaicEventListener<T extends MosaicEvent> {
      */
     Class<T> getEventType();
 
+    /**
+     * 是否处理给定的具体事件类型，结果在广播器的分发表中缓存，注册期间应保持不变
+     */
+    default boolean supportsEventType(Class<? extends MosaicEvent> eventType) {
+        return getEventType().isAssignableFrom(eventType);
+    }
+
     /**
      * 获取监听器优先级，数字越小优先级越高
      */
@@ -35,6 +42,38 @@ public interface MosaicEventListener<T extends MosaicEvent> {
         return false;
     }
 
+    /**
+     * 异步处理时的分区键，例如方块ID
+     * 返回非null时，同一分区键的事件在同一通道上按广播顺序串行处理，不同分区键并行处理；
+     * 返回null时事件之间不保证顺序，仅对支持异步的监听器生效
+     */
+    default Object getPartitionKey(T event) {
+        return null;
+    }
+
+    /**
+     * 合并键，仅对支持异步的监听器生效
+     * 返回非null时，同一事件类型、同一合并键的事件在合并窗口内合并为一个再投递，适合只关心最终状态的监听器
+     * 同时给出分区键时，同一分区键后到的未合并事件会先让窗口内的合并结果投递，分区键上的顺序保持不变
+     */
+    default Object getCoalescingKey(T event) {
+        return null;
+    }
+
+    /**
+     * 合并窗口，从窗口内第一个事件到达开始计时
+     */
+    default long getCoalescingWindowMillis() {
+        return 100;
+    }
+
+    /**
+     * 合并窗口内的两个事件，默认保留后到的事件
+     */
+    default T coalesce(T previous, T latest) {
+        return latest;
+    }
+
     /**
      * 获取监听器名称
      */
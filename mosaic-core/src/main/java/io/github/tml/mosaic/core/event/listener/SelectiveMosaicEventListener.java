@@ -4,6 +4,8 @@ import io.github.tml.mosaic.core.event.event.MosaicEvent;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 
 /**
@@ -20,6 +22,16 @@ public abstract class SelectiveMosaicEventListener implements MosaicCommonListen
      */
     protected abstract List<Class<? extends MosaicEvent>> getListenedEventTypes();
 
+    /**
+     * 具体事件类型 -> 是否监听，避免每个事件重新遍历监听类型列表
+     */
+    private final Map<Class<? extends MosaicEvent>, Boolean> listenedTypeCache = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean supportsEventType(Class<? extends MosaicEvent> eventType) {
+        return isListenedEventType(eventType);
+    }
+
     @Override
     public final void onEvent(MosaicEvent event) {
         if (event == null || !isListenedEventType(event.getClass())) {
@@ -52,9 +64,11 @@ public abstract class SelectiveMosaicEventListener implements MosaicCommonListen
      * 检查是否是监听的事件类型
      */
     private boolean isListenedEventType(Class<? extends MosaicEvent> eventType) {
-        List<Class<? extends MosaicEvent>> listenedTypes = getListenedEventTypes();
-        return listenedTypes != null && listenedTypes.stream()
-                .anyMatch(type -> type.isAssignableFrom(eventType));
+        return listenedTypeCache.computeIfAbsent(eventType, type -> {
+            List<Class<? extends MosaicEvent>> listenedTypes = getListenedEventTypes();
+            return listenedTypes != null && listenedTypes.stream()
+                    .anyMatch(listenedType -> listenedType.isAssignableFrom(type));
+        });
     }
 
     // ================ 核心工具方法 ================
@@ -6,4 +6,6 @@ public class SlotException  extends RuntimeException  {
     }
 
     public static final SlotException CREATE_SLOT_FAILED = new SlotException("create slot failed");
+
+    public static final SlotException SETUP_VERSION_CONFLICT = new SlotException("slot setup version conflict, please refresh and retry");
 }
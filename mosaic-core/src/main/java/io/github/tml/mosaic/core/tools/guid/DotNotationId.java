@@ -19,6 +19,20 @@ public class DotNotationId implements GUID{
         this.notations = dotNotationId.split("\\.");
     }
 
+    /**
+     * 按点分隔后的各级名称
+     */
+    public String[] getNotations() {
+        return notations.clone();
+    }
+
+    /**
+     * 层级深度
+     */
+    public int depth() {
+        return notations.length;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (o instanceof DotNotationId){
@@ -36,25 +36,28 @@ public abstract class ConfigurableEntity extends UniqueEntity {
      * 批量设置配置值（带校验）
      */
     public void setConfigs(Map<String, Object> configs) throws CubeException {
+        applyConfigs(resolveConfigs(configs));
+    }
+
+    /**
+     * 校验配置并补齐默认值，返回将要生效的配置，不修改当前配置
+     */
+    protected Map<String, Object> resolveConfigs(Map<String, Object> configs) throws CubeException {
         // 确保configs不为null
         Map<String, Object> safeConfigs = configs != null ? configs : new HashMap<>();
 
         try {
-            // 1. 清空现有配置
-            configValues.clear();
-
-            // 2. 校验配置（包括空配置的校验）
+            // 1. 校验配置（包括空配置的校验），校验失败时保留现有配置
             validateConfigs(safeConfigs);
 
-            // 3. 存储用户提供的配置
-            if (!safeConfigs.isEmpty()) {
-                configValues.putAll(safeConfigs);
-            }
+            // 2. 用户提供的配置
+            Map<String, Object> resolved = new ConcurrentHashMap<>(safeConfigs);
 
-            // 4. 设置默认值（始终执行）
-            setDefaultValues();
+            // 3. 设置默认值（始终执行）
+            setDefaultValues(resolved);
 
-            log.debug("✓ Config processing completed | Provided: {}, Final: {}", safeConfigs.size(), configValues.size());
+            log.debug("✓ Config processing completed | Provided: {}, Final: {}", safeConfigs.size(), resolved.size());
+            return resolved;
 
         } catch (CubeException e) {
             throw e;
@@ -63,6 +66,14 @@ public abstract class ConfigurableEntity extends UniqueEntity {
         }
     }
 
+    /**
+     * 替换当前配置为resolveConfigs的结果
+     */
+    protected void applyConfigs(Map<String, Object> resolved) {
+        configValues.clear();
+        configValues.putAll(resolved);
+    }
+
     /**
      * 获取配置值
      */
@@ -126,15 +137,15 @@ public abstract class ConfigurableEntity extends UniqueEntity {
     /**
      * 设置默认值
      */
-    private void setDefaultValues() {
+    private void setDefaultValues(Map<String, Object> values) {
         if (configInfo == null || !configInfo.hasConfigItems()) {
             return;
         }
 
         configInfo.getConfig().forEach(item -> {
             String name = item.getName();
-            if (!configValues.containsKey(name) && item.getDefaultValue() != null) {
-                configValues.put(name, item.getDefaultValue());
+            if (!values.containsKey(name) && item.getDefaultValue() != null) {
+                values.put(name, item.getDefaultValue());
             }
         });
     }
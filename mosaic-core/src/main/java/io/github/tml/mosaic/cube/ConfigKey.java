@@ -0,0 +1,62 @@
+package io.github.tml.mosaic.cube;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 描述: 类型化的配置键
+ * 建议声明为插件中的静态常量，每个键有唯一编号，配置布局按编号缓存首次解析出的槽位，
+ * 之后在同一布局的快照上读取只是两次数组访问，多个布局交替读取时互不影响
+ */
+@Getter
+public final class ConfigKey<T> {
+
+    private static final AtomicInteger NEXT_ID = new AtomicInteger();
+
+    /**
+     * 键编号，配置布局按编号缓存槽位
+     */
+    @Getter(AccessLevel.NONE)
+    private final int id = NEXT_ID.getAndIncrement();
+
+    private final String name;
+
+    private final Class<T> type;
+
+    /**
+     * 配置不存在时返回的默认值
+     */
+    private final T defaultValue;
+
+    private ConfigKey(String name, Class<T> type, T defaultValue) {
+        this.name = name;
+        this.type = type;
+        this.defaultValue = defaultValue;
+    }
+
+    public static <T> ConfigKey<T> of(String name, Class<T> type) {
+        return new ConfigKey<>(name, type, null);
+    }
+
+    public static <T> ConfigKey<T> of(String name, Class<T> type, T defaultValue) {
+        return new ConfigKey<>(name, type, defaultValue);
+    }
+
+    /**
+     * 获取配置在给定布局中的槽位，不存在时返回-1
+     */
+    int slot(CubeConfig.Layout layout) {
+        return layout.slotOf(this);
+    }
+
+    int id() {
+        return id;
+    }
+
+    @Override
+    public String toString() {
+        return name + ":" + type.getSimpleName();
+    }
+}
@@ -5,18 +5,23 @@ import io.github.tml.mosaic.core.event.listener.MosaicEventListener;
 import io.github.tml.mosaic.core.tools.param.ConfigurableEntity;
 import io.github.tml.mosaic.core.tools.guid.GUID;
 import io.github.tml.mosaic.cube.api.CubeApi;
+import io.github.tml.mosaic.core.execption.CubeException;
+import io.github.tml.mosaic.cube.constant.CubeScopeType;
 import io.github.tml.mosaic.cube.external.MosaicCube;
+import io.github.tml.mosaic.cube.external.MosaicExtPackage;
 import lombok.Data;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
-import java.lang.reflect.InvocationTargetException;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static io.github.tml.mosaic.cube.constant.CubeModelType.ANGLE_TYPE;
 
@@ -35,6 +40,26 @@ public class Cube extends ConfigurableEntity implements CubeApi {
 
     protected volatile boolean initialized = false;
 
+    /**
+     * 在CubeManager中的实例ID，未受管理时为null
+     */
+    @Getter
+    @Setter
+    private volatile GUID instanceId;
+
+    /**
+     * 当前生效的配置快照及其版本号
+     */
+    private volatile CubeConfig cubeConfig;
+
+    private final AtomicLong configVersion = new AtomicLong();
+
+    /**
+     * 池化范围的实例池，其他范围为null
+     */
+    @Getter
+    private volatile CubeInstancePool instancePool;
+
     public Cube(GUID id) {
         super(id);
         this.metaData = new MetaData();
@@ -66,11 +91,22 @@ public class Cube extends ConfigurableEntity implements CubeApi {
      * 创建实例并初始化
      */
     private boolean createAndInitInstance() {
-        // 设置线程变量
-        CubeConfigThreadLocal.set(getCubeId().toString(), new CubeConfig(getConfigValues()));
+        cubeConfig = new CubeConfig(getConfigValues(), configVersion.incrementAndGet(), getConfigInfo(), cubeConfig);
         try {
-            mosaicCube = (MosaicCube) metaData.getClazz().getDeclaredConstructor().newInstance();
+            mosaicCube = newMosaicCube(cubeConfig);
             boolean result = mosaicCube.init();
+            if (result && CubeScopeType.POOLED.equals(metaData.getScope()) && !isAngleCube()) {
+                // 实例的创建与登记和配置变更持有同一把锁，新实例不会以旧快照创建后错过配置变更
+                instancePool = new CubeInstancePool(this::createPooledInstance, this,
+                        metaData.getPoolMaxSize(), metaData.getPoolBorrowTimeoutMillis());
+                instancePool.prewarm(metaData.getPoolPrewarm());
+                // 批量扩展点同样从实例池借出实例执行，不在共享的原型扩展包上并发调用
+                for (ExtensionPackage extensionPackage : metaData.extensionPackages) {
+                    for (ExtensionPoint extensionPoint : extensionPackage.getExtensionPoints()) {
+                        Optional.ofNullable(extensionPoint.getBatcher()).ifPresent(batcher -> batcher.bindInstancePool(instancePool));
+                    }
+                }
+            }
             if (result) {
                 initialized = true;
                 // 初始化扩展包，为mosaicPackage塞入mosaicCube
@@ -87,16 +123,114 @@ public class Cube extends ConfigurableEntity implements CubeApi {
                 }
             }
             return result;
-        } catch (InstantiationException | IllegalAccessException |
-                 InvocationTargetException | NoSuchMethodException e) {
+        } catch (ReflectiveOperationException e) {
             log.error("Failed to create and init cube instance: {}", e.getMessage());
             throw new RuntimeException(e);
         }
     }
 
+    /**
+     * 实例化插件并绑定配置快照
+     * 兼容在构造方法中读取配置的插件，构造期间在当前线程上设置配置，构造完成后立即清理
+     */
+    @SuppressWarnings("deprecation")
+    private MosaicCube newMosaicCube(CubeConfig snapshot) throws ReflectiveOperationException {
+        String cubeId = getCubeId().toString();
+        CubeConfigThreadLocal.set(cubeId, snapshot);
+        try {
+            MosaicCube instance = (MosaicCube) metaData.getClazz().getDeclaredConstructor().newInstance();
+            instance.bindCubeConfig(snapshot);
+            return instance;
+        } finally {
+            CubeConfigThreadLocal.remove(cubeId);
+        }
+    }
+
+    /**
+     * 尝试就地应用新配置：校验后生成新快照，主实例与池中全部实例都接受变更时才写入配置并整体替换快照
+     * 配置没有变化时直接返回true；任一实例不接受时当前配置保持不变并返回false，由调用方重建实例
+     */
+    public synchronized boolean reconfigure(Map<String, Object> configs) throws CubeException {
+        CubeConfig oldConfig = cubeConfig;
+        Map<String, Object> newValues = resolveConfigs(configs);
+        CubeConfig newConfig = new CubeConfig(newValues, configVersion.get() + 1, getConfigInfo(), oldConfig);
+        Set<String> changedKeys = newConfig.diff(oldConfig);
+        if (oldConfig != null && changedKeys.isEmpty()) {
+            applyConfigs(newValues);
+            return true;
+        }
+        if (mosaicCube == null || !acceptConfigChange(oldConfig, newConfig, changedKeys)) {
+            return false;
+        }
+        applyConfigs(newValues);
+        configVersion.incrementAndGet();
+        cubeConfig = newConfig;
+        mosaicCube.bindCubeConfig(newConfig);
+        Optional.ofNullable(instancePool).ifPresent(pool ->
+                pool.forEachInstance(instance -> instance.getMosaicCube().bindCubeConfig(newConfig)));
+        log.info("[Cube] config applied in place | CubeId: {} | version: {} | changed: {}",
+                getCubeId(), newConfig.getVersion(), changedKeys);
+        return true;
+    }
+
+    private boolean acceptConfigChange(CubeConfig oldConfig, CubeConfig newConfig, Set<String> changedKeys) {
+        try {
+            if (!mosaicCube.onConfigChange(oldConfig, newConfig, changedKeys)) {
+                return false;
+            }
+            if (instancePool == null) {
+                return true;
+            }
+            boolean[] accepted = {true};
+            instancePool.forEachInstance(instance -> accepted[0] &= instance.getMosaicCube()
+                    .onConfigChange(oldConfig, newConfig, changedKeys));
+            return accepted[0];
+        } catch (Exception e) {
+            log.warn("[Cube] onConfigChange failed, instance will be rebuilt | CubeId: {} | error: {}",
+                    getCubeId(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 当前生效的配置快照
+     */
+    @Override
+    public CubeConfig getCubeConfig() {
+        return cubeConfig;
+    }
+
+    /**
+     * 为实例池创建一个独立初始化的MosaicCube，并为其创建一组扩展包实例
+     * 由实例池在持有本对象锁时调用，与{@link #reconfigure(Map)}互斥
+     */
+    private CubeInstancePool.PooledInstance createPooledInstance() {
+        try {
+            MosaicCube pooledCube = newMosaicCube(cubeConfig);
+            if (!pooledCube.init()) {
+                throw new CubeException("Pooled cube instance init returned false | CubeId: " + getCubeId());
+            }
+            Map<Class<?>, MosaicExtPackage<?>> extPackages = new HashMap<>();
+            for (ExtensionPackage extensionPackage : metaData.extensionPackages) {
+                MosaicExtPackage<?> prototype = extensionPackage.getMosaicExtPackage();
+                if (prototype == null) {
+                    continue;
+                }
+                MosaicExtPackage<?> pooledPackage = prototype.getClass().getDeclaredConstructor().newInstance();
+                pooledPackage.initCube(pooledCube);
+                extPackages.put(prototype.getClass(), pooledPackage);
+            }
+            return new CubeInstancePool.PooledInstance(pooledCube, extPackages);
+        } catch (ReflectiveOperationException e) {
+            log.error("Failed to create pooled cube instance: {}", e.getMessage());
+            throw new CubeException("Failed to create pooled cube instance | CubeId: " + getCubeId(), e);
+        }
+    }
+
     @Override
     public boolean destroy() {
-       return mosaicCube.destroy();
+        Optional.ofNullable(instancePool).ifPresent(CubeInstancePool::close);
+        return mosaicCube.destroy();
     }
 
     @Override
@@ -122,6 +256,11 @@ public class Cube extends ConfigurableEntity implements CubeApi {
         private String scope;
         private Class<?> clazz;
 
+        // 池化范围的实例池参数
+        private int poolMaxSize;
+        private int poolPrewarm;
+        private long poolBorrowTimeoutMillis;
+
         // 扩展包元数据
         private final List<ExtensionPackage> extensionPackages = new CopyOnWriteArrayList<>();
         private final Map<GUID, ExtensionPackage> extensionPackageMap = new ConcurrentHashMap<>();
@@ -1,24 +1,102 @@
 package io.github.tml.mosaic.cube;
-import lombok.Data;
 
-import java.util.Collections;
-import java.util.Map;
+import io.github.tml.mosaic.core.tools.param.ConfigInfo;
+import io.github.tml.mosaic.core.tools.param.ConfigItem;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.ToString;
 
-@Data
-public class CubeConfig {
+import java.util.*;
+
+/**
+ * Cube配置快照，创建后不可变
+ * 配置更新时生成版本号更大的新快照并整体替换，读取方无需加锁
+ * 值在创建快照时按ConfigItem声明的类型转换一次，读取时按槽位直接取出，类型不一致时才做转换
+ */
+@Getter
+@ToString(of = {"version", "configValues"})
+public final class CubeConfig {
+
+    private final Map<String, Object> configValues;
+
+    /**
+     * 快照版本号，同一个Cube每次配置更新递增
+     */
+    private final long version;
+
+    /**
+     * 配置名到槽位的布局，配置名集合不变时在新旧版本间复用
+     */
+    @Getter(AccessLevel.NONE)
+    private final Layout layout;
+
+    /**
+     * 按槽位排列的已转换配置值
+     */
+    @Getter(AccessLevel.NONE)
+    private final Object[] values;
 
     public CubeConfig(Map<String, Object> configValues) {
-        this.configValues = configValues;
+        this(configValues, 0L);
+    }
+
+    public CubeConfig(Map<String, Object> configValues, long version) {
+        this(configValues, version, null, null);
     }
 
-    private Map<String, Object> configValues;
+    /**
+     * @param configInfo 配置定义，用于确定每个配置的目标类型，可为null
+     * @param previous 上一个版本的快照，配置名集合相同时复用其布局，可为null
+     */
+    public CubeConfig(Map<String, Object> configValues, long version, ConfigInfo configInfo, CubeConfig previous) {
+        this.configValues = configValues != null
+                ? Collections.unmodifiableMap(new HashMap<>(configValues))
+                : Collections.emptyMap();
+        this.version = version;
+        this.layout = previous != null && previous.layout.matches(this.configValues.keySet(), configInfo)
+                ? previous.layout
+                : Layout.of(this.configValues.keySet(), configInfo);
+        this.values = new Object[layout.size()];
+        this.configValues.forEach((name, value) -> {
+            int slot = layout.indexOf(name);
+            values[slot] = convertValue(value, layout.typeAt(slot), value);
+        });
+    }
+
+    /**
+     * 按类型化配置键读取配置值，不存在时返回键上的默认值
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(ConfigKey<T> key) {
+        int slot = key.slot(layout);
+        if (slot < 0) {
+            return key.getDefaultValue();
+        }
+        Object value = values[slot];
+        if (value == null) {
+            return key.getDefaultValue();
+        }
+        if (key.getType().isInstance(value)) {
+            return (T) value;
+        }
+        T converted = convertValue(value, key.getType(), null);
+        return converted != null ? converted : key.getDefaultValue();
+    }
 
     /**
      * 获取配置值
      */
+    @SuppressWarnings("unchecked")
     public <T> T getConfig(String name, Class<T> type) {
-        Object value = configValues.get(name);
-        return convertValue(value, type);
+        int slot = layout.indexOf(name);
+        if (slot < 0) {
+            return null;
+        }
+        Object value = values[slot];
+        if (value == null || type.isInstance(value)) {
+            return (T) value;
+        }
+        return convertValue(value, type, null);
     }
 
     /**
@@ -29,32 +107,162 @@ public class CubeConfig {
         return value != null ? value : defaultValue;
     }
 
+    /**
+     * 与另一个快照相比新增、删除或值发生变化的配置名，other为null时返回全部配置名
+     */
+    public Set<String> diff(CubeConfig other) {
+        if (other == null) {
+            return new TreeSet<>(configValues.keySet());
+        }
+        Set<String> changed = new TreeSet<>();
+        configValues.forEach((name, value) -> {
+            if (!other.configValues.containsKey(name)
+                    || !Objects.equals(values[layout.indexOf(name)], other.values[other.layout.indexOf(name)])) {
+                changed.add(name);
+            }
+        });
+        other.configValues.keySet().stream()
+                .filter(name -> !configValues.containsKey(name))
+                .forEach(changed::add);
+        return changed;
+    }
+
     /**
      * 获取所有配置（只读）
      */
     public Map<String, Object> getAllConfigs() {
-        return Collections.unmodifiableMap(configValues);
+        return configValues;
     }
 
     /**
-     * 类型转换
+     * 类型转换，targetType为null时保留原值，无法转换时返回fallback
      */
     @SuppressWarnings("unchecked")
-    private <T> T convertValue(Object value, Class<T> type) {
-        if (value == null || type.isInstance(value)) {
+    private static <T> T convertValue(Object value, Class<?> targetType, Object fallback) {
+        if (value == null || targetType == null || targetType.isInstance(value)) {
             return (T) value;
         }
         try {
-            String str = value.toString();
-            if (type == String.class) return (T) str;
-            if (type == Integer.class || type == int.class) return (T) Integer.valueOf(str);
-            if (type == Boolean.class || type == boolean.class) return (T) Boolean.valueOf(str);
-            if (type == Long.class || type == long.class) return (T) Long.valueOf(str);
-            if (type == Double.class || type == double.class) return (T) Double.valueOf(str);
+            String str = value.toString().trim();
+            if (targetType == String.class) return (T) value.toString();
+            if (targetType == Integer.class || targetType == int.class) return (T) Integer.valueOf(str);
+            if (targetType == Boolean.class || targetType == boolean.class) return (T) Boolean.valueOf(str);
+            if (targetType == Long.class || targetType == long.class) return (T) Long.valueOf(str);
+            if (targetType == Double.class || targetType == double.class) return (T) Double.valueOf(str);
 
             return (T) value;
         } catch (Exception e) {
-            return null;
+            return (T) fallback;
+        }
+    }
+
+    /**
+     * 配置布局：配置名到槽位及槽位目标类型的映射，除按键缓存的槽位外创建后不可变
+     */
+    static final class Layout {
+
+        /**
+         * 按键编号缓存槽位的上限，超出的键（例如在方法内临时创建的键）每次按名称查找
+         */
+        private static final int MAX_CACHED_KEYS = 4096;
+
+        private static final int UNRESOLVED = Integer.MIN_VALUE;
+
+        private static final int[] NO_SLOTS = new int[0];
+
+        private final Map<String, Integer> index;
+
+        /**
+         * ConfigKey编号到槽位，UNRESOLVED表示尚未解析；同一编号的解析结果恒定，并发重复解析无害
+         */
+        private volatile int[] keySlots = NO_SLOTS;
+
+        private final Class<?>[] types;
+
+        private final ConfigInfo configInfo;
+
+        private Layout(Map<String, Integer> index, Class<?>[] types, ConfigInfo configInfo) {
+            this.index = index;
+            this.types = types;
+            this.configInfo = configInfo;
+        }
+
+        static Layout of(Set<String> names, ConfigInfo configInfo) {
+            Map<String, Integer> index = new HashMap<>(names.size() * 2);
+            Class<?>[] types = new Class<?>[names.size()];
+            int slot = 0;
+            for (String name : new TreeSet<>(names)) {
+                ConfigItem item = configInfo != null ? configInfo.getConfigItem(name) : null;
+                types[slot] = item != null ? typeOf(item.getType()) : null;
+                index.put(name, slot++);
+            }
+            return new Layout(Collections.unmodifiableMap(index), types, configInfo);
+        }
+
+        boolean matches(Set<String> names, ConfigInfo configInfo) {
+            return this.configInfo == configInfo && index.keySet().equals(names);
+        }
+
+        int indexOf(String name) {
+            Integer slot = index.get(name);
+            return slot != null ? slot : -1;
+        }
+
+        /**
+         * 配置键在本布局中的槽位，每个键在每个布局上只按名称解析一次
+         */
+        int slotOf(ConfigKey<?> key) {
+            int id = key.id();
+            int[] cached = keySlots;
+            if (id < cached.length && cached[id] != UNRESOLVED) {
+                return cached[id];
+            }
+            int slot = indexOf(key.getName());
+            if (id < MAX_CACHED_KEYS) {
+                synchronized (this) {
+                    int[] current = keySlots;
+                    if (id >= current.length) {
+                        int length = Math.min(MAX_CACHED_KEYS, Math.max(id + 1, current.length * 2));
+                        int[] grown = Arrays.copyOf(current, length);
+                        Arrays.fill(grown, current.length, length, UNRESOLVED);
+                        current = grown;
+                    }
+                    current[id] = slot;
+                    keySlots = current;
+                }
+            }
+            return slot;
+        }
+
+        Class<?> typeAt(int slot) {
+            return types[slot];
+        }
+
+        int size() {
+            return types.length;
+        }
+
+        /**
+         * ConfigItem声明的类型名到Java类型，未知类型保留原值
+         */
+        private static Class<?> typeOf(String type) {
+            if (type == null) {
+                return null;
+            }
+            switch (type.toLowerCase()) {
+                case "string":
+                    return String.class;
+                case "integer":
+                    return Integer.class;
+                case "boolean":
+                    return Boolean.class;
+                case "long":
+                    return Long.class;
+                case "double":
+                    return Double.class;
+                default:
+                    return null;
+            }
         }
     }
 }
@@ -2,6 +2,11 @@ package io.github.tml.mosaic.cube;
 
 import java.util.HashMap;
 
+/**
+ * @deprecated 配置快照已直接挂在实例上，通过{@link io.github.tml.mosaic.cube.api.CubeApi#getCubeConfig()}读取；
+ * 框架仅在插件构造方法执行期间设置，构造完成后立即清理
+ */
+@Deprecated
 public class CubeConfigThreadLocal {
 
     private static final ThreadLocal<HashMap<String, CubeConfig>> cubeConfigThreadLocal = ThreadLocal.withInitial(HashMap::new);
@@ -13,4 +18,12 @@ public class CubeConfigThreadLocal {
     public static void set(String cubeId, CubeConfig cubeConfig) {
         cubeConfigThreadLocal.get().put(cubeId, cubeConfig);
     }
+
+    public static void remove(String cubeId) {
+        HashMap<String, CubeConfig> configs = cubeConfigThreadLocal.get();
+        configs.remove(cubeId);
+        if (configs.isEmpty()) {
+            cubeConfigThreadLocal.remove();
+        }
+    }
 }
@@ -0,0 +1,190 @@
+package io.github.tml.mosaic.cube;
+
+import io.github.tml.mosaic.core.execption.CubeException;
+import io.github.tml.mosaic.cube.external.MosaicCube;
+import io.github.tml.mosaic.cube.external.MosaicExtPackage;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 描述: 池化范围Cube的实例池
+ * 池中每个实例是一个已初始化的MosaicCube及绑定到它的一组扩展包实例，同一实例同一时刻只借给一个调用方
+ */
+@Slf4j
+public class CubeInstancePool {
+
+    private final Supplier<PooledInstance> factory;
+
+    /**
+     * 创建并登记实例期间持有的锁，由池的所有者传入以与其遍历实例的操作互斥
+     */
+    private final Object createLock;
+
+    /**
+     * 空闲实例，后进先出以复用最近使用过的实例
+     */
+    private final LinkedBlockingDeque<PooledInstance> idle = new LinkedBlockingDeque<>();
+
+    /**
+     * 池中全部实例，包括借出中的实例
+     */
+    private final Set<PooledInstance> instances = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 借出许可，总数即池的最大实例数
+     */
+    private final Semaphore permits;
+
+    @Getter
+    private final int maxSize;
+
+    @Getter
+    private final long borrowTimeoutMillis;
+
+    private volatile boolean closed;
+
+    public CubeInstancePool(Supplier<PooledInstance> factory, int maxSize, long borrowTimeoutMillis) {
+        this(factory, new Object(), maxSize, borrowTimeoutMillis);
+    }
+
+    public CubeInstancePool(Supplier<PooledInstance> factory, Object createLock, int maxSize, long borrowTimeoutMillis) {
+        this.factory = factory;
+        this.createLock = createLock;
+        this.maxSize = Math.max(1, maxSize);
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.permits = new Semaphore(this.maxSize, true);
+    }
+
+    /**
+     * 预先创建实例放入空闲队列
+     */
+    public void prewarm(int count) {
+        for (int i = Math.min(count, maxSize) - idle.size(); i > 0; i--) {
+            idle.offerFirst(create());
+        }
+    }
+
+    private PooledInstance create() {
+        synchronized (createLock) {
+            PooledInstance instance = factory.get();
+            instances.add(instance);
+            return instance;
+        }
+    }
+
+    /**
+     * 遍历池中全部实例（包括借出中的实例）
+     */
+    public void forEachInstance(Consumer<PooledInstance> action) {
+        instances.forEach(action);
+    }
+
+    /**
+     * 借出一个实例，没有空闲实例且未达上限时新建，达到上限时最多等待borrowTimeoutMillis
+     */
+    public PooledInstance borrow() throws CubeException {
+        if (closed) {
+            throw new CubeException("cube instance pool is closed");
+        }
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new CubeException(String.format("borrow pooled cube instance timeout after %dms, maxSize:%d",
+                        borrowTimeoutMillis, maxSize));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CubeException("borrow pooled cube instance interrupted", e);
+        }
+        try {
+            PooledInstance instance = idle.pollFirst();
+            return instance != null ? instance : create();
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * 归还借出的实例，池已关闭时直接销毁
+     */
+    public void giveBack(PooledInstance instance) {
+        try {
+            if (closed) {
+                discard(instance);
+                return;
+            }
+            idle.offerFirst(instance);
+            // 放回期间关闭的池可能已清空过空闲队列，此时由归还方取回并销毁；两方只有一方能移除该实例
+            if (closed && idle.remove(instance)) {
+                discard(instance);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void discard(PooledInstance instance) {
+        instances.remove(instance);
+        instance.destroy();
+    }
+
+    /**
+     * 关闭实例池并销毁空闲实例，借出中的实例在归还时销毁
+     */
+    public void close() {
+        closed = true;
+        PooledInstance instance;
+        while ((instance = idle.pollFirst()) != null) {
+            discard(instance);
+        }
+    }
+
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    public int getActiveCount() {
+        return maxSize - permits.availablePermits();
+    }
+
+    /**
+     * 池中的一个实例，扩展包按类型绑定到同一个MosaicCube
+     */
+    public static class PooledInstance {
+
+        @Getter
+        private final MosaicCube mosaicCube;
+
+        private final Map<Class<?>, MosaicExtPackage<?>> extPackages;
+
+        public PooledInstance(MosaicCube mosaicCube, Map<Class<?>, MosaicExtPackage<?>> extPackages) {
+            this.mosaicCube = mosaicCube;
+            this.extPackages = Collections.unmodifiableMap(extPackages);
+        }
+
+        /**
+         * 获取与给定扩展包同类型、绑定到本实例的扩展包
+         */
+        public MosaicExtPackage<?> getExtPackage(Class<?> extPackageClass) {
+            return extPackages.get(extPackageClass);
+        }
+
+        void destroy() {
+            try {
+                mosaicCube.destroy();
+            } catch (Exception e) {
+                log.warn("destroy pooled cube instance failed: {}", e.getMessage());
+            }
+        }
+    }
+}
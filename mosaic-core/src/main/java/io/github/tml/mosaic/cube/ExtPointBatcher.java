@@ -0,0 +1,241 @@
+package io.github.tml.mosaic.cube;
+
+import io.github.tml.mosaic.core.NamedThreadFactory;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * 描述: 扩展点批量合并器
+ * 收集并发到达的单条调用，达到单批上限或等待超过linger时间后调用一次批量方法，
+ * 再按下标把结果分发给各自的调用方
+ * 池化范围的Cube绑定实例池后，每次批量调用从池中借出实例，在该实例的同类型扩展包上执行，结束后归还
+ */
+@Slf4j
+public final class ExtPointBatcher {
+
+    /**
+     * linger定时器，所有扩展点共享
+     */
+    private static final ScheduledExecutorService LINGER_TIMER;
+
+    /**
+     * 定时触发的批量调用在此执行，定时器线程只负责取出批次，从不执行插件代码
+     * 队列有界，排满时拒绝并使该批调用失败
+     */
+    private static final ThreadPoolExecutor FLUSH_EXECUTOR;
+
+    private static final int FLUSH_QUEUE_CAPACITY = 1024;
+
+    static {
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, daemon(new NamedThreadFactory("ext-point-batch-timer")));
+        timer.setRemoveOnCancelPolicy(true);
+        LINGER_TIMER = timer;
+        int flushThreads = Runtime.getRuntime().availableProcessors() * 2;
+        ThreadPoolExecutor flushExecutor = new ThreadPoolExecutor(flushThreads, flushThreads, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(FLUSH_QUEUE_CAPACITY), daemon(new NamedThreadFactory("ext-point-batch")));
+        flushExecutor.allowCoreThreadTimeOut(true);
+        FLUSH_EXECUTOR = flushExecutor;
+    }
+
+    private final Object target;
+
+    private final ExtPointInvoker batchInvoker;
+
+    @Getter
+    private final int maxSize;
+
+    @Getter
+    private final long lingerMs;
+
+    /**
+     * 调用方等待结果的最长时间，不大于0表示一直等待
+     */
+    @Getter
+    private final long timeoutMillis;
+
+    /**
+     * 单参数扩展点直接以参数作为批量元素，多参数扩展点以参数数组作为批量元素
+     */
+    private final boolean singleArg;
+
+    /**
+     * 池化范围Cube的实例池，为null时在target上执行批量方法
+     */
+    private volatile CubeInstancePool instancePool;
+
+    private final Object lock = new Object();
+
+    private List<PendingCall> pending;
+
+    private ScheduledFuture<?> lingerTask;
+
+    public ExtPointBatcher(Object target, ExtPointInvoker batchInvoker, int maxSize, long lingerMs, long timeoutMillis,
+                           boolean singleArg) {
+        this.target = target;
+        this.batchInvoker = batchInvoker;
+        this.maxSize = Math.max(maxSize, 1);
+        this.lingerMs = Math.max(lingerMs, 0);
+        this.timeoutMillis = timeoutMillis;
+        this.singleArg = singleArg;
+        this.pending = new ArrayList<>(this.maxSize);
+    }
+
+    /**
+     * 绑定池化范围Cube的实例池，此后的批量调用不再在共享的target上执行
+     */
+    public void bindInstancePool(CubeInstancePool instancePool) {
+        this.instancePool = instancePool;
+    }
+
+    /**
+     * 提交一次单条调用，返回该条调用的结果
+     * 调用方放弃等待时取消返回的future，尚未执行的调用不会再交给批量方法
+     */
+    public CompletableFuture<Object> submit(Object[] args) {
+        PendingCall call = new PendingCall(args);
+        List<PendingCall> full = null;
+        synchronized (lock) {
+            pending.add(call);
+            if (pending.size() >= maxSize) {
+                full = drain();
+            } else if (pending.size() == 1) {
+                lingerTask = LINGER_TIMER.schedule(this::flushByTimer, lingerMs, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (full != null) {
+            // 凑满一批的调用方直接在自己的线程中执行
+            dispatch(full);
+        }
+        return call.future;
+    }
+
+    /**
+     * 直接批量调用，调用方已持有整批参数时使用，按单批上限切分且不等待linger
+     * @return 与入参顺序一致的结果
+     */
+    public List<Object> invokeAll(List<Object[]> argsList) throws Throwable {
+        List<Object> results = new ArrayList<>(argsList.size());
+        for (int from = 0; from < argsList.size(); from += maxSize) {
+            List<Object[]> chunk = argsList.subList(from, Math.min(from + maxSize, argsList.size()));
+            List<Object> items = new ArrayList<>(chunk.size());
+            for (Object[] args : chunk) {
+                items.add(toItem(args));
+            }
+            results.addAll(invokeBatch(items));
+        }
+        return results;
+    }
+
+    private List<PendingCall> drain() {
+        List<PendingCall> batch = pending;
+        pending = new ArrayList<>(maxSize);
+        if (lingerTask != null) {
+            lingerTask.cancel(false);
+            lingerTask = null;
+        }
+        return batch;
+    }
+
+    private void flushByTimer() {
+        List<PendingCall> batch;
+        synchronized (lock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = drain();
+        }
+        try {
+            FLUSH_EXECUTOR.execute(() -> dispatch(batch));
+        } catch (RejectedExecutionException e) {
+            log.error("ext point batch executor is saturated, fail batch of size:{}", batch.size());
+            RejectedExecutionException rejected = new RejectedExecutionException("ext point batch executor is saturated");
+            for (PendingCall call : batch) {
+                call.future.completeExceptionally(rejected);
+            }
+        }
+    }
+
+    private void dispatch(List<PendingCall> calls) {
+        List<PendingCall> batch = new ArrayList<>(calls.size());
+        for (PendingCall call : calls) {
+            // 已超时或被中断的调用方不再需要结果
+            if (!call.future.isDone()) {
+                batch.add(call);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<Object> items = new ArrayList<>(batch.size());
+        for (PendingCall call : batch) {
+            items.add(toItem(call.args));
+        }
+        try {
+            List<?> results = invokeBatch(items);
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).future.complete(results.get(i));
+            }
+        } catch (Throwable e) {
+            log.error("ext point batch invoke error, batch size:{}, error:{}", batch.size(), e.getMessage());
+            for (PendingCall call : batch) {
+                call.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    private List<?> invokeBatch(List<Object> items) throws Throwable {
+        CubeInstancePool pool = instancePool;
+        if (pool == null) {
+            return invokeBatch(target, items);
+        }
+        CubeInstancePool.PooledInstance instance = pool.borrow();
+        try {
+            Object pooledTarget = instance.getExtPackage(target.getClass());
+            if (pooledTarget == null) {
+                throw new IllegalStateException("pooled instance has no exPackage of " + target.getClass().getName());
+            }
+            return invokeBatch(pooledTarget, items);
+        } finally {
+            pool.giveBack(instance);
+        }
+    }
+
+    private List<?> invokeBatch(Object target, List<Object> items) throws Throwable {
+        Object ret = batchInvoker.invoke(target, new Object[]{items});
+        if (!(ret instanceof List) || ((List<?>) ret).size() != items.size()) {
+            throw new IllegalStateException(String.format("batch method must return a list of %d results, but got %s",
+                    items.size(), ret instanceof List ? ((List<?>) ret).size() + " results" : String.valueOf(ret)));
+        }
+        return (List<?>) ret;
+    }
+
+    private Object toItem(Object[] args) {
+        if (singleArg) {
+            return args == null || args.length == 0 ? null : args[0];
+        }
+        return args;
+    }
+
+    private static ThreadFactory daemon(ThreadFactory threadFactory) {
+        return r -> {
+            Thread thread = threadFactory.newThread(r);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static final class PendingCall {
+
+        private final Object[] args;
+
+        private final CompletableFuture<Object> future = new CompletableFuture<>();
+
+        private PendingCall(Object[] args) {
+            this.args = args;
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package io.github.tml.mosaic.cube;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * 描述: 扩展点调用器
+ * 在扩展包装配时为扩展点方法生成一次调用器，执行时直接调用，
+ * 避免每次执行都进行getMethod查找和Method.invoke的参数校验与装箱
+ * 参数不超过{@link #MAX_LAMBDA_ARITY}个的实例方法通过LambdaMetafactory在插件类中生成按参数个数区分的实现类，
+ * 调用点上是普通的接口调用，JIT可以内联到插件方法；其余方法退回到MethodHandle调用
+ */
+public abstract class ExtPointInvoker {
+
+    public static final int MAX_LAMBDA_ARITY = 4;
+
+    private static final MethodType GENERIC_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
+
+    private static final Class<?>[] CALL_TYPES = {Call0.class, Call1.class, Call2.class, Call3.class, Call4.class};
+
+    private static final Class<?>[] VOID_CALL_TYPES = {VoidCall0.class, VoidCall1.class, VoidCall2.class, VoidCall3.class, VoidCall4.class};
+
+    private static final Object[] NO_ARGS = new Object[0];
+
+    private final int parameterCount;
+
+    private ExtPointInvoker(int parameterCount) {
+        this.parameterCount = parameterCount;
+    }
+
+    /**
+     * 基于扩展点方法生成调用器
+     * 插件类由插件类加载器加载，实现类在插件类所在的类加载器中生成；插件类加载器看不到框架的调用接口时退回到MethodHandle
+     */
+    public static ExtPointInvoker of(Method method) throws IllegalAccessException {
+        method.setAccessible(true);
+        Class<?> declaringClass = method.getDeclaringClass();
+        int parameterCount = method.getParameterCount();
+        if (parameterCount <= MAX_LAMBDA_ARITY && !Modifier.isStatic(method.getModifiers()) && !method.isVarArgs()) {
+            boolean isVoid = method.getReturnType() == void.class;
+            Class<?> callType = (isVoid ? VOID_CALL_TYPES : CALL_TYPES)[parameterCount];
+            if (isVisible(callType, declaringClass.getClassLoader())) {
+                MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(declaringClass, MethodHandles.lookup());
+                Object call = spin(lookup, lookup.unreflect(method), callType, isVoid, parameterCount);
+                if (call != null) {
+                    return lambdaInvoker(call, isVoid, parameterCount);
+                }
+            }
+        }
+        MethodHandle methodHandle = MethodHandles.lookup().unreflect(method).asFixedArity();
+        methodHandle = methodHandle.asType(methodHandle.type().generic())
+                .asSpreader(Object[].class, parameterCount)
+                .asType(GENERIC_TYPE);
+        return new HandleInvoker(methodHandle, parameterCount);
+    }
+
+    /**
+     * 调用扩展点方法，方法自身抛出的异常原样抛出
+     */
+    public abstract Object invoke(Object target, Object[] args) throws Throwable;
+
+    /**
+     * 是否通过生成的实现类直接调用
+     */
+    public abstract boolean isDirect();
+
+    final Object[] checkArgs(Object[] args) {
+        Object[] actual = args == null ? NO_ARGS : args;
+        if (actual.length != parameterCount) {
+            throw new IllegalArgumentException(String.format("ext point expects %d arguments, but got %d",
+                    parameterCount, actual.length));
+        }
+        return actual;
+    }
+
+    private static boolean isVisible(Class<?> type, ClassLoader classLoader) {
+        try {
+            return Class.forName(type.getName(), false, classLoader) == type;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * 生成调用接口的实现类实例，签名无法适配时返回null
+     */
+    private static Object spin(MethodHandles.Lookup lookup, MethodHandle target, Class<?> callType,
+                               boolean isVoid, int parameterCount) {
+        MethodType samType = MethodType.genericMethodType(parameterCount + 1);
+        MethodType instantiatedType = target.type().wrap();
+        if (isVoid) {
+            samType = samType.changeReturnType(void.class);
+            instantiatedType = instantiatedType.changeReturnType(void.class);
+        } else {
+            instantiatedType = instantiatedType.changeReturnType(Object.class);
+        }
+        try {
+            CallSite callSite = LambdaMetafactory.metafactory(lookup, "call", MethodType.methodType(callType),
+                    samType, target, instantiatedType);
+            return callSite.getTarget().invoke();
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+
+    private static ExtPointInvoker lambdaInvoker(Object call, boolean isVoid, int parameterCount) {
+        if (isVoid) {
+            switch (parameterCount) {
+                case 0: return new VoidInvoker0((VoidCall0) call);
+                case 1: return new VoidInvoker1((VoidCall1) call);
+                case 2: return new VoidInvoker2((VoidCall2) call);
+                case 3: return new VoidInvoker3((VoidCall3) call);
+                default: return new VoidInvoker4((VoidCall4) call);
+            }
+        }
+        switch (parameterCount) {
+            case 0: return new Invoker0((Call0) call);
+            case 1: return new Invoker1((Call1) call);
+            case 2: return new Invoker2((Call2) call);
+            case 3: return new Invoker3((Call3) call);
+            default: return new Invoker4((Call4) call);
+        }
+    }
+
+    /*
+     * 按参数个数区分的调用接口，由LambdaMetafactory在插件类中实现，需对插件类加载器可见
+     */
+
+    @FunctionalInterface
+    public interface Call0 { Object call(Object target) throws Throwable; }
+
+    @FunctionalInterface
+    public interface Call1 { Object call(Object target, Object a0) throws Throwable; }
+
+    @FunctionalInterface
+    public interface Call2 { Object call(Object target, Object a0, Object a1) throws Throwable; }
+
+    @FunctionalInterface
+    public interface Call3 { Object call(Object target, Object a0, Object a1, Object a2) throws Throwable; }
+
+    @FunctionalInterface
+    public interface Call4 { Object call(Object target, Object a0, Object a1, Object a2, Object a3) throws Throwable; }
+
+    @FunctionalInterface
+    public interface VoidCall0 { void call(Object target) throws Throwable; }
+
+    @FunctionalInterface
+    public interface VoidCall1 { void call(Object target, Object a0) throws Throwable; }
+
+    @FunctionalInterface
+    public interface VoidCall2 { void call(Object target, Object a0, Object a1) throws Throwable; }
+
+    @FunctionalInterface
+    public interface VoidCall3 { void call(Object target, Object a0, Object a1, Object a2) throws Throwable; }
+
+    @FunctionalInterface
+    public interface VoidCall4 { void call(Object target, Object a0, Object a1, Object a2, Object a3) throws Throwable; }
+
+    private static final class HandleInvoker extends ExtPointInvoker {
+        private final MethodHandle handle;
+
+        private HandleInvoker(MethodHandle handle, int parameterCount) {
+            super(parameterCount);
+            this.handle = handle;
+        }
+
+        @Override
+        public Object invoke(Object target, Object[] args) throws Throwable {
+            return (Object) handle.invokeExact(target, checkArgs(args));
+        }
+
+        @Override
+        public boolean isDirect() {
+            return false;
+        }
+    }
+
+    private abstract static class LambdaInvoker extends ExtPointInvoker {
+        private LambdaInvoker(int parameterCount) {
+            super(parameterCount);
+        }
+
+        @Override
+        public boolean isDirect() {
+            return true;
+        }
+    }
+
+    private static final class Invoker0 extends LambdaInvoker {
+        private final Call0 call;
+        private Invoker0(Call0 call) { super(0); this.call = call; }
+        @Override
+        public Object invoke(Object target, Object[] args) throws Throwable {
+            checkArgs(args);
+            return call.call(target);
+        }
+    }
+
+    private static final class Invoker1 extends LambdaInvoker {
+        private final Call1 call;
+        private Invoker1(Call1 call) { super(1); this.call = call; }
+        @Override
+        public Object invoke(Object target, Object[] args) throws Throwable {
+            Object[] a = checkArgs(args);
+            return call.call(target, a[0]);
+        }
+    }
+
+    private static final class Invoker2 extends LambdaInvoker {
+        private final Call2 call;
+        private Invoker2(Call2 call) { super(2); this.call = call; }
+        @Override
+        public Object invoke(Object target, Object[] args) throws Throwable {
+            Object[] a = checkArgs(args);
+            return call.call(target, a[0], a[1]);
+        }
+    }
+
+    private static final class Invoker3 extends LambdaInvoker {
+        private final Call3 call;
+        private Invoker3(Call3 call) { super(3); this.call = call; }
+        @Override
+        public Object invoke(Object target, Object[] args) throws Throwable {
+            Object[] a = checkArgs(args);
+            return call.call(target, a[0], a[1], a[2]);
+        }
+    }
+
+    private static final class Invoker4 extends LambdaInvoker {
+        private final Call4 call;
+        private Invoker4(Call4 call) { super(4); this.call = call; }
+        @Override
+        public Object invoke(Object target, Object[] args) throws Throwable {
+            Object[] a = checkArgs(args);
+            return call.call(target, a[0], a[1], a[2], a[3]);
+        }
+    }
+
+    private static final class VoidInvoker0 extends LambdaInvoker {
+        private final VoidCall0 call;
+        private VoidInvoker0(VoidCall0 call) { super(0); this.call = call; }
+        @Override
+        public Object invoke(Object target, Object[] args) throws Throwable {
+            checkArgs(args);
+            call.call(target);
+            return null;
+        }
+    }
+
+    private static final class VoidInvoker1 extends LambdaInvoker {
+        private final VoidCall1 call;
+        private VoidInvoker1(VoidCall1 call) { super(1); this.call = call; }
+        @Override
+        public Object invoke(Object target, Object[] args) throws Throwable {
+            Object[] a = checkArgs(args);
+            call.call(target, a[0]);
+            return null;
+        }
+    }
+
+    private static final class VoidInvoker2 extends LambdaInvoker {
+        private final VoidCall2 call;
+        private VoidInvoker2(VoidCall2 call) { super(2); this.call = call; }
+        @Override
+        public Object invoke(Object target, Object[] args) throws Throwable {
+            Object[] a = checkArgs(args);
+            call.call(target, a[0], a[1]);
+            return null;
+        }
+    }
+
+    private static final class VoidInvoker3 extends LambdaInvoker {
+        private final VoidCall3 call;
+        private VoidInvoker3(VoidCall3 call) { super(3); this.call = call; }
+        @Override
+        public Object invoke(Object target, Object[] args) throws Throwable {
+            Object[] a = checkArgs(args);
+            call.call(target, a[0], a[1], a[2]);
+            return null;
+        }
+    }
+
+    private static final class VoidInvoker4 extends LambdaInvoker {
+        private final VoidCall4 call;
+        private VoidInvoker4(VoidCall4 call) { super(4); this.call = call; }
+        @Override
+        public Object invoke(Object target, Object[] args) throws Throwable {
+            Object[] a = checkArgs(args);
+            call.call(target, a[0], a[1], a[2], a[3]);
+            return null;
+        }
+    }
+}
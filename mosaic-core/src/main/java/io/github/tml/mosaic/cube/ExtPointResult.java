@@ -3,21 +3,38 @@ package io.github.tml.mosaic.cube;
 import io.github.tml.mosaic.cube.factory.definition.PointResultDefinition;
 import lombok.Data;
 
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Optional;
 
 /**
  * 多参数适配器
+ * 返回项按声明顺序编号，编号即返回项在{@link io.github.tml.mosaic.cube.external.MosaicItemResult}中的下标
  */
 public class ExtPointResult {
 
-    private final Map<String, ExtPointResultItem> items = new HashMap<>();
+    private final Map<String, ExtPointResultItem> items = new LinkedHashMap<>();
 
     public void addResultItem(ExtPointResultItem extPointResultItem){
         Optional.ofNullable(extPointResultItem)
                 .map(ExtPointResultItem::getItemName)
-                .ifPresent(itemName -> items.put(itemName, extPointResultItem));
+                .ifPresent(itemName -> {
+                    ExtPointResultItem old = items.get(itemName);
+                    extPointResultItem.setIndex(old != null ? old.getIndex() : items.size());
+                    items.put(itemName, extPointResultItem);
+                });
+    }
+
+    /**
+     * 返回项下标，不存在时返回-1
+     */
+    public int indexOf(String itemName){
+        ExtPointResultItem item = items.get(itemName);
+        return item == null ? -1 : item.getIndex();
+    }
+
+    public int size(){
+        return items.size();
     }
 
     public ExtPointResultItem getResultItem(String itemName){
@@ -33,6 +50,7 @@ public class ExtPointResult {
         private String itemName;
         private Class<?> itemClass;
         private String description;
+        private int index = -1;
 
         public static ExtPointResultItem convertByDefinition(PointResultDefinition.PointResultItemDefinition itemDefinition) {
             ExtPointResult.ExtPointResultItem item = new ExtPointResult.ExtPointResultItem();
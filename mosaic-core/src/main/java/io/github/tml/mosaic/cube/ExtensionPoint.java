@@ -30,6 +30,16 @@ public class ExtensionPoint extends UniqueEntity {
 
     private ExtPointResult returnResult;
 
+    /**
+     * 扩展点调用器，扩展包装配时生成
+     */
+    private ExtPointInvoker invoker;
+
+    /**
+     * 批量合并器，仅声明了批量方法的扩展点存在
+     */
+    private ExtPointBatcher batcher;
+
     public ExtensionPoint(String id, String name, String description) {
         super(new DotNotationId(id));
         this.methodName = name;
@@ -52,6 +62,8 @@ public class ExtensionPoint extends UniqueEntity {
         extensionPoint.setMethodName(epd.getMethodName());
         extensionPoint.setParameterTypes(epd.getParameterTypes());
         extensionPoint.setReturnType(epd.getReturnType());
+        extensionPoint.setAsyncFlag(epd.isAsyncFlag());
+        extensionPoint.setPriority(epd.getPriority());
         return extensionPoint;
     }
 
@@ -11,6 +11,10 @@ public interface CubeApi {
 
     String cubeId();
 
+    /**
+     * 获取配置快照，MosaicCube读取实例上绑定的快照
+     */
+    @SuppressWarnings("deprecation")
     default CubeConfig getCubeConfig() {
         return CubeConfigThreadLocal.get(cubeId());
     }
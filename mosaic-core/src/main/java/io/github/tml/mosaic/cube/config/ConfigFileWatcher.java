@@ -0,0 +1,142 @@
+package io.github.tml.mosaic.cube.config;
+
+import io.github.tml.mosaic.core.NamedThreadFactory;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * 描述: 配置文件监听器
+ * 基于WatchService监听配置文件所在目录，同一文件在防抖时间内的多次变更只回调一次
+ * 编辑器先写临时文件再改名的保存方式同样能被识别
+ */
+@Slf4j
+public class ConfigFileWatcher implements Closeable {
+
+    private final WatchService watchService;
+
+    private final long debounceMillis;
+
+    private final Consumer<Path> onChange;
+
+    /**
+     * 监听的文件，均为规范化后的绝对路径
+     */
+    private final Set<Path> watchedFiles = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 已注册的目录
+     */
+    private final Map<Path, WatchKey> watchedDirs = new ConcurrentHashMap<>();
+
+    /**
+     * 等待防抖结束的回调
+     */
+    private final Map<Path, ScheduledFuture<?>> pending = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService debounceScheduler;
+
+    private final Thread pollThread;
+
+    private volatile boolean closed;
+
+    public ConfigFileWatcher(long debounceMillis, Consumer<Path> onChange) throws IOException {
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.debounceMillis = Math.max(0, debounceMillis);
+        this.onChange = onChange;
+        ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        this.debounceScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new NamedThreadFactory("config-reload").newThread(runnable);
+            thread.setDaemon(true);
+            thread.setContextClassLoader(contextClassLoader);
+            return thread;
+        });
+        this.pollThread = new NamedThreadFactory("config-watcher").newThread(this::pollLoop);
+        this.pollThread.setDaemon(true);
+    }
+
+    /**
+     * 监听指定文件，文件所在目录必须存在
+     */
+    public void watch(Path file) throws IOException {
+        Path normalized = file.toAbsolutePath().normalize();
+        Path dir = normalized.getParent();
+        if (dir == null || !Files.isDirectory(dir)) {
+            throw new IOException("Config file directory not found: " + normalized);
+        }
+        if (!watchedDirs.containsKey(dir)) {
+            watchedDirs.put(dir, dir.register(watchService, ENTRY_CREATE, ENTRY_MODIFY));
+        }
+        watchedFiles.add(normalized);
+        log.info("[Cube][ConfigWatcher] Watching config file: {}", normalized);
+    }
+
+    public void start() {
+        pollThread.start();
+    }
+
+    private void pollLoop() {
+        while (!closed) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            Path dir = (Path) key.watchable();
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == OVERFLOW) {
+                    // 事件丢失时所有文件都按变更处理
+                    watchedFiles.stream().filter(file -> dir.equals(file.getParent())).forEach(this::schedule);
+                    continue;
+                }
+                Path file = dir.resolve((Path) event.context()).normalize();
+                if (watchedFiles.contains(file)) {
+                    schedule(file);
+                }
+            }
+            if (!key.reset()) {
+                watchedDirs.remove(dir);
+                log.warn("[Cube][ConfigWatcher] Config directory no longer accessible: {}", dir);
+            }
+        }
+    }
+
+    private void schedule(Path file) {
+        pending.compute(file, (path, previous) -> {
+            if (previous != null) {
+                previous.cancel(false);
+            }
+            return debounceScheduler.schedule(() -> fire(path), debounceMillis, TimeUnit.MILLISECONDS);
+        });
+    }
+
+    private void fire(Path file) {
+        pending.remove(file);
+        try {
+            onChange.accept(file);
+        } catch (Exception e) {
+            log.error("[Cube][ConfigWatcher] Reload config file {} failed: {}", file, e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        pollThread.interrupt();
+        debounceScheduler.shutdownNow();
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            log.warn("[Cube][ConfigWatcher] Close watch service failed: {}", e.getMessage());
+        }
+    }
+}
@@ -5,14 +5,25 @@ import lombok.extern.slf4j.Slf4j;
 import org.yaml.snakeyaml.*;
 import org.yaml.snakeyaml.constructor.Constructor;
 
+import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Path;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.Map;
+import java.util.Optional;
 
 @Slf4j
 public class YamlConfigReader implements ConfigReader {
 
+    /**
+     * 文件系统路径前缀，不带前缀的路径从classpath加载
+     */
+    public static final String FILE_PREFIX = "file:";
+
     private String yamlFilePath;
 
     // 默认构造方法，指定默认 YAML 文件路径
@@ -35,25 +46,55 @@ public class YamlConfigReader implements ConfigReader {
         return yamlFilePath;
     }
 
+    /**
+     * 解析配置文件在文件系统中的位置，用于监听变更
+     * file:前缀的路径直接取文件，classpath资源仅在位于文件系统目录（而非jar包）中时可解析
+     */
+    public Optional<Path> resolveFile() {
+        if (yamlFilePath.startsWith(FILE_PREFIX)) {
+            return Optional.of(Paths.get(yamlFilePath.substring(FILE_PREFIX.length())));
+        }
+        URL resource = getClass().getClassLoader().getResource(yamlFilePath);
+        if (resource == null || !"file".equals(resource.getProtocol())) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(Paths.get(resource.toURI()));
+        } catch (URISyntaxException | RuntimeException e) {
+            return Optional.empty();
+        }
+    }
+
     // 读取 YAML 文件并转换为 JSONObject
     public JSONObject readYamlAsJson() {
-        // 使用类加载器从 classpath 加载资源文件
-        try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream(yamlFilePath)) {
+        try {
+            return readYamlAsJsonOrThrow();
+        } catch (Exception e) {
+            log.error("Failed to read YAML file: {} error:{}",yamlFilePath, e.getMessage());
+        }
+        return new JSONObject();
+    }
+
+    /**
+     * 读取 YAML 文件并转换为 JSONObject，文件不存在或解析失败时抛出异常
+     * 用于增量重载，避免把读取失败误判为配置被删除
+     */
+    public JSONObject readYamlAsJsonOrThrow() throws IOException {
+        // file:前缀从文件系统读取，否则使用类加载器从 classpath 加载资源文件
+        try (InputStream inputStream = yamlFilePath.startsWith(FILE_PREFIX)
+                ? Files.newInputStream(Paths.get(yamlFilePath.substring(FILE_PREFIX.length())))
+                : getClass().getClassLoader().getResourceAsStream(yamlFilePath)) {
             if (inputStream == null) {
-                log.error("YAML file not found in classpath: {}",yamlFilePath);
-                return new JSONObject();
+                throw new FileNotFoundException("YAML file not found in classpath: " + yamlFilePath);
             }
 
-            // 使用 SnakeYAML 解析 YAML 文件
+            // 使用 SnakeYAML 解析 YAML 文件，空文件解析结果为null
             Yaml yaml = new Yaml();
             Map<String, Object> yamlData = yaml.load(inputStream);
 
             // 转换为 JSONObject
-            return new JSONObject(yamlData);
-        } catch (Exception e) {
-            log.error("Failed to read YAML file: {} error:{}",yamlFilePath, e.getMessage());
+            return yamlData != null ? new JSONObject(yamlData) : new JSONObject();
         }
-        return new JSONObject();
     }
 
     @Override
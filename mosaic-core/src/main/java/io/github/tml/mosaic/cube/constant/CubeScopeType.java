@@ -10,4 +10,9 @@ public class CubeScopeType {
     public static final String SINGLETON = "singleton";
 
     public static final String PROPERTY = "property";
+
+    /**
+     * 池化：每个配置维护一组已初始化的实例，扩展点调用时借出、调用后归还
+     */
+    public static final String POOLED = "pooled";
 }
@@ -1,5 +1,14 @@
 package io.github.tml.mosaic.cube.external;
 
+import io.github.tml.mosaic.cube.ExtPointResult;
+
 public abstract class AbstractMosaicResult {
     public abstract  <T> T getResult(String key, Class<T> clazz);
+
+    /**
+     * 按装配阶段确定的返回项取值，默认按名称查找
+     */
+    public <T> T getResult(ExtPointResult.ExtPointResultItem item) {
+        return (T) getResult(item.getItemName(), item.getItemClass());
+    }
 }
@@ -0,0 +1,35 @@
+package io.github.tml.mosaic.cube.external;
+
+import java.lang.annotation.*;
+
+/**
+ * 描述: 扩展点批量声明，配合{@link MExtension#batch()}使用
+ * 声明后并发的单条调用会被合并为一次批量方法调用，每个调用方拿到自己对应的结果
+ * 批量方法签名：单参数扩展点为 List&lt;R&gt; method(List&lt;A&gt; items)，
+ * 多参数扩展点为 List&lt;R&gt; method(List&lt;Object[]&gt; argsList)，返回结果与入参一一对应
+ */
+@Target({})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface MBatch {
+
+    /**
+     * 批量方法名，为空表示不开启批量合并
+     */
+    String method() default "";
+
+    /**
+     * 单批最大条数，达到后立即调用
+     */
+    int maxSize() default 32;
+
+    /**
+     * 首条调用到达后最多等待的时间（毫秒）
+     */
+    long lingerMs() default 5;
+
+    /**
+     * 调用方等待批量结果的最长时间（毫秒），超时后该条调用失败，不大于0表示一直等待
+     */
+    long timeoutMs() default 30_000;
+}
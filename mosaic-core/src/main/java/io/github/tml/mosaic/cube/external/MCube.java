@@ -30,7 +30,32 @@ public @interface MCube {
     String description() default "";
     
     /**
-     * 方块的范围: 单例、多例
+     * 方块的范围: 单例、多例、池化
      */
     String scope() default SINGLETON;
+
+    /**
+     * 池化范围下实例池的最大实例数
+     */
+    int poolMaxSize() default 8;
+
+    /**
+     * 池化范围下初始化时预先创建的实例数
+     */
+    int poolPrewarm() default 0;
+
+    /**
+     * 池化范围下借出实例的最长等待时间（毫秒）
+     */
+    long poolBorrowTimeoutMillis() default 3000;
+
+    /**
+     * 依赖的Cube id，预实例化单例时先完成依赖的创建
+     */
+    String[] dependsOn() default {};
+
+    /**
+     * 懒加载：启动时不预实例化，首次执行或槽安装时创建，也可由后台预热创建
+     */
+    boolean lazy() default false;
 }
\ No newline at end of file
@@ -31,4 +31,14 @@ public @interface MExtension {
      * 优先级，数字越小优先级越高
      */
     int priority() default 100;
+
+    /**
+     * 是否异步执行，异步扩展点由异步执行器在独立线程池中执行，支持超时与取消
+     */
+    boolean async() default false;
+
+    /**
+     * 批量合并声明，默认不开启
+     */
+    MBatch batch() default @MBatch;
 }
\ No newline at end of file
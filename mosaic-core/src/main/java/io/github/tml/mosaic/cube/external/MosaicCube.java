@@ -1,9 +1,17 @@
 package io.github.tml.mosaic.cube.external;
 
+import io.github.tml.mosaic.cube.CubeConfig;
 import io.github.tml.mosaic.cube.api.CubeApi;
 
+import java.util.Set;
+
 public abstract class MosaicCube implements CubeApi {
 
+    /**
+     * 当前生效的配置快照，配置更新时由框架整体替换
+     */
+    private volatile CubeConfig cubeConfig;
+
     public MosaicCube() {
     }
 
@@ -11,4 +19,31 @@ public abstract class MosaicCube implements CubeApi {
     public boolean destroy() {
         return true;
     }
+
+    /**
+     * 读取当前配置快照，任意线程可见
+     * 构造方法执行期间快照尚未绑定，退回到构造线程上的配置
+     */
+    @Override
+    public CubeConfig getCubeConfig() {
+        CubeConfig current = cubeConfig;
+        return current != null ? current : CubeApi.super.getCubeConfig();
+    }
+
+    /**
+     * 配置变更回调，返回true表示已在当前实例上就地应用新配置，框架随后绑定新快照
+     * 默认返回false，框架在后台用新配置创建实例并替换当前实例，当前实例在进行中的调用结束后销毁
+     * 返回false时不应修改实例状态
+     * @param changedKeys 新增、删除或值发生变化的配置名
+     */
+    public boolean onConfigChange(CubeConfig oldConfig, CubeConfig newConfig, Set<String> changedKeys) {
+        return false;
+    }
+
+    /**
+     * 绑定配置快照，由框架在实例创建和配置更新时调用
+     */
+    public final void bindCubeConfig(CubeConfig cubeConfig) {
+        this.cubeConfig = cubeConfig;
+    }
 }
@@ -0,0 +1,83 @@
+package io.github.tml.mosaic.cube.external;
+
+import com.alibaba.fastjson.util.TypeUtils;
+import io.github.tml.mosaic.cube.ExtPointResult;
+
+import java.util.Arrays;
+
+/**
+ * Cube插件多返回项返回类
+ * 按@MResultItem声明的顺序以下标存放各返回项，按下标取值时不做任何类型转换
+ * 返回项名称由扩展点的返回项说明给出，执行器取值前绑定，绑定后也可按名称取值
+ */
+public class MosaicItemResult extends AbstractMosaicResult {
+
+    private final Object[] values;
+
+    /**
+     * 返回项名称到下标的映射，未绑定时按名称取值返回null
+     */
+    private volatile ExtPointResult items;
+
+    public MosaicItemResult(int size) {
+        this.values = new Object[size];
+    }
+
+    private MosaicItemResult(Object[] values) {
+        this.values = values;
+    }
+
+    /**
+     * 按@MResultItem声明顺序依次给出各返回项
+     */
+    public static MosaicItemResult of(Object... values) {
+        return new MosaicItemResult(values);
+    }
+
+    public MosaicItemResult set(int index, Object value) {
+        values[index] = value;
+        return this;
+    }
+
+    public Object get(int index) {
+        return index >= 0 && index < values.length ? values[index] : null;
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * 绑定扩展点的返回项说明，使按名称取值可用
+     */
+    public MosaicItemResult bindItems(ExtPointResult items) {
+        this.items = items;
+        return this;
+    }
+
+    @Override
+    public <T> T getResult(ExtPointResult.ExtPointResultItem item) {
+        return (T) get(item.getIndex());
+    }
+
+    /**
+     * 按名称查到下标后取值，类型不一致时才做转换
+     */
+    @Override
+    public <T> T getResult(String key, Class<T> clazz) {
+        ExtPointResult bound = items;
+        if (bound == null) {
+            return null;
+        }
+        Object value = get(bound.indexOf(key));
+        if (value == null || clazz == null || clazz.isInstance(value)) {
+            return (T) value;
+        }
+        return TypeUtils.castToJavaBean(value, clazz);
+    }
+
+    @Override
+    public String toString() {
+        return "MosaicItemResult" + Arrays.toString(values);
+    }
+}
@@ -1,11 +1,13 @@
 package io.github.tml.mosaic.cube.external;
 
 import com.alibaba.fastjson.JSONObject;
+import io.github.tml.mosaic.cube.ExtPointResult;
 
 import java.util.Map;
 
 /**
  * Cube插件返回参数默认返回类
+ * 基于JSONObject按名称存取，保留用于兼容，新插件可使用按下标存取的{@link MosaicItemResult}
  */
 public class MosaicResult extends AbstractMosaicResult {
 
@@ -23,6 +25,26 @@ public class MosaicResult extends AbstractMosaicResult {
         return new Builder();
     }
 
+    /**
+     * 已是目标类型的返回项直接返回，类型不一致时才交给fastjson转换
+     */
+    @Override
+    public <T> T getResult(ExtPointResult.ExtPointResultItem item) {
+        if(result == null){
+            return null;
+        }
+        Object value = result.get(item.getItemName());
+        Class<?> itemClass = item.getItemClass();
+        if (value == null || itemClass == null || itemClass.isInstance(value)) {
+            return (T) value;
+        }
+        return (T) result.getObject(item.getItemName(), itemClass);
+    }
+
+    public boolean containsKey(String key){
+        return result != null && result.containsKey(key);
+    }
+
     @Override
     public <T> T getResult(String key, Class<T> clazz) {
         if(result == null){
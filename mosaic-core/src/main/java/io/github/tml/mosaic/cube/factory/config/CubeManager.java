@@ -37,6 +37,19 @@ public interface CubeManager {
      */
     int removeCubesByCubeId(GUID cubeId);
 
+    /**
+     * 执行前借用实例，增加引用计数，开启使用统计时刷新最近使用时间
+     * @param cube Cube实例
+     * @return 实例已被淘汰或移除时返回false，从未受管理的实例返回true
+     */
+    boolean acquire(Cube cube);
+
+    /**
+     * 执行结束后归还实例，减少引用计数
+     * @param cube Cube实例
+     */
+    void release(Cube cube);
+
     /**
      * 通过实例ID获取Cube
      * @param instanceId 实例ID
@@ -3,6 +3,8 @@ package io.github.tml.mosaic.cube.factory.config;
 import io.github.tml.mosaic.core.tools.guid.GUID;
 import io.github.tml.mosaic.cube.Cube;
 
+import java.util.function.Supplier;
+
 /**
  * 描述: 单例Cube注册接口
  * @author suifeng
@@ -14,5 +16,17 @@ public interface SingletonCubeRegistry {
 
     Cube getSingleton(GUID cubeId);
 
+    /**
+     * 获取单例，不存在时通过singletonFactory创建并注册
+     * 同一cubeId并发获取时只会创建一次，其余调用方等待创建结果
+     */
+    Cube getSingleton(GUID cubeId, Supplier<Cube> singletonFactory);
+
     void removeSingleton(GUID cubeId);
+
+    /**
+     * 当前单例仍是expected时原子替换为replacement，替换期间getSingleton始终能取到实例
+     * @return 是否替换成功
+     */
+    boolean replaceSingleton(GUID cubeId, Cube expected, Cube replacement);
 }
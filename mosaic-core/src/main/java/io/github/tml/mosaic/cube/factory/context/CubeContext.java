@@ -1,10 +1,14 @@
 package io.github.tml.mosaic.cube.factory.context;
 
 import io.github.tml.mosaic.core.execption.CubeException;
+import io.github.tml.mosaic.cube.Cube;
 import io.github.tml.mosaic.cube.factory.CubeFactory;
 import io.github.tml.mosaic.cube.factory.definition.CubeDefinition;
 import io.github.tml.mosaic.core.tools.guid.GUID;
 import io.github.tml.mosaic.cube.factory.definition.CubeRegistrationResult;
+import io.github.tml.mosaic.cube.factory.support.CubeInstanceCache;
+import io.github.tml.mosaic.cube.factory.support.CubeStartupReport;
+import io.github.tml.mosaic.cube.factory.support.DefaultCubeManager;
 
 import java.util.List;
 import java.util.Map;
@@ -23,6 +27,50 @@ public interface CubeContext extends CubeFactory {
 
     void preInstantiateSingletons() throws CubeException;
 
+    /**
+     * 获取可被空闲淘汰的实例，使用前通过CubeManager.acquire借用、使用后release归还
+     * 借用失败表示实例已被淘汰，需要重新获取；getCube返回的实例由调用方持有，不参与空闲淘汰
+     */
+    Cube getEvictableCube(GUID cubeId, String configId) throws CubeException;
+
+    /**
+     * 将全部懒加载的Cube提交到后台预热
+     * @return 本次提交的数量
+     */
+    int warmUpLazyCubes();
+
+    /**
+     * 在后台创建指定配置的Cube实例
+     * @return 已创建或已在预热队列中时返回false
+     */
+    boolean warmUpCube(GUID cubeId, String configId);
+
+    /**
+     * 最近一次单例预实例化的耗时报告
+     */
+    CubeStartupReport getStartupReport();
+
+    /**
+     * 非默认配置实例缓存的命中、未命中与淘汰统计
+     */
+    CubeInstanceCache.Stats getInstanceCacheStats();
+
+    /**
+     * 管理全部已创建实例的引用计数与最近使用时间
+     */
+    DefaultCubeManager getCubeManager();
+
+    /**
+     * 淘汰空闲超过idleMillis且没有进行中调用的实例
+     * @return 淘汰的实例数量
+     */
+    int evictIdleCubes(long idleMillis);
+
+    /**
+     * 关闭容器，停止配置监听、空闲淘汰等后台任务
+     */
+    void close();
+
     Map<String, Object> getCubeConfiguration(String cubeId);
 
     Map<String, Object> updateConfigurations(String cubeId, Map<String, Object> config);
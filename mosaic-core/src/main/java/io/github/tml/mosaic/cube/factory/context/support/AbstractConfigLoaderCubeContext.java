@@ -10,14 +10,17 @@ import io.github.tml.mosaic.core.tools.guid.GuuidAllocator;
 import io.github.tml.mosaic.core.tools.param.ConfigInfo;
 import io.github.tml.mosaic.core.tools.param.ConfigItem;
 import io.github.tml.mosaic.cube.Cube;
+import io.github.tml.mosaic.cube.config.ConfigFileWatcher;
 import io.github.tml.mosaic.cube.config.ConfigReader;
 import io.github.tml.mosaic.cube.config.YamlConfigReader;
 import io.github.tml.mosaic.cube.constant.CubeModelType;
-import io.github.tml.mosaic.cube.constant.CubeScopeType;
 import io.github.tml.mosaic.cube.factory.definition.CubeDefinition;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -46,6 +49,28 @@ public abstract class AbstractConfigLoaderCubeContext extends AbstractRefreshabl
 
     private final MosaicEventBroadcaster eventBroadcaster = DefaultMosaicEventBroadcaster.broadcaster();
 
+    /** Cube sections last loaded from each location, used to diff incremental reloads */
+    @Getter(AccessLevel.NONE)
+    private final Map<String, Map<String, JSONObject>> locationSections = new ConcurrentHashMap<>();
+
+    /** Watched config file to its location */
+    @Getter(AccessLevel.NONE)
+    private final Map<Path, String> watchedLocations = new ConcurrentHashMap<>();
+
+    @Getter(AccessLevel.NONE)
+    private ConfigFileWatcher configFileWatcher;
+
+    /** Debounce of the running config watch, negative when the watch is stopped */
+    @Getter(AccessLevel.NONE)
+    private long configWatchDebounceMillis = -1;
+
+    /** Serializes incremental reloads with full refreshes of the configuration */
+    @Getter(AccessLevel.NONE)
+    private final Object reloadLock = new Object();
+
+    /** Delay before re-reading a file whose reload would remove a section, to let a partial write settle */
+    private static final long SECTION_REMOVAL_SETTLE_MILLIS = 200;
+
     @Override
     public Map<String, Object> updateConfigurations(String cubeId, Map<String, Object> config) {
         return updateCubeConfiguration(cubeId, DEFAULT_CONFIG_ID, config);
@@ -88,14 +113,16 @@ public abstract class AbstractConfigLoaderCubeContext extends AbstractRefreshabl
         configurationMap.computeIfAbsent(cubeId, k -> new ConcurrentHashMap<>());
         configurationMap.get(cubeId).put(configId, jsonObject);
 
-        // If singleton, remove and re-initialize
-        if (CubeScopeType.SINGLETON.equals(cubeDefinition.getScope())) {
-            removeSingletonCube(new GUUID(cubeId));
+        // Default config instance is applied in place or rebuilt and swapped; other configs live in the instance cache
+        if (DEFAULT_CONFIG_ID.equals(configId)) {
+            reconfigureSingletonCube(new GUUID(cubeId), config);
+        } else {
+            reconfigureCachedCube(new GUUID(cubeId), configId, config);
         }
 
         if (CubeModelType.ANGLE_TYPE.equals(cubeDefinition.getModel())) {
             Cube cube = getCube(new GUUID(cubeId));
-            CubeConfigUpdateEvent event = new CubeConfigUpdateEvent(cube.getMosaicCube(), cube.getAllConfigs(), config);
+            CubeConfigUpdateEvent event = new CubeConfigUpdateEvent(cube.getCubeId(), cube.getMosaicCube(), cube.getAllConfigs(), config);
             eventBroadcaster.broadcastEvent(event);
         }
 
@@ -109,9 +136,29 @@ public abstract class AbstractConfigLoaderCubeContext extends AbstractRefreshabl
         log.info("[Cube][CubeContext] cubeContext load god cube configuration by configReader: {}", configReader.getClass().getSimpleName());
     }
 
-    /** Refresh and reload all configuration resources from files */
+    /**
+     * Refresh and reload all configuration resources from files.
+     * A running config watch is paused for the refresh and restarted on the reloaded locations afterwards.
+     */
     @Override
     protected void refreshConfigurationResources() throws CubeException {
+        long watchDebounceMillis;
+        synchronized (this) {
+            watchDebounceMillis = configWatchDebounceMillis;
+            closeConfigWatcher();
+        }
+        try {
+            synchronized (reloadLock) {
+                loadConfigurationResources();
+            }
+        } finally {
+            if (watchDebounceMillis >= 0) {
+                startConfigWatch(watchDebounceMillis);
+            }
+        }
+    }
+
+    private void loadConfigurationResources() throws CubeException {
         log.info("[Cube][CubeContext] Refreshing cube configuration resources...");
 
         try {
@@ -142,6 +189,8 @@ public abstract class AbstractConfigLoaderCubeContext extends AbstractRefreshabl
     /** Remove all stored configuration data */
     protected void clearConfigurations() {
         configurationMap.clear();
+        locationSections.clear();
+        getInstanceCache().clear();
         log.info("[Cube][CubeContext] All cube configurations has cleared.");
     }
 
@@ -173,6 +222,17 @@ public abstract class AbstractConfigLoaderCubeContext extends AbstractRefreshabl
     /** Parse configuration data and store by top-level key with default config ID */
     private void parseAndStoreConfiguration(JSONObject configData, String configLocation) {
         log.debug("Parsing configuration from: {}", configLocation);
+        Map<String, JSONObject> sections = parseSections(configData, configLocation);
+        sections.forEach((topLevelKey, configSection) -> {
+            updateConfiguration(topLevelKey, DEFAULT_CONFIG_ID, configSection);
+            log.debug("Stored config section: {} from: {}", topLevelKey, configLocation);
+        });
+        locationSections.put(configLocation, sections);
+    }
+
+    /** Split configuration data into cube sections by top-level key */
+    private Map<String, JSONObject> parseSections(JSONObject configData, String configLocation) {
+        Map<String, JSONObject> sections = new LinkedHashMap<>();
         for (Map.Entry<String, Object> entry : configData.entrySet()) {
             String topLevelKey = entry.getKey();
             Object value = entry.getValue();
@@ -189,18 +249,172 @@ public abstract class AbstractConfigLoaderCubeContext extends AbstractRefreshabl
                 configSection = new JSONObject();
                 configSection.put("value", value);
             }
-            updateConfiguration(topLevelKey, DEFAULT_CONFIG_ID, configSection);
-            log.debug("Stored config section: {} from: {}", topLevelKey, configLocation);
+            sections.put(topLevelKey, configSection);
+        }
+        return sections;
+    }
+
+    /**
+     * Re-read one location and apply only the cube sections that changed since it was last loaded.
+     * Sections of registered cubes go through the validated update path; a rejected section keeps
+     * its previous value and is retried on the next change of the file.
+     * A reload that drops previously loaded sections is only applied when the file is non-empty and
+     * reads the same again after a short delay, so a half-written file does not reset cubes to defaults.
+     *
+     * @return number of sections applied
+     */
+    public int reloadConfigurationLocation(String configLocation) throws CubeException {
+        synchronized (reloadLock) {
+            return reloadLocation(configLocation);
         }
     }
 
+    private int reloadLocation(String configLocation) throws CubeException {
+        Map<String, JSONObject> latest = readSections(configLocation);
+        Map<String, JSONObject> previous = locationSections.getOrDefault(configLocation, Collections.emptyMap());
+        Set<String> removed = new LinkedHashSet<>(previous.keySet());
+        removed.removeAll(latest.keySet());
+        if (!removed.isEmpty() && !isSettled(configLocation, latest)) {
+            log.error("[Cube][CubeContext] Reject reload of: {}, sections {} disappeared and the file looks incomplete, "
+                    + "keep previous configuration until the next change", configLocation, removed);
+            return 0;
+        }
+        if (!removed.isEmpty()) {
+            log.warn("[Cube][CubeContext] Sections {} removed from: {}, these cubes fall back to default values",
+                    removed, configLocation);
+        }
+        Map<String, JSONObject> loaded = new LinkedHashMap<>(latest);
+
+        Set<String> names = new LinkedHashSet<>(previous.keySet());
+        names.addAll(latest.keySet());
+        int applied = 0;
+        for (String cubeId : names) {
+            JSONObject before = previous.get(cubeId);
+            JSONObject after = latest.get(cubeId);
+            if (Objects.equals(before, after)) {
+                continue;
+            }
+            // A removed section falls back to the cube's default values
+            JSONObject config = after != null ? after : new JSONObject();
+            try {
+                if (containsCubeDefinition(cubeId)) {
+                    updateCubeConfiguration(cubeId, DEFAULT_CONFIG_ID, config);
+                } else {
+                    updateConfiguration(cubeId, DEFAULT_CONFIG_ID, config);
+                }
+                applied++;
+            } catch (RuntimeException e) {
+                log.error("[Cube][CubeContext] Reject config change of cube: {} from: {}, {}", cubeId, configLocation, e.getMessage());
+                if (before != null) {
+                    loaded.put(cubeId, before);
+                } else {
+                    loaded.remove(cubeId);
+                }
+            }
+        }
+        locationSections.put(configLocation, loaded);
+        log.info("[Cube][CubeContext] Reloaded configuration from: {}, changed sections applied: {}", configLocation, applied);
+        return applied;
+    }
+
+    private Map<String, JSONObject> readSections(String configLocation) throws CubeException {
+        try {
+            return parseSections(new YamlConfigReader(configLocation).readYamlAsJsonOrThrow(), configLocation);
+        } catch (Exception e) {
+            throw new CubeException("Failed to reload configuration from: " + configLocation + ", " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Sanity check before dropping sections: the file must not be empty and must read the same after a short delay
+     */
+    private boolean isSettled(String configLocation, Map<String, JSONObject> latest) {
+        if (latest.isEmpty()) {
+            return false;
+        }
+        try {
+            Thread.sleep(SECTION_REMOVAL_SETTLE_MILLIS);
+            return latest.equals(readSections(configLocation));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (CubeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Watch the loaded configuration files and reload a file incrementally when it changes.
+     * Only locations read by {@link YamlConfigReader} that resolve to a file on disk can be watched,
+     * classpath resources packed in a jar are skipped.
+     */
+    public synchronized void startConfigWatch(long debounceMillis) throws CubeException {
+        stopConfigWatch();
+        configWatchDebounceMillis = debounceMillis;
+        if (!(configReader instanceof YamlConfigReader)) {
+            log.warn("[Cube][CubeContext] Config watch requires YamlConfigReader, current: {}", configReader.getClass().getSimpleName());
+            return;
+        }
+        ConfigFileWatcher watcher = null;
+        try {
+            watcher = new ConfigFileWatcher(debounceMillis,
+                    file -> Optional.ofNullable(watchedLocations.get(file)).ifPresent(this::reloadConfigurationLocation));
+            for (String configLocation : locationSections.keySet()) {
+                Optional<Path> file = new YamlConfigReader(configLocation).resolveFile();
+                if (file.isPresent()) {
+                    Path path = file.get().toAbsolutePath().normalize();
+                    watcher.watch(path);
+                    watchedLocations.put(path, configLocation);
+                } else {
+                    log.info("[Cube][CubeContext] Configuration location is not a file on disk, not watched: {}", configLocation);
+                }
+            }
+            if (watchedLocations.isEmpty()) {
+                watcher.close();
+                return;
+            }
+            watcher.start();
+            configFileWatcher = watcher;
+        } catch (IOException e) {
+            Optional.ofNullable(watcher).ifPresent(ConfigFileWatcher::close);
+            watchedLocations.clear();
+            throw new CubeException("Failed to start configuration watch: " + e.getMessage(), e);
+        }
+    }
+
+    public synchronized void stopConfigWatch() {
+        configWatchDebounceMillis = -1;
+        closeConfigWatcher();
+    }
+
+    public synchronized boolean isConfigWatching() {
+        return configFileWatcher != null;
+    }
+
+    private synchronized void closeConfigWatcher() {
+        if (configFileWatcher != null) {
+            configFileWatcher.close();
+            configFileWatcher = null;
+        }
+        watchedLocations.clear();
+    }
+
+    /** Stop watching configuration files before releasing the context resources */
+    @Override
+    public void close() {
+        stopConfigWatch();
+        super.close();
+    }
+
     /** Load default configuration if no location is provided */
     private void loadDefaultConfiguration() {
         log.info("[Cube][CubeContext] Loading default cube configuration...");
         try {
             JSONObject defaultConfig = configReader.readConfig();
             if (defaultConfig != null && !defaultConfig.isEmpty()) {
-                parseAndStoreConfiguration(defaultConfig, "default");
+                String defaultLocation = configReader instanceof YamlConfigReader
+                        ? ((YamlConfigReader) configReader).getYamlFilePath() : "default";
+                parseAndStoreConfiguration(defaultConfig, defaultLocation);
             } else {
                 log.warn("[Cube][CubeContext] No default cube configuration found.");
             }
@@ -324,6 +538,7 @@ public abstract class AbstractConfigLoaderCubeContext extends AbstractRefreshabl
         JSONObject removed = cubeConfigs.remove(configId);
         if (removed != null) {
             log.info("Removed configuration for cube: {}, configId: {}", cubeId, configId);
+            publishCubeInvalidate(new GUUID(cubeId), configId);
             return true;
         }
 
@@ -1,5 +1,8 @@
 package io.github.tml.mosaic.cube.factory.context.support;
 
+import io.github.tml.mosaic.core.NamedThreadFactory;
+import io.github.tml.mosaic.core.event.DefaultMosaicEventBroadcaster;
+import io.github.tml.mosaic.core.event.event.CubeInvalidateEvent;
 import io.github.tml.mosaic.core.execption.CubeException;
 import io.github.tml.mosaic.core.tools.guid.GUID;
 import io.github.tml.mosaic.core.tools.guid.GUUID;
@@ -7,12 +10,22 @@ import io.github.tml.mosaic.cube.Cube;
 import io.github.tml.mosaic.cube.factory.context.CubeContext;
 import io.github.tml.mosaic.cube.factory.definition.CubeDefinition;
 import io.github.tml.mosaic.cube.factory.definition.CubeRegistrationResult;
+import io.github.tml.mosaic.cube.factory.support.CubeCreationTiming;
+import io.github.tml.mosaic.cube.factory.support.CubeInstanceCache;
+import io.github.tml.mosaic.cube.factory.support.DefaultCubeManager;
+import io.github.tml.mosaic.cube.factory.support.CubeStartupReport;
 import io.github.tml.mosaic.cube.factory.support.ListableCubeFactory;
+import lombok.Getter;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
+import static io.github.tml.mosaic.core.CubeConstant.DEFAULT_CONFIG_ID_VALUE;
+
 /**
  * 描述: Cube上下文抽象类实现
  * @author suifeng
@@ -21,8 +34,58 @@ import java.util.stream.Collectors;
 @Slf4j
 public abstract class AbstractCubeContext implements CubeContext {
 
+    private static final int MAX_PIN_ATTEMPTS = 3;
+
     protected abstract ListableCubeFactory getBeanFactory();
 
+    /**
+     * 单例预实例化并行度，不大于0时使用CPU核数
+     */
+    @Getter
+    @Setter
+    private int preInstantiateParallelism;
+
+    private volatile CubeStartupReport startupReport;
+
+    /**
+     * 等待预热的Cube，key为cubeId#configId
+     */
+    private final Set<String> pendingWarmUps = ConcurrentHashMap.newKeySet();
+
+    private volatile ExecutorService warmUpExecutor;
+
+    private ScheduledExecutorService idleEvictionScheduler;
+
+    /**
+     * 配置变更后被替换的实例等待进行中调用结束的最长时间，超时后强制销毁
+     */
+    @Getter
+    @Setter
+    private long reconfigureDrainTimeoutMillis = TimeUnit.SECONDS.toMillis(30);
+
+    /**
+     * 等待后台重建的单例
+     */
+    private final Set<GUID> pendingRebuilds = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 配置变更后的单例重建与被替换实例的销毁，单线程执行使同一Cube的重建按顺序生效
+     */
+    private volatile ScheduledExecutorService drainScheduler;
+
+    protected AbstractCubeContext() {
+        instanceCache.setRemovalListener(this::onCachedCubeRemoved);
+    }
+
+    /**
+     * 非默认配置的Cube实例缓存
+     */
+    @Getter
+    private final CubeInstanceCache instanceCache = new CubeInstanceCache();
+
+    /**
+     * 直接获取的实例由调用方持有，调用方不借用实例，因此不参与空闲淘汰
+     */
     @Override
     public Cube getCube(GUID cubeId) throws CubeException {
         if (cubeId == null) {
@@ -36,11 +99,37 @@ public abstract class AbstractCubeContext implements CubeContext {
         return getCube(cubeId, configMap);
     }
 
+    /**
+     * 直接获取的实例由调用方持有，调用方不借用实例，因此不参与空闲淘汰
+     */
     @Override
     public Cube getCube(GUID cubeId, Object... args) throws CubeException {
         if (cubeId == null) {
             throw new CubeException("CubeId cannot be null");
         }
+        for (int attempt = 1; ; attempt++) {
+            Cube cube = resolveCube(cubeId, args);
+            if (cube == null || getCubeManager().pin(cube)) {
+                return cube;
+            }
+            if (attempt >= MAX_PIN_ATTEMPTS) {
+                throw new CubeException("Cube instance evicted while being resolved, cubeId: " + cubeId);
+            }
+        }
+    }
+
+    @Override
+    public Cube getEvictableCube(GUID cubeId, String configId) throws CubeException {
+        if (cubeId == null) {
+            throw new CubeException("CubeId cannot be null");
+        }
+        return resolveCube(cubeId, configId != null ? configId : DEFAULT_CONFIG_ID_VALUE);
+    }
+
+    /**
+     * 获取实例但不标记为直接持有，供框架内部创建与预热使用
+     */
+    protected Cube resolveCube(GUID cubeId, Object... args) throws CubeException {
 
         // 简单判断：如果第一个参数是String，就当作configId处理
         if (args != null && args.length > 0 && args[0] instanceof String) {
@@ -53,7 +142,11 @@ public abstract class AbstractCubeContext implements CubeContext {
             if (args.length > 1) {
                 System.arraycopy(args, 1, newArgs, 1, args.length - 1);
             }
-            return getBeanFactory().getCube(cubeId, newArgs);
+            // 默认配置走单例池，其余配置按(cubeId, configId)缓存实例
+            if (DEFAULT_CONFIG_ID_VALUE.equals(configId)) {
+                return getBeanFactory().getCube(cubeId, newArgs);
+            }
+            return instanceCache.get(cubeId, configId, () -> getBeanFactory().createPrototypeCube(cubeId, newArgs));
         }
 
         return getBeanFactory().getCube(cubeId, args);
@@ -61,7 +154,223 @@ public abstract class AbstractCubeContext implements CubeContext {
 
 
     public void removeSingletonCube(GUID cubeId) {
+        // 被替换的单例不再由管理器跟踪，仍在使用它的调用可以正常完成
+        Optional.ofNullable(getBeanFactory().getSingleton(cubeId)).ifPresent(this::unregisterCube);
         getBeanFactory().removeSingleton(cubeId);
+        publishCubeInvalidate(cubeId, null);
+    }
+
+    /**
+     * 应用单例的配置变更：实例接受就地变更时直接生效；否则在后台用最新配置创建新实例并原子替换，
+     * 被替换的实例在进行中的调用结束后销毁，整个过程中getCube始终能取到实例
+     */
+    protected void reconfigureSingletonCube(GUID cubeId, Map<String, Object> config) {
+        Cube current = getBeanFactory().getSingleton(cubeId);
+        if (current == null) {
+            // 尚未创建或正在创建，移除后下次获取按最新配置创建
+            removeSingletonCube(cubeId);
+            return;
+        }
+        if (current.reconfigure(config)) {
+            return;
+        }
+        if (!pendingRebuilds.add(cubeId)) {
+            return;
+        }
+        try {
+            // 重建与销毁在独立的线程上执行，不排在懒加载预热之后
+            drainScheduler().execute(() -> rebuildSingletonCube(cubeId));
+        } catch (RuntimeException e) {
+            pendingRebuilds.remove(cubeId);
+            throw e;
+        }
+    }
+
+    /**
+     * 应用非默认配置的变更：已缓存的实例接受就地变更时直接生效，否则失效后按新配置重新创建
+     */
+    protected void reconfigureCachedCube(GUID cubeId, String configId, Map<String, Object> config) {
+        Cube cached = instanceCache.peek(cubeId, configId);
+        if (cached != null && cached.reconfigure(config)) {
+            return;
+        }
+        publishCubeInvalidate(cubeId, configId);
+    }
+
+    private void rebuildSingletonCube(GUID cubeId) {
+        // 先出队再读取配置，重建期间到达的变更会再排一次重建
+        pendingRebuilds.remove(cubeId);
+        Cube current = getBeanFactory().getSingleton(cubeId);
+        if (current == null) {
+            return;
+        }
+        Cube replacement;
+        try {
+            replacement = getBeanFactory().createPrototypeCube(cubeId, new Object[]{getCubeConfiguration(cubeId.toString())});
+        } catch (Exception e) {
+            log.error("[Cube][CubeContext] Rebuild cube failed, keep current instance | CubeId: {} | error: {}",
+                    cubeId, e.getMessage());
+            return;
+        }
+        if (replacement == null || !getBeanFactory().replaceSingleton(cubeId, current, replacement)) {
+            // 重建期间单例已被移除或替换，丢弃本次结果
+            Optional.ofNullable(replacement).ifPresent(this::drainAndDestroy);
+            return;
+        }
+        DefaultMosaicEventBroadcaster.broadcaster()
+                .broadcastEvent(new CubeInvalidateEvent(this, cubeId, DEFAULT_CONFIG_ID_VALUE));
+        log.info("[Cube][CubeContext] Cube rebuilt with new config | CubeId: {}", cubeId);
+        drainAndDestroy(current);
+    }
+
+    /**
+     * 等待实例上进行中的调用结束后销毁，超过reconfigureDrainTimeoutMillis时强制销毁
+     * 最后一个调用归还实例时回调，销毁在drain线程上执行
+     */
+    private void drainAndDestroy(Cube cube) {
+        AtomicBoolean destroyed = new AtomicBoolean();
+        ScheduledFuture<?> deadline = drainScheduler().schedule(() -> {
+            if (destroyed.compareAndSet(false, true)) {
+                log.warn("[Cube][CubeContext] Drain timeout, destroy cube with in-flight calls | CubeId: {}", cube.getCubeId());
+                unregisterCube(cube);
+                destroyReplaced(cube);
+            }
+        }, reconfigureDrainTimeoutMillis, TimeUnit.MILLISECONDS);
+        getCubeManager().retireWhenIdle(cube, () -> {
+            if (destroyed.compareAndSet(false, true)) {
+                deadline.cancel(false);
+                drainScheduler().execute(() -> destroyReplaced(cube));
+            }
+        });
+    }
+
+    private void destroyReplaced(Cube cube) {
+        try {
+            if (cube.getMosaicCube() != null) {
+                cube.destroy();
+            }
+        } catch (Exception e) {
+            log.warn("[Cube][CubeContext] Destroy replaced cube {} failed: {}", cube.getCubeId(), e.getMessage());
+        }
+    }
+
+    private ScheduledExecutorService drainScheduler() {
+        if (drainScheduler == null) {
+            synchronized (pendingRebuilds) {
+                if (drainScheduler == null) {
+                    ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+                        Thread thread = new NamedThreadFactory("cube-drain").newThread(runnable);
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    scheduler.setKeepAliveTime(60, TimeUnit.SECONDS);
+                    scheduler.setRemoveOnCancelPolicy(true);
+                    scheduler.allowCoreThreadTimeOut(true);
+                    drainScheduler = scheduler;
+                }
+            }
+        }
+        return drainScheduler;
+    }
+
+    @Override
+    public DefaultCubeManager getCubeManager() {
+        return getBeanFactory().getCubeManager();
+    }
+
+    /**
+     * 淘汰空闲超过idleMillis且没有进行中调用的实例，被淘汰的单例在下次使用时重新创建
+     * 通过getCube直接获取的实例不参与淘汰
+     * @return 淘汰的实例数量
+     */
+    @Override
+    public int evictIdleCubes(long idleMillis) {
+        int evicted = instanceCache.evictIdle();
+        evicted += getCubeManager().evictIdle(idleMillis, managedCube -> {
+            Cube cube = managedCube.getCube();
+            GUID cubeId = managedCube.getCubeId();
+            if (getBeanFactory().getSingleton(cubeId) == cube) {
+                getBeanFactory().removeSingleton(cubeId);
+            }
+            instanceCache.remove(cube);
+            // 只使绑定到该方块的执行句柄失效，其他配置的实例不受影响
+            DefaultMosaicEventBroadcaster.broadcaster().broadcastEvent(new CubeInvalidateEvent(this, cubeId, null));
+        });
+        return evicted;
+    }
+
+    /**
+     * 按固定间隔执行空闲淘汰，重复调用时替换之前的调度
+     */
+    public synchronized void startIdleEviction(long idleMillis, long intervalMillis) {
+        stopIdleEviction();
+        getCubeManager().enableUsageTracking();
+        idleEvictionScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new NamedThreadFactory("cube-idle-eviction").newThread(runnable);
+            thread.setDaemon(true);
+            return thread;
+        });
+        idleEvictionScheduler.scheduleWithFixedDelay(() -> {
+            try {
+                evictIdleCubes(idleMillis);
+            } catch (Exception e) {
+                log.warn("[Cube][CubeContext] Idle cube eviction failed: {}", e.getMessage());
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        log.info("[Cube][CubeContext] Idle cube eviction started | idle: {}ms | interval: {}ms", idleMillis, intervalMillis);
+    }
+
+    public synchronized void stopIdleEviction() {
+        if (idleEvictionScheduler != null) {
+            idleEvictionScheduler.shutdownNow();
+            idleEvictionScheduler = null;
+        }
+    }
+
+    /**
+     * 缓存实例离开缓存后等待进行中的调用结束再销毁
+     * 失效由publishCubeInvalidate统一通知，淘汰与清空需要在这里通知绑定到该实例的执行句柄
+     */
+    private void onCachedCubeRemoved(GUID cubeId, String configId, Cube cube, CubeInstanceCache.RemovalCause cause) {
+        if (cause != CubeInstanceCache.RemovalCause.INVALIDATED) {
+            DefaultMosaicEventBroadcaster.broadcaster().broadcastEvent(new CubeInvalidateEvent(this, cubeId, configId));
+        }
+        if (cause == CubeInstanceCache.RemovalCause.EVICTED && getCubeManager().isPinned(cube)) {
+            // 被直接持有的实例只移出缓存，不随淘汰销毁
+            return;
+        }
+        drainAndDestroy(cube);
+    }
+
+    /**
+     * 停止空闲淘汰并关闭后台线程，已排队的重建与销毁继续执行完
+     */
+    @Override
+    public void close() {
+        stopIdleEviction();
+        synchronized (pendingWarmUps) {
+            Optional.ofNullable(warmUpExecutor).ifPresent(ExecutorService::shutdown);
+            warmUpExecutor = null;
+        }
+        synchronized (pendingRebuilds) {
+            Optional.ofNullable(drainScheduler).ifPresent(ExecutorService::shutdown);
+            drainScheduler = null;
+        }
+        log.info("[Cube][CubeContext] cubeContext closed.");
+    }
+
+    private void unregisterCube(Cube cube) {
+        if (cube.getInstanceId() != null) {
+            getCubeManager().removeCubeByInstanceId(cube.getInstanceId());
+        }
+    }
+
+    /**
+     * 通知方块实例失效，configId为null表示该方块的全部实例
+     */
+    protected void publishCubeInvalidate(GUID cubeId, String configId) {
+        instanceCache.invalidate(cubeId, configId);
+        DefaultMosaicEventBroadcaster.broadcaster().broadcastEvent(new CubeInvalidateEvent(this, cubeId, configId));
     }
 
     @Override
@@ -84,9 +393,213 @@ public abstract class AbstractCubeContext implements CubeContext {
         return getBeanFactory().registerCubeDefinition(cubeId, cubeDefinition);
     }
 
+    /**
+     * 在有界ForkJoin池上并行预实例化单例，依赖的Cube先于自身创建
+     * 懒加载的Cube跳过，除非被非懒加载的Cube依赖
+     * 全部完成后输出各Cube的阶段耗时，存在失败时抛出第一个失败原因
+     */
     @Override
     public void preInstantiateSingletons() throws CubeException {
-        getAllCubeDefinitionMap().keySet().forEach(this::getCube);
+        Map<GUID, CubeDefinition> definitionMap = selectEagerDefinitions(getAllCubeDefinitionMap());
+        int parallelism = preInstantiateParallelism > 0 ? preInstantiateParallelism : Runtime.getRuntime().availableProcessors();
+        long begin = System.nanoTime();
+        long beginMillis = System.currentTimeMillis();
+
+        ForkJoinPool pool = newPreInstantiatePool(parallelism);
+        Map<GUID, CompletableFuture<Void>> futures = new HashMap<>();
+        try {
+            Map<GUID, List<GUID>> dependencies = resolveDependencies(definitionMap);
+            for (GUID cubeId : sortByDependency(dependencies)) {
+                CompletableFuture<?>[] dependencyFutures = dependencies.get(cubeId).stream()
+                        .map(futures::get)
+                        .toArray(CompletableFuture[]::new);
+                // 依赖创建失败时仍尝试创建自身，失败原因各自记录
+                CompletableFuture<Void> future = CompletableFuture.allOf(dependencyFutures)
+                        .exceptionally(e -> null)
+                        .thenRunAsync(() -> resolveCube(cubeId, getCubeConfiguration(cubeId.toString())), pool);
+                futures.put(cubeId, future);
+            }
+            CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[0]))
+                    .exceptionally(e -> null)
+                    .join();
+        } finally {
+            pool.shutdown();
+        }
+
+        // 只统计本次预实例化期间创建的记录
+        List<CubeCreationTiming> timings = getBeanFactory().getCreationTimings().stream()
+                .filter(timing -> timing.getCreatedAt() >= beginMillis)
+                .filter(timing -> definitionMap.containsKey(new GUUID(timing.getCubeId())))
+                .collect(Collectors.toList());
+        startupReport = new CubeStartupReport(parallelism, (System.nanoTime() - begin) / 1_000_000.0, timings);
+        log.info("[Cube][CubeContext] Singleton pre-instantiation timing:{}", startupReport.toTable());
+
+        for (Map.Entry<GUID, CompletableFuture<Void>> entry : futures.entrySet()) {
+            if (entry.getValue().isCompletedExceptionally()) {
+                try {
+                    entry.getValue().join();
+                } catch (CompletionException e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    throw new CubeException("Pre-instantiate cube failed, cubeId: " + entry.getKey() + ", " + cause.getMessage(), cause);
+                }
+            }
+        }
+    }
+
+    @Override
+    public CubeInstanceCache.Stats getInstanceCacheStats() {
+        return instanceCache.getStats();
+    }
+
+    /**
+     * 最近一次单例预实例化的耗时报告，尚未预实例化时返回null
+     */
+    @Override
+    public CubeStartupReport getStartupReport() {
+        return startupReport;
+    }
+
+    /**
+     * 将懒加载的Cube放入后台预热队列，返回本次提交的数量
+     */
+    @Override
+    public int warmUpLazyCubes() {
+        int submitted = 0;
+        for (Map.Entry<GUID, CubeDefinition> entry : getAllCubeDefinitionMap().entrySet()) {
+            if (entry.getValue().isLazy() && warmUpCube(entry.getKey(), DEFAULT_CONFIG_ID_VALUE)) {
+                submitted++;
+            }
+        }
+        log.info("[Cube][CubeContext] Lazy cube warm-up submitted: {}", submitted);
+        return submitted;
+    }
+
+    /**
+     * 在后台预热线程中创建指定配置的Cube实例，已创建或已在队列中时不重复提交
+     */
+    @Override
+    public boolean warmUpCube(GUID cubeId, String configId) {
+        String actualConfigId = configId == null ? DEFAULT_CONFIG_ID_VALUE : configId;
+        if (DEFAULT_CONFIG_ID_VALUE.equals(actualConfigId) && getBeanFactory().getSingleton(cubeId) != null) {
+            return false;
+        }
+        String warmUpKey = cubeId + "#" + actualConfigId;
+        if (!pendingWarmUps.add(warmUpKey)) {
+            return false;
+        }
+        try {
+            warmUpExecutor().execute(() -> {
+                try {
+                    resolveCube(cubeId, actualConfigId);
+                    log.debug("[Cube][CubeContext] Cube warmed up | CubeId: {} | configId: {}", cubeId, actualConfigId);
+                } catch (Exception e) {
+                    log.warn("[Cube][CubeContext] Cube warm-up failed | CubeId: {} | configId: {} | error: {}",
+                            cubeId, actualConfigId, e.getMessage());
+                } finally {
+                    pendingWarmUps.remove(warmUpKey);
+                }
+            });
+        } catch (RuntimeException e) {
+            pendingWarmUps.remove(warmUpKey);
+            throw e;
+        }
+        return true;
+    }
+
+    /**
+     * 后台线程池，用于懒加载预热，单个守护线程按提交顺序执行，空闲后线程自动退出
+     */
+    private ExecutorService warmUpExecutor() {
+        if (warmUpExecutor == null) {
+            synchronized (pendingWarmUps) {
+                if (warmUpExecutor == null) {
+                    ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+                    NamedThreadFactory namedThreadFactory = new NamedThreadFactory("cube-warm-up");
+                    ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS,
+                            new LinkedBlockingQueue<>(), runnable -> {
+                        Thread thread = namedThreadFactory.newThread(runnable);
+                        thread.setDaemon(true);
+                        thread.setContextClassLoader(contextClassLoader);
+                        return thread;
+                    });
+                    executor.allowCoreThreadTimeOut(true);
+                    warmUpExecutor = executor;
+                }
+            }
+        }
+        return warmUpExecutor;
+    }
+
+    /**
+     * 选出需要预实例化的Cube：非懒加载的Cube以及它们直接或间接依赖的Cube
+     */
+    static Map<GUID, CubeDefinition> selectEagerDefinitions(Map<GUID, CubeDefinition> allDefinitions) {
+        Map<GUID, CubeDefinition> eager = new LinkedHashMap<>();
+        Deque<GUID> pendingIds = new ArrayDeque<>();
+        allDefinitions.forEach((cubeId, definition) -> {
+            if (!definition.isLazy()) {
+                pendingIds.add(cubeId);
+            }
+        });
+        while (!pendingIds.isEmpty()) {
+            GUID cubeId = pendingIds.poll();
+            CubeDefinition definition = allDefinitions.get(cubeId);
+            if (definition == null || eager.putIfAbsent(cubeId, definition) != null) {
+                continue;
+            }
+            Optional.ofNullable(definition.getDependsOn()).orElse(Collections.emptyList())
+                    .forEach(dependency -> pendingIds.add(new GUUID(dependency)));
+        }
+        if (eager.size() < allDefinitions.size()) {
+            log.info("[Cube][CubeContext] Skip pre-instantiation of {} lazy cubes", allDefinitions.size() - eager.size());
+        }
+        return eager;
+    }
+
+    /**
+     * 解析每个Cube依赖的已注册Cube，未注册的依赖忽略
+     */
+    private Map<GUID, List<GUID>> resolveDependencies(Map<GUID, CubeDefinition> definitionMap) {
+        Map<GUID, List<GUID>> dependencies = new LinkedHashMap<>();
+        definitionMap.forEach((cubeId, definition) -> {
+            List<GUID> dependsOn = new ArrayList<>();
+            for (String dependency : Optional.ofNullable(definition.getDependsOn()).orElse(Collections.emptyList())) {
+                GUID dependencyId = new GUUID(dependency);
+                if (definitionMap.containsKey(dependencyId) && !dependencyId.equals(cubeId)) {
+                    dependsOn.add(dependencyId);
+                } else {
+                    log.warn("[Cube][CubeContext] Ignore unknown dependency | CubeId: {} | dependsOn: {}", cubeId, dependency);
+                }
+            }
+            dependencies.put(cubeId, dependsOn);
+        });
+        return dependencies;
+    }
+
+    /**
+     * 拓扑排序，依赖在前；存在循环依赖时只忽略环内部的依赖关系，依赖了环的Cube仍排在环之后
+     */
+    private List<GUID> sortByDependency(Map<GUID, List<GUID>> dependencies) {
+        CubeDependencyGraph graph = CubeDependencyGraph.sort(dependencies);
+        for (Set<GUID> cycle : graph.getCycles()) {
+            log.warn("[Cube][CubeContext] Circular dependsOn detected, ordering ignored inside cycle: {}", cycle);
+        }
+        graph.getBlockedByCycle().forEach((cubeId, cycle) ->
+                log.warn("[Cube][CubeContext] Cube is blocked by dependsOn cycle | CubeId: {} | cycle: {}", cubeId, cycle));
+        return graph.getOrder();
+    }
+
+    /**
+     * 预实例化线程沿用调用线程的上下文类加载器，与串行创建时保持一致
+     */
+    private ForkJoinPool newPreInstantiatePool(int parallelism) {
+        ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        return new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("cube-pre-instantiate-" + thread.getPoolIndex());
+            thread.setContextClassLoader(contextClassLoader);
+            return thread;
+        }, null, false);
     }
 
     @Override
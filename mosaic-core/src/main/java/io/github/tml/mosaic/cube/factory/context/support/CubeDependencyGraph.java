@@ -0,0 +1,165 @@
+package io.github.tml.mosaic.cube.factory.context.support;
+
+import io.github.tml.mosaic.core.tools.guid.GUID;
+import lombok.Getter;
+
+import java.util.*;
+
+/**
+ * 描述: 预实例化使用的Cube依赖图排序
+ * 依赖在前；存在循环依赖时只忽略环内部的依赖关系，环上的Cube视为循环依赖，
+ * 只是依赖了环的Cube仍按依赖顺序排在环之后，记为被该环阻塞
+ */
+final class CubeDependencyGraph {
+
+    /**
+     * 排序结果，依赖在前
+     */
+    @Getter
+    private final List<GUID> order;
+
+    /**
+     * 各个依赖环上的Cube
+     */
+    @Getter
+    private final List<Set<GUID>> cycles;
+
+    /**
+     * 直接或间接依赖了环的Cube -> 阻塞它的环上的Cube
+     */
+    @Getter
+    private final Map<GUID, Set<GUID>> blockedByCycle;
+
+    private CubeDependencyGraph(List<GUID> order, List<Set<GUID>> cycles, Map<GUID, Set<GUID>> blockedByCycle) {
+        this.order = order;
+        this.cycles = cycles;
+        this.blockedByCycle = blockedByCycle;
+    }
+
+    /**
+     * 拓扑排序，dependencies中环内部的依赖会被移除
+     */
+    static CubeDependencyGraph sort(Map<GUID, List<GUID>> dependencies) {
+        List<GUID> order = topologicalOrder(dependencies);
+        if (order.size() == dependencies.size()) {
+            return new CubeDependencyGraph(order, Collections.emptyList(), Collections.emptyMap());
+        }
+        Set<GUID> unresolved = new LinkedHashSet<>(dependencies.keySet());
+        unresolved.removeAll(order);
+
+        List<Set<GUID>> cycles = new ArrayList<>();
+        Map<GUID, Set<GUID>> cycleOf = new HashMap<>();
+        for (Set<GUID> component : stronglyConnected(unresolved, dependencies)) {
+            if (component.size() > 1) {
+                cycles.add(component);
+                component.forEach(cubeId -> cycleOf.put(cubeId, component));
+            }
+        }
+        for (Set<GUID> cycle : cycles) {
+            for (GUID cubeId : cycle) {
+                dependencies.get(cubeId).removeIf(cycle::contains);
+            }
+        }
+
+        Map<GUID, Set<GUID>> blockedByCycle = new LinkedHashMap<>();
+        for (GUID cubeId : unresolved) {
+            if (!cycleOf.containsKey(cubeId)) {
+                blockedByCycle.put(cubeId, reachableCycles(cubeId, dependencies, cycleOf));
+            }
+        }
+        return new CubeDependencyGraph(topologicalOrder(dependencies), cycles, blockedByCycle);
+    }
+
+    private static List<GUID> topologicalOrder(Map<GUID, List<GUID>> dependencies) {
+        Map<GUID, Integer> pending = new HashMap<>();
+        Map<GUID, List<GUID>> dependents = new HashMap<>();
+        dependencies.forEach((cubeId, dependsOn) -> {
+            pending.put(cubeId, dependsOn.size());
+            dependsOn.forEach(dependency -> dependents.computeIfAbsent(dependency, k -> new ArrayList<>()).add(cubeId));
+        });
+
+        List<GUID> sorted = new ArrayList<>(dependencies.size());
+        Deque<GUID> ready = new ArrayDeque<>();
+        dependencies.keySet().forEach(cubeId -> {
+            if (pending.get(cubeId) == 0) {
+                ready.add(cubeId);
+            }
+        });
+        while (!ready.isEmpty()) {
+            GUID cubeId = ready.poll();
+            sorted.add(cubeId);
+            for (GUID dependent : dependents.getOrDefault(cubeId, Collections.emptyList())) {
+                if (pending.merge(dependent, -1, Integer::sum) == 0) {
+                    ready.add(dependent);
+                }
+            }
+        }
+        return sorted;
+    }
+
+    /**
+     * Tarjan强连通分量，只在未能排序的Cube之间查找
+     */
+    private static List<Set<GUID>> stronglyConnected(Set<GUID> nodes, Map<GUID, List<GUID>> dependencies) {
+        Map<GUID, Integer> index = new HashMap<>();
+        Map<GUID, Integer> lowLink = new HashMap<>();
+        Deque<GUID> stack = new ArrayDeque<>();
+        Set<GUID> onStack = new HashSet<>();
+        List<Set<GUID>> components = new ArrayList<>();
+        for (GUID node : nodes) {
+            if (!index.containsKey(node)) {
+                connect(node, nodes, dependencies, index, lowLink, stack, onStack, components);
+            }
+        }
+        return components;
+    }
+
+    private static void connect(GUID node, Set<GUID> nodes, Map<GUID, List<GUID>> dependencies,
+                                Map<GUID, Integer> index, Map<GUID, Integer> lowLink,
+                                Deque<GUID> stack, Set<GUID> onStack, List<Set<GUID>> components) {
+        index.put(node, index.size());
+        lowLink.put(node, index.get(node));
+        stack.push(node);
+        onStack.add(node);
+        for (GUID dependency : dependencies.get(node)) {
+            if (!nodes.contains(dependency)) {
+                continue;
+            }
+            if (!index.containsKey(dependency)) {
+                connect(dependency, nodes, dependencies, index, lowLink, stack, onStack, components);
+                lowLink.put(node, Math.min(lowLink.get(node), lowLink.get(dependency)));
+            } else if (onStack.contains(dependency)) {
+                lowLink.put(node, Math.min(lowLink.get(node), index.get(dependency)));
+            }
+        }
+        if (lowLink.get(node).equals(index.get(node))) {
+            Set<GUID> component = new LinkedHashSet<>();
+            GUID member;
+            do {
+                member = stack.pop();
+                onStack.remove(member);
+                component.add(member);
+            } while (!member.equals(node));
+            components.add(component);
+        }
+    }
+
+    private static Set<GUID> reachableCycles(GUID cubeId, Map<GUID, List<GUID>> dependencies, Map<GUID, Set<GUID>> cycleOf) {
+        Set<GUID> blocking = new LinkedHashSet<>();
+        Set<GUID> visited = new HashSet<>();
+        Deque<GUID> pending = new ArrayDeque<>(dependencies.get(cubeId));
+        while (!pending.isEmpty()) {
+            GUID dependency = pending.poll();
+            if (!visited.add(dependency)) {
+                continue;
+            }
+            Set<GUID> cycle = cycleOf.get(dependency);
+            if (cycle != null) {
+                blocking.addAll(cycle);
+            } else {
+                pending.addAll(dependencies.get(dependency));
+            }
+        }
+        return blocking;
+    }
+}
@@ -34,6 +34,23 @@ public class CubeDefinition {
      */
     private ConfigInfo configInfo;
 
+    /**
+     * 依赖的Cube id，预实例化时先创建
+     */
+    private List<String> dependsOn = new ArrayList<>();
+
+    /**
+     * 懒加载，预实例化时跳过
+     */
+    private boolean lazy;
+
+    /**
+     * 池化范围的实例池参数
+     */
+    private int poolMaxSize;
+    private int poolPrewarm;
+    private long poolBorrowTimeoutMillis;
+
     public CubeDefinition(String id, String name, String version, String description, String model, String scope, String className, ClassLoader classLoader) {
         this.id = id;
         this.name = name;
@@ -16,6 +16,17 @@ public class ExtensionPointDefinition {
     private final Class<?> returnType;
     private final Class<?>[] parameterTypes;
     private PointResultDefinition pointResultDefinitions;
+    private String batchMethodName;
+    private int batchMaxSize;
+    private long batchLingerMs;
+    private long batchTimeoutMs;
+
+    /**
+     * 是否声明了批量合并
+     */
+    public boolean isBatchable() {
+        return batchMethodName != null && !batchMethodName.isEmpty();
+    }
     
     @Override
     public String toString() {
@@ -7,6 +7,11 @@ import io.github.tml.mosaic.cube.factory.definition.CubeDefinition;
 import io.github.tml.mosaic.cube.factory.config.InstantiationStrategy;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
 /**
  * 描述: 第一步：用于实例化Cube的类
  *
@@ -18,23 +23,80 @@ public abstract class AbstractAutowireCapableCubeFactory extends AbstractCubeFac
 
     private final InstantiationStrategy instantiationStrategy = new DefaultInstantiationStrategy();
 
+    /**
+     * 保留的创建耗时记录条数
+     */
+    private static final int CREATION_TIMING_HISTORY = 512;
+
+    /**
+     * 最近的创建耗时记录，按创建开始顺序排列；同一Cube的单例、其他配置的实例与重建各自一条
+     */
+    private final Deque<CubeCreationTiming> creationTimings = new ArrayDeque<>();
+
+    /**
+     * 当前线程正在创建的Cube的耗时记录，创建过程中嵌套创建其他Cube时逐层恢复
+     */
+    private final ThreadLocal<CubeCreationTiming> currentTiming = new ThreadLocal<>();
+
     @Override
     protected Cube createCube(GUID cubeId, CubeDefinition cubeDefinition, Object[] args) throws CubeException {
         Cube cube = null;
+        CubeCreationTiming timing = new CubeCreationTiming(cubeId.toString(), cubeDefinition.getName());
+        recordTiming(timing);
+        CubeCreationTiming outerTiming = currentTiming.get();
+        currentTiming.set(timing);
+        long begin = System.nanoTime();
         try {
+            long phaseBegin = System.nanoTime();
             cube = instantiationStrategy.instantiate(cubeDefinition, cubeId, args);
+            timing.setInstantiateMillis(CubeCreationTiming.millisSince(phaseBegin));
             // 给 Cube 填充属性
+            phaseBegin = System.nanoTime();
             applyPropertyValues(cube, cubeDefinition);
+            timing.setPropertyMillis(CubeCreationTiming.millisSince(phaseBegin));
             // 执行 Cube 的初始化方法
             cube = initializeCube(cube, cubeDefinition, args);
+            timing.setSuccess(true);
         } catch (Exception e) {
+            timing.setError(e.getMessage());
             throw new CubeException("Instantiation of cube failed", e);
+        } finally {
+            timing.setTotalMillis(CubeCreationTiming.millisSince(begin));
+            if (outerTiming == null) {
+                currentTiming.remove();
+            } else {
+                currentTiming.set(outerTiming);
+            }
         }
-        // 存放到单例池
-        addSingleton(cubeId, cube);
+        // 由getSingleton在创建完成后存放到单例池
         return cube;
     }
 
+    /**
+     * 当前线程正在创建的Cube的耗时记录，供后续阶段填写，不在创建过程中时返回null
+     */
+    protected CubeCreationTiming currentCreationTiming() {
+        return currentTiming.get();
+    }
+
+    /**
+     * 最近的创建耗时记录，最多保留{@value #CREATION_TIMING_HISTORY}条
+     */
+    public List<CubeCreationTiming> getCreationTimings() {
+        synchronized (creationTimings) {
+            return new ArrayList<>(creationTimings);
+        }
+    }
+
+    private void recordTiming(CubeCreationTiming timing) {
+        synchronized (creationTimings) {
+            if (creationTimings.size() >= CREATION_TIMING_HISTORY) {
+                creationTimings.pollFirst();
+            }
+            creationTimings.addLast(timing);
+        }
+    }
+
     protected abstract Cube initializeCube(Cube cube, CubeDefinition cubeDefinition, Object[] args) throws CubeException;
     protected abstract void applyPropertyValues(Cube cube, CubeDefinition cubeDefinition);
 }
@@ -23,8 +23,20 @@ public abstract class AbstractAutowireConfigCubeFactory extends AbstractAutowire
     @Override
     protected Cube initializeCube(Cube cube, CubeDefinition cubeDefinition, Object[] args) throws CubeException {
         // 先进行配置处理，再交给子类进行初始化
+        CubeCreationTiming timing = currentCreationTiming();
+        long phaseBegin = System.nanoTime();
         Cube configuredCube = processConfigurationPhase(cube, cubeDefinition, args);
-        return executeInitializationPhase(configuredCube, cubeDefinition, args);
+        if (timing != null) {
+            timing.setConfigMillis(CubeCreationTiming.millisSince(phaseBegin));
+        }
+        phaseBegin = System.nanoTime();
+        try {
+            return executeInitializationPhase(configuredCube, cubeDefinition, args);
+        } finally {
+            if (timing != null) {
+                timing.setInitMillis(CubeCreationTiming.millisSince(phaseBegin));
+            }
+        }
     }
 
     /**
@@ -8,6 +8,8 @@ import io.github.tml.mosaic.cube.*;
 import io.github.tml.mosaic.cube.external.MosaicExtPackage;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections4.CollectionUtils;
+
+import java.lang.reflect.Method;
 import java.util.List;
 
 /**
@@ -66,25 +68,16 @@ public abstract class AbstractAutowirePropertyCubeFactory extends AbstractAutowi
                 cube.addExtensionPackage(extensionPackage);
                 List<ExtensionPointDefinition> extensionPoints = pkgDef.getExtensionPoints();
                 if(CollectionUtils.isEmpty(extensionPoints)){
-                    return;
+                    continue;
                 }
-                // 注册扩展点
+                // 注册扩展点，单个扩展点装配失败只跳过该扩展点，不影响同包的其他扩展点
                 for (ExtensionPointDefinition epd : extensionPoints) {
-                    ExtensionPoint extensionPoint = ExtensionPoint.convertByDefinition(epd);
-
-                    // 注册出参说明
-                    ExtPointResult extPointResult = new ExtPointResult();
-                    extensionPoint.setReturnResult(extPointResult);
-
-                    PointResultDefinition pointResultDefinitions = epd.getPointResultDefinitions();
-                    if(pointResultDefinitions != null){
-                        for (PointResultDefinition.PointResultItemDefinition itemDefinition : pointResultDefinitions.getPointsResultInfoList()) {
-                            ExtPointResult.ExtPointResultItem item = ExtPointResult.ExtPointResultItem.convertByDefinition(itemDefinition);
-                            extPointResult.addResultItem(item);
-                        }
+                    try {
+                        extensionPackage.addExtensionPoint(createExtensionPoint(mosaicExtPkgClazz, mosaicExtPackage, epd));
+                    } catch (Exception e) {
+                        log.error("[Cube][CubeFactory] extPoint init fail, skipped | Cube: {} | extPackage: {} | extPoint: {} | error: {}",
+                                cube.getCubeId(), pkgDef.getName(), epd.getId(), e.getMessage());
                     }
-                    // 注册扩展点到扩展包
-                    extensionPackage.addExtensionPoint(extensionPoint);
                 }
                 log.debug("[Cube][CubeFactory] extPackage init success | Cube: {} | extPackage: {} | extPointNum: {}", cube.getCubeId(), pkgDef.getName(), extensionPackage.getExtensionPoints().size());
             } catch (Exception e) {
@@ -93,6 +86,45 @@ public abstract class AbstractAutowirePropertyCubeFactory extends AbstractAutowi
         }
     }
 
+    private ExtensionPoint createExtensionPoint(Class<?> mosaicExtPkgClazz, MosaicExtPackage<?> mosaicExtPackage,
+                                                ExtensionPointDefinition epd) throws ReflectiveOperationException {
+        ExtensionPoint extensionPoint = ExtensionPoint.convertByDefinition(epd);
+        // 预先生成扩展点调用器，执行时无需再反射查找方法
+        extensionPoint.setInvoker(ExtPointInvoker.of(
+                mosaicExtPkgClazz.getMethod(epd.getMethodName(), epd.getParameterTypes())));
+        if (epd.isBatchable()) {
+            extensionPoint.setBatcher(createBatcher(mosaicExtPkgClazz, mosaicExtPackage, epd));
+        }
+
+        // 注册出参说明
+        ExtPointResult extPointResult = new ExtPointResult();
+        extensionPoint.setReturnResult(extPointResult);
+
+        PointResultDefinition pointResultDefinitions = epd.getPointResultDefinitions();
+        if(pointResultDefinitions != null){
+            for (PointResultDefinition.PointResultItemDefinition itemDefinition : pointResultDefinitions.getPointsResultInfoList()) {
+                ExtPointResult.ExtPointResultItem item = ExtPointResult.ExtPointResultItem.convertByDefinition(itemDefinition);
+                extPointResult.addResultItem(item);
+            }
+        }
+        return extensionPoint;
+    }
+
+    /**
+     * 为声明了批量方法的扩展点创建批量合并器，批量方法必须接收一个List参数并返回List
+     */
+    private ExtPointBatcher createBatcher(Class<?> mosaicExtPkgClazz, MosaicExtPackage<?> mosaicExtPackage,
+                                          ExtensionPointDefinition epd) throws ReflectiveOperationException {
+        Method batchMethod = mosaicExtPkgClazz.getMethod(epd.getBatchMethodName(), List.class);
+        if (!List.class.isAssignableFrom(batchMethod.getReturnType())) {
+            throw new CubeException(String.format("batch method %s of ext point %s must return List",
+                    epd.getBatchMethodName(), epd.getId()));
+        }
+        boolean singleArg = epd.getParameterTypes() != null && epd.getParameterTypes().length == 1;
+        return new ExtPointBatcher(mosaicExtPackage, ExtPointInvoker.of(batchMethod),
+                epd.getBatchMaxSize(), epd.getBatchLingerMs(), epd.getBatchTimeoutMs(), singleArg);
+    }
+
     /**
      * 填充Cube核心元数据
      */
@@ -105,6 +137,9 @@ public abstract class AbstractAutowirePropertyCubeFactory extends AbstractAutowi
             metaData.setDescription(cubeDefinition.getDescription());
             metaData.setModel(cubeDefinition.getModel());
             metaData.setScope(cubeDefinition.getScope());
+            metaData.setPoolMaxSize(cubeDefinition.getPoolMaxSize());
+            metaData.setPoolPrewarm(cubeDefinition.getPoolPrewarm());
+            metaData.setPoolBorrowTimeoutMillis(cubeDefinition.getPoolBorrowTimeoutMillis());
             metaData.setClazz(cubeDefinition.getClassLoader().loadClass(cubeDefinition.getClassName()));
             // 日志记录元数据填充
             log.debug("填充Cube元数据 | ID: {} | 名称: {} | 版本: {}", cube.getCubeId(), metaData.getName(), metaData.getVersion());
@@ -27,13 +27,13 @@ public abstract class AbstractCubeFactory extends DefaultSingletonCubeRegistry i
             return singletonCube;
         }
 
-        // 2. 创建新实例
+        // 2. 创建新实例，同一cubeId并发创建时只创建一次
         CubeDefinition cubeDefinition = getCubeDefinition(cubeId);
         if (Objects.isNull(cubeDefinition)) {
             return null;
         }
 
-        return createCube(cubeId, cubeDefinition, args);
+        return getSingleton(cubeId, () -> createCube(cubeId, cubeDefinition, args));
     }
 
     @Override
@@ -41,6 +41,17 @@ public abstract class AbstractCubeFactory extends DefaultSingletonCubeRegistry i
         return getCube(cubeId, null);
     }
 
+    /**
+     * 创建一个不放入单例池的新实例，生命周期由调用方管理
+     */
+    public Cube createPrototypeCube(GUID cubeId, Object[] args) throws CubeException {
+        CubeDefinition cubeDefinition = getCubeDefinition(cubeId);
+        if (Objects.isNull(cubeDefinition)) {
+            return null;
+        }
+        return createCube(cubeId, cubeDefinition, args);
+    }
+
 
 
     // 获取Cube定义，由子类实现
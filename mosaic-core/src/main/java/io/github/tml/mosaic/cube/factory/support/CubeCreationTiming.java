@@ -0,0 +1,55 @@
+package io.github.tml.mosaic.cube.factory.support;
+
+import lombok.Data;
+
+/**
+ * 描述: 单个Cube创建过程各阶段耗时（毫秒）
+ */
+@Data
+public class CubeCreationTiming {
+
+    private String cubeId;
+
+    private String cubeName;
+
+    /**
+     * 加载类并实例化
+     */
+    private double instantiateMillis;
+
+    /**
+     * 扩展包等属性填充
+     */
+    private double propertyMillis;
+
+    /**
+     * 配置校验与注入
+     */
+    private double configMillis;
+
+    /**
+     * 执行init
+     */
+    private double initMillis;
+
+    private double totalMillis;
+
+    private String threadName;
+
+    private boolean success;
+
+    private String error;
+
+    private long createdAt;
+
+    public CubeCreationTiming(String cubeId, String cubeName) {
+        this.cubeId = cubeId;
+        this.cubeName = cubeName;
+        this.threadName = Thread.currentThread().getName();
+        this.createdAt = System.currentTimeMillis();
+    }
+
+    static double millisSince(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000.0;
+    }
+}
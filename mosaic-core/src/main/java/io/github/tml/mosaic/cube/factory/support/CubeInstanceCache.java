@@ -0,0 +1,375 @@
+package io.github.tml.mosaic.cube.factory.support;
+
+import io.github.tml.mosaic.core.execption.CubeException;
+import io.github.tml.mosaic.core.tools.guid.GUID;
+import io.github.tml.mosaic.cube.Cube;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 描述: 按(cubeId, configId)缓存的Cube实例
+ * 按访问顺序做LRU淘汰，超过空闲时间的实例在下一次访问时淘汰
+ * 离开缓存的实例交给{@link RemovalListener}处理，由监听器负责等待进行中的调用结束后销毁
+ */
+@Slf4j
+public class CubeInstanceCache {
+
+    public static final int DEFAULT_MAX_SIZE = 256;
+
+    public static final long DEFAULT_IDLE_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(30);
+
+    /**
+     * 访问顺序的LinkedHashMap，表头为最久未访问的实例
+     */
+    private final LinkedHashMap<InstanceKey, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * 正在创建中的实例，同一key并发未命中时只创建一次
+     */
+    private final Map<InstanceKey, Creation> inCreation = new ConcurrentHashMap<>();
+
+    /**
+     * 实例离开缓存（淘汰、失效、清空）时的回调，默认直接destroy
+     */
+    private volatile RemovalListener removalListener = (cubeId, configId, cube, cause) -> destroy(cube);
+
+    @Getter
+    private volatile int maxSize;
+
+    @Getter
+    private volatile long idleTimeoutMillis;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public CubeInstanceCache() {
+        this(DEFAULT_MAX_SIZE, DEFAULT_IDLE_TIMEOUT_MILLIS);
+    }
+
+    public CubeInstanceCache(int maxSize, long idleTimeoutMillis) {
+        setMaxSize(maxSize);
+        setIdleTimeoutMillis(idleTimeoutMillis);
+    }
+
+    /**
+     * 最大缓存实例数，不大于0时使用默认值
+     */
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize > 0 ? maxSize : DEFAULT_MAX_SIZE;
+        evictOverflow();
+    }
+
+    public void setRemovalListener(RemovalListener removalListener) {
+        this.removalListener = removalListener;
+    }
+
+    /**
+     * 空闲淘汰时间，不大于0时不按空闲时间淘汰
+     */
+    public void setIdleTimeoutMillis(long idleTimeoutMillis) {
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+
+    /**
+     * 获取缓存的实例，未命中时通过creator创建并放入缓存
+     */
+    public Cube get(GUID cubeId, String configId, Supplier<Cube> creator) throws CubeException {
+        InstanceKey key = new InstanceKey(cubeId, configId);
+        List<Removal> expired = new ArrayList<>();
+        try {
+            synchronized (entries) {
+                collectIdle(expired);
+                Entry entry = entries.get(key);
+                if (entry != null) {
+                    entry.lastAccessNanos = System.nanoTime();
+                    hits.increment();
+                    return entry.cube;
+                }
+            }
+        } finally {
+            notifyRemoval(expired);
+        }
+        misses.increment();
+        return create(key, creator);
+    }
+
+    /**
+     * 创建期间该key被失效时丢弃创建结果并按最新配置重新创建，未缓存的实例不会交给调用方
+     */
+    private Cube create(InstanceKey key, Supplier<Cube> creator) {
+        for (;;) {
+            Creation creation = new Creation();
+            Creation existing = inCreation.putIfAbsent(key, creation);
+            if (existing != null) {
+                Cube cube = await(existing.future);
+                if (!existing.invalidated) {
+                    return cube;
+                }
+                continue;
+            }
+            Cube cube;
+            try {
+                cube = creator.get();
+            } catch (RuntimeException e) {
+                inCreation.remove(key, creation);
+                creation.future.completeExceptionally(e);
+                throw e;
+            }
+            boolean cached = cube == null || cacheCreated(key, cube, creation);
+            inCreation.remove(key, creation);
+            creation.future.complete(cube);
+            if (cached) {
+                return cube;
+            }
+            log.debug("[Cube][InstanceCache] {} invalidated during creation, recreate", key);
+            notifyRemoval(Collections.singletonList(new Removal(key, cube, RemovalCause.INVALIDATED)));
+        }
+    }
+
+    private boolean cacheCreated(InstanceKey key, Cube cube, Creation creation) {
+        List<Removal> evicted = new ArrayList<>();
+        synchronized (entries) {
+            if (creation.invalidated) {
+                return false;
+            }
+            entries.put(key, new Entry(cube, System.nanoTime()));
+            collectOverflow(evicted);
+        }
+        notifyRemoval(evicted);
+        return true;
+    }
+
+    private Cube await(CompletableFuture<Cube> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new CubeException("Cube instance creation failed", e.getCause());
+        }
+    }
+
+    /**
+     * 失效指定配置的实例，configId为null时失效该Cube的全部实例
+     * 正在创建中的匹配实例创建完成后不会被缓存
+     */
+    public int invalidate(GUID cubeId, String configId) {
+        List<Removal> removed = new ArrayList<>();
+        synchronized (entries) {
+            inCreation.forEach((key, creation) -> {
+                if (key.matches(cubeId, configId)) {
+                    creation.invalidated = true;
+                }
+            });
+            Iterator<Map.Entry<InstanceKey, Entry>> iterator = entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<InstanceKey, Entry> next = iterator.next();
+                if (next.getKey().matches(cubeId, configId)) {
+                    removed.add(new Removal(next.getKey(), next.getValue().cube, RemovalCause.INVALIDATED));
+                    iterator.remove();
+                }
+            }
+        }
+        invalidations.add(removed.size());
+        notifyRemoval(removed);
+        return removed.size();
+    }
+
+    /**
+     * 获取已缓存的实例，未缓存时返回null，不创建实例也不计入命中统计
+     */
+    public Cube peek(GUID cubeId, String configId) {
+        synchronized (entries) {
+            Entry entry = entries.get(new InstanceKey(cubeId, configId));
+            return entry != null ? entry.cube : null;
+        }
+    }
+
+    /**
+     * 移除指定实例但不通知监听器，由调用方负责销毁
+     */
+    public boolean remove(Cube cube) {
+        synchronized (entries) {
+            return entries.values().removeIf(entry -> entry.cube == cube);
+        }
+    }
+
+    /**
+     * 清空全部实例
+     */
+    public void clear() {
+        List<Removal> removed = new ArrayList<>();
+        synchronized (entries) {
+            inCreation.values().forEach(creation -> creation.invalidated = true);
+            entries.forEach((key, entry) -> removed.add(new Removal(key, entry.cube, RemovalCause.CLEARED)));
+            entries.clear();
+        }
+        invalidations.add(removed.size());
+        notifyRemoval(removed);
+    }
+
+    /**
+     * 主动淘汰超过空闲时间的实例
+     */
+    public int evictIdle() {
+        List<Removal> expired = new ArrayList<>();
+        synchronized (entries) {
+            collectIdle(expired);
+        }
+        notifyRemoval(expired);
+        return expired.size();
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public Stats getStats() {
+        return new Stats(size(), maxSize, idleTimeoutMillis,
+                hits.sum(), misses.sum(), evictions.sum(), invalidations.sum());
+    }
+
+    private void evictOverflow() {
+        List<Removal> evicted = new ArrayList<>();
+        synchronized (entries) {
+            collectOverflow(evicted);
+        }
+        notifyRemoval(evicted);
+    }
+
+    private void collectOverflow(List<Removal> evicted) {
+        Iterator<Map.Entry<InstanceKey, Entry>> iterator = entries.entrySet().iterator();
+        while (entries.size() > maxSize && iterator.hasNext()) {
+            Map.Entry<InstanceKey, Entry> next = iterator.next();
+            evicted.add(new Removal(next.getKey(), next.getValue().cube, RemovalCause.EVICTED));
+            iterator.remove();
+            evictions.increment();
+        }
+    }
+
+    private void collectIdle(List<Removal> expired) {
+        long timeout = idleTimeoutMillis;
+        if (timeout <= 0) {
+            return;
+        }
+        long deadline = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(timeout);
+        Iterator<Map.Entry<InstanceKey, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<InstanceKey, Entry> next = iterator.next();
+            if (next.getValue().lastAccessNanos - deadline > 0) {
+                // 访问顺序排列，后面的实例更新
+                break;
+            }
+            expired.add(new Removal(next.getKey(), next.getValue().cube, RemovalCause.EVICTED));
+            iterator.remove();
+            evictions.increment();
+        }
+    }
+
+    private void notifyRemoval(List<Removal> removals) {
+        for (Removal removal : removals) {
+            try {
+                removalListener.onRemoval(removal.key.cubeId, removal.key.configId, removal.cube, removal.cause);
+            } catch (Exception e) {
+                log.warn("[Cube][InstanceCache] remove cube {} failed: {}", removal.key, e.getMessage());
+            }
+        }
+    }
+
+    private static void destroy(Cube cube) {
+        if (cube.getMosaicCube() != null) {
+            cube.destroy();
+        }
+    }
+
+    /**
+     * 实例离开缓存的原因
+     */
+    public enum RemovalCause {
+        /**
+         * 超过容量或空闲时间被淘汰
+         */
+        EVICTED,
+        /**
+         * 配置变更等原因被失效
+         */
+        INVALIDATED,
+        /**
+         * 缓存被清空
+         */
+        CLEARED
+    }
+
+    /**
+     * 实例离开缓存时的回调，在缓存锁之外调用
+     */
+    @FunctionalInterface
+    public interface RemovalListener {
+        void onRemoval(GUID cubeId, String configId, Cube cube, RemovalCause cause);
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Stats {
+        private int size;
+        private int maxSize;
+        private long idleTimeoutMillis;
+        private long hits;
+        private long misses;
+        private long evictions;
+        private long invalidations;
+    }
+
+    @AllArgsConstructor
+    private static class Entry {
+        private final Cube cube;
+        private volatile long lastAccessNanos;
+    }
+
+    /**
+     * 进行中的一次创建，invalidated在缓存锁内读写
+     */
+    private static class Creation {
+        private final CompletableFuture<Cube> future = new CompletableFuture<>();
+        private volatile boolean invalidated;
+    }
+
+    @AllArgsConstructor
+    private static class Removal {
+        private final InstanceKey key;
+        private final Cube cube;
+        private final RemovalCause cause;
+    }
+
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    private static class InstanceKey {
+        private final GUID cubeId;
+        private final String configId;
+
+        boolean matches(GUID cubeId, String configId) {
+            return this.cubeId.equals(cubeId) && (configId == null || configId.equals(this.configId));
+        }
+
+        @Override
+        public String toString() {
+            return cubeId + "#" + configId;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package io.github.tml.mosaic.cube.factory.support;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 描述: 单例预实例化报告，按总耗时倒序列出每个Cube的各阶段耗时
+ */
+@Data
+public class CubeStartupReport {
+
+    private int parallelism;
+
+    private double totalMillis;
+
+    private int failedCount;
+
+    private List<CubeCreationTiming> cubes = new ArrayList<>();
+
+    public CubeStartupReport(int parallelism, double totalMillis, List<CubeCreationTiming> cubes) {
+        this.parallelism = parallelism;
+        this.totalMillis = totalMillis;
+        this.cubes = new ArrayList<>(cubes);
+        this.cubes.sort(Comparator.comparingDouble(CubeCreationTiming::getTotalMillis).reversed());
+        this.failedCount = (int) this.cubes.stream().filter(timing -> !timing.isSuccess()).count();
+    }
+
+    /**
+     * 输出为日志表格
+     */
+    public String toTable() {
+        StringBuilder table = new StringBuilder();
+        table.append(String.format("%n%-36s %-24s %12s %12s %12s %12s %12s  %s%n",
+                "cubeId", "name", "instantiate", "property", "config", "init", "total", "thread"));
+        for (CubeCreationTiming timing : cubes) {
+            table.append(String.format("%-36s %-24s %12.1f %12.1f %12.1f %12.1f %12.1f  %s%s%n",
+                    timing.getCubeId(), timing.getCubeName(), timing.getInstantiateMillis(), timing.getPropertyMillis(),
+                    timing.getConfigMillis(), timing.getInitMillis(), timing.getTotalMillis(), timing.getThreadName(),
+                    timing.isSuccess() ? "" : "  FAILED: " + timing.getError()));
+        }
+        table.append(String.format("total %.1f ms, %d cubes, parallelism %d, failed %d",
+                totalMillis, cubes.size(), parallelism, failedCount));
+        return table.toString();
+    }
+}
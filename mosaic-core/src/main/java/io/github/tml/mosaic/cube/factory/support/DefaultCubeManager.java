@@ -4,122 +4,284 @@ import io.github.tml.mosaic.cube.factory.config.CubeManager;
 import io.github.tml.mosaic.core.tools.guid.GUID;
 import io.github.tml.mosaic.core.tools.guid.GuuidAllocator;
 import io.github.tml.mosaic.cube.Cube;
+import lombok.AccessLevel;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 /**
  * 描述: 默认Cube管理器实现
+ * 记录每个实例的引用计数，空闲且无人使用的实例可被淘汰并destroy
+ * 最近使用时间只在开启使用统计后按秒级精度记录，未开启空闲淘汰时借用与归还只修改引用计数
  * @author suifeng
  * 日期: 2025/6/11
  */
 @Slf4j
 public class DefaultCubeManager extends DefaultSingletonCubeRegistry implements CubeManager {
 
-    // 主存储结构：CubeId -> Cube实例列表
-    private final Map<GUID, List<Cube>> cubeInstancesMap = new ConcurrentHashMap<>();
-    
-    // 实例ID到Cube的映射，便于快速查找
-    private final Map<GUID, Cube> instanceIdToCubeMap = new ConcurrentHashMap<>();
-    
-    // 实例ID到CubeId的映射，便于反向查找
-    private final Map<GUID, GUID> instanceIdToCubeIdMap = new ConcurrentHashMap<>();
-    
+    // 实例ID -> 受管实例
+    private final Map<GUID, ManagedCube> instanceMap = new ConcurrentHashMap<>();
+
+    // CubeId -> 受管实例列表，按注册顺序排列
+    private final Map<GUID, List<ManagedCube>> cubeInstancesMap = new ConcurrentHashMap<>();
+
     // ID分配器
     private final GuuidAllocator guidAllocator = new GuuidAllocator();
 
+    /**
+     * 是否记录使用次数与最近使用时间，开启空闲淘汰时打开
+     */
+    private volatile boolean usageTracking;
+
     @Override
     public GUID registerCube(GUID cubeId, Cube cube) {
         // 为实例分配唯一ID
         GUID instanceId = guidAllocator.nextGUID();
-        
-        // 添加到主存储结构
-        cubeInstancesMap.computeIfAbsent(cubeId, k -> new CopyOnWriteArrayList<>()).add(cube);
-        
-        // 建立映射关系
-        instanceIdToCubeMap.put(instanceId, cube);
-        instanceIdToCubeIdMap.put(instanceId, cubeId);
-        
+        ManagedCube managedCube = new ManagedCube(instanceId, cubeId, cube);
+        cube.setInstanceId(instanceId);
+
+        instanceMap.put(instanceId, managedCube);
+        cubeInstancesMap.compute(cubeId, (k, instances) -> {
+            List<ManagedCube> list = instances != null ? instances : new CopyOnWriteArrayList<>();
+            list.add(managedCube);
+            return list;
+        });
         return instanceId;
     }
 
     @Override
     public boolean removeCubeByInstanceId(GUID instanceId) {
-        Cube cube = instanceIdToCubeMap.get(instanceId);
-        if (cube == null) {
+        ManagedCube managedCube = instanceMap.remove(instanceId);
+        if (managedCube == null) {
             log.warn("⚠ 尝试移除不存在的Cube实例 | 实例ID: {}", instanceId);
             return false;
         }
-        
-        GUID cubeId = instanceIdToCubeIdMap.get(instanceId);
-        
-        // 从主存储结构中移除
-        List<Cube> instances = cubeInstancesMap.get(cubeId);
-        if (instances != null) {
-            instances.remove(cube);
-            // 如果列表为空，移除整个条目
-            if (instances.isEmpty()) {
-                cubeInstancesMap.remove(cubeId);
-            }
-        }
-        
-        // 清理映射关系
-        instanceIdToCubeMap.remove(instanceId);
-        instanceIdToCubeIdMap.remove(instanceId);
-        
-        log.debug("✓ Cube实例移除成功 | CubeId: {} | 实例ID: {}", cubeId, instanceId);
+        unIndex(managedCube);
+        log.debug("✓ Cube实例移除成功 | CubeId: {} | 实例ID: {}", managedCube.getCubeId(), instanceId);
         return true;
     }
 
     @Override
     public int removeCubesByCubeId(GUID cubeId) {
-        List<Cube> instances = cubeInstancesMap.remove(cubeId);
+        List<ManagedCube> instances = cubeInstancesMap.remove(cubeId);
         if (instances == null || instances.isEmpty()) {
             return 0;
         }
-        
-        int removedCount = instances.size();
-        
-        // 清理所有相关的映射关系
-        instanceIdToCubeIdMap.entrySet().removeIf(entry -> {
-            if (entry.getValue().equals(cubeId)) {
-                instanceIdToCubeMap.remove(entry.getKey());
-                return true;
+        instances.forEach(managedCube -> instanceMap.remove(managedCube.getInstanceId()));
+        log.debug("✓ 移除CubeId所有实例 | CubeId: {} | 数量: {}", cubeId, instances.size());
+        return instances.size();
+    }
+
+    @Override
+    public boolean acquire(Cube cube) {
+        if (cube.getInstanceId() == null) {
+            return true;
+        }
+        // 曾受管理但已被移除的实例视为已淘汰
+        ManagedCube managedCube = instanceMap.get(cube.getInstanceId());
+        if (managedCube == null || !managedCube.tryAcquire()) {
+            return false;
+        }
+        if (usageTracking && managedCube.isEvictable()) {
+            managedCube.useCount.increment();
+        }
+        return true;
+    }
+
+    @Override
+    public void release(Cube cube) {
+        ManagedCube managedCube = findManaged(cube);
+        if (managedCube != null) {
+            // 先刷新使用时间再归还，避免归还后被按旧的使用时间淘汰
+            if (usageTracking && managedCube.isEvictable()) {
+                managedCube.touch();
             }
+            releaseManaged(managedCube);
+        }
+    }
+
+    private void releaseManaged(ManagedCube managedCube) {
+        // 等待退役的实例在最后一个调用归还时退役
+        if (managedCube.release() == 0 && managedCube.onRetired.get() != null) {
+            retireNow(managedCube);
+        }
+    }
+
+    /**
+     * 标记实例由调用方直接持有：调用方不借用实例，无法判断是否仍在使用，不再参与空闲淘汰
+     * 标记期间借用实例，与并发的淘汰互斥
+     * @return 实例已被淘汰或移除时返回false，从未受管理的实例返回true
+     */
+    public boolean pin(Cube cube) {
+        if (cube.getInstanceId() == null) {
+            return true;
+        }
+        ManagedCube managedCube = instanceMap.get(cube.getInstanceId());
+        if (managedCube == null || !managedCube.tryAcquire()) {
             return false;
-        });
-        
-        log.debug("✓ 移除CubeId所有实例 | CubeId: {} | 数量: {}", cubeId, removedCount);
-        return removedCount;
+        }
+        managedCube.pinned = true;
+        releaseManaged(managedCube);
+        return true;
+    }
+
+    public boolean isPinned(Cube cube) {
+        ManagedCube managedCube = findManaged(cube);
+        return managedCube != null && managedCube.isPinned();
+    }
+
+    /**
+     * 开启使用统计，已有实例的空闲时间从开启时开始计算
+     */
+    public void enableUsageTracking() {
+        if (usageTracking) {
+            return;
+        }
+        usageTracking = true;
+        long now = System.currentTimeMillis();
+        instanceMap.values().forEach(managedCube -> managedCube.lastUsedAt = now);
+        log.info("[Cube][CubeManager] cube usage tracking enabled");
+    }
+
+    public boolean isUsageTracking() {
+        return usageTracking;
+    }
+
+    /**
+     * 淘汰空闲超过idleMillis且没有进行中调用的实例，天使方块与被直接持有的实例不参与淘汰
+     * 先从管理器移除并交给onEvict从各自的容器中摘除，再执行destroy
+     * 尚未开启使用统计时只开启统计，不淘汰任何实例
+     * @return 淘汰的实例数量
+     */
+    public int evictIdle(long idleMillis, Consumer<ManagedCube> onEvict) {
+        if (!usageTracking) {
+            enableUsageTracking();
+            return 0;
+        }
+        long now = System.currentTimeMillis();
+        int evicted = 0;
+        for (ManagedCube managedCube : instanceMap.values()) {
+            if (!managedCube.isEvictable() || now - managedCube.getLastUsedAt() < idleMillis
+                    || !managedCube.tryMarkEvicted()) {
+                continue;
+            }
+            if (managedCube.isPinned()) {
+                // 检查之后被直接持有，撤销淘汰标记
+                managedCube.unmarkEvicted();
+                continue;
+            }
+            instanceMap.remove(managedCube.getInstanceId());
+            unIndex(managedCube);
+            try {
+                onEvict.accept(managedCube);
+                if (managedCube.getCube().getMosaicCube() != null) {
+                    managedCube.getCube().destroy();
+                }
+                evicted++;
+                log.info("[Cube][CubeManager] idle cube evicted | CubeId: {} | 实例ID: {} | idle: {}ms",
+                        managedCube.getCubeId(), managedCube.getInstanceId(), now - managedCube.getLastUsedAt());
+            } catch (Exception e) {
+                log.warn("[Cube][CubeManager] evict cube {} failed: {}", managedCube.getCubeId(), e.getMessage());
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * 退役被替换的实例：没有进行中的调用时标记为淘汰并移除，之后对它的acquire返回false
+     * @return 是否已退役，仍有进行中的调用时返回false
+     */
+    public boolean tryRetire(Cube cube) {
+        ManagedCube managedCube = findManaged(cube);
+        if (managedCube == null) {
+            return true;
+        }
+        if (!managedCube.tryMarkEvicted()) {
+            return false;
+        }
+        instanceMap.remove(managedCube.getInstanceId());
+        unIndex(managedCube);
+        return true;
+    }
+
+    /**
+     * 在最后一个进行中的调用归还后退役实例并回调onRetired，没有进行中的调用时立即退役
+     * 回调在退役实例的线程上执行（调用方线程或最后归还实例的线程），回调应尽快返回
+     * 未受管理的实例直接回调
+     */
+    public void retireWhenIdle(Cube cube, Runnable onRetired) {
+        ManagedCube managedCube = findManaged(cube);
+        if (managedCube == null) {
+            onRetired.run();
+            return;
+        }
+        managedCube.onRetired.set(onRetired);
+        retireNow(managedCube);
+    }
+
+    private void retireNow(ManagedCube managedCube) {
+        if (!managedCube.tryMarkEvicted()) {
+            return;
+        }
+        instanceMap.remove(managedCube.getInstanceId());
+        unIndex(managedCube);
+        Runnable onRetired = managedCube.onRetired.getAndSet(null);
+        if (onRetired != null) {
+            onRetired.run();
+        }
+    }
+
+    /**
+     * 所有受管实例，按CubeId与注册顺序排列
+     */
+    public List<ManagedCube> getManagedCubes() {
+        return cubeInstancesMap.values().stream()
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
     }
 
     @Override
     public Cube getCubeByInstanceId(GUID instanceId) {
-        return instanceIdToCubeMap.get(instanceId);
+        ManagedCube managedCube = instanceMap.get(instanceId);
+        return managedCube != null ? managedCube.getCube() : null;
     }
 
     @Override
     public List<Cube> getCubesByCubeId(GUID cubeId) {
-        List<Cube> instances = cubeInstancesMap.get(cubeId);
-        return instances != null ? new ArrayList<>(instances) : new ArrayList<>();
+        List<ManagedCube> instances = cubeInstancesMap.get(cubeId);
+        if (instances == null) {
+            return new ArrayList<>();
+        }
+        return instances.stream().map(ManagedCube::getCube).collect(Collectors.toList());
     }
 
     @Override
     public Cube getFirstCubeByCubeId(GUID cubeId) {
-        List<Cube> instances = cubeInstancesMap.get(cubeId);
-        return (instances != null && !instances.isEmpty()) ? instances.get(0) : null;
+        List<ManagedCube> instances = cubeInstancesMap.get(cubeId);
+        if (instances == null) {
+            return null;
+        }
+        Iterator<ManagedCube> iterator = instances.iterator();
+        return iterator.hasNext() ? iterator.next().getCube() : null;
     }
 
     @Override
     public boolean containsCubeId(GUID cubeId) {
-        return cubeInstancesMap.containsKey(cubeId) && !cubeInstancesMap.get(cubeId).isEmpty();
+        List<ManagedCube> instances = cubeInstancesMap.get(cubeId);
+        return instances != null && !instances.isEmpty();
     }
 
     @Override
     public boolean containsInstanceId(GUID instanceId) {
-        return instanceIdToCubeMap.containsKey(instanceId);
+        return instanceMap.containsKey(instanceId);
     }
 
     @Override
@@ -129,30 +291,139 @@ public class DefaultCubeManager extends DefaultSingletonCubeRegistry implements
 
     @Override
     public Set<GUID> getAllInstanceIds() {
-        return new HashSet<>(instanceIdToCubeMap.keySet());
+        return new HashSet<>(instanceMap.keySet());
     }
 
     @Override
     public int getCubeInstanceCount(GUID cubeId) {
-        List<Cube> instances = cubeInstancesMap.get(cubeId);
+        List<ManagedCube> instances = cubeInstancesMap.get(cubeId);
         return instances != null ? instances.size() : 0;
     }
 
     @Override
     public int getTotalInstanceCount() {
-        return instanceIdToCubeMap.size();
+        return instanceMap.size();
     }
 
     @Override
     public Map<GUID, Cube> getAllCubeInstances() {
-        return new HashMap<>(instanceIdToCubeMap);
+        Map<GUID, Cube> result = new HashMap<>();
+        instanceMap.forEach((instanceId, managedCube) -> result.put(instanceId, managedCube.getCube()));
+        return result;
     }
 
     @Override
     public void clear() {
         cubeInstancesMap.clear();
-        instanceIdToCubeMap.clear();
-        instanceIdToCubeIdMap.clear();
+        instanceMap.clear();
         log.info("✓ 管理器已清空所有Cube实例");
     }
-}
\ No newline at end of file
+
+    private ManagedCube findManaged(Cube cube) {
+        GUID instanceId = cube.getInstanceId();
+        return instanceId != null ? instanceMap.get(instanceId) : null;
+    }
+
+    private void unIndex(ManagedCube managedCube) {
+        cubeInstancesMap.computeIfPresent(managedCube.getCubeId(), (cubeId, instances) -> {
+            instances.remove(managedCube);
+            return instances.isEmpty() ? null : instances;
+        });
+    }
+
+    /**
+     * 受管实例，引用计数为-1表示已被淘汰，不再允许借用
+     */
+    @Getter
+    public static class ManagedCube {
+
+        private static final int EVICTED = -1;
+
+        /**
+         * 最近使用时间的记录精度，同一精度内的多次使用不重复写入
+         */
+        private static final long USAGE_CLOCK_GRANULARITY_MILLIS = 1_000;
+
+        private final GUID instanceId;
+        private final GUID cubeId;
+        private final Cube cube;
+        private final long createdAt = System.currentTimeMillis();
+        private volatile long lastUsedAt = createdAt;
+        @Getter(AccessLevel.NONE)
+        private final AtomicInteger refCount = new AtomicInteger();
+        @Getter(AccessLevel.NONE)
+        private final LongAdder useCount = new LongAdder();
+        private volatile boolean pinned;
+        @Getter(AccessLevel.NONE)
+        private final AtomicReference<Runnable> onRetired = new AtomicReference<>();
+
+        ManagedCube(GUID instanceId, GUID cubeId, Cube cube) {
+            this.instanceId = instanceId;
+            this.cubeId = cubeId;
+            this.cube = cube;
+        }
+
+        boolean tryAcquire() {
+            for (;;) {
+                int current = refCount.get();
+                if (current == EVICTED) {
+                    return false;
+                }
+                if (refCount.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * @return 归还后的引用计数
+         */
+        int release() {
+            return refCount.updateAndGet(current -> current > 0 ? current - 1 : current);
+        }
+
+        void touch() {
+            long now = System.currentTimeMillis();
+            if (now - lastUsedAt >= USAGE_CLOCK_GRANULARITY_MILLIS) {
+                lastUsedAt = now;
+            }
+        }
+
+        /**
+         * 是否参与空闲淘汰
+         */
+        public boolean isEvictable() {
+            return !pinned && !cube.isAngleCube();
+        }
+
+        boolean tryMarkEvicted() {
+            return refCount.compareAndSet(0, EVICTED);
+        }
+
+        void unmarkEvicted() {
+            refCount.compareAndSet(EVICTED, 0);
+        }
+
+        public int getReferenceCount() {
+            return Math.max(refCount.get(), 0);
+        }
+
+        /**
+         * 开启使用统计后的借用次数
+         */
+        public long getTotalUses() {
+            return useCount.sum();
+        }
+
+        /**
+         * 是否已登记为等待退役，最后一个调用归还后退役
+         */
+        public boolean isRetiring() {
+            return onRetired.get() != null;
+        }
+
+        public long getIdleMillis() {
+            return refCount.get() > 0 ? 0 : System.currentTimeMillis() - lastUsedAt;
+        }
+    }
+}
@@ -1,33 +1,171 @@
 package io.github.tml.mosaic.cube.factory.support;
 
+import io.github.tml.mosaic.core.execption.CubeException;
 import io.github.tml.mosaic.core.tools.guid.GUID;
 import io.github.tml.mosaic.cube.Cube;
 import io.github.tml.mosaic.cube.factory.config.SingletonCubeRegistry;
+import lombok.extern.slf4j.Slf4j;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 /**
  * 描述: 单例Cube注册默认实现类
+ * 已创建的单例无锁读取；创建按cubeId单飞，并发的首次获取只初始化一次
+ * 创建期间单例被移除时，本次创建的实例作废并销毁，按移除后的代数重新创建
  * @author suifeng
  * 日期: 2025/6/6
  */
+@Slf4j
 public class DefaultSingletonCubeRegistry implements SingletonCubeRegistry {
 
-    private final Map<GUID, Cube> singletonCubes = new HashMap<>();
+    private final Map<GUID, Cube> singletonCubes = new ConcurrentHashMap<>();
+
+    /**
+     * 正在创建中的单例
+     */
+    private final Map<GUID, SingletonCreation> singletonsInCreation = new ConcurrentHashMap<>();
+
+    /**
+     * 单例代数，每次移除递增，用于识别创建期间发生的移除
+     */
+    private final Map<GUID, Long> singletonGenerations = new ConcurrentHashMap<>();
 
     @Override
     public Cube getSingleton(GUID cubeId) {
         return singletonCubes.get(cubeId);
     }
 
+    @Override
+    public Cube getSingleton(GUID cubeId, Supplier<Cube> singletonFactory) {
+        Cube cube = singletonCubes.get(cubeId);
+        if (cube != null) {
+            return cube;
+        }
+        SingletonCreation creation = new SingletonCreation();
+        SingletonCreation inCreation = singletonsInCreation.putIfAbsent(cubeId, creation);
+        if (inCreation != null) {
+            return awaitCreation(cubeId, inCreation);
+        }
+        try {
+            cube = createAndRegister(cubeId, singletonFactory);
+            creation.future.complete(cube);
+            return cube;
+        } catch (RuntimeException | Error e) {
+            creation.future.completeExceptionally(e);
+            throw e;
+        } finally {
+            singletonsInCreation.remove(cubeId, creation);
+        }
+    }
+
+    /**
+     * 创建并注册单例，创建期间发生移除或已有其他实例注册时作废本次创建的实例
+     */
+    private Cube createAndRegister(GUID cubeId, Supplier<Cube> singletonFactory) {
+        while (true) {
+            Cube registered = singletonCubes.get(cubeId);
+            if (registered != null) {
+                return registered;
+            }
+            long generation = singletonGenerations.getOrDefault(cubeId, 0L);
+            Cube cube = singletonFactory.get();
+            if (cube == null) {
+                return null;
+            }
+            registered = registerCreated(cubeId, cube, generation);
+            if (registered == cube) {
+                return cube;
+            }
+            discardStaleSingleton(cube);
+            if (registered != null) {
+                return registered;
+            }
+        }
+    }
+
+    /**
+     * 创建期间没有发生移除且尚无单例时注册
+     * @return 注册后的单例；代数已变化时返回null
+     */
+    private Cube registerCreated(GUID cubeId, Cube cube, long generation) {
+        Cube[] registered = new Cube[1];
+        singletonGenerations.compute(cubeId, (id, current) -> {
+            if (current == null ? generation == 0L : current == generation) {
+                registered[0] = singletonCubes.putIfAbsent(cubeId, cube);
+                if (registered[0] == null) {
+                    registered[0] = cube;
+                }
+            }
+            return current;
+        });
+        return registered[0];
+    }
+
+    /**
+     * 销毁作废的单例实例，该实例尚未交给任何调用方
+     */
+    protected void discardStaleSingleton(Cube cube) {
+        try {
+            if (cube.getMosaicCube() != null) {
+                cube.destroy();
+            }
+        } catch (Exception e) {
+            log.warn("[Cube][SingletonRegistry] Destroy stale singleton {} failed: {}", cube.getCubeId(), e.getMessage());
+        }
+    }
+
+    private Cube awaitCreation(GUID cubeId, SingletonCreation creation) {
+        if (creation.owner == Thread.currentThread()) {
+            throw new CubeException("Circular singleton creation detected, cubeId: " + cubeId);
+        }
+        try {
+            return creation.future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new CubeException("Singleton creation failed, cubeId: " + cubeId, cause);
+        }
+    }
+
     @Override
     public void removeSingleton(GUID cubeId) {
-        singletonCubes.remove(cubeId);
+        singletonGenerations.compute(cubeId, (id, current) -> {
+            singletonCubes.remove(cubeId);
+            // 之后的获取重新创建，不再等待移除前开始的创建
+            singletonsInCreation.remove(cubeId);
+            return current == null ? 1L : current + 1;
+        });
+    }
+
+    @Override
+    public boolean replaceSingleton(GUID cubeId, Cube expected, Cube replacement) {
+        boolean[] replaced = {false};
+        singletonGenerations.compute(cubeId, (id, current) -> {
+            // 按引用比较，配置相同的两个实例equals为true
+            if (singletonCubes.get(cubeId) == expected) {
+                singletonCubes.put(cubeId, replacement);
+                replaced[0] = true;
+            }
+            return current;
+        });
+        return replaced[0];
     }
 
     @Override
     public void addSingleton(GUID cubeId, Cube cube) {
         singletonCubes.put(cubeId, cube);
     }
+
+    private static final class SingletonCreation {
+
+        private final Thread owner = Thread.currentThread();
+
+        private final CompletableFuture<Cube> future = new CompletableFuture<>();
+    }
 }
@@ -1,6 +1,10 @@
 package io.github.tml.mosaic.cube.factory.support;
 
+import io.github.tml.mosaic.core.execption.CubeException;
+import io.github.tml.mosaic.cube.Cube;
 import io.github.tml.mosaic.cube.factory.config.CubeDefinitionRegistry;
+import io.github.tml.mosaic.cube.factory.definition.CubeDefinition;
+import lombok.Getter;
 
 /**
  * 链式存储CubeFactory
@@ -8,4 +12,22 @@ import io.github.tml.mosaic.cube.factory.config.CubeDefinitionRegistry;
 public abstract class ListableCubeFactory extends AbstractAutowireInitCubeFactory
         implements CubeDefinitionRegistry, ConfigurableCubeFactory {
 
+    /**
+     * 工厂创建的全部实例，记录引用计数与最近使用时间
+     */
+    @Getter
+    private final DefaultCubeManager cubeManager = new DefaultCubeManager();
+
+    @Override
+    protected void postInitialization(Cube cube, CubeDefinition cubeDefinition, Object[] args) throws CubeException {
+        cubeManager.registerCube(cube.getCubeId(), cube);
+    }
+
+    @Override
+    protected void discardStaleSingleton(Cube cube) {
+        if (cube.getInstanceId() != null) {
+            cubeManager.removeCubeByInstanceId(cube.getInstanceId());
+        }
+        super.discardStaleSingleton(cube);
+    }
 }
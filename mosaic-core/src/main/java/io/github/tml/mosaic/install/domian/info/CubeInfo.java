@@ -7,6 +7,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 // 方块信息
@@ -33,11 +34,33 @@ public class CubeInfo {
      */
     private ConfigInfo configInfo;
 
+    /**
+     * 依赖的Cube id
+     */
+    private List<String> dependsOn = new ArrayList<>();
+
+    /**
+     * 是否懒加载
+     */
+    private boolean lazy;
+
+    /**
+     * 池化范围的实例池参数
+     */
+    private int poolMaxSize;
+    private int poolPrewarm;
+    private long poolBorrowTimeoutMillis;
+
     public void setInfoByMCube(MCube mCube) {
         String name = mCube.name().isEmpty() ? this.getClass().getSimpleName() : mCube.name();
         this.setName(name);
         this.setVersion(mCube.version());
         this.setDescription(mCube.description());
         this.setScope(mCube.scope());
+        this.setDependsOn(new ArrayList<>(Arrays.asList(mCube.dependsOn())));
+        this.setLazy(mCube.lazy());
+        this.setPoolMaxSize(mCube.poolMaxSize());
+        this.setPoolPrewarm(mCube.poolPrewarm());
+        this.setPoolBorrowTimeoutMillis(mCube.poolBorrowTimeoutMillis());
     }
 }
\ No newline at end of file
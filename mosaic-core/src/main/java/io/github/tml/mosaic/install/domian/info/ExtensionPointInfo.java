@@ -22,13 +22,21 @@ public class ExtensionPointInfo {
     private Class<?> returnType;
     private Class<?>[] parameterTypes;
     private PointsResultInfo pointsResultInfo;
+    private String batchMethodName;
+    private int batchMaxSize;
+    private long batchLingerMs;
+    private long batchTimeoutMs;
 
     public void setInfoByMExtensionPoint(MExtension anno) {
-        this.setAsyncFlag(false);
+        this.setAsyncFlag(anno.async());
         this.setId(anno.extPointId());
         this.setExtensionName(anno.name());
         this.setPriority(anno.priority());
         this.setDescription(anno.description());
+        this.setBatchMethodName(anno.batch().method());
+        this.setBatchMaxSize(anno.batch().maxSize());
+        this.setBatchLingerMs(anno.batch().lingerMs());
+        this.setBatchTimeoutMs(anno.batch().timeoutMs());
     }
 
     public void setInfoByMethod(Method method) {
@@ -3,11 +3,11 @@ package io.github.tml.mosaic.slot;
 import io.github.tml.mosaic.core.tools.guid.DotNotationId;
 import io.github.tml.mosaic.core.tools.guid.GUID;
 import io.github.tml.mosaic.core.tools.guid.UniqueEntity;
+import lombok.Builder;
 import lombok.Getter;
-import lombok.NoArgsConstructor;
-import lombok.Setter;
 
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Stream;
 
 import static io.github.tml.mosaic.core.CubeConstant.DEFAULT_CONFIG_ID_VALUE;
@@ -18,8 +18,11 @@ import static io.github.tml.mosaic.core.CubeConstant.DEFAULT_RETURN_NAME;
  */
 public class Slot extends UniqueEntity {
 
-    @Getter
-    private SetupCubeInfo setupCubeInfo;
+    /**
+     * 当前安装状态，安装信息与版本号作为一个不可变整体原子替换
+     * 执行中的调用只会看到替换前或替换后的完整安装信息
+     */
+    private final AtomicReference<SetupState> setupState = new AtomicReference<>(SetupState.EMPTY);
 
     public Slot(String slotName) {
         super(new DotNotationId(slotName));
@@ -29,49 +32,117 @@ public class Slot extends UniqueEntity {
         super(id);
     }
 
+    /**
+     * 当前安装信息
+     */
+    public SetupCubeInfo getSetupCubeInfo() {
+        return setupState.get().getSetupCubeInfo();
+    }
+
+    /**
+     * 安装版本号，每次安装或卸载递增
+     */
+    public long getSetupVersion() {
+        return setupState.get().getVersion();
+    }
+
+    public SetupState getSetupState() {
+        return setupState.get();
+    }
+
     public boolean Setup(SetupCubeInfo setupCubeInfo) {
-        if(SetupCubeInfo.reliabilityVerify(setupCubeInfo)){
-            this.setupCubeInfo = setupCubeInfo;
-            return true;
-        }
-        return false;
+        return install(setupCubeInfo) != null;
+    }
+
+    /**
+     * 仅当当前版本号等于expectedVersion时安装，用于并发修改时避免覆盖他人的安装
+     */
+    public boolean compareAndSetup(long expectedVersion, SetupCubeInfo setupCubeInfo) {
+        return compareAndInstall(expectedVersion, setupCubeInfo) != null;
     }
 
     public boolean UnSetup() {
-        this.setupCubeInfo = null;
+        uninstall();
         return true;
     }
 
     /**
-     * 安装的Cube信息
+     * 安装并返回本次替换后的状态，安装信息不可用时返回null
+     */
+    public SetupState install(SetupCubeInfo setupCubeInfo) {
+        if(!SetupCubeInfo.reliabilityVerify(setupCubeInfo)){
+            return null;
+        }
+        return setupState.updateAndGet(state -> state.next(setupCubeInfo));
+    }
+
+    /**
+     * 仅当当前版本号等于expectedVersion时安装，返回本次替换后的状态，未安装时返回null
      */
-    @NoArgsConstructor
-    public static class SetupCubeInfo {
+    public SetupState compareAndInstall(long expectedVersion, SetupCubeInfo setupCubeInfo) {
+        if(!SetupCubeInfo.reliabilityVerify(setupCubeInfo)){
+            return null;
+        }
+        SetupState current = setupState.get();
+        if (current.getVersion() != expectedVersion) {
+            return null;
+        }
+        SetupState next = current.next(setupCubeInfo);
+        return setupState.compareAndSet(current, next) ? next : null;
+    }
+
+    /**
+     * 卸载并返回本次替换后的状态
+     */
+    public SetupState uninstall() {
+        return setupState.updateAndGet(state -> state.next(null));
+    }
+
+    /**
+     * 槽的安装状态快照
+     */
+    @Getter
+    public static final class SetupState {
+
+        static final SetupState EMPTY = new SetupState(null, 0L);
+
+        private final SetupCubeInfo setupCubeInfo;
+
+        private final long version;
+
+        private SetupState(SetupCubeInfo setupCubeInfo, long version) {
+            this.setupCubeInfo = setupCubeInfo;
+            this.version = version;
+        }
+
+        private SetupState next(SetupCubeInfo setupCubeInfo) {
+            return new SetupState(setupCubeInfo, version + 1);
+        }
+    }
+
+    /**
+     * 安装的Cube信息，创建后不可修改，可在槽与事件间直接共享
+     */
+    @Getter
+    @Builder(toBuilder = true)
+    public static final class SetupCubeInfo {
 
-        @Getter
-        @Setter
         // 方块唯一Id
-        private GUID cubeId;
+        private final GUID cubeId;
 
         // 调用的拓展包Id
-        @Getter
-        @Setter
-        private GUID exPackageId;
+        private final GUID exPackageId;
 
         // 调用的拓展点Id
-        @Getter
-        @Setter
-        private GUID exPointId;
+        private final GUID exPointId;
 
         // 需要的返回名称
-        @Getter
-        @Setter
-        private String resName = DEFAULT_RETURN_NAME;
+        @Builder.Default
+        private final String resName = DEFAULT_RETURN_NAME;
 
         // 安装配置项
-        @Getter
-        @Setter
-        private String configId = DEFAULT_CONFIG_ID_VALUE;
+        @Builder.Default
+        private final String configId = DEFAULT_CONFIG_ID_VALUE;
 
         /**
          * 可靠性校验，校验SetupCubeInfo是否可用
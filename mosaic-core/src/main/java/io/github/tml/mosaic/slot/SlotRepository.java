@@ -1,11 +1,36 @@
 package io.github.tml.mosaic.slot;
 
 import io.github.tml.mosaic.MosaicRepository;
+import io.github.tml.mosaic.slot.journal.SlotRecord;
+import io.github.tml.mosaic.slot.journal.SlotSnapshot;
+
+import java.util.List;
 
 /**
  * @author welsir
- * @description :
+ * @description : 槽持久化仓库，以快照加追加日志的方式保存槽定义与安装信息
  * @date 2025/7/1
  */
 public interface SlotRepository extends MosaicRepository {
-}
\ No newline at end of file
+
+    /**
+     * 追加槽变更记录
+     */
+    void appendRecords(List<SlotRecord> records);
+
+    /**
+     * 读取最近一次快照之后追加的变更记录
+     */
+    List<SlotRecord> loadRecords();
+
+    /**
+     * 写入压缩后的快照并清空变更日志
+     * 快照写成功后才能清空日志，中间中断时残留的日志记录会按快照序号跳过
+     */
+    void saveSnapshot(SlotSnapshot snapshot);
+
+    /**
+     * 读取最近一次快照，没有快照时返回空快照
+     */
+    SlotSnapshot loadSnapshot();
+}
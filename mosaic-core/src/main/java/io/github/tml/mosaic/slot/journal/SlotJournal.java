@@ -0,0 +1,255 @@
+package io.github.tml.mosaic.slot.journal;
+
+import io.github.tml.mosaic.core.NamedThreadFactory;
+import io.github.tml.mosaic.core.event.DefaultMosaicEventBroadcaster;
+import io.github.tml.mosaic.core.event.event.MosaicEvent;
+import io.github.tml.mosaic.core.event.event.SlotChangeEvent;
+import io.github.tml.mosaic.core.event.listener.SelectiveMosaicEventListener;
+import io.github.tml.mosaic.core.tools.guid.DotNotationId;
+import io.github.tml.mosaic.slot.Slot;
+import io.github.tml.mosaic.slot.SlotRepository;
+import io.github.tml.mosaic.slot.service.SlotManager;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * 描述: 槽变更日志
+ * 槽的每次变更追加一条记录，追加数达到阈值后以当前全部槽生成快照并清空日志
+ * 启动时先读快照再回放日志，批量还原所有槽；每条记录带有递增的序号，快照记录其已包含的最后序号，
+ * 回放时跳过不大于快照序号的日志记录，快照写入后、日志清空前中断时不会以旧日志覆盖快照
+ * 变更线程只把记录放入队列，由单独的写线程成组写入，多条并发变更共用一次刷盘；
+ * 进程崩溃时可能丢失最后一组尚未写入的记录，需要确认写入时调用{@link #flush()}
+ */
+@Slf4j
+public class SlotJournal extends SelectiveMosaicEventListener {
+
+    private final SlotManager slotManager;
+
+    private final SlotRepository slotRepository;
+
+    private final int compactThreshold;
+
+    /**
+     * 追加与压缩共用一把锁，压缩期间到达的变更在快照写完后再追加
+     */
+    private final Object lock = new Object();
+
+    private int appendedSinceSnapshot;
+
+    /**
+     * 最后分配的变更序号，分配与入队在同一把锁内，队列顺序与序号顺序一致
+     */
+    private long lastSeq;
+
+    /**
+     * 等待写入的变更记录，按变更发布顺序排列
+     */
+    private final Queue<SlotRecord> pending = new ConcurrentLinkedQueue<>();
+
+    private final AtomicBoolean writeScheduled = new AtomicBoolean();
+
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new NamedThreadFactory("slot-journal").newThread(runnable);
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public SlotJournal(SlotManager slotManager, SlotRepository slotRepository, int compactThreshold) {
+        this.slotManager = slotManager;
+        this.slotRepository = slotRepository;
+        this.compactThreshold = Math.max(compactThreshold, 1);
+    }
+
+    /**
+     * 开始记录槽变更
+     */
+    public SlotJournal start() {
+        DefaultMosaicEventBroadcaster.broadcaster().registerListener(this);
+        return this;
+    }
+
+    /**
+     * 停止记录槽变更，已进入队列的记录写入后返回
+     */
+    public void stop() {
+        DefaultMosaicEventBroadcaster.broadcaster().unregisterListener(this);
+        flush();
+    }
+
+    /**
+     * 等待当前已进入队列的记录全部写入
+     */
+    public void flush() {
+        try {
+            writer.submit(this::writePending).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.error("[Slot][Journal] flush slot records fail | error: {}", e.getCause().getMessage());
+        }
+    }
+
+    /**
+     * 从快照与日志还原槽，应在{@link #start()}之前调用，完成后立即压缩
+     * @return 还原的槽数量
+     */
+    public int restore() {
+        long begin = System.currentTimeMillis();
+        SlotSnapshot snapshot = Optional.ofNullable(slotRepository.loadSnapshot()).orElseGet(SlotSnapshot::new);
+        List<SlotRecord> records = nullToEmpty(slotRepository.loadRecords());
+        Map<String, SlotRecord> slots = replay(snapshot, records);
+        for (SlotRecord record : slots.values()) {
+            restoreSlot(record);
+        }
+        long maxSeq = records.stream().mapToLong(SlotRecord::getSeq).max().orElse(0);
+        synchronized (pending) {
+            lastSeq = Math.max(lastSeq, Math.max(snapshot.getSeq(), maxSeq));
+        }
+        compact();
+        log.info("[Slot][Journal] restore slots success | count: {} | cost: {}ms", slots.size(), System.currentTimeMillis() - begin);
+        return slots.size();
+    }
+
+    /**
+     * 以当前全部槽生成快照并清空日志
+     */
+    public void compact() {
+        synchronized (lock) {
+            // 序号不大于snapshotSeq的变更在发布前已写入槽管理器，会包含在下面的快照中，不再写入日志；
+            // 之后入队的变更留在队列中写入新日志，重复回放结果不变
+            long snapshotSeq;
+            synchronized (pending) {
+                snapshotSeq = lastSeq;
+            }
+            pending.removeIf(record -> record.getSeq() <= snapshotSeq);
+            List<SlotRecord> slots = slotManager.getSlotList().stream()
+                    .map(SlotRecord::of)
+                    .collect(Collectors.toList());
+            slotRepository.saveSnapshot(new SlotSnapshot(snapshotSeq, slots));
+            appendedSinceSnapshot = 0;
+        }
+    }
+
+    /**
+     * 按顺序回放，得到每个槽的最终状态，已包含在快照中的日志记录被跳过
+     */
+    static Map<String, SlotRecord> replay(SlotSnapshot snapshot, List<SlotRecord> records) {
+        Map<String, SlotRecord> slots = new LinkedHashMap<>();
+        long snapshotSeq = snapshot == null ? 0 : snapshot.getSeq();
+        for (SlotRecord record : nullToEmpty(snapshot == null ? null : snapshot.getSlots())) {
+            apply(slots, record);
+        }
+        for (SlotRecord record : nullToEmpty(records)) {
+            // 没有序号的记录无法判断是否已包含在快照中，按原样回放
+            if (record.getSeq() > 0 && record.getSeq() <= snapshotSeq) {
+                continue;
+            }
+            apply(slots, record);
+        }
+        return slots;
+    }
+
+    private static void apply(Map<String, SlotRecord> slots, SlotRecord record) {
+        switch (record.changeType()) {
+            case REMOVE:
+                slots.remove(record.getSlotId());
+                break;
+            case REGISTER:
+                // 重复注册不覆盖已有的安装信息
+                SlotRecord exist = slots.get(record.getSlotId());
+                if (exist == null || !exist.hasSetup() || record.hasSetup()) {
+                    slots.put(record.getSlotId(), record);
+                }
+                break;
+            default:
+                slots.put(record.getSlotId(), record);
+        }
+    }
+
+    private void restoreSlot(SlotRecord record) {
+        DotNotationId slotId = new DotNotationId(record.getSlotId());
+        if (slotManager.getSlot(slotId) == null) {
+            slotManager.registerSlot(new Slot(slotId));
+        }
+        Slot.SetupCubeInfo setupCubeInfo = record.toSetupCubeInfo();
+        if (setupCubeInfo != null) {
+            slotManager.setup(slotId, setupCubeInfo);
+        }
+    }
+
+    private static List<SlotRecord> nullToEmpty(List<SlotRecord> records) {
+        return records == null ? Collections.emptyList() : records;
+    }
+
+    @Override
+    protected List<Class<? extends MosaicEvent>> getListenedEventTypes() {
+        return List.of(SlotChangeEvent.class);
+    }
+
+    @Override
+    protected void onSelectiveEvent(MosaicEvent event) {
+        when(event, SlotChangeEvent.class, this::onSlotChange);
+    }
+
+    private void onSlotChange(SlotChangeEvent event) {
+        // 只记录本管理器发出的变更，其他管理器与日志回放的事件不写入
+        if (event.getSource() != slotManager) {
+            return;
+        }
+        SlotRecord record = SlotRecord.of(event);
+        synchronized (pending) {
+            record.setSeq(++lastSeq);
+            pending.add(record);
+        }
+        if (writeScheduled.compareAndSet(false, true)) {
+            writer.execute(this::writePending);
+        }
+    }
+
+    /**
+     * 在写线程中把队列中的记录成组写入
+     */
+    private void writePending() {
+        writeScheduled.set(false);
+        boolean needCompact;
+        synchronized (lock) {
+            List<SlotRecord> records = new ArrayList<>();
+            for (SlotRecord record; (record = pending.poll()) != null; ) {
+                records.add(record);
+            }
+            if (records.isEmpty()) {
+                return;
+            }
+            try {
+                slotRepository.appendRecords(records);
+            } catch (Exception e) {
+                log.error("[Slot][Journal] append slot records fail | count: {} | error: {}", records.size(), e.getMessage());
+                return;
+            }
+            appendedSinceSnapshot += records.size();
+            needCompact = appendedSinceSnapshot >= compactThreshold;
+        }
+        if (needCompact) {
+            compact();
+        }
+    }
+
+    @Override
+    public boolean isAsyncSupported() {
+        // 变更发布时按顺序入队，写入由写线程完成
+        return false;
+    }
+}
@@ -0,0 +1,100 @@
+package io.github.tml.mosaic.slot.journal;
+
+import io.github.tml.mosaic.core.event.event.SlotChangeEvent;
+import io.github.tml.mosaic.core.tools.guid.DotNotationId;
+import io.github.tml.mosaic.core.tools.guid.GUID;
+import io.github.tml.mosaic.core.tools.guid.GUUID;
+import io.github.tml.mosaic.slot.Slot;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Objects;
+
+/**
+ * 描述: 槽变更记录，记录的是变更后的完整状态，重复回放结果不变
+ */
+@Data
+@NoArgsConstructor
+public class SlotRecord {
+
+    /**
+     * 变更类型，取值同{@link SlotChangeEvent.ChangeType}
+     */
+    private String op;
+
+    /**
+     * 变更序号，由{@link SlotJournal}按发布顺序递增分配，0表示没有序号
+     */
+    private long seq;
+
+    private String slotId;
+
+    private String cubeId;
+
+    private String exPackageId;
+
+    private String exPointId;
+
+    private String resName;
+
+    private String configId;
+
+    public static SlotRecord of(SlotChangeEvent event) {
+        return of(event.getChangeType(), event.getSlotId(), event.getSetupCubeInfo());
+    }
+
+    /**
+     * 槽当前状态的快照记录
+     */
+    public static SlotRecord of(Slot slot) {
+        Slot.SetupCubeInfo setupCubeInfo = slot.getSetupCubeInfo();
+        SlotChangeEvent.ChangeType op = setupCubeInfo == null ? SlotChangeEvent.ChangeType.REGISTER : SlotChangeEvent.ChangeType.SETUP;
+        return of(op, slot.getId(), setupCubeInfo);
+    }
+
+    private static SlotRecord of(SlotChangeEvent.ChangeType op, GUID slotId, Slot.SetupCubeInfo setupCubeInfo) {
+        SlotRecord record = new SlotRecord();
+        record.setOp(op.name());
+        record.setSlotId(slotId.toString());
+        if (setupCubeInfo != null) {
+            record.setCubeId(toString(setupCubeInfo.getCubeId()));
+            record.setExPackageId(toString(setupCubeInfo.getExPackageId()));
+            record.setExPointId(toString(setupCubeInfo.getExPointId()));
+            record.setResName(setupCubeInfo.getResName());
+            record.setConfigId(setupCubeInfo.getConfigId());
+        }
+        return record;
+    }
+
+    public SlotChangeEvent.ChangeType changeType() {
+        return SlotChangeEvent.ChangeType.valueOf(op);
+    }
+
+    public boolean hasSetup() {
+        return cubeId != null;
+    }
+
+    /**
+     * 还原安装信息，未安装时返回null
+     */
+    public Slot.SetupCubeInfo toSetupCubeInfo() {
+        if (!hasSetup()) {
+            return null;
+        }
+        Slot.SetupCubeInfo.SetupCubeInfoBuilder builder = Slot.SetupCubeInfo.builder()
+                .cubeId(new GUUID(cubeId))
+                .exPackageId(exPackageId == null ? null : new DotNotationId(exPackageId))
+                .exPointId(exPointId == null ? null : new DotNotationId(exPointId));
+        if (resName != null) {
+            builder.resName(resName);
+        }
+        if (configId != null) {
+            builder.configId(configId);
+        }
+        return builder.build();
+    }
+
+    private static String toString(GUID id) {
+        return Objects.isNull(id) ? null : id.toString();
+    }
+}
@@ -0,0 +1,25 @@
+package io.github.tml.mosaic.slot.journal;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 描述: 槽快照，记录全部槽的状态及快照已包含的最后一条变更记录序号
+ * 回放时序号不大于快照序号的日志记录已体现在快照中，会被跳过
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlotSnapshot {
+
+    /**
+     * 快照已包含的最后一条变更记录序号，0表示没有序号信息
+     */
+    private long seq;
+
+    private List<SlotRecord> slots = new ArrayList<>();
+}
@@ -1,14 +1,39 @@
 package io.github.tml.mosaic.slot.service;
 
+import io.github.tml.mosaic.core.event.DefaultMosaicEventBroadcaster;
+import io.github.tml.mosaic.core.execption.SlotException;
+import io.github.tml.mosaic.core.event.MosaicEventBroadcaster;
+import io.github.tml.mosaic.core.event.event.SlotChangeEvent;
 import io.github.tml.mosaic.core.tools.guid.DotNotationId;
 import io.github.tml.mosaic.core.tools.guid.GUID;
 import io.github.tml.mosaic.slot.Slot;
+import io.github.tml.mosaic.slot.support.SlotPrefixIndex;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * 槽管理器默认实现，读取无锁，安装信息在槽内原子替换
+ * 同一个槽的变更事件按变更顺序发布
+ */
 public class GenericSlotManager implements SlotManager {
 
-    private Map<GUID, Slot> slotMap = new HashMap<>();
+    private final Map<GUID, Slot> slotMap = new ConcurrentHashMap<>();
+
+    private final SlotPrefixIndex prefixIndex = new SlotPrefixIndex();
+
+    private final MosaicEventBroadcaster eventBroadcaster = DefaultMosaicEventBroadcaster.broadcaster();
+
+    /**
+     * 按槽Id分段的变更锁，只用于写入与发布，读取仍然无锁
+     */
+    private final Object[] changeLocks = new Object[64];
+
+    {
+        for (int i = 0; i < changeLocks.length; i++) {
+            changeLocks[i] = new Object();
+        }
+    }
 
 //    private final static GenericSlotManager MANAGER  = new GenericSlotManager();
 
@@ -37,16 +62,28 @@ public class GenericSlotManager implements SlotManager {
 
     @Override
     public boolean registerSlot(Slot slot) {
-        if(slotMap.containsKey(slot.getId())){
-            return false;
+        if (!SlotPrefixIndex.isValidSlotId(slot.getId())) {
+            throw new SlotException("invalid slot id: '" + slot.getId() + "'");
+        }
+        synchronized (changeLock(slot.getId())) {
+            if (slotMap.putIfAbsent(slot.getId(), slot) != null) {
+                return false;
+            }
+            prefixIndex.put(slot);
+            publishChange(slot.getId(), SlotChangeEvent.ChangeType.REGISTER, slot.getSetupState());
+            return true;
         }
-        slotMap.put(slot.getId(), slot);
-        return true;
     }
 
     @Override
     public void removeSlot(GUID slotId) {
-        slotMap.remove(slotId);
+        synchronized (changeLock(slotId)) {
+            if (slotMap.remove(slotId) == null) {
+                return;
+            }
+            prefixIndex.remove(slotId);
+            publishChange(slotId, SlotChangeEvent.ChangeType.REMOVE, null);
+        }
     }
 
     @Override
@@ -57,18 +94,113 @@ public class GenericSlotManager implements SlotManager {
 
     @Override
     public boolean setup(GUID slotId, Slot.SetupCubeInfo setupCubeInfo) {
-        Slot slot = getSlot(slotId);
-        if(Objects.nonNull(slot)){
-            return slot.Setup(setupCubeInfo);
+        synchronized (changeLock(slotId)) {
+            Slot slot = getSlot(slotId);
+            Slot.SetupState installed = Objects.nonNull(slot) ? slot.install(setupCubeInfo) : null;
+            if (installed == null) {
+                return false;
+            }
+            publishChange(slotId, SlotChangeEvent.ChangeType.SETUP, installed);
+            return true;
         }
-        return false;
     }
 
+    @Override
+    public boolean compareAndSetup(GUID slotId, long expectedVersion, Slot.SetupCubeInfo setupCubeInfo) {
+        synchronized (changeLock(slotId)) {
+            Slot slot = getSlot(slotId);
+            Slot.SetupState installed = Objects.nonNull(slot) ? slot.compareAndInstall(expectedVersion, setupCubeInfo) : null;
+            if (installed == null) {
+                return false;
+            }
+            publishChange(slotId, SlotChangeEvent.ChangeType.SETUP, installed);
+            return true;
+        }
+    }
+
+    @Override
     public boolean unSetup(GUID slotId) {
-        Slot slot = getSlot(slotId);
-        if(Objects.nonNull(slot)){
-            return slot.UnSetup();
+        synchronized (changeLock(slotId)) {
+            Slot slot = getSlot(slotId);
+            if (Objects.isNull(slot)) {
+                return false;
+            }
+            publishChange(slotId, SlotChangeEvent.ChangeType.UNSETUP, slot.uninstall());
+            return true;
         }
-        return false;
+    }
+
+    @Override
+    public List<Slot> getSlotsByPrefix(String prefix) {
+        return prefixIndex.list(prefix);
+    }
+
+    @Override
+    public List<Slot> getSlotsByPrefix(String prefix, int offset, int limit) {
+        return prefixIndex.list(prefix, offset, limit);
+    }
+
+    @Override
+    public int countByPrefix(String prefix) {
+        return prefixIndex.count(prefix);
+    }
+
+    @Override
+    public int setupByPrefix(String prefix, Slot.SetupCubeInfo setupCubeInfo) {
+        requireBulkPrefix(prefix);
+        int count = 0;
+        for (Slot slot : prefixIndex.list(prefix)) {
+            if (setup(slot.getId(), setupCubeInfo)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public int unSetupByPrefix(String prefix) {
+        requireBulkPrefix(prefix);
+        int count = 0;
+        for (Slot slot : prefixIndex.list(prefix)) {
+            if (slot.getSetupCubeInfo() != null && unSetup(slot.getId())) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public int removeByPrefix(String prefix) {
+        requireBulkPrefix(prefix);
+        List<Slot> slots = prefixIndex.list(prefix);
+        for (Slot slot : slots) {
+            removeSlot(slot.getId());
+        }
+        return slots.size();
+    }
+
+    /**
+     * 批量修改不接受空前缀与包含空名称的前缀，避免误操作全部槽
+     */
+    private static void requireBulkPrefix(String prefix) {
+        if (!SlotPrefixIndex.isValidPrefix(prefix)) {
+            throw new SlotException("invalid slot prefix for bulk operation: '" + prefix + "'");
+        }
+    }
+
+    /**
+     * 同一个槽的变更与事件发布在同一把锁内完成，监听方看到的事件顺序与变更顺序一致
+     */
+    private Object changeLock(GUID slotId) {
+        return changeLocks[(slotId.hashCode() & 0x7fffffff) % changeLocks.length];
+    }
+
+    /**
+     * 发布槽变更事件，执行句柄等缓存依赖此事件失效
+     * 携带本次变更实际写入的状态，而不是发布时重新读取的状态
+     */
+    private void publishChange(GUID slotId, SlotChangeEvent.ChangeType changeType, Slot.SetupState state) {
+        eventBroadcaster.broadcastEvent(new SlotChangeEvent(this, slotId, changeType,
+                state == null ? null : state.getSetupCubeInfo(), state == null ? -1L : state.getVersion()));
     }
 }
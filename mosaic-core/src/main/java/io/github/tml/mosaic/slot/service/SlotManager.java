@@ -24,5 +24,38 @@ public interface SlotManager {
 
     boolean setup(GUID slotId, Slot.SetupCubeInfo setupCubeInfo);
 
+    /**
+     * 槽当前安装版本号等于expectedVersion时才安装，版本不一致返回false
+     */
+    boolean compareAndSetup(GUID slotId, long expectedVersion, Slot.SetupCubeInfo setupCubeInfo);
+
     boolean unSetup(GUID slotId);
+
+    /**
+     * 点分前缀下的全部槽，前缀为空时返回全部槽
+     */
+    List<Slot> getSlotsByPrefix(String prefix);
+
+    /**
+     * 点分前缀下的槽，跳过offset个后最多取limit个
+     */
+    List<Slot> getSlotsByPrefix(String prefix, int offset, int limit);
+
+    int countByPrefix(String prefix);
+
+    /**
+     * 前缀下的槽统一安装同一Cube，批量修改的前缀不能为空，也不能包含空名称
+     * @return 安装成功的槽数量
+     */
+    int setupByPrefix(String prefix, Slot.SetupCubeInfo setupCubeInfo);
+
+    /**
+     * @return 卸载的槽数量
+     */
+    int unSetupByPrefix(String prefix);
+
+    /**
+     * @return 删除的槽数量
+     */
+    int removeByPrefix(String prefix);
 }
@@ -20,12 +20,12 @@ public class SlotBuilder {
 
         private GUID slotId;
 
-        private Slot.SetupCubeInfo setupCubeInfo;
+        private final Slot.SetupCubeInfo.SetupCubeInfoBuilder setupCubeInfo;
 
         private SlotManager manager;
 
         protected BuilderContext(SlotManager manager) {
-            this.setupCubeInfo = new Slot.SetupCubeInfo();
+            this.setupCubeInfo = Slot.SetupCubeInfo.builder();
             this.manager = manager;
         }
 
@@ -35,30 +35,30 @@ public class SlotBuilder {
         }
 
         public BuilderContext cubeId(GUID cubeId) {
-            this.setupCubeInfo.setCubeId(cubeId);
+            this.setupCubeInfo.cubeId(cubeId);
             return this;
         }
 
        public BuilderContext exPackageId(String exPackageId) {
-           this.setupCubeInfo.setExPackageId(new DotNotationId(exPackageId));
+           this.setupCubeInfo.exPackageId(new DotNotationId(exPackageId));
            return this;
        }
 
         public BuilderContext exPointId(String exPointId) {
-            this.setupCubeInfo.setExPointId(new DotNotationId(exPointId));
+            this.setupCubeInfo.exPointId(new DotNotationId(exPointId));
             return this;
         }
 
         public BuilderContext resName(String resName) {
             if(resName != null){
-                this.setupCubeInfo.setResName(resName);
+                this.setupCubeInfo.resName(resName);
             }
             return this;
         }
 
         public BuilderContext configId(String configId) {
             if(configId != null){
-                this.setupCubeInfo.setConfigId(configId);
+                this.setupCubeInfo.configId(configId);
             }
             return this;
         }
@@ -69,9 +69,12 @@ public class SlotBuilder {
                slot = manager.getSlot(slotId);
                if(slot==null){
                    slot = new Slot((DotNotationId) slotId);
+                   slot.Setup(setupCubeInfo.build());
+                   manager.registerSlot(slot);
+               }else{
+                   // 已存在的槽通过管理器安装，保证变更可被感知
+                   manager.setup(slotId, setupCubeInfo.build());
                }
-               slot.Setup(setupCubeInfo);
-               manager.registerSlot(slot);
            }
            return Optional.ofNullable(slot);
         }
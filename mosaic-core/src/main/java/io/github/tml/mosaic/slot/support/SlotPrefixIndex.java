@@ -0,0 +1,198 @@
+package io.github.tml.mosaic.slot.support;
+
+import io.github.tml.mosaic.core.execption.SlotException;
+import io.github.tml.mosaic.core.tools.guid.GUID;
+import io.github.tml.mosaic.slot.Slot;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * 槽的点分前缀索引
+ * 按点分命名逐级建树，前缀查找只需走过前缀的层数；每个节点记录子树内的槽数量，分页时整棵跳过偏移量之前的子树
+ * 读取无锁，写入串行
+ */
+public class SlotPrefixIndex {
+
+    private final Node root = new Node();
+
+    /**
+     * 将槽加入索引，同id的槽会被替换；id为空或包含空名称时抛出{@link SlotException}
+     */
+    public synchronized void put(Slot slot) {
+        String[] notations = notationsOf(slot.getId());
+        if (notations == null) {
+            throw new SlotException("invalid slot id: '" + slot.getId() + "'");
+        }
+        Node[] path = new Node[notations.length + 1];
+        path[0] = root;
+        Node node = root;
+        for (int i = 0; i < notations.length; i++) {
+            node = node.children.computeIfAbsent(notations[i], key -> new Node());
+            path[i + 1] = node;
+        }
+        boolean added = node.slot == null;
+        node.slot = slot;
+        if (added) {
+            for (Node n : path) {
+                n.size++;
+            }
+        }
+    }
+
+    /**
+     * 将槽移出索引，并清理不再包含槽的节点
+     */
+    public synchronized void remove(GUID slotId) {
+        String[] notations = notationsOf(slotId);
+        if (notations == null) {
+            return;
+        }
+        Node[] path = new Node[notations.length + 1];
+        path[0] = root;
+        Node node = root;
+        for (int i = 0; i < notations.length; i++) {
+            node = node.children.get(notations[i]);
+            if (node == null) {
+                return;
+            }
+            path[i + 1] = node;
+        }
+        if (node.slot == null) {
+            return;
+        }
+        node.slot = null;
+        for (Node n : path) {
+            n.size--;
+        }
+        for (int i = notations.length; i > 0; i--) {
+            if (path[i].size > 0) {
+                break;
+            }
+            path[i - 1].children.remove(notations[i - 1]);
+        }
+    }
+
+    /**
+     * 前缀下的槽数量，前缀本身对应的槽也计算在内
+     */
+    public int count(String prefix) {
+        Node node = find(prefix);
+        return node == null ? 0 : node.size;
+    }
+
+    /**
+     * 前缀下的全部槽，按各级名称的字典序排列
+     */
+    public List<Slot> list(String prefix) {
+        return list(prefix, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * 前缀下的槽，跳过offset个后最多取limit个
+     */
+    public List<Slot> list(String prefix, int offset, int limit) {
+        Node node = find(prefix);
+        if (node == null || limit <= 0) {
+            return Collections.emptyList();
+        }
+        List<Slot> slots = new ArrayList<>(Math.min(limit, Math.max(node.size - offset, 0)));
+        collect(node, Math.max(offset, 0), limit, slots);
+        return slots;
+    }
+
+    /**
+     * @return 剩余需要跳过的数量
+     */
+    private int collect(Node node, int skip, int limit, List<Slot> slots) {
+        Slot slot = node.slot;
+        if (slot != null) {
+            if (skip > 0) {
+                skip--;
+            } else if (slots.size() < limit) {
+                slots.add(slot);
+            }
+        }
+        for (Node child : node.children.values()) {
+            if (slots.size() >= limit) {
+                break;
+            }
+            int size = child.size;
+            if (skip >= size) {
+                skip -= size;
+                continue;
+            }
+            skip = collect(child, skip, limit, slots);
+        }
+        return skip;
+    }
+
+    /**
+     * 前缀非空且各级名称都不为空，首尾的点与连续的点都视为不合法
+     */
+    public static boolean isValidPrefix(String prefix) {
+        return prefix != null && !prefix.isEmpty() && splitPrefix(prefix) != null;
+    }
+
+    /**
+     * 空前缀对应根节点；包含空名称的前缀不匹配任何槽
+     */
+    private Node find(String prefix) {
+        Node node = root;
+        if (prefix == null || prefix.isEmpty()) {
+            return node;
+        }
+        String[] notations = splitPrefix(prefix);
+        if (notations == null) {
+            return null;
+        }
+        for (String notation : notations) {
+            node = node.children.get(notation);
+            if (node == null) {
+                return null;
+            }
+        }
+        return node;
+    }
+
+    private static String[] splitPrefix(String prefix) {
+        String[] notations = prefix.split("\\.", -1);
+        for (String notation : notations) {
+            if (notation.isEmpty()) {
+                return null;
+            }
+        }
+        return notations;
+    }
+
+    /**
+     * 槽id的各级名称，与前缀使用同样的规则，首尾的点与连续的点使id不合法并返回null，
+     * 避免"a.b."与"a.b"落在同一个节点上
+     */
+    private static String[] notationsOf(GUID slotId) {
+        String id = slotId.toString();
+        return id == null || id.isEmpty() ? null : splitPrefix(id);
+    }
+
+    /**
+     * 槽id是否可以加入索引
+     */
+    public static boolean isValidSlotId(GUID slotId) {
+        return slotId != null && notationsOf(slotId) != null;
+    }
+
+    private static final class Node {
+
+        private final Map<String, Node> children = new ConcurrentSkipListMap<>();
+
+        private volatile Slot slot;
+
+        /**
+         * 子树内槽的数量，仅在写锁内修改
+         */
+        private volatile int size;
+    }
+}
@@ -0,0 +1,185 @@
+package io.github.tml.mosaic;
+
+import io.github.tml.mosaic.core.event.DefaultMosaicEventBroadcaster;
+import io.github.tml.mosaic.core.event.RingBufferMosaicEventBroadcaster;
+import io.github.tml.mosaic.core.event.RingBufferMosaicEventBroadcaster.BackpressurePolicy;
+import io.github.tml.mosaic.core.event.RingBufferMosaicEventBroadcaster.WaitStrategy;
+import io.github.tml.mosaic.core.event.event.CubeInvalidateEvent;
+import io.github.tml.mosaic.core.event.listener.MosaicEventListener;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 事件广播吞吐：多个线程并发广播，每个事件有1个同步监听器和若干个异步监听器
+ * 分别统计广播线程返回的耗时与异步监听器全部处理完成的耗时，预热轮次不计入结果，
+ * 每个场景输出多轮的中位数、最小值与最大值，并校验处理数与丢弃数之和等于广播数
+ * 默认不随构建执行，通过 mvn test -pl mosaic-core -am -Dtest=EventBroadcasterBenchmark -Dsurefire.failIfNoSpecifiedTests=false 运行，
+ * 参数可用系统属性调整：bench.producers、bench.events、bench.listeners、bench.warmup、bench.rounds、bench.workMicros
+ */
+public class EventBroadcasterBenchmark {
+
+    private static final int PRODUCERS = Integer.getInteger("bench.producers", 4);
+
+    private static final int EVENTS_PER_PRODUCER = Integer.getInteger("bench.events", 50_000);
+
+    private static final int ASYNC_LISTENERS = Integer.getInteger("bench.listeners", 2);
+
+    private static final int WARMUP_ROUNDS = Integer.getInteger("bench.warmup", 2);
+
+    private static final int MEASURED_ROUNDS = Integer.getInteger("bench.rounds", 5);
+
+    /**
+     * 每个异步监听器处理一个事件的模拟耗时，0表示空处理
+     */
+    private static final int WORK_MICROS = Integer.getInteger("bench.workMicros", 0);
+
+    public static void main(String[] args) throws Exception {
+        new EventBroadcasterBenchmark().benchmark();
+    }
+
+    @Test
+    public void benchmark() throws Exception {
+        Map<String, Supplier<DefaultMosaicEventBroadcaster>> scenarios = new LinkedHashMap<>();
+        scenarios.put("default", DefaultMosaicEventBroadcaster::new);
+        scenarios.put("ring/blocking/block", () -> new RingBufferMosaicEventBroadcaster(
+                4096, 128, WaitStrategy.BLOCKING, BackpressurePolicy.BLOCK));
+        scenarios.put("ring/sleeping/block", () -> new RingBufferMosaicEventBroadcaster(
+                4096, 128, WaitStrategy.SLEEPING, BackpressurePolicy.BLOCK));
+        scenarios.put("ring/blocking/drop-newest", () -> new RingBufferMosaicEventBroadcaster(
+                1024, 128, WaitStrategy.BLOCKING, BackpressurePolicy.DROP_NEWEST));
+
+        System.out.printf("producers %d | events/producer %d | async listeners %d | work %d us | warmup %d | rounds %d%n",
+                PRODUCERS, EVENTS_PER_PRODUCER, ASYNC_LISTENERS, WORK_MICROS, WARMUP_ROUNDS, MEASURED_ROUNDS);
+        System.out.printf("%-26s %32s %32s %12s%n", "scenario",
+                "broadcast ms (median/min/max)", "all handled ms (median/min/max)", "dropped");
+        for (Map.Entry<String, Supplier<DefaultMosaicEventBroadcaster>> scenario : scenarios.entrySet()) {
+            for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                run(scenario.getValue());
+            }
+            long[] broadcast = new long[MEASURED_ROUNDS];
+            long[] handled = new long[MEASURED_ROUNDS];
+            long dropped = 0;
+            for (int i = 0; i < MEASURED_ROUNDS; i++) {
+                Result result = run(scenario.getValue());
+                broadcast[i] = result.broadcastNanos;
+                handled[i] = result.totalNanos;
+                dropped += result.droppedEvents;
+            }
+            System.out.printf("%-26s %32s %32s %12d%n", scenario.getKey(),
+                    summary(broadcast), summary(handled), dropped);
+        }
+    }
+
+    private static Result run(Supplier<DefaultMosaicEventBroadcaster> factory) throws Exception {
+        DefaultMosaicEventBroadcaster broadcaster = factory.get();
+        LongAdder syncHandled = new LongAdder();
+        LongAdder asyncHandled = new LongAdder();
+        broadcaster.registerListener(new BenchListener(syncHandled, false));
+        for (int i = 0; i < ASYNC_LISTENERS; i++) {
+            broadcaster.registerListener(new BenchListener(asyncHandled, true));
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> producers = new ArrayList<>();
+        for (int p = 0; p < PRODUCERS; p++) {
+            Thread producer = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < EVENTS_PER_PRODUCER; i++) {
+                    broadcaster.broadcastEvent(new CubeInvalidateEvent(broadcaster, null, null));
+                }
+            });
+            producer.start();
+            producers.add(producer);
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        long broadcastNanos = System.nanoTime() - begin;
+
+        long events = (long) PRODUCERS * EVENTS_PER_PRODUCER;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (asyncHandled.sum() + droppedOf(broadcaster) * ASYNC_LISTENERS < events * ASYNC_LISTENERS
+                && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        long totalNanos = System.nanoTime() - begin;
+        broadcaster.shutdown();
+
+        long dropped = droppedOf(broadcaster);
+        assertEquals(events, syncHandled.sum(), "sync listener must see every event");
+        assertEquals(events * ASYNC_LISTENERS, asyncHandled.sum() + dropped * ASYNC_LISTENERS,
+                "every async delivery must be handled or counted as dropped");
+        return new Result(broadcastNanos, totalNanos, dropped);
+    }
+
+    private static long droppedOf(DefaultMosaicEventBroadcaster broadcaster) {
+        return broadcaster instanceof RingBufferMosaicEventBroadcaster
+                ? ((RingBufferMosaicEventBroadcaster) broadcaster).getDroppedCount() : 0;
+    }
+
+    private static String summary(long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        return String.format("%.1f / %.1f / %.1f",
+                sorted[sorted.length / 2] / 1e6, sorted[0] / 1e6, sorted[sorted.length - 1] / 1e6);
+    }
+
+    private static final class Result {
+        private final long broadcastNanos;
+        private final long totalNanos;
+        private final long droppedEvents;
+
+        private Result(long broadcastNanos, long totalNanos, long droppedEvents) {
+            this.broadcastNanos = broadcastNanos;
+            this.totalNanos = totalNanos;
+            this.droppedEvents = droppedEvents;
+        }
+    }
+
+    private static class BenchListener implements MosaicEventListener<CubeInvalidateEvent> {
+
+        private final LongAdder handled;
+
+        private final boolean async;
+
+        BenchListener(LongAdder handled, boolean async) {
+            this.handled = handled;
+            this.async = async;
+        }
+
+        @Override
+        public void onEvent(CubeInvalidateEvent event) {
+            if (async && WORK_MICROS > 0) {
+                long until = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(WORK_MICROS);
+                while (System.nanoTime() < until) {
+                    Thread.onSpinWait();
+                }
+            }
+            handled.increment();
+        }
+
+        @Override
+        public Class<CubeInvalidateEvent> getEventType() {
+            return CubeInvalidateEvent.class;
+        }
+
+        @Override
+        public boolean isAsyncSupported() {
+            return async;
+        }
+    }
+}
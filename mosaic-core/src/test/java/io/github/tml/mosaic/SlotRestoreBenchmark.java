@@ -0,0 +1,99 @@
+package io.github.tml.mosaic;
+
+import com.alibaba.fastjson.JSON;
+import io.github.tml.mosaic.core.tools.guid.DotNotationId;
+import io.github.tml.mosaic.core.tools.guid.GUUID;
+import io.github.tml.mosaic.slot.Slot;
+import io.github.tml.mosaic.slot.SlotRepository;
+import io.github.tml.mosaic.slot.journal.SlotJournal;
+import io.github.tml.mosaic.slot.journal.SlotRecord;
+import io.github.tml.mosaic.slot.journal.SlotSnapshot;
+import io.github.tml.mosaic.slot.service.GenericSlotManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 槽启动还原耗时，快照与日志以JSON文本保存在内存中，计入解析耗时
+ */
+public class SlotRestoreBenchmark {
+
+    private static final int SLOT_COUNT = 10_000;
+
+    private static final int LOG_COUNT = 1_000;
+
+    public static void main(String[] args) {
+        // 准备数据：先在一个管理器中建好槽，生成快照后再追加一段变更日志
+        GenericSlotManager source = GenericSlotManager.manager();
+        MemorySlotRepository repository = new MemorySlotRepository();
+        SlotJournal journal = new SlotJournal(source, repository, Integer.MAX_VALUE);
+        for (int i = 0; i < SLOT_COUNT; i++) {
+            Slot slot = new Slot("bench.slot." + i);
+            source.registerSlot(slot);
+            source.setup(slot.getId(), setupInfo(i));
+        }
+        journal.compact();
+        journal.start();
+        for (int i = 0; i < LOG_COUNT; i++) {
+            source.setup(new Slot("bench.slot." + i).getId(), setupInfo(i + SLOT_COUNT));
+        }
+        // 停止记录，计时的还原不应再触发日志追加
+        journal.stop();
+        System.out.printf("snapshot: %d records, %d KB | log: %d records%n", SLOT_COUNT,
+                repository.snapshot.length() / 1024, repository.log.size());
+
+        String snapshot = repository.snapshot;
+        List<String> log = new ArrayList<>(repository.log);
+        for (int round = 0; round < 10; round++) {
+            repository.snapshot = snapshot;
+            repository.log = new ArrayList<>(log);
+            GenericSlotManager target = GenericSlotManager.manager();
+            long begin = System.nanoTime();
+            int count = new SlotJournal(target, repository, Integer.MAX_VALUE).restore();
+            long cost = System.nanoTime() - begin;
+            System.out.printf("round %d: restore %d slots in %.1f ms%n", round, count, cost / 1_000_000.0);
+        }
+    }
+
+    private static Slot.SetupCubeInfo setupInfo(int i) {
+        return Slot.SetupCubeInfo.builder()
+                .cubeId(new GUUID("bench-cube-" + (i % 100)))
+                .exPackageId(new DotNotationId("bench.pkg"))
+                .exPointId(new DotNotationId("bench.point." + (i % 10)))
+                .build();
+    }
+
+    private static class MemorySlotRepository implements SlotRepository {
+
+        private String snapshot = "{}";
+
+        private List<String> log = new ArrayList<>();
+
+        @Override
+        public void appendRecords(List<SlotRecord> records) {
+            records.forEach(record -> log.add(JSON.toJSONString(record)));
+        }
+
+        @Override
+        public List<SlotRecord> loadRecords() {
+            return log.stream().map(line -> JSON.parseObject(line, SlotRecord.class)).collect(Collectors.toList());
+        }
+
+        @Override
+        public void saveSnapshot(SlotSnapshot saved) {
+            snapshot = JSON.toJSONString(saved);
+            log = new ArrayList<>();
+        }
+
+        @Override
+        public SlotSnapshot loadSnapshot() {
+            return JSON.parseObject(snapshot, SlotSnapshot.class);
+        }
+
+        @Override
+        public String getPath() {
+            return "";
+        }
+    }
+}
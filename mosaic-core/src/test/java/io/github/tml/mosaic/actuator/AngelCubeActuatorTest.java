@@ -0,0 +1,201 @@
+package io.github.tml.mosaic.actuator;
+
+import io.github.tml.mosaic.actuator.config.ActuatorProperties;
+import io.github.tml.mosaic.cube.external.AngelCube;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AngelCubeActuatorTest {
+
+    private AngelCubeActuator actuator;
+
+    @AfterEach
+    void tearDown() {
+        if (actuator != null) {
+            actuator.shutdown();
+        }
+    }
+
+    @Test
+    void restartsFailedStartWithBackoff() throws Exception {
+        actuator = new AngelCubeActuator(config(AngelRestartPolicy.ON_FAILURE, 5_000));
+        AtomicInteger starts = new AtomicInteger();
+        CountDownLatch running = new CountDownLatch(1);
+        TestAngel angel = new TestAngel(() -> {
+            if (starts.incrementAndGet() <= 2) {
+                throw new IllegalStateException("boom");
+            }
+            running.countDown();
+            sleepUntilInterrupted();
+        }, () -> { });
+
+        actuator.execute(context(angel));
+
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        assertEquals(3, starts.get());
+        awaitState(angel, AngelState.RUNNING);
+    }
+
+    @Test
+    void givesUpAfterMaxRestarts() throws Exception {
+        ActuatorProperties.Angel config = config(AngelRestartPolicy.ON_FAILURE, 5_000);
+        config.setMaxRestarts(2);
+        actuator = new AngelCubeActuator(config);
+        AtomicInteger starts = new AtomicInteger();
+        TestAngel angel = new TestAngel(() -> {
+            starts.incrementAndGet();
+            throw new IllegalStateException("boom");
+        }, () -> { });
+
+        actuator.execute(context(angel));
+
+        awaitState(angel, AngelState.FAILED);
+        assertEquals(3, starts.get());
+    }
+
+    @Test
+    void normalReturnIsTerminalWithoutRestart() throws Exception {
+        actuator = new AngelCubeActuator(config(AngelRestartPolicy.ON_FAILURE, 5_000));
+        AtomicInteger stops = new AtomicInteger();
+        TestAngel angel = new TestAngel(() -> { }, stops::incrementAndGet);
+
+        actuator.execute(context(angel));
+        awaitState(angel, AngelState.COMPLETED);
+
+        // 正常退出后仍会调用stop释放资源
+        assertTrue(actuator.stop(context(angel)));
+        awaitState(angel, AngelState.DEAD);
+        assertEquals(1, stops.get());
+    }
+
+    @Test
+    void hungStopIsForcedAtDeadline() throws Exception {
+        actuator = new AngelCubeActuator(config(AngelRestartPolicy.NEVER, 200));
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch runInterrupted = new CountDownLatch(1);
+        TestAngel angel = new TestAngel(() -> {
+            running.countDown();
+            try {
+                Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+            } catch (InterruptedException e) {
+                runInterrupted.countDown();
+            }
+        }, AngelCubeActuatorTest::sleepUntilInterrupted);
+
+        actuator.execute(context(angel));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+
+        long begin = System.nanoTime();
+        assertTrue(actuator.stop(context(angel)));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin) < 150, "stop must not block the caller");
+        assertEquals(AngelState.STOPPING, actuator.getAngelState(angel.cubeId()));
+
+        awaitState(angel, AngelState.DEAD);
+        assertTrue(runInterrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void exhaustedStopperFailsInsteadOfRunningOnCaller() throws Exception {
+        ActuatorProperties.Angel config = config(AngelRestartPolicy.NEVER, 10_000);
+        config.setMaxWorkers(2);
+        actuator = new AngelCubeActuator(config);
+        CountDownLatch release = new CountDownLatch(1);
+        Runnable hangingStop = () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        TestAngel first = new TestAngel(() -> { }, hangingStop);
+        TestAngel second = new TestAngel(() -> { }, hangingStop);
+        AtomicInteger thirdStops = new AtomicInteger();
+        TestAngel third = new TestAngel(() -> { }, thirdStops::incrementAndGet);
+        try {
+            for (TestAngel angel : new TestAngel[]{first, second, third}) {
+                actuator.execute(context(angel));
+                awaitState(angel, AngelState.COMPLETED);
+            }
+            assertTrue(actuator.stop(context(first)));
+            assertTrue(actuator.stop(context(second)));
+
+            long begin = System.nanoTime();
+            assertFalse(actuator.stop(context(third)));
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin) < 1_000);
+            assertEquals(AngelState.FAILED, actuator.getAngelState(third.cubeId()));
+            assertEquals(0, thirdStops.get());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private static ActuatorProperties.Angel config(AngelRestartPolicy policy, long stopTimeoutMillis) {
+        ActuatorProperties.Angel config = new ActuatorProperties.Angel();
+        config.setRestartPolicy(policy);
+        config.setStopTimeoutMillis(stopTimeoutMillis);
+        config.setInitialBackoffMillis(10);
+        config.setMaxBackoffMillis(50);
+        return config;
+    }
+
+    private static CubeActuator.ExecuteContext context(TestAngel angel) {
+        return new CubeActuator.ExecuteContext(null, angel, true, null, null, new Object[0], null);
+    }
+
+    private void awaitState(TestAngel angel, AngelState expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (actuator.getAngelState(angel.cubeId()) != expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(expected, actuator.getAngelState(angel.cubeId()));
+    }
+
+    private static void sleepUntilInterrupted() {
+        try {
+            Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class TestAngel extends AngelCube {
+
+        private final String id = "angel-" + UUID.randomUUID();
+
+        private final Runnable onStart;
+
+        private final Runnable onStop;
+
+        private TestAngel(Runnable onStart, Runnable onStop) {
+            this.onStart = onStart;
+            this.onStop = onStop;
+        }
+
+        @Override
+        public void start() {
+            onStart.run();
+        }
+
+        @Override
+        public void stop() {
+            onStop.run();
+        }
+
+        @Override
+        public boolean init() {
+            return true;
+        }
+
+        @Override
+        public String cubeId() {
+            return id;
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package io.github.tml.mosaic.actuator;
+
+import io.github.tml.mosaic.actuator.config.ActuatorProperties;
+import io.github.tml.mosaic.core.execption.ActuatorException;
+import io.github.tml.mosaic.core.tools.guid.DotNotationId;
+import io.github.tml.mosaic.core.tools.guid.GUID;
+import io.github.tml.mosaic.cube.Cube;
+import io.github.tml.mosaic.cube.external.MosaicExtPackage;
+import io.github.tml.mosaic.cube.factory.ClassPathCubeContext;
+import io.github.tml.mosaic.cube.factory.definition.CubeDefinition;
+import io.github.tml.mosaic.cube.factory.definition.ExtensionPackageDefinition;
+import io.github.tml.mosaic.slot.Slot;
+import io.github.tml.mosaic.slot.service.GenericSlotManager;
+import io.github.tml.mosaic.support.TestCubes;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncCubeActuatorTest {
+
+    private static final String ASYNC_PACKAGE_ID = "test.async";
+
+    private static final String BLOCK_POINT_ID = "test.async.block";
+
+    private static final String FAIL_POINT_ID = "test.async.fail";
+
+    private ClassPathCubeContext context;
+
+    private GenericSlotManager slotManager;
+
+    private CubeActuatorProxy proxy;
+
+    private GUID slotId;
+
+    @BeforeEach
+    void setUp() {
+        BlockingPackage.reset();
+        ActuatorProperties properties = new ActuatorProperties();
+        properties.getAsync().setCorePoolSize(1);
+        properties.getAsync().setMaxPoolSize(1);
+        properties.getAsync().setQueueCapacity(1);
+        properties.getAsync().setDefaultTimeoutMillis(0);
+        context = new ClassPathCubeContext();
+        slotManager = new GenericSlotManager();
+        proxy = new CubeActuatorProxy();
+        proxy.init(context, slotManager, properties);
+
+        GUID cubeId = TestCubes.newCubeId();
+        CubeDefinition definition = TestCubes.definition(cubeId);
+        ExtensionPackageDefinition asyncPackage = new ExtensionPackageDefinition(ASYNC_PACKAGE_ID, "async", "async package",
+                BlockingPackage.class.getName(), cubeId.toString());
+        asyncPackage.addExtensionPoint(TestCubes.point(BLOCK_POINT_ID, "block", true));
+        asyncPackage.addExtensionPoint(TestCubes.point(FAIL_POINT_ID, "fail", true));
+        definition.addExtensionPackage(asyncPackage);
+        context.registerCubeDefinition(cubeId, definition);
+
+        slotId = new DotNotationId("test.async." + UUID.randomUUID().toString().replace("-", ""));
+        slotManager.registerSlot(new Slot((DotNotationId) slotId));
+        slotManager.setup(slotId, Slot.SetupCubeInfo.builder()
+                .cubeId(cubeId)
+                .exPackageId(new DotNotationId(ASYNC_PACKAGE_ID))
+                .exPointId(new DotNotationId(BLOCK_POINT_ID))
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        BlockingPackage.release.countDown();
+        proxy.shutdown();
+    }
+
+    @Test
+    void completesAndReleasesBinding() throws Exception {
+        BlockingPackage.release.countDown();
+        SlotHandle handle = proxy.slotHandle(slotId);
+
+        assertEquals("a", handle.runAsync("a").get(5, TimeUnit.SECONDS));
+
+        awaitReferenceCount(handle, 0);
+    }
+
+    @Test
+    void timeoutInterruptsPluginCall() throws Exception {
+        SlotHandle handle = proxy.slotHandle(slotId);
+
+        CompletableFuture<Object> future = handle.runAsync(50, new Object[]{"a"});
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof TimeoutException, e.getCause().toString());
+        assertTrue(BlockingPackage.interrupted.await(5, TimeUnit.SECONDS), "plugin call must be interrupted");
+        awaitReferenceCount(handle, 0);
+    }
+
+    @Test
+    void callerCancelInterruptsPluginCall() throws Exception {
+        SlotHandle handle = proxy.slotHandle(slotId);
+        CompletableFuture<Object> future = handle.runAsync("a");
+        assertTrue(BlockingPackage.started.await(5, TimeUnit.SECONDS));
+
+        assertTrue(future.cancel(true));
+
+        assertTrue(BlockingPackage.interrupted.await(5, TimeUnit.SECONDS), "plugin call must be interrupted");
+        awaitReferenceCount(handle, 0);
+    }
+
+    @Test
+    void bindingIsHeldUntilPluginCallEnds() throws Exception {
+        BlockingPackage.ignoreInterrupt = true;
+        SlotHandle handle = proxy.slotHandle(slotId);
+        CompletableFuture<Object> future = handle.runAsync("a");
+        assertTrue(BlockingPackage.started.await(5, TimeUnit.SECONDS));
+
+        future.cancel(true);
+        assertTrue(BlockingPackage.interrupted.await(5, TimeUnit.SECONDS));
+        assertEquals(1, referenceCount(handle), "plugin still running after cancel");
+
+        BlockingPackage.release.countDown();
+        awaitReferenceCount(handle, 0);
+    }
+
+    @Test
+    void rejectsWhenQueueIsSaturated() throws Exception {
+        SlotHandle handle = proxy.slotHandle(slotId);
+        CompletableFuture<Object> running = handle.runAsync("a");
+        assertTrue(BlockingPackage.started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Object> queued = handle.runAsync("b");
+
+        CompletableFuture<Object> rejected = handle.runAsync("c");
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> rejected.get(5, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof ActuatorException, e.getCause().toString());
+        assertEquals(2, referenceCount(handle), "rejected call must not keep the binding");
+
+        queued.cancel(true);
+        assertEquals(1, referenceCount(handle), "cancelled queued call releases at once");
+        BlockingPackage.release.countDown();
+        assertEquals("a", running.get(5, TimeUnit.SECONDS));
+        awaitReferenceCount(handle, 0);
+        assertEquals(1, BlockingPackage.calls.get(), "cancelled queued call must not run");
+    }
+
+    @Test
+    void failingPluginNeitherInterruptsWorkerNorReportsInterruption() throws Exception {
+        List<Throwable> interrupts = new CopyOnWriteArrayList<>();
+        AsyncCubeActuator actuator = new AsyncCubeActuator(new ActuatorProperties.Async()) {
+            @Override
+            void interrupt(Future<?> task, ExecuteContext executeContext, Throwable reason) {
+                interrupts.add(reason);
+                super.interrupt(task, executeContext, reason);
+            }
+        };
+        try {
+            slotManager.setup(slotId, setupInfo(FAIL_POINT_ID));
+            SlotBinding binding = proxy.slotHandle(slotId).binding();
+            AtomicBoolean interruptedOnFinish = new AtomicBoolean(true);
+
+            CompletableFuture<Object> future = actuator.executeAsync(binding.newContext(new Object[]{"a"}), 5_000,
+                    () -> interruptedOnFinish.set(Thread.currentThread().isInterrupted()));
+
+            ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+            assertTrue(e.getCause().getMessage().contains("boom"), e.getCause().toString());
+            assertFalse(interruptedOnFinish.get(), "release must not run with the interrupt flag set");
+            assertTrue(interrupts.isEmpty(), "a failing plugin call must not be reported as interrupted");
+        } finally {
+            actuator.shutdown();
+        }
+    }
+
+    private Slot.SetupCubeInfo setupInfo(String pointId) {
+        return Slot.SetupCubeInfo.builder()
+                .cubeId(slotManager.getSlot(slotId).getSetupCubeInfo().getCubeId())
+                .exPackageId(new DotNotationId(ASYNC_PACKAGE_ID))
+                .exPointId(new DotNotationId(pointId))
+                .build();
+    }
+
+    private int referenceCount(SlotHandle handle) {
+        Cube cube = handle.binding().getCube();
+        return context.getCubeManager().getManagedCubes().stream()
+                .filter(managedCube -> managedCube.getCube() == cube)
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("cube is not managed"))
+                .getReferenceCount();
+    }
+
+    private void awaitReferenceCount(SlotHandle handle, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (referenceCount(handle) != expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, referenceCount(handle));
+    }
+
+    public static class BlockingPackage extends MosaicExtPackage<TestCubes.EchoCube> {
+
+        static volatile CountDownLatch started;
+
+        static volatile CountDownLatch release;
+
+        static volatile CountDownLatch interrupted;
+
+        static volatile boolean ignoreInterrupt;
+
+        static final AtomicInteger calls = new AtomicInteger();
+
+        static void reset() {
+            started = new CountDownLatch(1);
+            release = new CountDownLatch(1);
+            interrupted = new CountDownLatch(1);
+            ignoreInterrupt = false;
+            calls.set(0);
+        }
+
+        public String block(String value) throws InterruptedException {
+            calls.incrementAndGet();
+            started.countDown();
+            for (;;) {
+                try {
+                    release.await();
+                    return value;
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                    if (!ignoreInterrupt) {
+                        throw e;
+                    }
+                }
+            }
+        }
+
+        public String fail(String value) throws InterruptedException {
+            // 让完成回调先于失败注册，失败在工作线程上触发完成回调
+            Thread.sleep(20);
+            throw new IllegalStateException("boom");
+        }
+
+        @Override
+        public String extPackageId() {
+            return ASYNC_PACKAGE_ID;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package io.github.tml.mosaic.actuator;
+
+import io.github.tml.mosaic.actuator.config.ActuatorProperties;
+import io.github.tml.mosaic.core.tools.guid.DotNotationId;
+import io.github.tml.mosaic.core.tools.guid.GUID;
+import io.github.tml.mosaic.cube.external.MosaicExtPackage;
+import io.github.tml.mosaic.cube.factory.ClassPathCubeContext;
+import io.github.tml.mosaic.cube.factory.definition.CubeDefinition;
+import io.github.tml.mosaic.cube.factory.definition.ExtensionPackageDefinition;
+import io.github.tml.mosaic.slot.Slot;
+import io.github.tml.mosaic.slot.service.GenericSlotManager;
+import io.github.tml.mosaic.support.TestCubes;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchExecuteTest {
+
+    private static final String BATCH_PACKAGE_ID = "test.batch";
+
+    private static final String TAG_POINT_ID = "test.batch.tag";
+
+    private CubeActuatorProxy proxy;
+
+    private SlotHandle handle;
+
+    @BeforeEach
+    void setUp() {
+        TagPackage.threads.clear();
+        ActuatorProperties properties = new ActuatorProperties();
+        properties.getBatch().setMinChunkSize(4);
+        properties.getBatch().setPoolParallelism(4);
+        ClassPathCubeContext context = new ClassPathCubeContext();
+        GenericSlotManager slotManager = new GenericSlotManager();
+        proxy = new CubeActuatorProxy();
+        proxy.init(context, slotManager, properties);
+
+        GUID cubeId = TestCubes.newCubeId();
+        CubeDefinition definition = TestCubes.definition(cubeId);
+        ExtensionPackageDefinition batchPackage = new ExtensionPackageDefinition(BATCH_PACKAGE_ID, "batch", "batch package",
+                TagPackage.class.getName(), cubeId.toString());
+        batchPackage.addExtensionPoint(TestCubes.point(TAG_POINT_ID, "tag", false));
+        definition.addExtensionPackage(batchPackage);
+        context.registerCubeDefinition(cubeId, definition);
+
+        DotNotationId slotId = new DotNotationId("test.batch." + UUID.randomUUID().toString().replace("-", ""));
+        slotManager.registerSlot(new Slot(slotId));
+        slotManager.setup(slotId, Slot.SetupCubeInfo.builder()
+                .cubeId(cubeId)
+                .exPackageId(new DotNotationId(BATCH_PACKAGE_ID))
+                .exPointId(new DotNotationId(TAG_POINT_ID))
+                .build());
+        handle = proxy.slotHandle(slotId);
+    }
+
+    @AfterEach
+    void tearDown() {
+        proxy.shutdown();
+    }
+
+    @Test
+    void parallelSplitKeepsInputOrder() {
+        List<Object[]> argsList = args(200);
+
+        List<String> results = handle.runBatch(argsList, 4);
+
+        assertEquals(200, results.size());
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals("V" + i, results.get(i));
+        }
+        assertTrue(TagPackage.threads.size() > 1, "batch must be split across ForkJoin workers");
+    }
+
+    @Test
+    void failingItemOnlyNullsItsOwnSlot() {
+        List<Object[]> argsList = args(100);
+        argsList.set(37, new Object[]{"boom"});
+        argsList.set(80, new Object[]{"boom"});
+
+        List<String> results = handle.runBatch(argsList, 4);
+
+        assertEquals(100, results.size());
+        for (int i = 0; i < results.size(); i++) {
+            if (i == 37 || i == 80) {
+                assertNull(results.get(i));
+            } else {
+                assertEquals("V" + i, results.get(i));
+            }
+        }
+    }
+
+    @Test
+    void sequentialBatchMatchesSingleRuns() {
+        List<Object[]> argsList = args(10);
+
+        List<String> results = handle.runBatch(argsList);
+
+        for (int i = 0; i < argsList.size(); i++) {
+            assertEquals(handle.run(argsList.get(i)), results.get(i));
+        }
+    }
+
+    private static List<Object[]> args(int count) {
+        List<Object[]> argsList = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            argsList.add(new Object[]{"v" + i});
+        }
+        return argsList;
+    }
+
+    public static class TagPackage extends MosaicExtPackage<TestCubes.EchoCube> {
+
+        static final Set<String> threads = ConcurrentHashMap.newKeySet();
+
+        public String tag(String value) throws InterruptedException {
+            threads.add(Thread.currentThread().getName());
+            if ("boom".equals(value)) {
+                throw new IllegalStateException("boom");
+            }
+            // 给其他工作线程窃取任务的时间
+            Thread.sleep(1);
+            return value.toUpperCase();
+        }
+
+        @Override
+        public String extPackageId() {
+            return BATCH_PACKAGE_ID;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package io.github.tml.mosaic.actuator;
+
+import io.github.tml.mosaic.GoldenShovel;
+import io.github.tml.mosaic.core.event.DefaultMosaicEventBroadcaster;
+import io.github.tml.mosaic.core.event.event.CubeInvalidateEvent;
+import io.github.tml.mosaic.core.tools.guid.DotNotationId;
+import io.github.tml.mosaic.core.tools.guid.GUID;
+import io.github.tml.mosaic.cube.factory.ClassPathCubeContext;
+import io.github.tml.mosaic.slot.Slot;
+import io.github.tml.mosaic.slot.service.GenericSlotManager;
+import io.github.tml.mosaic.support.TestCubes;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlotHandleTest {
+
+    private ClassPathCubeContext context;
+
+    private GenericSlotManager slotManager;
+
+    private CubeActuatorProxy proxy;
+
+    private GUID cubeId;
+
+    private GUID slotId;
+
+    @BeforeEach
+    void setUp() {
+        context = new ClassPathCubeContext();
+        slotManager = new GenericSlotManager();
+        proxy = new CubeActuatorProxy();
+        proxy.init(context, slotManager);
+        cubeId = TestCubes.newCubeId();
+        context.registerCubeDefinition(cubeId, TestCubes.definition(cubeId));
+        slotId = new DotNotationId("test.handle." + UUID.randomUUID().toString().replace("-", ""));
+        slotManager.registerSlot(new Slot((DotNotationId) slotId));
+        slotManager.setup(slotId, TestCubes.setupInfo(cubeId, TestCubes.ECHO_POINT_ID));
+    }
+
+    @AfterEach
+    void tearDown() {
+        proxy.shutdown();
+    }
+
+    @Test
+    void resolvesOnceAndReusesBinding() throws Exception {
+        SlotHandle handle = proxy.slotHandle(slotId);
+        assertFalse(handle.isResolved());
+
+        assertEquals("a", handle.run("a"));
+        assertTrue(handle.isResolved());
+        SlotBinding binding = handle.binding();
+        assertEquals("b", handle.run("b"));
+        assertSame(binding, handle.binding());
+    }
+
+    @Test
+    void setupChangeInvalidatesHandle() {
+        SlotHandle handle = proxy.slotHandle(slotId);
+        assertEquals("a", handle.run("a"));
+
+        slotManager.setup(slotId, TestCubes.setupInfo(cubeId, TestCubes.UPPER_POINT_ID));
+
+        assertFalse(handle.isResolved());
+        assertEquals("A", handle.run("a"));
+    }
+
+    @Test
+    void unSetupMakesHandleFailUntilSetupAgain() {
+        SlotHandle handle = proxy.slotHandle(slotId);
+        assertEquals("a", handle.run("a"));
+
+        slotManager.unSetup(slotId);
+        assertNull(handle.run("a"));
+        assertFalse(handle.isResolved());
+
+        slotManager.setup(slotId, TestCubes.setupInfo(cubeId, TestCubes.UPPER_POINT_ID));
+        assertEquals("A", handle.run("a"));
+    }
+
+    @Test
+    void removeDropsCachedHandleAndHeldHandleKeepsFollowingTheSlot() {
+        SlotHandle handle = proxy.slotHandle(slotId);
+        assertEquals("a", handle.run("a"));
+
+        slotManager.removeSlot(slotId);
+        assertTrue(handle.isDetached());
+        assertNull(handle.run("a"));
+
+        slotManager.registerSlot(new Slot((DotNotationId) slotId));
+        slotManager.setup(slotId, TestCubes.setupInfo(cubeId, TestCubes.ECHO_POINT_ID));
+        assertEquals("a", handle.run("a"));
+        SlotHandle current = proxy.slotHandle(slotId);
+        assertNotSame(handle, current);
+
+        slotManager.setup(slotId, TestCubes.setupInfo(cubeId, TestCubes.UPPER_POINT_ID));
+        assertEquals("A", handle.run("a"), "held handle must see setup changes after the slot returns");
+        assertEquals("A", current.run("a"));
+    }
+
+    @Test
+    void goldenShovelDropsHandleOfRemovedSlot() {
+        GoldenShovel.loadCubeActuatorProxy(proxy);
+        SlotHandle handle = GoldenShovel.slotHandle(slotId.toString());
+        assertSame(handle, GoldenShovel.slotHandle(slotId.toString()));
+
+        slotManager.removeSlot(slotId);
+
+        assertTrue(handle.isDetached());
+        assertTrue(GoldenShovel.slotHandle(slotId.toString()).isDetached());
+
+        slotManager.registerSlot(new Slot((DotNotationId) slotId));
+        SlotHandle next = GoldenShovel.slotHandle(slotId.toString());
+        assertNotSame(handle, next);
+        assertFalse(next.isDetached());
+        assertSame(next, GoldenShovel.slotHandle(slotId.toString()));
+    }
+
+    @Test
+    void missingSlotHandleIsNotCachedAndFollowsTheSlotOnceRegistered() {
+        GUID missingId = new DotNotationId("test.handle.missing." + UUID.randomUUID().toString().replace("-", ""));
+        SlotHandle missing = proxy.slotHandle(missingId);
+        assertTrue(missing.isDetached());
+        assertNotSame(missing, proxy.slotHandle(missingId));
+        assertNull(missing.run("a"));
+
+        slotManager.registerSlot(new Slot((DotNotationId) missingId));
+        slotManager.setup(missingId, TestCubes.setupInfo(cubeId, TestCubes.UPPER_POINT_ID));
+        assertEquals("A", missing.run("a"));
+        assertFalse(proxy.slotHandle(missingId).isDetached());
+    }
+
+    @Test
+    void cubeInvalidateOnlyAffectsHandlesBoundToThatCube() {
+        SlotHandle handle = proxy.slotHandle(slotId);
+        assertEquals("a", handle.run("a"));
+
+        DefaultMosaicEventBroadcaster.broadcaster()
+                .broadcastEvent(new CubeInvalidateEvent(this, TestCubes.newCubeId(), null));
+        assertTrue(handle.isResolved());
+
+        DefaultMosaicEventBroadcaster.broadcaster()
+                .broadcastEvent(new CubeInvalidateEvent(this, cubeId, null));
+        assertFalse(handle.isResolved());
+        assertEquals("a", handle.run("a"));
+    }
+
+    @Test
+    void invalidateDuringResolveIsNotOverwritten() throws Exception {
+        SlotHandle[] handle = new SlotHandle[1];
+        CubeActuatorProxy racingProxy = new CubeActuatorProxy() {
+            @Override
+            SlotBinding resolveBinding(GUID id) {
+                SlotBinding resolved = super.resolveBinding(id);
+                // 解析期间发生的失效
+                handle[0].invalidate();
+                return resolved;
+            }
+        };
+        racingProxy.init(context, slotManager);
+        try {
+            handle[0] = racingProxy.slotHandle(slotId);
+            assertNotNull(handle[0].binding());
+            assertFalse(handle[0].isResolved());
+        } finally {
+            racingProxy.shutdown();
+        }
+    }
+}
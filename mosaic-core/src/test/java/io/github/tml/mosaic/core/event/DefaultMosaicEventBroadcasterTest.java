@@ -0,0 +1,197 @@
+package io.github.tml.mosaic.core.event;
+
+import io.github.tml.mosaic.core.event.event.MosaicEvent;
+import io.github.tml.mosaic.core.event.listener.MosaicCommonListenerEventListener;
+import io.github.tml.mosaic.core.event.listener.MosaicEventListener;
+import io.github.tml.mosaic.core.event.listener.SelectiveMosaicEventListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DefaultMosaicEventBroadcasterTest {
+
+    private final DefaultMosaicEventBroadcaster broadcaster = new DefaultMosaicEventBroadcaster(1);
+
+    private final List<String> invoked = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        broadcaster.shutdown();
+    }
+
+    @Test
+    void ordersByPriorityThenExactBeforeSupertypeAndCommon() {
+        broadcaster.registerListener(new CommonListener("common", 2));
+        broadcaster.registerListener(new TypedListener<>(BaseEvent.class, "base", 1));
+        broadcaster.registerListener(new TypedListener<>(ChildEvent.class, "child", 1));
+        broadcaster.registerListener(new TypedListener<>(BaseEvent.class, "base-first", 0));
+        broadcaster.registerListener(new TypedListener<>(ChildEvent.class, "child-last", 5));
+
+        broadcaster.broadcastEvent(new ChildEvent());
+
+        // 同优先级时精确类型的监听器在父类型之前，与注册顺序无关
+        assertEquals(List.of("base-first", "child", "base", "common", "child-last"), invoked);
+    }
+
+    @Test
+    void rebuildsTablesAfterRegisterAndUnregister() {
+        TypedListener<BaseEvent> base = new TypedListener<>(BaseEvent.class, "base", 1);
+        broadcaster.registerListener(base);
+        broadcaster.broadcastEvent(new ChildEvent());
+        assertEquals(List.of("base"), invoked);
+
+        TypedListener<ChildEvent> child = new TypedListener<>(ChildEvent.class, "child", 0);
+        broadcaster.registerListener(child);
+        invoked.clear();
+        broadcaster.broadcastEvent(new ChildEvent());
+        assertEquals(List.of("child", "base"), invoked);
+
+        assertTrue(broadcaster.unregisterListener(base));
+        invoked.clear();
+        broadcaster.broadcastEvent(new ChildEvent());
+        assertEquals(List.of("child"), invoked);
+
+        assertTrue(broadcaster.unregisterListener(child));
+        assertEquals(0, broadcaster.getDispatchTable(ChildEvent.class).length);
+    }
+
+    @Test
+    void selectiveListenerIsLeftOutOfTablesOfNonListenedSubtypes() {
+        broadcaster.registerListener(new SelectiveListener("selective", OtherChildEvent.class));
+        broadcaster.registerListener(new CommonListener("common", 2));
+
+        broadcaster.broadcastEvent(new ChildEvent());
+        assertEquals(List.of("common"), invoked);
+        assertEquals(1, broadcaster.getDispatchTable(ChildEvent.class).length);
+
+        invoked.clear();
+        broadcaster.broadcastEvent(new OtherChildEvent());
+        assertEquals(List.of("selective", "common"), invoked);
+    }
+
+    @Test
+    void selectiveListenerOfSupertypeReceivesSubtypes() {
+        broadcaster.registerListener(new SelectiveListener("selective", BaseEvent.class));
+
+        broadcaster.broadcastEvent(new ChildEvent());
+        broadcaster.broadcastEvent(new UnrelatedEvent());
+
+        assertEquals(List.of("selective"), invoked);
+        assertEquals(0, broadcaster.getDispatchTable(UnrelatedEvent.class).length);
+    }
+
+    private class TypedListener<T extends MosaicEvent> implements MosaicEventListener<T> {
+
+        private final Class<T> eventType;
+        private final String name;
+        private final int priority;
+
+        TypedListener(Class<T> eventType, String name, int priority) {
+            this.eventType = eventType;
+            this.name = name;
+            this.priority = priority;
+        }
+
+        @Override
+        public void onEvent(T event) {
+            invoked.add(name);
+        }
+
+        @Override
+        public Class<T> getEventType() {
+            return eventType;
+        }
+
+        @Override
+        public int getPriority() {
+            return priority;
+        }
+    }
+
+    private class CommonListener implements MosaicCommonListenerEventListener {
+
+        private final String name;
+        private final int priority;
+
+        CommonListener(String name, int priority) {
+            this.name = name;
+            this.priority = priority;
+        }
+
+        @Override
+        public void onEvent(MosaicEvent event) {
+            invoked.add(name);
+        }
+
+        @Override
+        public int getPriority() {
+            return priority;
+        }
+    }
+
+    private class SelectiveListener extends SelectiveMosaicEventListener {
+
+        private final String name;
+        private final List<Class<? extends MosaicEvent>> listened;
+
+        @SafeVarargs
+        SelectiveListener(String name, Class<? extends MosaicEvent>... listened) {
+            this.name = name;
+            this.listened = List.of(listened);
+        }
+
+        @Override
+        protected List<Class<? extends MosaicEvent>> getListenedEventTypes() {
+            return listened;
+        }
+
+        @Override
+        protected void onSelectiveEvent(MosaicEvent event) {
+            invoked.add(name);
+        }
+
+        @Override
+        public int getPriority() {
+            return 1;
+        }
+
+        @Override
+        public boolean isAsyncSupported() {
+            return false;
+        }
+    }
+
+    private static class BaseEvent extends MosaicEvent {
+
+        BaseEvent() {
+            super(DefaultMosaicEventBroadcasterTest.class);
+        }
+
+        @Override
+        public String getEventType() {
+            return getClass().getSimpleName();
+        }
+    }
+
+    private static class ChildEvent extends BaseEvent {
+    }
+
+    private static class OtherChildEvent extends BaseEvent {
+    }
+
+    private static class UnrelatedEvent extends MosaicEvent {
+
+        UnrelatedEvent() {
+            super(DefaultMosaicEventBroadcasterTest.class);
+        }
+
+        @Override
+        public String getEventType() {
+            return getClass().getSimpleName();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package io.github.tml.mosaic.core.event;
+
+import io.github.tml.mosaic.core.event.event.CubeInvalidateEvent;
+import io.github.tml.mosaic.core.event.listener.MosaicEventListener;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventCoalescerTest {
+
+    @Test
+    void eventsInOneWindowAreDeliveredOnce() throws Exception {
+        DefaultMosaicEventBroadcaster broadcaster = new DefaultMosaicEventBroadcaster(2);
+        RecordingListener listener = new RecordingListener(50);
+        broadcaster.registerListener(listener);
+        try {
+            for (int i = 0; i < 10; i++) {
+                broadcaster.broadcastEvent(event("merge-" + i));
+            }
+            await(() -> listener.seen.size() == 1);
+
+            EventCoalescer coalescer = broadcaster.getCoalescer();
+            assertEquals(List.of("merge-9"), listener.seen);
+            assertEquals(10, coalescer.getReceivedCount());
+            assertEquals(1, coalescer.getDeliveredCount());
+            assertEquals(9, coalescer.getSavedCount());
+            assertEquals(0, coalescer.getPendingCount());
+        } finally {
+            broadcaster.shutdown();
+        }
+    }
+
+    @Test
+    void uncoalescedEventDoesNotOvertakePendingWindowOnSamePartition() throws Exception {
+        DefaultMosaicEventBroadcaster broadcaster = new DefaultMosaicEventBroadcaster(2);
+        RecordingListener listener = new RecordingListener(TimeUnit.MINUTES.toMillis(1));
+        broadcaster.registerListener(listener);
+        try {
+            broadcaster.broadcastEvent(event("merge-1"));
+            broadcaster.broadcastEvent(event("merge-2"));
+            broadcaster.broadcastEvent(event("direct-3"));
+            await(() -> listener.seen.size() == 2);
+
+            assertEquals(List.of("merge-2", "direct-3"), listener.seen);
+            assertEquals(1, broadcaster.getCoalescer().getSavedCount());
+            assertEquals(0, broadcaster.getCoalescer().getPendingCount());
+        } finally {
+            broadcaster.shutdown();
+        }
+    }
+
+    @Test
+    void failingCoalesceKeepsBothEventsInOrder() throws Exception {
+        DefaultMosaicEventBroadcaster broadcaster = new DefaultMosaicEventBroadcaster(2);
+        RecordingListener listener = new RecordingListener(50) {
+            @Override
+            public CubeInvalidateEvent coalesce(CubeInvalidateEvent previous, CubeInvalidateEvent latest) {
+                throw new IllegalStateException("cannot merge");
+            }
+        };
+        broadcaster.registerListener(listener);
+        try {
+            broadcaster.broadcastEvent(event("merge-1"));
+            broadcaster.broadcastEvent(event("merge-2"));
+            await(() -> listener.seen.size() == 2);
+
+            assertEquals(List.of("merge-1", "merge-2"), listener.seen);
+            assertEquals(2, broadcaster.getCoalescer().getReceivedCount());
+            assertEquals(2, broadcaster.getCoalescer().getDeliveredCount());
+            assertEquals(0, broadcaster.getCoalescer().getSavedCount());
+        } finally {
+            broadcaster.shutdown();
+        }
+    }
+
+    private static CubeInvalidateEvent event(String configId) {
+        return new CubeInvalidateEvent(EventCoalescerTest.class, null, configId);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        // 多等一会，确认没有多余的投递
+        Thread.sleep(100);
+    }
+
+    /**
+     * 同一分区键，configId以merge开头的事件参与合并
+     */
+    private static class RecordingListener implements MosaicEventListener<CubeInvalidateEvent> {
+
+        private final List<String> seen = new CopyOnWriteArrayList<>();
+
+        private final long windowMillis;
+
+        RecordingListener(long windowMillis) {
+            this.windowMillis = windowMillis;
+        }
+
+        @Override
+        public void onEvent(CubeInvalidateEvent event) {
+            seen.add(event.getConfigId());
+        }
+
+        @Override
+        public Class<CubeInvalidateEvent> getEventType() {
+            return CubeInvalidateEvent.class;
+        }
+
+        @Override
+        public boolean isAsyncSupported() {
+            return true;
+        }
+
+        @Override
+        public Object getPartitionKey(CubeInvalidateEvent event) {
+            return "partition";
+        }
+
+        @Override
+        public Object getCoalescingKey(CubeInvalidateEvent event) {
+            return event.getConfigId().startsWith("merge") ? "merge" : null;
+        }
+
+        @Override
+        public long getCoalescingWindowMillis() {
+            return windowMillis;
+        }
+    }
+}
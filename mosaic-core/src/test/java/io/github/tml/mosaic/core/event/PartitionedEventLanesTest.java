@@ -0,0 +1,102 @@
+package io.github.tml.mosaic.core.event;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartitionedEventLanesTest {
+
+    @Test
+    void tasksOfTheSameKeyRunInSubmissionOrder() throws Exception {
+        PartitionedEventLanes lanes = new PartitionedEventLanes(4, 8, "test-order");
+        int keys = 16;
+        int perKey = 2_000;
+        Map<Integer, List<Integer>> seen = new ConcurrentHashMap<>();
+        List<Thread> producers = new ArrayList<>();
+        for (int k = 0; k < keys; k++) {
+            int key = k;
+            seen.put(key, new CopyOnWriteArrayList<>());
+            Thread producer = new Thread(() -> {
+                for (int i = 0; i < perKey; i++) {
+                    int sequence = i;
+                    assertTrue(lanes.execute(key, () -> seen.get(key).add(sequence)));
+                }
+            });
+            producer.start();
+            producers.add(producer);
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        lanes.shutdown(TimeUnit.SECONDS.toMillis(10));
+
+        seen.forEach((key, sequences) -> {
+            assertEquals(perKey, sequences.size(), "key " + key);
+            for (int i = 0; i < perKey; i++) {
+                assertEquals(i, sequences.get(i), "key " + key + " out of order");
+            }
+        });
+    }
+
+    @Test
+    void lanesSubmittingToEachOtherDoNotDeadlock() throws Exception {
+        PartitionedEventLanes lanes = new PartitionedEventLanes(2, 1, "test-cross");
+        // Integer键按值映射通道：0 -> 通道0，1 -> 通道1
+        int rounds = 500;
+        CountDownLatch done = new CountDownLatch(2 * rounds);
+        for (int i = 0; i < rounds; i++) {
+            lanes.execute(0, () -> {
+                for (int j = 0; j < 4; j++) {
+                    lanes.execute(1, () -> { });
+                }
+                done.countDown();
+            });
+            lanes.execute(1, () -> {
+                for (int j = 0; j < 4; j++) {
+                    lanes.execute(0, () -> { });
+                }
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS), "lane threads blocked on each other's capacity");
+        lanes.shutdown(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    @Test
+    void submissionsAfterShutdownAreRejectedAndCounted() throws Exception {
+        PartitionedEventLanes lanes = new PartitionedEventLanes(1, 1024, "test-stop");
+        CountDownLatch draining = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Boolean> resubmitted = new CopyOnWriteArrayList<>();
+        lanes.execute("key", () -> {
+            draining.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            // 结束标记已入队，通道线程自身的提交同样被拒绝
+            resubmitted.add(lanes.execute("key", () -> fail("task after stop must not run")));
+        });
+        assertTrue(draining.await(5, TimeUnit.SECONDS));
+        Thread stopper = new Thread(() -> lanes.shutdown(TimeUnit.SECONDS.toMillis(10)));
+        stopper.start();
+        while (lanes.execute("key", () -> { })) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+        stopper.join();
+
+        assertEquals(List.of(false), resubmitted);
+        assertEquals(2, lanes.getRejectedCount());
+        assertEquals(0, lanes.getPendingCount());
+    }
+}
@@ -0,0 +1,124 @@
+package io.github.tml.mosaic.core.event;
+
+import io.github.tml.mosaic.core.event.RingBufferMosaicEventBroadcaster.BackpressurePolicy;
+import io.github.tml.mosaic.core.event.RingBufferMosaicEventBroadcaster.WaitStrategy;
+import io.github.tml.mosaic.core.event.event.CubeInvalidateEvent;
+import io.github.tml.mosaic.core.event.listener.MosaicEventListener;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RingBufferMosaicEventBroadcasterTest {
+
+    @Test
+    void asyncListenersOfDifferentEventsRunInParallel() throws Exception {
+        RingBufferMosaicEventBroadcaster broadcaster = new RingBufferMosaicEventBroadcaster(
+                16, 16, WaitStrategy.BLOCKING, BackpressurePolicy.BLOCK, 2);
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        LongAdder met = new LongAdder();
+        broadcaster.registerListener(new AsyncListener(event -> {
+            try {
+                barrier.await(5, TimeUnit.SECONDS);
+                met.increment();
+            } catch (Exception e) {
+                // 串行执行时两个事件无法同时到达屏障
+            }
+        }));
+        try {
+            broadcaster.broadcastEvent(new CubeInvalidateEvent(this, null, null));
+            broadcaster.broadcastEvent(new CubeInvalidateEvent(this, null, null));
+            awaitDelivered(broadcaster, 2);
+            assertEquals(2, met.sum(), "two events must be handled on two workers at the same time");
+        } finally {
+            broadcaster.shutdown();
+        }
+    }
+
+    @Test
+    void everyPublishedEventIsHandledOrCountedAsDroppedOnShutdown() throws Exception {
+        RingBufferMosaicEventBroadcaster broadcaster = new RingBufferMosaicEventBroadcaster(
+                64, 8, WaitStrategy.BLOCKING, BackpressurePolicy.BLOCK, 2);
+        LongAdder handled = new LongAdder();
+        broadcaster.registerListener(new AsyncListener(event -> handled.increment()));
+        List<Thread> producers = new ArrayList<>();
+        for (int p = 0; p < 4; p++) {
+            Thread producer = new Thread(() -> {
+                for (int i = 0; i < 20_000; i++) {
+                    broadcaster.broadcastEvent(new CubeInvalidateEvent(this, null, null));
+                }
+            });
+            producer.start();
+            producers.add(producer);
+        }
+        Thread.sleep(20);
+        broadcaster.shutdown();
+        for (Thread producer : producers) {
+            producer.join();
+        }
+
+        assertEquals(handled.sum(), broadcaster.getDeliveredCount());
+        assertEquals(0, broadcaster.getPendingCount());
+        assertTrue(broadcaster.getDeliveredCount() + broadcaster.getDroppedCount() >= broadcaster.getPublishedCount(),
+                "published events must be delivered or counted as dropped");
+    }
+
+    @Test
+    void consumedAndDroppedSlotsReleaseTheirEvents() throws Exception {
+        for (BackpressurePolicy policy : List.of(BackpressurePolicy.BLOCK, BackpressurePolicy.DROP_OLDEST)) {
+            RingBufferMosaicEventBroadcaster broadcaster = new RingBufferMosaicEventBroadcaster(
+                    16, 4, WaitStrategy.BLOCKING, policy, 2);
+            broadcaster.registerListener(new AsyncListener(event -> { }));
+            try {
+                for (int i = 0; i < 1_000; i++) {
+                    broadcaster.broadcastEvent(new CubeInvalidateEvent(this, null, null));
+                }
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+                while (broadcaster.getDeliveredCount() + broadcaster.getDroppedCount() < 1_000 && System.nanoTime() < deadline) {
+                    Thread.sleep(1);
+                }
+                assertEquals(1_000, broadcaster.getDeliveredCount() + broadcaster.getDroppedCount());
+                assertEquals(0, broadcaster.getRetainedEntryCount(), policy + ": consumed slots must not keep events reachable");
+            } finally {
+                broadcaster.shutdown();
+            }
+        }
+    }
+
+    private static void awaitDelivered(RingBufferMosaicEventBroadcaster broadcaster, long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (broadcaster.getDeliveredCount() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+
+    private static final class AsyncListener implements MosaicEventListener<CubeInvalidateEvent> {
+
+        private final Consumer<CubeInvalidateEvent> handler;
+
+        private AsyncListener(Consumer<CubeInvalidateEvent> handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public void onEvent(CubeInvalidateEvent event) {
+            handler.accept(event);
+        }
+
+        @Override
+        public Class<CubeInvalidateEvent> getEventType() {
+            return CubeInvalidateEvent.class;
+        }
+
+        @Override
+        public boolean isAsyncSupported() {
+            return true;
+        }
+    }
+}
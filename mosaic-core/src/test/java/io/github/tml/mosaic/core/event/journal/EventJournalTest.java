@@ -0,0 +1,153 @@
+package io.github.tml.mosaic.core.event.journal;
+
+import io.github.tml.mosaic.core.event.event.CubeInvalidateEvent;
+import io.github.tml.mosaic.core.event.listener.MosaicEventListener;
+import io.github.tml.mosaic.core.tools.guid.GUUID;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventJournalTest {
+
+    private static final int SEGMENT_BYTES = 64 * 1024;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void tornTailIsTruncatedOnReopen() throws Exception {
+        try (EventJournal journal = open()) {
+            for (int i = 0; i < 5; i++) {
+                assertEquals(i, journal.append(event(i)));
+            }
+        }
+        corruptLastRecord();
+
+        try (EventJournal journal = open()) {
+            assertEquals(4, journal.getNextOffset(), "the torn record must be dropped");
+            assertEquals(List.of(0L, 1L, 2L, 3L), offsets(journal, 0));
+            assertEquals(4, journal.append(event(99)));
+        }
+        try (EventJournal journal = open()) {
+            assertEquals(List.of(0L, 1L, 2L, 3L, 4L), offsets(journal, 0));
+            List<String> configIds = new ArrayList<>();
+            journal.replay(4, entry -> configIds.add(((CubeInvalidateEvent) entry.getEvent()).getConfigId()));
+            assertEquals(List.of("config-99"), configIds);
+        }
+    }
+
+    @Test
+    void subscribeDuringPublishSeesEveryOffsetOnceInOrder() throws Exception {
+        int total = 3_000;
+        try (EventJournal journal = open()) {
+            for (int i = 0; i < 1_000; i++) {
+                journal.append(event(i));
+            }
+            Thread publisher = new Thread(() -> {
+                for (int i = 1_000; i < total; i++) {
+                    journal.append(event(i));
+                }
+            });
+            List<Long> seen = new CopyOnWriteArrayList<>();
+            publisher.start();
+            journal.subscribe(new SyncListener(event -> seen.add(Long.parseLong(event.getConfigId().substring(7)))), 0);
+            publisher.join();
+
+            List<Long> expected = new ArrayList<>();
+            for (long i = 0; i < total; i++) {
+                expected.add(i);
+            }
+            assertEquals(expected, seen);
+        }
+    }
+
+    @Test
+    void reentrantAppendIsDeliveredAfterTheCurrentEvent() throws Exception {
+        try (EventJournal journal = open()) {
+            List<String> seen = new CopyOnWriteArrayList<>();
+            journal.subscribe(new SyncListener(event -> {
+                seen.add(event.getConfigId());
+                if (event.getConfigId().equals("config-1")) {
+                    journal.append(event(2));
+                }
+                seen.add("end-" + event.getConfigId());
+            }), 0);
+            journal.append(event(1));
+
+            assertEquals(List.of("config-1", "end-config-1", "config-2", "end-config-2"), seen);
+        }
+    }
+
+    private EventJournal open() throws IOException {
+        return new EventJournal(directory, SEGMENT_BYTES, 0, 0, new DefaultMosaicEventCodec());
+    }
+
+    private static CubeInvalidateEvent event(int i) {
+        return new CubeInvalidateEvent(null, new GUUID("journal-cube"), "config-" + i);
+    }
+
+    private static List<Long> offsets(EventJournal journal, long fromOffset) {
+        List<Long> offsets = new ArrayList<>();
+        journal.replay(fromOffset, entry -> offsets.add(entry.getOffset()));
+        return offsets;
+    }
+
+    /**
+     * 破坏最后一条记录的内容，模拟写入中断，CRC校验失败
+     */
+    private void corruptLastRecord() throws IOException {
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.sorted().collect(Collectors.toList()).get(0);
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(4);
+            long at = 0;
+            long last = 0;
+            while (true) {
+                header.clear();
+                channel.read(header, at);
+                int length = header.flip().getInt();
+                if (length == 0) {
+                    break;
+                }
+                last = at;
+                at += 24 + length;
+            }
+            channel.write(ByteBuffer.wrap(new byte[]{'#'}), last + 24);
+        }
+    }
+
+    private static final class SyncListener implements MosaicEventListener<CubeInvalidateEvent> {
+
+        private final Consumer<CubeInvalidateEvent> handler;
+
+        private SyncListener(Consumer<CubeInvalidateEvent> handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public void onEvent(CubeInvalidateEvent event) {
+            handler.accept(event);
+        }
+
+        @Override
+        public Class<CubeInvalidateEvent> getEventType() {
+            return CubeInvalidateEvent.class;
+        }
+    }
+}
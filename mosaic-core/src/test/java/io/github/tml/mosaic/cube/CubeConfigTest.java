@@ -0,0 +1,36 @@
+package io.github.tml.mosaic.cube;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CubeConfigTest {
+
+    private static final ConfigKey<Integer> TIMEOUT = ConfigKey.of("timeout", Integer.class, -1);
+
+    @Test
+    void keyResolvesIndependentlyPerLayout() {
+        CubeConfig small = new CubeConfig(Map.of("timeout", 10));
+        CubeConfig large = new CubeConfig(Map.of("a", 1, "b", 2, "timeout", 30));
+        CubeConfig missing = new CubeConfig(Map.of("other", 1));
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(10, small.get(TIMEOUT));
+            assertEquals(30, large.get(TIMEOUT));
+            assertEquals(-1, missing.get(TIMEOUT));
+        }
+    }
+
+    @Test
+    void layoutIsReusedAcrossVersions() {
+        CubeConfig first = new CubeConfig(Map.of("timeout", 10));
+        assertEquals(10, first.get(TIMEOUT));
+        CubeConfig second = new CubeConfig(Map.of("timeout", "20"), 1, null, first);
+
+        assertEquals(20, second.get(TIMEOUT));
+        assertEquals(Set.of("timeout"), second.diff(first));
+    }
+}
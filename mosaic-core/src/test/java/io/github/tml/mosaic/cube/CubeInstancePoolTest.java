@@ -0,0 +1,268 @@
+package io.github.tml.mosaic.cube;
+
+import io.github.tml.mosaic.actuator.CubeActuatorProxy;
+import io.github.tml.mosaic.actuator.SlotHandle;
+import io.github.tml.mosaic.core.execption.CubeException;
+import io.github.tml.mosaic.core.tools.guid.DotNotationId;
+import io.github.tml.mosaic.core.tools.guid.GUID;
+import io.github.tml.mosaic.cube.constant.CubeScopeType;
+import io.github.tml.mosaic.cube.external.MosaicCube;
+import io.github.tml.mosaic.cube.external.MosaicExtPackage;
+import io.github.tml.mosaic.cube.factory.ClassPathCubeContext;
+import io.github.tml.mosaic.cube.factory.definition.CubeDefinition;
+import io.github.tml.mosaic.cube.factory.definition.ExtensionPackageDefinition;
+import io.github.tml.mosaic.cube.factory.definition.ExtensionPointDefinition;
+import io.github.tml.mosaic.slot.Slot;
+import io.github.tml.mosaic.slot.service.GenericSlotManager;
+import io.github.tml.mosaic.support.TestCubes;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CubeInstancePoolTest {
+
+    @Test
+    void pooledSlotNeverExceedsMaxSizeUnderConcurrentCallers() throws Exception {
+        ClassPathCubeContext context = new ClassPathCubeContext();
+        GenericSlotManager slotManager = new GenericSlotManager();
+        CubeActuatorProxy proxy = new CubeActuatorProxy();
+        proxy.init(context, slotManager);
+        GUID cubeId = TestCubes.newCubeId();
+        context.registerCubeDefinition(cubeId, pooledDefinition(cubeId, 3, 5_000));
+        DotNotationId slotId = new DotNotationId("test.pool." + UUID.randomUUID().toString().replace("-", ""));
+        slotManager.registerSlot(new Slot(slotId));
+        slotManager.setup(slotId, TestCubes.setupInfo(cubeId, TestCubes.ECHO_POINT_ID));
+        SlotHandle handle = proxy.slotHandle(slotId);
+        TrackingPackage.reset();
+
+        ExecutorService callers = Executors.newFixedThreadPool(12);
+        try {
+            List<Future<Object>> results = new ArrayList<>();
+            for (int i = 0; i < 300; i++) {
+                String value = "v" + i;
+                results.add(callers.submit(() -> handle.run(value)));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                assertEquals("v" + i, results.get(i).get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            callers.shutdownNow();
+            proxy.shutdown();
+        }
+
+        assertFalse(TrackingPackage.overlapped, "one pooled instance must not serve two calls at once");
+        assertTrue(TrackingPackage.maxConcurrent.get() <= 3, "at most maxSize calls run at once");
+        assertTrue(TrackingPackage.instances.size() <= 3, "calls run on pooled instances only");
+    }
+
+    @Test
+    void createsAndRegistersInstancesUnderOwnerLock() {
+        Object lock = new Object();
+        CubeInstancePool pool = new CubeInstancePool(() -> {
+            assertTrue(Thread.holdsLock(lock), "instance must be created while holding the owner lock");
+            return newInstance();
+        }, lock, 2, 50);
+
+        pool.prewarm(1);
+        pool.giveBack(pool.borrow());
+        pool.borrow();
+        pool.borrow();
+
+        int[] count = {0};
+        pool.forEachInstance(instance -> count[0]++);
+        assertEquals(2, count[0]);
+        pool.close();
+    }
+
+    @Test
+    void borrowTimesOutWhenPoolIsExhausted() throws Exception {
+        CubeInstancePool pool = new CubeInstancePool(CubeInstancePoolTest::newInstance, 1, 50);
+        CubeInstancePool.PooledInstance borrowed = pool.borrow();
+
+        long begin = System.currentTimeMillis();
+        assertThrows(CubeException.class, pool::borrow);
+        assertTrue(System.currentTimeMillis() - begin >= 40);
+
+        pool.giveBack(borrowed);
+        assertSame(borrowed, pool.borrow(), "returned instance is reused");
+    }
+
+    @Test
+    void prewarmCreatesUpToMaxSize() {
+        AtomicInteger created = new AtomicInteger();
+        CubeInstancePool pool = new CubeInstancePool(() -> {
+            created.incrementAndGet();
+            return newInstance();
+        }, 3, 50);
+
+        pool.prewarm(2);
+        assertEquals(2, pool.getIdleCount());
+        assertEquals(2, created.get());
+
+        pool.prewarm(10);
+        assertEquals(3, pool.getIdleCount());
+        assertEquals(3, created.get());
+    }
+
+    @Test
+    void cubeDestroyDestroysIdleNowAndBorrowedOnReturn() throws Exception {
+        ClassPathCubeContext context = new ClassPathCubeContext();
+        GUID cubeId = TestCubes.newCubeId();
+        CubeDefinition definition = pooledDefinition(cubeId, 2, 5_000);
+        definition.setPoolPrewarm(2);
+        context.registerCubeDefinition(cubeId, definition);
+        Cube cube = context.getCube(cubeId);
+        CubeInstancePool pool = cube.getInstancePool();
+        assertNotNull(pool);
+        CubeInstancePool.PooledInstance borrowed = pool.borrow();
+        PoolCube borrowedCube = (PoolCube) borrowed.getMosaicCube();
+        List<PoolCube> idleCubes = new ArrayList<>();
+        pool.forEachInstance(instance -> {
+            if (instance != borrowed) {
+                idleCubes.add((PoolCube) instance.getMosaicCube());
+            }
+        });
+        assertEquals(1, idleCubes.size());
+
+        cube.destroy();
+        assertTrue(idleCubes.get(0).destroyed, "idle instance destroyed with the cube");
+        assertFalse(borrowedCube.destroyed, "borrowed instance stays alive until returned");
+
+        pool.giveBack(borrowed);
+        assertTrue(borrowedCube.destroyed, "borrowed instance destroyed on return");
+        assertThrows(CubeException.class, pool::borrow);
+    }
+
+    @Test
+    void everyInstanceIsDestroyedWhenReturnsRaceClose() throws Exception {
+        for (int round = 0; round < 200; round++) {
+            List<PoolCube> cubes = new CopyOnWriteArrayList<>();
+            CubeInstancePool pool = new CubeInstancePool(() -> {
+                CubeInstancePool.PooledInstance instance = newInstance();
+                cubes.add((PoolCube) instance.getMosaicCube());
+                return instance;
+            }, 4, 1_000);
+            List<CubeInstancePool.PooledInstance> borrowed = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                borrowed.add(pool.borrow());
+            }
+            CountDownLatch start = new CountDownLatch(1);
+            List<Thread> threads = new ArrayList<>();
+            for (CubeInstancePool.PooledInstance instance : borrowed) {
+                threads.add(new Thread(() -> {
+                    awaitQuietly(start);
+                    pool.giveBack(instance);
+                }));
+            }
+            threads.add(new Thread(() -> {
+                awaitQuietly(start);
+                pool.close();
+            }));
+            threads.forEach(Thread::start);
+            start.countDown();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            assertEquals(4, cubes.size());
+            for (PoolCube cube : cubes) {
+                assertTrue(cube.destroyed, "instance returned across close must be destroyed");
+            }
+            assertEquals(0, pool.getIdleCount());
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static CubeInstancePool.PooledInstance newInstance() {
+        return new CubeInstancePool.PooledInstance(new PoolCube(), new HashMap<>());
+    }
+
+    private static CubeDefinition pooledDefinition(GUID cubeId, int maxSize, long borrowTimeoutMillis) {
+        CubeDefinition definition = TestCubes.definition(cubeId);
+        definition.setClassName(PoolCube.class.getName());
+        definition.setScope(CubeScopeType.POOLED);
+        definition.setPoolMaxSize(maxSize);
+        definition.setPoolBorrowTimeoutMillis(borrowTimeoutMillis);
+        ExtensionPackageDefinition echoPackage = definition.getExtensionPackages().get(0);
+        ExtensionPackageDefinition trackingPackage = new ExtensionPackageDefinition(echoPackage.getId(), echoPackage.getName(),
+                echoPackage.getDescription(), TrackingPackage.class.getName(), echoPackage.getCubeId());
+        for (ExtensionPointDefinition point : echoPackage.getExtensionPoints()) {
+            trackingPackage.addExtensionPoint(point);
+        }
+        definition.getExtensionPackages().set(0, trackingPackage);
+        return definition;
+    }
+
+    public static class PoolCube extends MosaicCube {
+
+        private volatile boolean destroyed;
+
+        @Override
+        public boolean init() {
+            return true;
+        }
+
+        @Override
+        public boolean destroy() {
+            destroyed = true;
+            return true;
+        }
+
+        @Override
+        public String cubeId() {
+            return null;
+        }
+    }
+
+    public static class TrackingPackage extends TestCubes.EchoPackage {
+
+        private static final Set<TrackingPackage> instances = ConcurrentHashMap.newKeySet();
+
+        private static final AtomicInteger concurrent = new AtomicInteger();
+
+        private static final AtomicInteger maxConcurrent = new AtomicInteger();
+
+        private static volatile boolean overlapped;
+
+        private final AtomicInteger running = new AtomicInteger();
+
+        static void reset() {
+            instances.clear();
+            maxConcurrent.set(0);
+            overlapped = false;
+        }
+
+        @Override
+        public String echo(String value) {
+            instances.add(this);
+            if (running.incrementAndGet() > 1) {
+                overlapped = true;
+            }
+            maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(1);
+                return value;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            } finally {
+                concurrent.decrementAndGet();
+                running.decrementAndGet();
+            }
+        }
+    }
+}
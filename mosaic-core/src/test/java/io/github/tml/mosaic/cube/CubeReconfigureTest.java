@@ -0,0 +1,101 @@
+package io.github.tml.mosaic.cube;
+
+import io.github.tml.mosaic.core.tools.guid.GUID;
+import io.github.tml.mosaic.core.tools.param.ConfigInfo;
+import io.github.tml.mosaic.cube.factory.ClassPathCubeContext;
+import io.github.tml.mosaic.cube.factory.definition.CubeDefinition;
+import io.github.tml.mosaic.support.TestCubes;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CubeReconfigureTest {
+
+    @Test
+    void rejectedChangeNeverBecomesVisible() {
+        ClassPathCubeContext context = new ClassPathCubeContext();
+        GUID cubeId = TestCubes.newCubeId();
+        CubeDefinition definition = TestCubes.definition(cubeId);
+        definition.setClassName(ObservingCube.class.getName());
+        context.registerCubeDefinition(cubeId, definition);
+        Cube cube = context.getCube(cubeId, Map.of("mode", "old"));
+        ObservingCube.owner = cube;
+        ObservingCube.seen.clear();
+
+        assertFalse(cube.reconfigure(Map.of("mode", "new")));
+
+        assertEquals(List.of("old"), ObservingCube.seen, "values must not be applied before the plugin accepts");
+        assertEquals("old", cube.getAllConfigs().get("mode"));
+        assertEquals("old", cube.getCubeConfig().getConfig("mode", String.class));
+    }
+
+    @Test
+    void replacedSingletonIsRetiredOnLastRelease() throws Exception {
+        ClassPathCubeContext context = new ClassPathCubeContext();
+        GUID cubeId = TestCubes.newCubeId();
+        CubeDefinition definition = TestCubes.definition(cubeId);
+        definition.setConfigInfo(new ConfigInfo());
+        context.registerCubeDefinition(cubeId, definition);
+        Cube current = context.getEvictableCube(cubeId, null);
+        assertTrue(context.getCubeManager().acquire(current));
+
+        Map<String, Object> config = new HashMap<>();
+        config.put("mode", "new");
+        context.updateConfigurations(cubeId.toString(), config);
+
+        Cube replacement = awaitReplacement(context, cubeId, current);
+        assertEquals("new", replacement.getAllConfigs().get("mode"));
+        assertTrue(context.getCubeManager().containsInstanceId(current.getInstanceId()), "in-flight instance must drain first");
+        awaitRetiring(context, current);
+
+        context.getCubeManager().release(current);
+        assertFalse(context.getCubeManager().containsInstanceId(current.getInstanceId()), "retired on the last release");
+        assertFalse(context.getCubeManager().acquire(current));
+    }
+
+    /**
+     * 替换单例先于登记退役发布，归还前等待旧实例登记为等待退役
+     */
+    private static void awaitRetiring(ClassPathCubeContext context, Cube cube) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!isRetiring(context, cube) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(isRetiring(context, cube), "replaced instance must be registered for retirement");
+    }
+
+    private static boolean isRetiring(ClassPathCubeContext context, Cube cube) {
+        return context.getCubeManager().getManagedCubes().stream()
+                .anyMatch(managedCube -> managedCube.getCube() == cube && managedCube.isRetiring());
+    }
+
+    private static Cube awaitReplacement(ClassPathCubeContext context, GUID cubeId, Cube current) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        Cube cube = context.getEvictableCube(cubeId, null);
+        while (cube == current && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            cube = context.getEvictableCube(cubeId, null);
+        }
+        assertNotSame(current, cube);
+        return cube;
+    }
+
+    public static class ObservingCube extends TestCubes.EchoCube {
+
+        static volatile Cube owner;
+
+        static final List<Object> seen = new CopyOnWriteArrayList<>();
+
+        @Override
+        public boolean onConfigChange(CubeConfig oldConfig, CubeConfig newConfig, Set<String> changedKeys) {
+            seen.add(owner.getAllConfigs().get("mode"));
+            return false;
+        }
+    }
+}
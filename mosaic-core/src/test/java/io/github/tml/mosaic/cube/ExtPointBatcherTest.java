@@ -0,0 +1,202 @@
+package io.github.tml.mosaic.cube;
+
+import io.github.tml.mosaic.core.tools.guid.DotNotationId;
+import io.github.tml.mosaic.core.tools.guid.GUID;
+import io.github.tml.mosaic.cube.factory.ClassPathCubeContext;
+import io.github.tml.mosaic.cube.constant.CubeScopeType;
+import io.github.tml.mosaic.cube.factory.definition.CubeDefinition;
+import io.github.tml.mosaic.cube.factory.definition.ExtensionPackageDefinition;
+import io.github.tml.mosaic.cube.factory.definition.ExtensionPointDefinition;
+import io.github.tml.mosaic.support.TestCubes;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExtPointBatcherTest {
+
+    @Test
+    void flushesByLingerOnWorkerThread() throws Exception {
+        Target target = new Target();
+        ExtPointBatcher batcher = batcher(target, 100, 10);
+
+        CompletableFuture<Object> a = batcher.submit(new Object[]{"a"});
+        CompletableFuture<Object> b = batcher.submit(new Object[]{"b"});
+
+        assertEquals("A", a.get(5, TimeUnit.SECONDS));
+        assertEquals("B", b.get(5, TimeUnit.SECONDS));
+        assertTrue(target.threads.get(0).startsWith("mosaic-ext-point-batch-"));
+        assertFalse(target.threads.get(0).startsWith("mosaic-ext-point-batch-timer"), "timer must not run plugin code");
+    }
+
+    @Test
+    void cancelledCallsAreNotDispatched() throws Exception {
+        Target target = new Target();
+        ExtPointBatcher batcher = batcher(target, 3, 60_000);
+
+        CompletableFuture<Object> abandoned = batcher.submit(new Object[]{"a"});
+        abandoned.cancel(false);
+        CompletableFuture<Object> b = batcher.submit(new Object[]{"b"});
+        CompletableFuture<Object> c = batcher.submit(new Object[]{"c"});
+
+        assertEquals("B", b.get(5, TimeUnit.SECONDS));
+        assertEquals("C", c.get(5, TimeUnit.SECONDS));
+        assertEquals(1, target.batches.size());
+        assertEquals(2, target.batches.get(0).size());
+    }
+
+    @Test
+    void callerTimesOutWhileBatchIsBlocked() throws Exception {
+        Target target = new Target();
+        target.block = new CountDownLatch(1);
+        ExtPointBatcher batcher = batcher(target, 100, 1);
+        try {
+            CompletableFuture<Object> future = batcher.submit(new Object[]{"a"});
+            assertThrows(TimeoutException.class, () -> future.get(50, TimeUnit.MILLISECONDS));
+        } finally {
+            target.block.countDown();
+        }
+    }
+
+    @Test
+    void brokenPointIsSkippedWithoutDroppingOthers() {
+        GUID cubeId = TestCubes.newCubeId();
+        CubeDefinition definition = TestCubes.definition(cubeId);
+        ExtensionPointDefinition broken = new ExtensionPointDefinition("test.echo.broken", "echo", "broken", 1, "broken",
+                false, String.class, new Class<?>[]{String.class});
+        broken.setBatchMethodName("missingBatch");
+        definition.getExtensionPackages().get(0).getExtensionPoints().add(0, broken);
+        ClassPathCubeContext context = new ClassPathCubeContext();
+        context.registerCubeDefinition(cubeId, definition);
+
+        Cube cube = context.getCube(cubeId);
+        ExtensionPackage extensionPackage = cube.findExPackage(new DotNotationId(TestCubes.PACKAGE_ID));
+
+        assertNull(extensionPackage.findExPoint(new DotNotationId("test.echo.broken")));
+        assertNotNull(extensionPackage.findExPoint(new DotNotationId(TestCubes.ECHO_POINT_ID)));
+        assertNotNull(extensionPackage.findExPoint(new DotNotationId(TestCubes.UPPER_POINT_ID)));
+    }
+
+    @Test
+    void pooledBatchPointBorrowsInstanceForEachBatch() throws Exception {
+        GUID cubeId = TestCubes.newCubeId();
+        CubeDefinition definition = TestCubes.definition(cubeId);
+        definition.setScope(CubeScopeType.POOLED);
+        definition.setPoolMaxSize(2);
+        definition.setPoolBorrowTimeoutMillis(5_000);
+        ExtensionPackageDefinition echoPackage = definition.getExtensionPackages().get(0);
+        ExtensionPackageDefinition pooledPackage = new ExtensionPackageDefinition(echoPackage.getId(), echoPackage.getName(),
+                echoPackage.getDescription(), PooledBatchPackage.class.getName(), echoPackage.getCubeId());
+        for (ExtensionPointDefinition point : echoPackage.getExtensionPoints()) {
+            if (TestCubes.UPPER_POINT_ID.equals(point.getId())) {
+                point.setBatchMethodName("upperAll");
+                point.setBatchMaxSize(4);
+                point.setBatchLingerMs(1);
+            }
+            pooledPackage.addExtensionPoint(point);
+        }
+        definition.getExtensionPackages().set(0, pooledPackage);
+        ClassPathCubeContext context = new ClassPathCubeContext();
+        context.registerCubeDefinition(cubeId, definition);
+        Cube cube = context.getCube(cubeId);
+        ExtPointBatcher batcher = cube.findExPackage(new DotNotationId(TestCubes.PACKAGE_ID))
+                .findExPoint(new DotNotationId(TestCubes.UPPER_POINT_ID)).getBatcher();
+        PooledBatchPackage.reset();
+
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Object>> results = new ArrayList<>();
+            for (int i = 0; i < 400; i++) {
+                String value = "v" + i;
+                boolean single = i % 2 == 0;
+                results.add(callers.submit(() -> single
+                        ? batcher.submit(new Object[]{value}).get(10, TimeUnit.SECONDS)
+                        : invokeAll(batcher, value)));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                assertEquals("V" + i, results.get(i).get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+
+        assertFalse(PooledBatchPackage.overlapped, "one pooled instance must not run two batches at once");
+        assertFalse(PooledBatchPackage.instances.isEmpty());
+        assertTrue(PooledBatchPackage.instances.size() <= 2, "batches must run on pooled instances only");
+    }
+
+    private static Object invokeAll(ExtPointBatcher batcher, String value) throws Exception {
+        try {
+            return batcher.invokeAll(List.<Object[]>of(new Object[]{value})).get(0);
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new ExecutionException(e);
+        }
+    }
+
+    private static ExtPointBatcher batcher(Target target, int maxSize, long lingerMs) throws Exception {
+        return new ExtPointBatcher(target, ExtPointInvoker.of(Target.class.getMethod("upperAll", List.class)),
+                maxSize, lingerMs, 0, true);
+    }
+
+    public static class Target {
+
+        private final List<String> threads = new ArrayList<>();
+
+        private final List<List<?>> batches = new ArrayList<>();
+
+        private volatile CountDownLatch block;
+
+        public List<Object> upperAll(List<?> items) throws InterruptedException {
+            synchronized (this) {
+                threads.add(Thread.currentThread().getName());
+                batches.add(new ArrayList<>(items));
+            }
+            if (block != null) {
+                block.await();
+            }
+            List<Object> results = new ArrayList<>(items.size());
+            for (Object item : items) {
+                results.add(String.valueOf(item).toUpperCase());
+            }
+            return results;
+        }
+    }
+
+    public static class PooledBatchPackage extends TestCubes.EchoPackage {
+
+        private static final Set<PooledBatchPackage> instances = ConcurrentHashMap.newKeySet();
+
+        private static volatile boolean overlapped;
+
+        private final AtomicInteger running = new AtomicInteger();
+
+        static void reset() {
+            instances.clear();
+            overlapped = false;
+        }
+
+        public List<Object> upperAll(List<?> items) throws InterruptedException {
+            instances.add(this);
+            if (running.incrementAndGet() > 1) {
+                overlapped = true;
+            }
+            try {
+                Thread.sleep(1);
+                List<Object> results = new ArrayList<>(items.size());
+                for (Object item : items) {
+                    results.add(String.valueOf(item).toUpperCase());
+                }
+                return results;
+            } finally {
+                running.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package io.github.tml.mosaic.cube;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExtPointInvokerTest {
+
+    @Test
+    void generatesDirectInvokerForSmallArity() throws Throwable {
+        Target target = new Target();
+        assertDirect("zero", "zero", target);
+        assertDirect("one", "a", target, "a");
+        assertDirect("two", "ab", target, "a", "b");
+        assertDirect("three", "abc", target, "a", "b", "c");
+        assertDirect("four", "abcd", target, "a", "b", "c", "d");
+    }
+
+    @Test
+    void adaptsPrimitivesAndVoid() throws Throwable {
+        Target target = new Target();
+        ExtPointInvoker add = ExtPointInvoker.of(method("add"));
+        assertTrue(add.isDirect());
+        assertEquals(5L, add.invoke(target, new Object[]{2, 3L}));
+
+        ExtPointInvoker touch = ExtPointInvoker.of(method("touch"));
+        assertTrue(touch.isDirect());
+        assertNull(touch.invoke(target, new Object[]{7}));
+        assertEquals(7, target.touched.get());
+    }
+
+    @Test
+    void fallsBackToMethodHandleForLargeArity() throws Throwable {
+        ExtPointInvoker invoker = ExtPointInvoker.of(method("five"));
+        assertFalse(invoker.isDirect());
+        assertEquals("abcde", invoker.invoke(new Target(), new Object[]{"a", "b", "c", "d", "e"}));
+    }
+
+    @Test
+    void invokesMethodOfNonPublicClass() throws Throwable {
+        Method method = Hidden.class.getMethod("value");
+        ExtPointInvoker invoker = ExtPointInvoker.of(method);
+        assertTrue(invoker.isDirect());
+        assertEquals("hidden", invoker.invoke(new Hidden(), null));
+    }
+
+    @Test
+    void propagatesPluginExceptionsAndErrorsUnwrapped() throws Throwable {
+        ExtPointInvoker fail = ExtPointInvoker.of(method("fail"));
+        assertThrows(IllegalStateException.class, () -> fail.invoke(new Target(), new Object[0]));
+        ExtPointInvoker crash = ExtPointInvoker.of(method("crash"));
+        assertThrows(AssertionError.class, () -> crash.invoke(new Target(), new Object[0]));
+    }
+
+    @Test
+    void rejectsWrongArgumentCount() throws Throwable {
+        ExtPointInvoker invoker = ExtPointInvoker.of(method("two"));
+        assertThrows(IllegalArgumentException.class, () -> invoker.invoke(new Target(), new Object[]{"a"}));
+    }
+
+    private static void assertDirect(String name, Object expected, Object target, Object... args) throws Throwable {
+        ExtPointInvoker invoker = ExtPointInvoker.of(method(name));
+        assertTrue(invoker.isDirect(), name);
+        assertEquals(expected, invoker.invoke(target, args));
+    }
+
+    private static Method method(String name) {
+        for (Method method : Target.class.getMethods()) {
+            if (method.getName().equals(name)) {
+                return method;
+            }
+        }
+        throw new IllegalArgumentException(name);
+    }
+
+    public static class Target {
+
+        private final AtomicInteger touched = new AtomicInteger();
+
+        public String zero() {
+            return "zero";
+        }
+
+        public String one(String a) {
+            return a;
+        }
+
+        public String two(String a, String b) {
+            return a + b;
+        }
+
+        public String three(String a, String b, String c) {
+            return a + b + c;
+        }
+
+        public String four(String a, String b, String c, String d) {
+            return a + b + c + d;
+        }
+
+        public String five(String a, String b, String c, String d, String e) {
+            return a + b + c + d + e;
+        }
+
+        public long add(int a, long b) {
+            return a + b;
+        }
+
+        public void touch(int value) {
+            touched.set(value);
+        }
+
+        public String fail() {
+            throw new IllegalStateException("fail");
+        }
+
+        public String crash() {
+            throw new AssertionError("crash");
+        }
+    }
+
+    static class Hidden {
+
+        public String value() {
+            return "hidden";
+        }
+    }
+}
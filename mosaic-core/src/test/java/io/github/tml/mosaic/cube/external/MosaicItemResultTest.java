@@ -0,0 +1,35 @@
+package io.github.tml.mosaic.cube.external;
+
+import io.github.tml.mosaic.cube.ExtPointResult;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MosaicItemResultTest {
+
+    @Test
+    void looksUpItemsByIndexAndByBoundName() {
+        ExtPointResult items = new ExtPointResult();
+        ExtPointResult.ExtPointResultItem name = item("name", String.class);
+        ExtPointResult.ExtPointResultItem count = item("count", Integer.class);
+        items.addResultItem(name);
+        items.addResultItem(count);
+
+        MosaicItemResult result = MosaicItemResult.of("mosaic", 3);
+        assertNull(result.getResult("name", String.class), "names are unknown before binding");
+        assertEquals("mosaic", result.getResult(name));
+
+        AbstractMosaicResult bound = result.bindItems(items);
+        assertEquals("mosaic", bound.getResult("name", String.class));
+        assertEquals(3, (int) bound.getResult("count", Integer.class));
+        assertEquals(3L, (long) bound.getResult("count", Long.class));
+        assertNull(bound.getResult("missing", String.class));
+    }
+
+    private static ExtPointResult.ExtPointResultItem item(String itemName, Class<?> itemClass) {
+        ExtPointResult.ExtPointResultItem item = new ExtPointResult.ExtPointResultItem();
+        item.setItemName(itemName);
+        item.setItemClass(itemClass);
+        return item;
+    }
+}
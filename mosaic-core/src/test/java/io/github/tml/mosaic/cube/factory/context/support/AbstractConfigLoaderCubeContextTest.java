@@ -0,0 +1,74 @@
+package io.github.tml.mosaic.cube.factory.context.support;
+
+import io.github.tml.mosaic.cube.config.YamlConfigReader;
+import io.github.tml.mosaic.cube.factory.ClassPathCubeContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AbstractConfigLoaderCubeContextTest {
+
+    @TempDir
+    Path dir;
+
+    private ClassPathCubeContext context;
+
+    @AfterEach
+    void tearDown() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    @Test
+    void removedSectionIsAppliedWhenFileIsComplete() throws Exception {
+        String location = write("a:\n  x: 1\nb:\n  y: 2\n");
+        context = new ClassPathCubeContext(new String[]{location});
+        context.refreshConfigurationResources();
+
+        write("a:\n  x: 1\n");
+        assertEquals(1, context.reloadConfigurationLocation(location));
+
+        assertTrue(context.getCubeConfiguration("b").isEmpty());
+        assertEquals(1, context.getCubeConfiguration("a").get("x"));
+    }
+
+    @Test
+    void truncatedFileDoesNotResetSections() throws Exception {
+        String location = write("a:\n  x: 1\nb:\n  y: 2\n");
+        context = new ClassPathCubeContext(new String[]{location});
+        context.refreshConfigurationResources();
+
+        write("");
+        assertEquals(0, context.reloadConfigurationLocation(location));
+
+        assertEquals(1, context.getCubeConfiguration("a").get("x"));
+        assertEquals(2, context.getCubeConfiguration("b").get("y"));
+    }
+
+    @Test
+    void refreshRestartsWatchAndCloseStopsIt() throws Exception {
+        String location = write("a:\n  x: 1\n");
+        context = new ClassPathCubeContext(new String[]{location});
+        context.refreshConfigurationResources();
+        context.startConfigWatch(10);
+        assertTrue(context.isConfigWatching());
+
+        context.refreshConfigurationResources();
+        assertTrue(context.isConfigWatching(), "watch resumes on the reloaded locations");
+
+        context.close();
+        assertFalse(context.isConfigWatching());
+    }
+
+    private String write(String content) throws Exception {
+        Path file = dir.resolve("mosaic-cube.yml");
+        Files.writeString(file, content);
+        return YamlConfigReader.FILE_PREFIX + file;
+    }
+}
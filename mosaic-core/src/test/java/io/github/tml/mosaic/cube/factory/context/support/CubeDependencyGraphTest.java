@@ -0,0 +1,65 @@
+package io.github.tml.mosaic.cube.factory.context.support;
+
+import io.github.tml.mosaic.core.tools.guid.GUID;
+import io.github.tml.mosaic.core.tools.guid.GUUID;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CubeDependencyGraphTest {
+
+    @Test
+    void ordersDependenciesFirst() {
+        Map<GUID, List<GUID>> dependencies = graph("a:b,c", "b:c", "c:");
+
+        CubeDependencyGraph graph = CubeDependencyGraph.sort(dependencies);
+
+        assertEquals(List.of(id("c"), id("b"), id("a")), graph.getOrder());
+        assertTrue(graph.getCycles().isEmpty());
+        assertTrue(graph.getBlockedByCycle().isEmpty());
+    }
+
+    @Test
+    void reportsDependentsOfCycleAsBlockedNotCyclic() {
+        // a <-> b 成环，c依赖a，d依赖c，e独立
+        Map<GUID, List<GUID>> dependencies = graph("a:b", "b:a", "c:a", "d:c", "e:");
+
+        CubeDependencyGraph graph = CubeDependencyGraph.sort(dependencies);
+
+        assertEquals(List.of(Set.of(id("a"), id("b"))), graph.getCycles());
+        assertEquals(Set.of(id("c"), id("d")), graph.getBlockedByCycle().keySet());
+        assertEquals(Set.of(id("a"), id("b")), graph.getBlockedByCycle().get(id("d")));
+
+        List<GUID> order = graph.getOrder();
+        assertEquals(5, order.size());
+        assertTrue(order.indexOf(id("a")) < order.indexOf(id("c")));
+        assertTrue(order.indexOf(id("c")) < order.indexOf(id("d")));
+        assertTrue(dependencies.get(id("a")).isEmpty(), "edges inside the cycle are dropped");
+        assertEquals(List.of(id("a")), dependencies.get(id("c")), "edges into the cycle are kept");
+    }
+
+    private static Map<GUID, List<GUID>> graph(String... edges) {
+        Map<GUID, List<GUID>> dependencies = new LinkedHashMap<>();
+        for (String edge : edges) {
+            String[] parts = edge.split(":", -1);
+            List<GUID> dependsOn = new ArrayList<>();
+            for (String dependency : parts[1].split(",")) {
+                if (!dependency.isEmpty()) {
+                    dependsOn.add(id(dependency));
+                }
+            }
+            dependencies.put(id(parts[0]), dependsOn);
+        }
+        return dependencies;
+    }
+
+    private static GUID id(String name) {
+        return new GUUID(name);
+    }
+}
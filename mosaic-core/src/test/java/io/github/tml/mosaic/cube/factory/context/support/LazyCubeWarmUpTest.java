@@ -0,0 +1,146 @@
+package io.github.tml.mosaic.cube.factory.context.support;
+
+import io.github.tml.mosaic.core.tools.guid.GUID;
+import io.github.tml.mosaic.cube.external.MosaicCube;
+import io.github.tml.mosaic.cube.factory.ClassPathCubeContext;
+import io.github.tml.mosaic.cube.factory.definition.CubeDefinition;
+import io.github.tml.mosaic.support.TestCubes;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LazyCubeWarmUpTest {
+
+    private ClassPathCubeContext context;
+
+    @BeforeEach
+    void setUp() {
+        context = new ClassPathCubeContext();
+        SlowInitCube.reset();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SlowInitCube.release.countDown();
+        context.close();
+    }
+
+    @Test
+    void selectsNonLazyCubesAndTheirTransitiveDependencies() {
+        // a依赖懒加载的b，b依赖懒加载的c；d懒加载且无人依赖；e依赖未注册的Cube
+        GUID a = TestCubes.newCubeId();
+        GUID b = TestCubes.newCubeId();
+        GUID c = TestCubes.newCubeId();
+        GUID d = TestCubes.newCubeId();
+        GUID e = TestCubes.newCubeId();
+        Map<GUID, CubeDefinition> definitions = new LinkedHashMap<>();
+        definitions.put(a, definition(a, false, b));
+        definitions.put(b, definition(b, true, c));
+        definitions.put(c, definition(c, true));
+        definitions.put(d, definition(d, true));
+        definitions.put(e, definition(e, false, TestCubes.newCubeId()));
+
+        Map<GUID, CubeDefinition> eager = AbstractCubeContext.selectEagerDefinitions(definitions);
+
+        assertEquals(Set.of(a, b, c, e), eager.keySet());
+    }
+
+    @Test
+    void dependencyCycleAmongLazyCubesIsSelectedOnce() {
+        GUID a = TestCubes.newCubeId();
+        GUID b = TestCubes.newCubeId();
+        GUID c = TestCubes.newCubeId();
+        Map<GUID, CubeDefinition> definitions = new LinkedHashMap<>();
+        definitions.put(a, definition(a, false, b));
+        definitions.put(b, definition(b, true, c));
+        definitions.put(c, definition(c, true, b));
+
+        assertEquals(Set.of(a, b, c), AbstractCubeContext.selectEagerDefinitions(definitions).keySet());
+    }
+
+    @Test
+    void warmUpIsSubmittedOncePerCubeAndConfig() throws Exception {
+        GUID cubeId = TestCubes.newCubeId();
+        CubeDefinition definition = definition(cubeId, true);
+        definition.setClassName(SlowInitCube.class.getName());
+        context.registerCubeDefinition(cubeId, definition);
+
+        assertTrue(context.warmUpCube(cubeId, null));
+        assertTrue(SlowInitCube.entered.await(5, TimeUnit.SECONDS));
+        assertFalse(context.warmUpCube(cubeId, null), "pending warm-up is not submitted again");
+
+        SlowInitCube.release.countDown();
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (context.getBeanFactory().getSingleton(cubeId) == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertNotNull(context.getBeanFactory().getSingleton(cubeId));
+
+        assertFalse(context.warmUpCube(cubeId, null), "created cube is not warmed up again");
+        assertEquals(1, SlowInitCube.created.get());
+    }
+
+    @Test
+    void warmUpSkipsCubesThatAlreadyExist() {
+        GUID cubeId = TestCubes.newCubeId();
+        context.registerCubeDefinition(cubeId, definition(cubeId, false));
+        assertNotNull(context.getCube(cubeId));
+
+        assertFalse(context.warmUpCube(cubeId, null));
+    }
+
+    private static CubeDefinition definition(GUID cubeId, boolean lazy, GUID... dependsOn) {
+        CubeDefinition definition = TestCubes.definition(cubeId);
+        definition.setLazy(lazy);
+        for (GUID dependency : dependsOn) {
+            definition.getDependsOn().add(dependency.toString());
+        }
+        return definition;
+    }
+
+    public static class SlowInitCube extends MosaicCube {
+
+        static final AtomicInteger created = new AtomicInteger();
+
+        static volatile CountDownLatch entered;
+
+        static volatile CountDownLatch release;
+
+        static void reset() {
+            created.set(0);
+            entered = new CountDownLatch(1);
+            release = new CountDownLatch(1);
+        }
+
+        @Override
+        public boolean init() {
+            created.incrementAndGet();
+            entered.countDown();
+            try {
+                return release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        @Override
+        public boolean destroy() {
+            return true;
+        }
+
+        @Override
+        public String cubeId() {
+            return null;
+        }
+    }
+}
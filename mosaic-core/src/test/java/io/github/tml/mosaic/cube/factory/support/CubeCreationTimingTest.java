@@ -0,0 +1,37 @@
+package io.github.tml.mosaic.cube.factory.support;
+
+import io.github.tml.mosaic.core.tools.guid.GUID;
+import io.github.tml.mosaic.cube.Cube;
+import io.github.tml.mosaic.support.TestCubes;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CubeCreationTimingTest {
+
+    @Test
+    void keepsOneTimingPerCreationOfSameCube() {
+        DefaultDefinitionListableCubeFactory factory = new DefaultDefinitionListableCubeFactory();
+        GUID cubeId = TestCubes.newCubeId();
+        factory.registerCubeDefinition(cubeId, TestCubes.definition(cubeId));
+
+        Cube singleton = factory.getCube(cubeId);
+        Cube prototype = factory.createPrototypeCube(cubeId, new Object[]{Map.of()});
+        assertNotSame(singleton, prototype);
+
+        List<CubeCreationTiming> timings = factory.getCreationTimings().stream()
+                .filter(timing -> timing.getCubeId().equals(cubeId.toString()))
+                .collect(Collectors.toList());
+        assertEquals(2, timings.size());
+        assertNotSame(timings.get(0), timings.get(1));
+        for (CubeCreationTiming timing : timings) {
+            assertTrue(timing.isSuccess());
+            assertTrue(timing.getTotalMillis() >= timing.getConfigMillis() + timing.getInitMillis());
+        }
+        assertNull(factory.currentCreationTiming(), "no timing is left bound to the thread");
+    }
+}
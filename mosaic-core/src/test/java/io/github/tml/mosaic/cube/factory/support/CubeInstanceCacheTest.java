@@ -0,0 +1,117 @@
+package io.github.tml.mosaic.cube.factory.support;
+
+import io.github.tml.mosaic.core.tools.guid.GUID;
+import io.github.tml.mosaic.cube.Cube;
+import io.github.tml.mosaic.cube.factory.ClassPathCubeContext;
+import io.github.tml.mosaic.support.TestCubes;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CubeInstanceCacheTest {
+
+    @Test
+    void overflowEvictsLeastRecentlyUsedThroughListener() {
+        CubeInstanceCache cache = new CubeInstanceCache(2, 0);
+        List<String> removed = new CopyOnWriteArrayList<>();
+        cache.setRemovalListener((cubeId, configId, cube, cause) -> removed.add(configId + ":" + cause));
+        GUID cubeId = TestCubes.newCubeId();
+
+        cache.get(cubeId, "a", () -> new Cube(cubeId));
+        cache.get(cubeId, "b", () -> new Cube(cubeId));
+        cache.get(cubeId, "a", () -> fail("a is cached"));
+        cache.get(cubeId, "c", () -> new Cube(cubeId));
+
+        assertEquals(List.of("b:EVICTED"), removed);
+        assertNull(cache.peek(cubeId, "b"));
+        assertEquals(1, cache.getStats().getEvictions());
+    }
+
+    @Test
+    void instanceInvalidatedDuringCreationIsDiscardedAndRecreated() throws Exception {
+        CubeInstanceCache cache = new CubeInstanceCache();
+        List<Cube> removed = new CopyOnWriteArrayList<>();
+        cache.setRemovalListener((cubeId, configId, cube, cause) -> removed.add(cube));
+        GUID cubeId = TestCubes.newCubeId();
+        CountDownLatch creating = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger creations = new AtomicInteger();
+
+        CompletableFuture<Cube> result = CompletableFuture.supplyAsync(() -> cache.get(cubeId, "a", () -> {
+            if (creations.incrementAndGet() == 1) {
+                creating.countDown();
+                await(release);
+            }
+            return new Cube(cubeId);
+        }));
+        assertTrue(creating.await(5, TimeUnit.SECONDS));
+        cache.invalidate(cubeId, "a");
+        release.countDown();
+
+        Cube cube = result.get(5, TimeUnit.SECONDS);
+        assertEquals(2, creations.get());
+        assertSame(cube, cache.peek(cubeId, "a"));
+        assertEquals(1, removed.size());
+        assertNotSame(cube, removed.get(0));
+    }
+
+    @Test
+    void invalidationDoesNotAffectCreationOfOtherKeys() throws Exception {
+        CubeInstanceCache cache = new CubeInstanceCache();
+        GUID cubeId = TestCubes.newCubeId();
+        GUID otherCubeId = TestCubes.newCubeId();
+        CountDownLatch creating = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Cube> result = CompletableFuture.supplyAsync(() -> cache.get(cubeId, "b", () -> {
+            creating.countDown();
+            await(release);
+            return new Cube(cubeId);
+        }));
+        assertTrue(creating.await(5, TimeUnit.SECONDS));
+        cache.invalidate(cubeId, "a");
+        cache.invalidate(otherCubeId, null);
+        release.countDown();
+
+        assertSame(result.get(5, TimeUnit.SECONDS), cache.peek(cubeId, "b"));
+    }
+
+    @Test
+    void evictedInstanceIsDestroyedOnlyAfterInFlightCallsRelease() throws Exception {
+        ClassPathCubeContext context = new ClassPathCubeContext();
+        context.getInstanceCache().setMaxSize(1);
+        GUID cubeId = TestCubes.newCubeId();
+        context.registerCubeDefinition(cubeId, TestCubes.definition(cubeId));
+
+        Cube evicted = context.getEvictableCube(cubeId, "a");
+        assertTrue(context.getCubeManager().acquire(evicted));
+        context.getCube(cubeId, "b");
+
+        assertNull(context.getInstanceCache().peek(cubeId, "a"));
+        Thread.sleep(200);
+        assertTrue(context.getCubeManager().containsInstanceId(evicted.getInstanceId()), "in-use instance must drain first");
+
+        context.getCubeManager().release(evicted);
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (context.getCubeManager().containsInstanceId(evicted.getInstanceId()) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertFalse(context.getCubeManager().containsInstanceId(evicted.getInstanceId()));
+        assertFalse(context.getCubeManager().acquire(evicted), "retired instance can not be acquired");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
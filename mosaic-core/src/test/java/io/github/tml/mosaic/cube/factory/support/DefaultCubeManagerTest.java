@@ -0,0 +1,77 @@
+package io.github.tml.mosaic.cube.factory.support;
+
+import io.github.tml.mosaic.core.tools.guid.GUID;
+import io.github.tml.mosaic.cube.Cube;
+import io.github.tml.mosaic.cube.factory.ClassPathCubeContext;
+import io.github.tml.mosaic.support.TestCubes;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DefaultCubeManagerTest {
+
+    @Test
+    void usageIsNotTrackedUntilEvictionEnablesIt() {
+        DefaultDefinitionListableCubeFactory factory = new DefaultDefinitionListableCubeFactory();
+        DefaultCubeManager manager = factory.getCubeManager();
+        Cube cube = create(factory);
+
+        assertTrue(manager.acquire(cube));
+        manager.release(cube);
+        assertEquals(0, managed(manager, cube).getTotalUses());
+
+        // 首次淘汰只开启统计，空闲时间从此刻开始计算
+        assertEquals(0, manager.evictIdle(0, managedCube -> { }));
+        assertTrue(manager.isUsageTracking());
+        assertTrue(manager.acquire(cube));
+        manager.release(cube);
+        assertEquals(1, managed(manager, cube).getTotalUses());
+
+        assertEquals(1, manager.evictIdle(0, managedCube -> { }));
+        assertFalse(manager.acquire(cube));
+    }
+
+    @Test
+    void pinnedCubeIsNotEvicted() {
+        DefaultDefinitionListableCubeFactory factory = new DefaultDefinitionListableCubeFactory();
+        DefaultCubeManager manager = factory.getCubeManager();
+        manager.enableUsageTracking();
+        Cube pinned = create(factory);
+        Cube leased = create(factory);
+
+        assertTrue(manager.pin(pinned));
+        assertEquals(1, manager.evictIdle(0, managedCube -> { }));
+
+        assertTrue(manager.containsInstanceId(pinned.getInstanceId()));
+        assertFalse(manager.containsInstanceId(leased.getInstanceId()));
+        assertFalse(manager.pin(leased), "evicted instance can not be pinned");
+    }
+
+    @Test
+    void contextGetCubePinsButSlotResolutionDoesNot() {
+        ClassPathCubeContext context = new ClassPathCubeContext();
+        GUID cubeId = TestCubes.newCubeId();
+        context.registerCubeDefinition(cubeId, TestCubes.definition(cubeId));
+
+        Cube evictable = context.getEvictableCube(cubeId, "evictable");
+        Cube direct = context.getCube(cubeId, "direct");
+
+        assertFalse(context.getCubeManager().isPinned(evictable));
+        assertTrue(context.getCubeManager().isPinned(direct));
+    }
+
+    private static Cube create(DefaultDefinitionListableCubeFactory factory) {
+        GUID cubeId = TestCubes.newCubeId();
+        factory.registerCubeDefinition(cubeId, TestCubes.definition(cubeId));
+        return factory.createPrototypeCube(cubeId, new Object[]{Map.of()});
+    }
+
+    private static DefaultCubeManager.ManagedCube managed(DefaultCubeManager manager, Cube cube) {
+        return manager.getManagedCubes().stream()
+                .filter(managedCube -> managedCube.getCube() == cube)
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,133 @@
+package io.github.tml.mosaic.cube.factory.support;
+
+import io.github.tml.mosaic.core.tools.guid.GUID;
+import io.github.tml.mosaic.cube.Cube;
+import io.github.tml.mosaic.support.TestCubes;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DefaultSingletonCubeRegistryTest {
+
+    private final DefaultSingletonCubeRegistry registry = new DefaultSingletonCubeRegistry();
+
+    private final GUID cubeId = TestCubes.newCubeId();
+
+    private final AtomicInteger created = new AtomicInteger();
+
+    private final AtomicInteger destroyed = new AtomicInteger();
+
+    @Test
+    void concurrentFirstGetsCreateOnce() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<Cube> factory = () -> {
+            await(release);
+            return newCube();
+        };
+        int callers = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<Cube>> futures = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                futures.add(executor.submit(() -> registry.getSingleton(cubeId, factory)));
+            }
+            Thread.sleep(50);
+            release.countDown();
+            Cube first = futures.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<Cube> future : futures) {
+                assertSame(first, future.get(5, TimeUnit.SECONDS));
+            }
+            assertSame(first, registry.getSingleton(cubeId));
+            assertEquals(1, created.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void removalDuringCreationDestroysStaleInstanceAndRetries() throws Exception {
+        CountDownLatch creating = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<Cube> factory = () -> {
+            Cube cube = newCube();
+            if (created.get() == 1) {
+                creating.countDown();
+                await(release);
+            }
+            return cube;
+        };
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Cube> future = executor.submit(() -> registry.getSingleton(cubeId, factory));
+            assertTrue(creating.await(5, TimeUnit.SECONDS));
+            registry.removeSingleton(cubeId);
+            release.countDown();
+
+            Cube cube = future.get(5, TimeUnit.SECONDS);
+            assertEquals(2, created.get());
+            assertEquals(1, destroyed.get(), "the instance created before the removal is destroyed");
+            assertSame(cube, registry.getSingleton(cubeId));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void concurrentCreatorAfterRemovalWinsWithoutLeak() throws Exception {
+        CountDownLatch creating = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<Cube> slowFactory = () -> {
+            Cube cube = newCube();
+            creating.countDown();
+            await(release);
+            return cube;
+        };
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Cube> slow = executor.submit(() -> registry.getSingleton(cubeId, slowFactory));
+            assertTrue(creating.await(5, TimeUnit.SECONDS));
+            registry.removeSingleton(cubeId);
+            // 移除后新的获取不再等待旧的创建
+            Cube fresh = registry.getSingleton(cubeId, this::newCube);
+            release.countDown();
+
+            assertSame(fresh, slow.get(5, TimeUnit.SECONDS));
+            assertSame(fresh, registry.getSingleton(cubeId));
+            assertEquals(2, created.get());
+            assertEquals(1, destroyed.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Cube newCube() {
+        created.incrementAndGet();
+        Cube cube = new Cube(cubeId);
+        cube.setMosaicCube(new TestCubes.EchoCube() {
+            @Override
+            public boolean destroy() {
+                destroyed.incrementAndGet();
+                return true;
+            }
+        });
+        return cube;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
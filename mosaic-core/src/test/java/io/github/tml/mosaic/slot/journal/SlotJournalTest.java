@@ -0,0 +1,206 @@
+package io.github.tml.mosaic.slot.journal;
+
+import io.github.tml.mosaic.core.tools.guid.DotNotationId;
+import io.github.tml.mosaic.core.tools.guid.GUID;
+import io.github.tml.mosaic.slot.Slot;
+import io.github.tml.mosaic.slot.SlotRepository;
+import io.github.tml.mosaic.slot.service.GenericSlotManager;
+import io.github.tml.mosaic.support.TestCubes;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlotJournalTest {
+
+    private final String prefix = "test.journal." + UUID.randomUUID().toString().replace("-", "");
+
+    @Test
+    void restoresSnapshotAndLogIntoNewManager() {
+        MemorySlotRepository repository = new MemorySlotRepository();
+        GenericSlotManager source = new GenericSlotManager();
+        SlotJournal journal = new SlotJournal(source, repository, Integer.MAX_VALUE).start();
+        GUID cubeId = TestCubes.newCubeId();
+        try {
+            DotNotationId kept = slotId("kept");
+            DotNotationId changed = slotId("changed");
+            DotNotationId removed = slotId("removed");
+            for (DotNotationId id : List.of(kept, changed, removed)) {
+                source.registerSlot(new Slot(id));
+                source.setup(id, TestCubes.setupInfo(cubeId, TestCubes.ECHO_POINT_ID));
+            }
+            journal.flush();
+            journal.compact();
+
+            source.setup(changed, TestCubes.setupInfo(cubeId, TestCubes.UPPER_POINT_ID));
+            source.removeSlot(removed);
+        } finally {
+            journal.stop();
+        }
+        assertEquals(2, repository.records.size());
+
+        GenericSlotManager target = new GenericSlotManager();
+        assertEquals(2, new SlotJournal(target, repository, Integer.MAX_VALUE).restore());
+
+        assertEquals(TestCubes.ECHO_POINT_ID, target.getSlot(slotId("kept")).getSetupCubeInfo().getExPointId().toString());
+        assertEquals(TestCubes.UPPER_POINT_ID, target.getSlot(slotId("changed")).getSetupCubeInfo().getExPointId().toString());
+        assertNull(target.getSlot(slotId("removed")));
+        assertTrue(repository.records.isEmpty(), "restore compacts the log into the snapshot");
+    }
+
+    @Test
+    void ignoresChangesOfOtherManagers() {
+        MemorySlotRepository repository = new MemorySlotRepository();
+        SlotJournal journal = new SlotJournal(new GenericSlotManager(), repository, Integer.MAX_VALUE).start();
+        try {
+            GenericSlotManager other = new GenericSlotManager();
+            other.registerSlot(new Slot(slotId("other")));
+        } finally {
+            journal.stop();
+        }
+        assertTrue(repository.records.isEmpty());
+    }
+
+    @Test
+    void groupsConcurrentChangesIntoFewerAppends() throws Exception {
+        MemorySlotRepository repository = new MemorySlotRepository();
+        GenericSlotManager source = new GenericSlotManager();
+        SlotJournal journal = new SlotJournal(source, repository, Integer.MAX_VALUE).start();
+        int changes = 500;
+        try {
+            for (int i = 0; i < changes; i++) {
+                source.registerSlot(new Slot(slotId("slot" + i)));
+            }
+        } finally {
+            journal.stop();
+        }
+        assertEquals(changes, repository.records.size());
+        assertTrue(repository.appendCalls <= changes);
+        assertEquals(slotId("slot0").toString(), repository.records.get(0).getSlotId());
+        assertEquals(slotId("slot" + (changes - 1)).toString(), repository.records.get(changes - 1).getSlotId());
+    }
+
+    @Test
+    void compactsWhenThresholdIsReached() {
+        MemorySlotRepository repository = new MemorySlotRepository();
+        GenericSlotManager source = new GenericSlotManager();
+        SlotJournal journal = new SlotJournal(source, repository, 3).start();
+        try {
+            for (int i = 0; i < 3; i++) {
+                source.registerSlot(new Slot(slotId("slot" + i)));
+                journal.flush();
+            }
+        } finally {
+            journal.stop();
+        }
+        assertTrue(repository.records.isEmpty());
+        assertEquals(3, repository.snapshot.getSlots().size());
+    }
+
+    @Test
+    void snapshotWinsOverLogLeftByCrashBeforeLogDelete() {
+        MemorySlotRepository repository = new MemorySlotRepository();
+        GenericSlotManager source = new GenericSlotManager();
+        SlotJournal journal = new SlotJournal(source, repository, Integer.MAX_VALUE).start();
+        GUID cubeId = TestCubes.newCubeId();
+        DotNotationId slot = slotId("slot");
+        try {
+            source.registerSlot(new Slot(slot));
+            source.setup(slot, TestCubes.setupInfo(cubeId, TestCubes.ECHO_POINT_ID));
+            journal.flush();
+
+            // 第二次安装只进入快照，没有写入日志；快照写入后、日志清空前进程中断
+            repository.failAppend = true;
+            repository.keepLogOnSnapshot = true;
+            source.setup(slot, TestCubes.setupInfo(cubeId, TestCubes.UPPER_POINT_ID));
+            journal.flush();
+            journal.compact();
+        } finally {
+            journal.stop();
+        }
+        assertEquals(2, repository.records.size(), "stale log survives the crash");
+
+        GenericSlotManager target = new GenericSlotManager();
+        assertEquals(1, new SlotJournal(target, repository, Integer.MAX_VALUE).restore());
+
+        assertEquals(TestCubes.UPPER_POINT_ID, target.getSlot(slot).getSetupCubeInfo().getExPointId().toString());
+    }
+
+    @Test
+    void replaysLogRecordsNewerThanSnapshot() {
+        SlotRecord older = record("a", TestCubes.ECHO_POINT_ID, 1);
+        SlotRecord newer = record("a", TestCubes.UPPER_POINT_ID, 3);
+        SlotSnapshot snapshot = new SlotSnapshot(2, List.of(record("a", TestCubes.ECHO_POINT_ID, 0)));
+
+        Map<String, SlotRecord> slots = SlotJournal.replay(snapshot, List.of(older, newer));
+
+        assertEquals(TestCubes.UPPER_POINT_ID, slots.get(slotId("a").toString()).getExPointId());
+    }
+
+    private SlotRecord record(String name, String pointId, long seq) {
+        Slot slot = new Slot(slotId(name));
+        slot.Setup(TestCubes.setupInfo(TestCubes.newCubeId(), pointId));
+        SlotRecord record = SlotRecord.of(slot);
+        record.setSeq(seq);
+        return record;
+    }
+
+    private DotNotationId slotId(String name) {
+        return new DotNotationId(prefix + "." + name);
+    }
+
+    private static class MemorySlotRepository implements SlotRepository {
+
+        private SlotSnapshot snapshot = new SlotSnapshot();
+
+        private List<SlotRecord> records = new ArrayList<>();
+
+        private int appendCalls;
+
+        /**
+         * 模拟写日志失败，记录只保留在槽管理器中
+         */
+        private volatile boolean failAppend;
+
+        /**
+         * 模拟快照写入后、日志清空前进程中断
+         */
+        private volatile boolean keepLogOnSnapshot;
+
+        @Override
+        public synchronized void appendRecords(List<SlotRecord> appended) {
+            if (failAppend) {
+                throw new IllegalStateException("disk full");
+            }
+            appendCalls++;
+            records.addAll(appended);
+        }
+
+        @Override
+        public synchronized List<SlotRecord> loadRecords() {
+            return new ArrayList<>(records);
+        }
+
+        @Override
+        public synchronized void saveSnapshot(SlotSnapshot saved) {
+            snapshot = new SlotSnapshot(saved.getSeq(), new ArrayList<>(saved.getSlots()));
+            if (!keepLogOnSnapshot) {
+                records = new ArrayList<>();
+            }
+        }
+
+        @Override
+        public synchronized SlotSnapshot loadSnapshot() {
+            return new SlotSnapshot(snapshot.getSeq(), new ArrayList<>(snapshot.getSlots()));
+        }
+
+        @Override
+        public String getPath() {
+            return "";
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package io.github.tml.mosaic.slot.service;
+
+import io.github.tml.mosaic.core.event.DefaultMosaicEventBroadcaster;
+import io.github.tml.mosaic.core.event.event.SlotChangeEvent;
+import io.github.tml.mosaic.core.event.listener.MosaicEventListener;
+import io.github.tml.mosaic.core.tools.guid.DotNotationId;
+import io.github.tml.mosaic.core.tools.guid.GUID;
+import io.github.tml.mosaic.slot.Slot;
+import io.github.tml.mosaic.support.TestCubes;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GenericSlotManagerTest {
+
+    private GenericSlotManager slotManager;
+
+    private DotNotationId slotId;
+
+    private RecordingListener listener;
+
+    @BeforeEach
+    void setUp() {
+        slotManager = new GenericSlotManager();
+        slotId = new DotNotationId("test.cas." + UUID.randomUUID().toString().replace("-", ""));
+        listener = new RecordingListener(slotId);
+        DefaultMosaicEventBroadcaster.broadcaster().registerListener(listener);
+    }
+
+    @AfterEach
+    void tearDown() {
+        DefaultMosaicEventBroadcaster.broadcaster().unregisterListener(listener);
+    }
+
+    @Test
+    void compareAndSetupLetsExactlyOneWriterWin() throws Exception {
+        slotManager.registerSlot(new Slot(slotId));
+        int writers = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        List<Slot.SetupCubeInfo> infos = new ArrayList<>();
+        try {
+            for (int i = 0; i < writers; i++) {
+                Slot.SetupCubeInfo info = TestCubes.setupInfo(TestCubes.newCubeId(), TestCubes.ECHO_POINT_ID);
+                infos.add(info);
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return slotManager.compareAndSetup(slotId, 0L, info);
+                }));
+            }
+            start.countDown();
+            int winner = -1;
+            for (int i = 0; i < writers; i++) {
+                if (results.get(i).get(5, TimeUnit.SECONDS)) {
+                    assertEquals(-1, winner, "only one writer may win");
+                    winner = i;
+                }
+            }
+            assertNotEquals(-1, winner);
+
+            Slot slot = slotManager.getSlot(slotId);
+            assertEquals(1L, slot.getSetupVersion());
+            assertSame(infos.get(winner), slot.getSetupCubeInfo());
+
+            SlotChangeEvent setup = listener.events.get(1);
+            assertEquals(SlotChangeEvent.ChangeType.SETUP, setup.getChangeType());
+            assertSame(infos.get(winner), setup.getSetupCubeInfo());
+            assertEquals(1L, setup.getSetupVersion());
+            assertFalse(slotManager.compareAndSetup(slotId, 0L, infos.get(0)));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void eventsOfOneSlotArePublishedInVersionOrder() throws Exception {
+        slotManager.registerSlot(new Slot(slotId));
+        GUID cubeId = TestCubes.newCubeId();
+        int writers = 4;
+        int rounds = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < rounds; i++) {
+                        if (i % 3 == 0) {
+                            slotManager.unSetup(slotId);
+                        } else {
+                            slotManager.setup(slotId, TestCubes.setupInfo(cubeId, TestCubes.ECHO_POINT_ID));
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long previous = -1;
+        for (SlotChangeEvent event : listener.events) {
+            assertTrue(event.getSetupVersion() > previous, "versions must be published in order");
+            previous = event.getSetupVersion();
+        }
+        assertEquals(slotManager.getSlot(slotId).getSetupVersion(), previous);
+        assertEquals(writers * rounds + 1, listener.events.size());
+    }
+
+    @Test
+    void setupCubeInfoIsImmutableAndSharedWithEvents() {
+        slotManager.registerSlot(new Slot(slotId));
+        Slot.SetupCubeInfo info = TestCubes.setupInfo(TestCubes.newCubeId(), TestCubes.ECHO_POINT_ID);
+        assertTrue(slotManager.setup(slotId, info));
+
+        Slot.SetupCubeInfo changed = info.toBuilder().exPointId(new DotNotationId(TestCubes.UPPER_POINT_ID)).build();
+        assertNotSame(info, changed);
+        assertEquals(TestCubes.ECHO_POINT_ID, slotManager.getSlot(slotId).getSetupCubeInfo().getExPointId().toString());
+        assertSame(info, listener.events.get(1).getSetupCubeInfo());
+    }
+
+    private static class RecordingListener implements MosaicEventListener<SlotChangeEvent> {
+
+        private final GUID slotId;
+
+        private final List<SlotChangeEvent> events = new ArrayList<>();
+
+        private RecordingListener(GUID slotId) {
+            this.slotId = slotId;
+        }
+
+        @Override
+        public void onEvent(SlotChangeEvent event) {
+            if (slotId.equals(event.getSlotId())) {
+                synchronized (events) {
+                    events.add(event);
+                }
+            }
+        }
+
+        @Override
+        public Class<SlotChangeEvent> getEventType() {
+            return SlotChangeEvent.class;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package io.github.tml.mosaic.slot.support;
+
+import io.github.tml.mosaic.core.execption.SlotException;
+import io.github.tml.mosaic.slot.Slot;
+import io.github.tml.mosaic.slot.service.GenericSlotManager;
+import io.github.tml.mosaic.support.TestCubes;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlotPrefixIndexTest {
+
+    @Test
+    void listsByPrefixInOrderWithPaging() {
+        SlotPrefixIndex index = index("a.b.c", "a.b", "a.c", "b.a");
+
+        assertEquals(List.of("a.b", "a.b.c", "a.c"), ids(index.list("a")));
+        assertEquals(List.of("a.b.c", "a.c"), ids(index.list("a", 1, 5)));
+        assertEquals(2, index.count("a.b"));
+        assertEquals(4, index.count(""));
+        assertEquals(0, index.count("a.x"));
+    }
+
+    @Test
+    void prefixWithEmptySegmentMatchesNothing() {
+        SlotPrefixIndex index = index("a.b", "b");
+
+        for (String prefix : List.of(".", "..", "a.", ".a", "a..b")) {
+            assertFalse(SlotPrefixIndex.isValidPrefix(prefix), prefix);
+            assertEquals(0, index.count(prefix), prefix);
+            assertTrue(index.list(prefix).isEmpty(), prefix);
+        }
+        assertFalse(SlotPrefixIndex.isValidPrefix(""));
+        assertTrue(SlotPrefixIndex.isValidPrefix("a.b"));
+    }
+
+    @Test
+    void slotIdWithEmptySegmentIsRejected() {
+        SlotPrefixIndex index = index("a.b");
+        for (String id : List.of("a.b.", ".a.b", "a..b", ".")) {
+            assertThrows(SlotException.class, () -> index.put(new Slot(id)), id);
+        }
+        assertEquals(List.of("a.b"), ids(index.list("")));
+        index.remove(new Slot("a.b.").getId());
+        assertEquals(1, index.count("a.b"));
+
+        GenericSlotManager manager = new GenericSlotManager();
+        assertTrue(manager.registerSlot(new Slot("trailing.dot")));
+        assertThrows(SlotException.class, () -> manager.registerSlot(new Slot("trailing.dot.")));
+        assertNull(manager.getSlot("trailing.dot."));
+        assertEquals(1, manager.getSlotList().size());
+    }
+
+    @Test
+    void bulkOperationsRefuseRootPrefix() {
+        GenericSlotManager manager = new GenericSlotManager();
+        manager.registerSlot(new Slot("root.guard.a"));
+        manager.registerSlot(new Slot("root.guard.b"));
+        Slot.SetupCubeInfo info = TestCubes.setupInfo(TestCubes.newCubeId(), TestCubes.ECHO_POINT_ID);
+
+        for (String prefix : new String[]{".", "", null, "root.guard."}) {
+            assertThrows(SlotException.class, () -> manager.removeByPrefix(prefix));
+            assertThrows(SlotException.class, () -> manager.unSetupByPrefix(prefix));
+            assertThrows(SlotException.class, () -> manager.setupByPrefix(prefix, info));
+        }
+        assertEquals(2, manager.getSlotList().size());
+
+        assertEquals(2, manager.setupByPrefix("root.guard", info));
+        assertEquals(2, manager.removeByPrefix("root.guard"));
+        assertTrue(manager.getSlotList().isEmpty());
+    }
+
+    private static SlotPrefixIndex index(String... ids) {
+        SlotPrefixIndex index = new SlotPrefixIndex();
+        for (String id : ids) {
+            index.put(new Slot(id));
+        }
+        return index;
+    }
+
+    private static List<String> ids(List<Slot> slots) {
+        return slots.stream().map(slot -> slot.getId().toString()).collect(Collectors.toList());
+    }
+}
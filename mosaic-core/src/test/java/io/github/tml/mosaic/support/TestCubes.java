@@ -0,0 +1,117 @@
+package io.github.tml.mosaic.support;
+
+import io.github.tml.mosaic.core.tools.guid.DotNotationId;
+import io.github.tml.mosaic.core.tools.guid.GUID;
+import io.github.tml.mosaic.core.tools.guid.GUUID;
+import io.github.tml.mosaic.cube.constant.CubeModelType;
+import io.github.tml.mosaic.cube.constant.CubeScopeType;
+import io.github.tml.mosaic.cube.external.MosaicCube;
+import io.github.tml.mosaic.cube.external.MosaicExtPackage;
+import io.github.tml.mosaic.cube.factory.definition.CubeDefinition;
+import io.github.tml.mosaic.cube.factory.definition.ExtensionPackageDefinition;
+import io.github.tml.mosaic.cube.factory.definition.ExtensionPointDefinition;
+import io.github.tml.mosaic.cube.factory.definition.PointResultDefinition;
+import io.github.tml.mosaic.slot.Slot;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.github.tml.mosaic.core.CubeConstant.DEFAULT_RETURN_NAME;
+
+/**
+ * 测试用的方块定义，包含一个扩展包与echo、upper两个扩展点
+ * 方块工厂在各上下文间共享，每个用例使用新的cubeId互不干扰
+ */
+public final class TestCubes {
+
+    public static final String PACKAGE_ID = "test.echo";
+
+    public static final String ECHO_POINT_ID = "test.echo.echo";
+
+    public static final String UPPER_POINT_ID = "test.echo.upper";
+
+    public static final AtomicInteger CREATED = new AtomicInteger();
+
+    public static final AtomicInteger DESTROYED = new AtomicInteger();
+
+    private TestCubes() {
+    }
+
+    public static GUID newCubeId() {
+        return new GUUID("test-cube-" + UUID.randomUUID());
+    }
+
+    public static CubeDefinition definition(GUID cubeId) {
+        CubeDefinition definition = new CubeDefinition(cubeId.toString(), "echo", "1.0", "echo cube",
+                CubeModelType.DEFAULT_TYPE, CubeScopeType.SINGLETON, EchoCube.class.getName(), TestCubes.class.getClassLoader());
+        ExtensionPackageDefinition packageDefinition = new ExtensionPackageDefinition(PACKAGE_ID, "echo", "echo package",
+                EchoPackage.class.getName(), cubeId.toString());
+        packageDefinition.addExtensionPoint(point(ECHO_POINT_ID, "echo"));
+        packageDefinition.addExtensionPoint(point(UPPER_POINT_ID, "upper"));
+        definition.addExtensionPackage(packageDefinition);
+        return definition;
+    }
+
+    public static Slot.SetupCubeInfo setupInfo(GUID cubeId, String pointId) {
+        return Slot.SetupCubeInfo.builder()
+                .cubeId(cubeId)
+                .exPackageId(new DotNotationId(PACKAGE_ID))
+                .exPointId(new DotNotationId(pointId))
+                .build();
+    }
+
+    private static ExtensionPointDefinition point(String id, String methodName) {
+        return point(id, methodName, false);
+    }
+
+    /**
+     * 参数与返回值均为String的扩展点定义
+     */
+    public static ExtensionPointDefinition point(String id, String methodName, boolean asyncFlag) {
+        ExtensionPointDefinition point = new ExtensionPointDefinition(id, methodName, methodName, 100, methodName,
+                asyncFlag, String.class, new Class<?>[]{String.class});
+        PointResultDefinition resultDefinition = new PointResultDefinition();
+        PointResultDefinition.PointResultItemDefinition item = new PointResultDefinition.PointResultItemDefinition();
+        item.setItemName(DEFAULT_RETURN_NAME);
+        item.setItemClass(String.class);
+        resultDefinition.addPointResultInfo(item);
+        point.setPointResultDefinitions(resultDefinition);
+        return point;
+    }
+
+    public static class EchoCube extends MosaicCube {
+
+        @Override
+        public boolean init() {
+            CREATED.incrementAndGet();
+            return true;
+        }
+
+        @Override
+        public boolean destroy() {
+            DESTROYED.incrementAndGet();
+            return true;
+        }
+
+        @Override
+        public String cubeId() {
+            return null;
+        }
+    }
+
+    public static class EchoPackage extends MosaicExtPackage<EchoCube> {
+
+        public String echo(String value) {
+            return value;
+        }
+
+        public String upper(String value) {
+            return value.toUpperCase();
+        }
+
+        @Override
+        public String extPackageId() {
+            return PACKAGE_ID;
+        }
+    }
+}
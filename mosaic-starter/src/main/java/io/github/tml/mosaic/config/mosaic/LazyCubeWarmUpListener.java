@@ -0,0 +1,33 @@
+package io.github.tml.mosaic.config.mosaic;
+
+import io.github.tml.mosaic.config.properties.MosaicCubeProperties;
+import io.github.tml.mosaic.cube.factory.context.CubeContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+
+/**
+ * 描述: 应用就绪后在后台预热懒加载的Cube
+ */
+@Slf4j
+@Component
+public class LazyCubeWarmUpListener implements ApplicationListener<ApplicationReadyEvent> {
+
+    @Resource
+    private MosaicCubeProperties cubeProperties;
+
+    @Resource
+    private CubeContext cubeContext;
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        if (!cubeProperties.isLazyWarmUpOnReady()) {
+            return;
+        }
+        log.info("[Cube] application ready, start warming up lazy cubes");
+        cubeContext.warmUpLazyCubes();
+    }
+}
@@ -1,25 +1,39 @@
 package io.github.tml.mosaic.config.mosaic;
 
+import io.github.tml.mosaic.config.properties.MosaicEventProperties;
 import io.github.tml.mosaic.core.event.DefaultMosaicEventBroadcaster;
 import io.github.tml.mosaic.core.event.MosaicEventBroadcaster;
+import io.github.tml.mosaic.core.event.journal.DefaultMosaicEventCodec;
+import io.github.tml.mosaic.core.event.journal.EventJournal;
 import io.github.tml.mosaic.core.event.listener.MosaicEventListener;
 import io.github.tml.mosaic.core.world.event.WorldEventBroadcaster;
 import io.github.tml.mosaic.core.world.event.listener.WorldEventListener;
+import io.github.tml.mosaic.cube.factory.context.CubeContext;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.List;
 
 @Configuration
 public class MosaicEventConfig {
     
+    /**
+     * 开启事件日志时在这里开始记录，依赖广播器的组件（如cube上下文）注册方块定义的事件同样写入日志
+     */
     @Bean
-    public MosaicEventBroadcaster cubeEventBroadcaster(List<MosaicEventListener> mosaicEventListeners) {
+    public MosaicEventBroadcaster cubeEventBroadcaster(List<MosaicEventListener> mosaicEventListeners,
+                                                       ObjectProvider<EventJournal> eventJournal) {
         DefaultMosaicEventBroadcaster broadcaster = DefaultMosaicEventBroadcaster.broadcaster();
         // 注册默认监听器
         for (MosaicEventListener mosaicEventListener : mosaicEventListeners) {
             broadcaster.registerListener(mosaicEventListener);
         }
+        eventJournal.ifAvailable(journal -> journal.attach(broadcaster));
 
         return broadcaster;
     }
@@ -33,4 +47,22 @@ public class MosaicEventConfig {
         }
         return broadcaster;
     }
-}
\ No newline at end of file
+
+    /**
+     * 可回放的事件日志，方块定义在回放时从容器中按方块ID获取
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "mosaic.event", name = "journal-enabled", havingValue = "true")
+    public EventJournal eventJournal(MosaicEventProperties eventProperties,
+                                     ObjectProvider<CubeContext> cubeContext) throws IOException {
+        Path directory = eventProperties.getJournalDir() == null || eventProperties.getJournalDir().isBlank()
+                ? Paths.get(System.getProperty("user.dir"), "mosaic", "event-journal")
+                : Paths.get(eventProperties.getJournalDir());
+        DefaultMosaicEventCodec codec = new DefaultMosaicEventCodec(cubeId -> {
+            CubeContext context = cubeContext.getIfAvailable();
+            return context != null ? context.getAllCubeDefinitionMap().get(cubeId) : null;
+        });
+        return new EventJournal(directory, eventProperties.getJournalSegmentBytes(),
+                eventProperties.getJournalRetentionBytes(), eventProperties.getJournalRetentionMillis(), codec);
+    }
+}
@@ -2,6 +2,9 @@ package io.github.tml.mosaic.config.mosaic;
 
 import io.github.tml.mosaic.GoldenShovel;
 import io.github.tml.mosaic.actuator.CubeActuatorProxy;
+import io.github.tml.mosaic.config.properties.MosaicActuatorProperties;
+import io.github.tml.mosaic.config.properties.MosaicCubeProperties;
+import io.github.tml.mosaic.config.properties.MosaicSlotProperties;
 import io.github.tml.mosaic.converter.CubeDefinitionConverter;
 import io.github.tml.mosaic.converter.InfoContextConverter;
 import io.github.tml.mosaic.cube.factory.ClassPathCubeContext;
@@ -10,6 +13,8 @@ import io.github.tml.mosaic.cube.factory.definition.CubeDefinition;
 import io.github.tml.mosaic.hotSwap.HotSwapContext;
 import io.github.tml.mosaic.install.domian.info.CubeInfo;
 import io.github.tml.mosaic.install.installer.core.InfoContextInstaller;
+import io.github.tml.mosaic.slot.SlotRepository;
+import io.github.tml.mosaic.slot.journal.SlotJournal;
 import io.github.tml.mosaic.slot.service.GenericSlotManager;
 import io.github.tml.mosaic.slot.service.SlotManager;
 import io.github.tml.mosaic.world.MosaicWorld;
@@ -43,10 +48,14 @@ public class MosaicInitConfig {
     /**
      * cube上下文容器
      */
-    @Bean
-    @DependsOn({"infoContextInstaller"})
-    public CubeContext cubeContext(InfoContextInstaller infoContextInstaller) {
-        ClassPathCubeContext context = new ClassPathCubeContext();
+    @Bean(destroyMethod = "close")
+    @DependsOn({"infoContextInstaller", "cubeEventBroadcaster"})
+    public CubeContext cubeContext(InfoContextInstaller infoContextInstaller, MosaicCubeProperties cubeProperties) {
+        ClassPathCubeContext context = new ClassPathCubeContext(cubeProperties.getConfigLocations());
+        context.setPreInstantiateParallelism(cubeProperties.getPreInstantiateParallelism());
+        context.getInstanceCache().setMaxSize(cubeProperties.getInstanceCacheMaxSize());
+        context.getInstanceCache().setIdleTimeoutMillis(cubeProperties.getInstanceCacheIdleTimeoutMillis());
+        context.setReconfigureDrainTimeoutMillis(cubeProperties.getReconfigureDrainTimeoutMillis());
 
         if (this.isFirstInit){
             // 初始化安装项Context 收集 -> List<CubeInfo>
@@ -64,6 +73,14 @@ public class MosaicInitConfig {
         // 刷新容器
         context.refresh();
 
+        if (cubeProperties.isConfigWatchEnabled()) {
+            context.startConfigWatch(cubeProperties.getConfigWatchDebounceMillis());
+        }
+
+        if (cubeProperties.isIdleEvictionEnabled()) {
+            context.startIdleEviction(cubeProperties.getIdleEvictionMillis(), cubeProperties.getIdleEvictionIntervalMillis());
+        }
+
         return context;
     }
 
@@ -78,10 +95,25 @@ public class MosaicInitConfig {
         return manager;
     }
 
+    /**
+     * 槽变更日志，启动时先还原持久化的槽再开始记录变更，关闭时写完队列中的记录
+     */
+    @Bean(destroyMethod = "stop")
+    public SlotJournal slotJournal(SlotManager slotManager, SlotRepository slotRepository,
+                                   MosaicSlotProperties slotProperties){
+        SlotJournal slotJournal = new SlotJournal(slotManager, slotRepository, slotProperties.getCompactThreshold());
+        if (slotProperties.isPersistenceEnabled()) {
+            slotJournal.restore();
+            slotJournal.start();
+        }
+        return slotJournal;
+    }
+
     @Bean
-    public CubeActuatorProxy cubeActuatorProxy(SlotManager slotManager, CubeContext cubeContext){
+    public CubeActuatorProxy cubeActuatorProxy(SlotManager slotManager, CubeContext cubeContext,
+                                               MosaicActuatorProperties actuatorProperties){
         CubeActuatorProxy cubeActuatorProxy = new CubeActuatorProxy();
-        cubeActuatorProxy.init(cubeContext, slotManager);
+        cubeActuatorProxy.init(cubeContext, slotManager, actuatorProperties);
         GoldenShovel.loadCubeActuatorProxy(cubeActuatorProxy);
         return cubeActuatorProxy;
     }
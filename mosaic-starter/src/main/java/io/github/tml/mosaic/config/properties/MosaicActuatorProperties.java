@@ -0,0 +1,13 @@
+package io.github.tml.mosaic.config.properties;
+
+import io.github.tml.mosaic.actuator.config.ActuatorProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 描述: 马赛克执行器的配置
+ */
+@Component
+@ConfigurationProperties(prefix = "mosaic.actuator")
+public class MosaicActuatorProperties extends ActuatorProperties {
+}
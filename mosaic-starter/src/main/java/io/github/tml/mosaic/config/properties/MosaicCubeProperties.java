@@ -0,0 +1,69 @@
+package io.github.tml.mosaic.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 描述: 马赛克Cube容器的配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "mosaic.cube")
+public class MosaicCubeProperties {
+
+    /**
+     * 启动时单例预实例化的并行度，不大于0时使用CPU核数
+     */
+    private int preInstantiateParallelism = 0;
+
+    /**
+     * 非默认配置实例缓存的最大实例数
+     */
+    private int instanceCacheMaxSize = 256;
+
+    /**
+     * 非默认配置实例的空闲淘汰时间（毫秒），不大于0时不按空闲时间淘汰
+     */
+    private long instanceCacheIdleTimeoutMillis = 30 * 60 * 1000L;
+
+    /**
+     * 应用就绪后是否在后台预热懒加载的Cube
+     */
+    private boolean lazyWarmUpOnReady = false;
+
+    /**
+     * 是否定时淘汰空闲的Cube实例
+     */
+    private boolean idleEvictionEnabled = false;
+
+    /**
+     * 实例空闲超过该时间（毫秒）且没有进行中的调用时被淘汰
+     */
+    private long idleEvictionMillis = 30 * 60 * 1000L;
+
+    /**
+     * 空闲淘汰的检查间隔（毫秒）
+     */
+    private long idleEvictionIntervalMillis = 60 * 1000L;
+
+    /**
+     * 配置变更后被替换的实例等待进行中调用结束的最长时间（毫秒），超时后强制销毁
+     */
+    private long reconfigureDrainTimeoutMillis = 30 * 1000L;
+
+    /**
+     * Cube配置文件位置，为空时读取classpath下的application.yml；file:前缀表示文件系统路径
+     */
+    private String[] configLocations = new String[0];
+
+    /**
+     * 是否监听配置文件变更并增量重载变更的Cube配置
+     */
+    private boolean configWatchEnabled = false;
+
+    /**
+     * 配置文件变更的防抖时间（毫秒），时间内的多次变更只重载一次
+     */
+    private long configWatchDebounceMillis = 500L;
+}
@@ -0,0 +1,39 @@
+package io.github.tml.mosaic.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 描述: 马赛克事件的配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "mosaic.event")
+public class MosaicEventProperties {
+
+    /**
+     * 是否把事件写入可回放的事件日志
+     */
+    private boolean journalEnabled = false;
+
+    /**
+     * 事件日志目录，为空时使用工作目录下的mosaic/event-journal
+     */
+    private String journalDir;
+
+    /**
+     * 单个日志分段的字节数
+     */
+    private int journalSegmentBytes = 16 * 1024 * 1024;
+
+    /**
+     * 所有日志分段占用的最大字节数，不大于0时不按容量清理
+     */
+    private long journalRetentionBytes = 256 * 1024 * 1024L;
+
+    /**
+     * 日志的最长保留时间（毫秒），不大于0时不按时间清理
+     */
+    private long journalRetentionMillis = 7 * 24 * 60 * 60 * 1000L;
+}
@@ -0,0 +1,24 @@
+package io.github.tml.mosaic.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 描述: 马赛克槽的配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "mosaic.slot")
+public class MosaicSlotProperties {
+
+    /**
+     * 是否持久化槽定义与安装信息，重启后自动还原
+     */
+    private boolean persistenceEnabled = true;
+
+    /**
+     * 追加多少条变更记录后压缩为快照
+     */
+    private int compactThreshold = 1000;
+}
@@ -37,6 +37,38 @@ public class CubeController {
         return cubeService.getCubesByFilter(cubeFilterReq);
     }
 
+    /**
+     * 获取启动时单例预实例化的各Cube阶段耗时
+     */
+    @GetMapping("/startupReport")
+    public R<?> getStartupReport() {
+        return cubeService.getStartupReport();
+    }
+
+    /**
+     * 获取非默认配置实例缓存的命中与淘汰统计
+     */
+    @GetMapping("/instanceCache")
+    public R<?> getInstanceCacheStats() {
+        return cubeService.getInstanceCacheStats();
+    }
+
+    /**
+     * 获取存活的Cube实例及其引用计数与空闲时间
+     */
+    @GetMapping("/instances")
+    public R<?> getCubeInstances() {
+        return cubeService.getCubeInstances();
+    }
+
+    /**
+     * 立即淘汰空闲超过idleMillis的Cube实例
+     */
+    @PostMapping("/instances/evictIdle")
+    public R<?> evictIdleCubes(@RequestParam(value = "idleMillis") long idleMillis) {
+        return cubeService.evictIdleCubes(idleMillis);
+    }
+
     /**
      * 获取指定Cube详细信息
      */
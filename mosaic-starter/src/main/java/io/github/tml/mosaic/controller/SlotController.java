@@ -19,12 +19,24 @@ public class SlotController {
     private SlotService slotService;
 
     /**
-     * 获取所有Cube插件信息
+     * 获取槽列表，传入prefix时只返回该点分前缀下的槽，传入page时分页返回
      */
     @GetMapping("/list")
-    public R<?> getAllCubes() {
+    public R<?> getAllCubes(@RequestParam(value = "prefix", required = false) String prefix,
+                            @RequestParam(value = "page", required = false) Integer page,
+                            @RequestParam(value = "size", defaultValue = "50") int size) {
+        if (prefix == null && page == null) {
+            return R.success(Map.of(
+                    "slotList", slotService.getSlotList()
+            ));
+        }
+        int pageNum = page == null ? 1 : page;
+        int pageSize = page == null ? Integer.MAX_VALUE : Math.max(size, 1);
         return R.success(Map.of(
-                "slotList", slotService.getSlotList()
+                "slotList", slotService.getSlotList(prefix, pageNum, pageSize),
+                "total", slotService.countSlot(prefix),
+                "page", pageNum,
+                "size", pageSize
         ));
     }
 
@@ -47,6 +59,22 @@ public class SlotController {
         }
     }
 
+    @GetMapping("/unSetupByPrefix")
+    public R<?> unSetupByPrefix(@RequestParam("prefix") String prefix) {
+        if (prefix.isBlank()) {
+            return R.error("prefix must not be empty");
+        }
+        return R.success(Map.of("count", slotService.unSetupSlotByPrefix(prefix)));
+    }
+
+    @GetMapping("/deleteByPrefix")
+    public R<?> deleteByPrefix(@RequestParam("prefix") String prefix) {
+        if (prefix.isBlank()) {
+            return R.error("prefix must not be empty");
+        }
+        return R.success(Map.of("count", slotService.deleteSlotByPrefix(prefix)));
+    }
+
     @GetMapping("/delete")
     public R<?> deleteSlot(@RequestParam("slotId") String slotId) {
         slotService.deleteSlot(slotId);
@@ -92,6 +92,9 @@ public class CubeConvert {
         }
 
         cubeInfoVO.setStatus(angleCubeDTO.getCubeStatus());
+        if (angleCubeDTO.getAngelState() != null) {
+            cubeInfoVO.setAngelState(angleCubeDTO.getAngelState().name());
+        }
         return cubeInfoVO;
     }
 
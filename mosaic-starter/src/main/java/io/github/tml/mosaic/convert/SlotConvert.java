@@ -15,7 +15,9 @@ public class SlotConvert {
 
     public static SlotDTO convert2DTO(Slot slot) {
         SlotDTO slotDTO = new SlotDTO(slot.getId().toString());
-        slotDTO.Setup(slot.getSetupCubeInfo());
+        Slot.SetupState setupState = slot.getSetupState();
+        slotDTO.Setup(setupState.getSetupCubeInfo());
+        slotDTO.setSetupVersion(setupState.getVersion());
         return slotDTO;
     }
 
@@ -24,6 +26,7 @@ public class SlotConvert {
         Slot.SetupCubeInfo setupCubeInfo = slotDTO.getSetupCubeInfo();
         slotVO.setSlotId(slotDTO.getId().toString());
         slotVO.setSetupFlag(slotDTO.isSetupReady());
+        slotVO.setVersion(slotDTO.getSetupVersion());
 
         if(setupCubeInfo!=null){
             BeanUtils.copyProperties(setupCubeInfo, slotVO);
@@ -42,6 +45,7 @@ public class SlotConvert {
         slotSetupDTO.setResName(appendSlotReq.getResName());
         slotSetupDTO.setExPointId(new DotNotationId(appendSlotReq.getExPointId()));
         slotSetupDTO.setExPackageId(new DotNotationId(appendSlotReq.getExPackageId()));
+        slotSetupDTO.setExpectedVersion(appendSlotReq.getExpectedVersion());
         return slotSetupDTO;
     }
 }
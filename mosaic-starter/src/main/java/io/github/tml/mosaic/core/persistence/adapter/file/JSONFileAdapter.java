@@ -5,9 +5,16 @@ import io.github.tml.mosaic.MosaicRepository;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * @author welsir
@@ -46,12 +53,62 @@ public class JSONFileAdapter implements LocalFileAdapter{
             }
 
             String json = JSON.toJSONString(obj, true); // true 表示格式化输出
-            Files.write(fullPath, json.getBytes());
+            // 先写临时文件再替换，避免写入中断留下半个文件
+            Path tmpPath = Paths.get(fullPath + ".tmp");
+            Files.write(tmpPath, json.getBytes(StandardCharsets.UTF_8));
+            Files.move(tmpPath, fullPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
         } catch (IOException e) {
             throw new RuntimeException("保存到本地文件失败: " + filePath, e);
         }
     }
 
+    @Override
+    public void append(String filePath, List<String> lines) {
+        Path fullPath = Paths.get(BASE_PATH + filePath);
+        try {
+            Path parentDir = fullPath.getParent();
+            if (parentDir != null && !Files.exists(parentDir)) {
+                Files.createDirectories(parentDir);
+            }
+            try (FileChannel channel = FileChannel.open(fullPath, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                StringBuilder content = new StringBuilder();
+                for (String line : lines) {
+                    content.append(line).append('\n');
+                }
+                ByteBuffer buffer = ByteBuffer.wrap(content.toString().getBytes(StandardCharsets.UTF_8));
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("追加写入本地文件失败: " + filePath, e);
+        }
+    }
+
+    @Override
+    public List<String> readLines(String filePath) {
+        Path fullPath = Paths.get(BASE_PATH + filePath);
+        if (!Files.exists(fullPath)) {
+            return new ArrayList<>();
+        }
+        try {
+            return Files.readAllLines(fullPath, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new RuntimeException("读取文件失败: " + filePath, e);
+        }
+    }
+
+    @Override
+    public void delete(String filePath) {
+        try {
+            Files.deleteIfExists(Paths.get(BASE_PATH + filePath));
+        } catch (IOException e) {
+            throw new RuntimeException("删除文件失败: " + filePath, e);
+        }
+    }
+
     @Override
     public <T> T get(String filePath, Class<T> clazz) {
         File file = new File(BASE_PATH+filePath);
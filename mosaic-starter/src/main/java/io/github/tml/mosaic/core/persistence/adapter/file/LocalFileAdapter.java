@@ -2,6 +2,8 @@ package io.github.tml.mosaic.core.persistence.adapter.file;
 
 import io.github.tml.mosaic.MosaicRepository;
 
+import java.util.List;
+
 /**
  * @author welsir
  * @description :
@@ -12,4 +14,16 @@ public interface LocalFileAdapter {
     void save(String filePath, Object obj);
     <T> T get(String filePath, Class<T> clazz);
 
+    /**
+     * 按行追加写入文件，写入后刷盘
+     */
+    void append(String filePath, List<String> lines);
+
+    /**
+     * 按行读取文件，文件不存在时返回空列表
+     */
+    List<String> readLines(String filePath);
+
+    void delete(String filePath);
+
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package io.github.tml.mosaic.domain.cube;
 
+import io.github.tml.mosaic.actuator.AngelState;
 import io.github.tml.mosaic.actuator.CubeActuatorProxy;
 import io.github.tml.mosaic.convert.CubeConvert;
 import io.github.tml.mosaic.core.execption.CubeException;
@@ -62,15 +63,23 @@ public class AngleCubeDomain {
                 .filter(CubeDefinition::isAngleCube)
                 .map(CubeConvert::convert2AngleDTO)
                 .filter(Objects::nonNull)
-                .peek(cubeDTO -> {
-                    AngleCubeDTO angleCubeDTO = angleCubeMap.get(cubeDTO.getId());
-                    cubeDTO.setEnable(Optional.ofNullable(angleCubeDTO)
-                            .map(AngleCubeDTO::isEnable)
-                            .orElse(AngleCubeDTO.DISABLE));
-                })
+                .map(this::withRuntimeState)
                 .sorted(Comparator.comparing(CubeDTO::getId))
                 .collect(Collectors.toList());
     }
+
+    /**
+     * 填充天使方块的运行状态与启用状态
+     */
+    private AngleCubeDTO withRuntimeState(AngleCubeDTO cubeDTO) {
+        AngleCubeDTO angleCubeDTO = angleCubeMap.get(cubeDTO.getId());
+        cubeDTO.setAngelState(syncAngelState(cubeDTO.getId(), angleCubeDTO));
+        cubeDTO.setEnable(Optional.ofNullable(angleCubeDTO)
+                .map(AngleCubeDTO::isEnable)
+                .orElse(AngleCubeDTO.DISABLE));
+        return cubeDTO;
+    }
+
     /**
      * 构建天使方块
      * @param cubeId 方块id
@@ -137,7 +146,9 @@ public class AngleCubeDomain {
                 }
                 angleCubeSlotMap.put(cubeId, slotId);
             }
-            if (!cube.isEnable()) {
+            // 已终止（停止、正常退出或启动失败不再重启）的天使方块允许再次启动
+            AngelState state;
+            if (!cube.isEnable() || ((state = syncAngelState(cubeId, cube)) != null && !state.isAlive())) {
                 cubeActuatorProxy.execute(new DotNotationId(slotId));
                 cube.enable();
                 return true;
@@ -171,6 +182,27 @@ public class AngleCubeDomain {
         return slotId;
     }
 
+    /**
+     * 获取天使方块的运行状态，执行器中已停止的天使方块同步为禁用
+     */
+    private AngelState syncAngelState(String cubeId, AngleCubeDTO angleCubeDTO) {
+        AngelState state = cubeActuatorProxy.getAngelState(cubeId);
+        if (angleCubeDTO != null) {
+            angleCubeDTO.setAngelState(state);
+            if (state != null && !state.isAlive()) {
+                angleCubeDTO.disable();
+            }
+        }
+        return state;
+    }
+
+    /**
+     * 获取全部天使方块的运行状态
+     */
+    public Map<String, AngelState> getAngelStates() {
+        return cubeActuatorProxy.getAngelStates();
+    }
+
     /**
      * 验证是否为有效的Angel Cube
      */
@@ -9,6 +9,9 @@ import io.github.tml.mosaic.cube.Cube;
 import io.github.tml.mosaic.cube.constant.CubeModelType;
 import io.github.tml.mosaic.cube.external.AngelCube;
 import io.github.tml.mosaic.cube.factory.context.CubeContext;
+import io.github.tml.mosaic.cube.factory.support.CubeInstanceCache;
+import io.github.tml.mosaic.cube.factory.support.CubeStartupReport;
+import io.github.tml.mosaic.cube.factory.support.DefaultCubeManager;
 import io.github.tml.mosaic.cube.factory.definition.CubeDefinition;
 import io.github.tml.mosaic.cube.factory.definition.CubeRegistrationResult;
 import io.github.tml.mosaic.entity.dto.CubeDTO;
@@ -304,6 +307,34 @@ public class CubeDomain {
         return overview;
     }
 
+    /**
+     * 获取单例预实例化耗时报告
+     */
+    public Optional<CubeStartupReport> getStartupReport() {
+        return Optional.ofNullable(cubeContext.getStartupReport());
+    }
+
+    /**
+     * 获取实例缓存统计
+     */
+    public CubeInstanceCache.Stats getInstanceCacheStats() {
+        return cubeContext.getInstanceCacheStats();
+    }
+
+    /**
+     * 获取存活的Cube实例
+     */
+    public List<DefaultCubeManager.ManagedCube> getManagedCubes() {
+        return cubeContext.getCubeManager().getManagedCubes();
+    }
+
+    /**
+     * 淘汰空闲的Cube实例
+     */
+    public int evictIdleCubes(long idleMillis) {
+        return cubeContext.evictIdleCubes(idleMillis);
+    }
+
     /**
      * 检查Cube是否存在
      */
@@ -2,6 +2,7 @@ package io.github.tml.mosaic.domain.slot;
 
 import io.github.tml.mosaic.convert.SlotConvert;
 import io.github.tml.mosaic.core.execption.CubeException;
+import io.github.tml.mosaic.core.execption.SlotException;
 import io.github.tml.mosaic.core.tools.guid.DotNotationId;
 import io.github.tml.mosaic.entity.dto.SlotDTO;
 import io.github.tml.mosaic.entity.dto.SlotSetupDTO;
@@ -40,12 +41,25 @@ public class SlotDomain {
     }
 
     /**
-     * 安装槽
+     * 安装槽，携带期望版本号时仅在版本一致时安装
      * @param slotSetupDTO
      * @return
      */
     public boolean setupSlot(SlotSetupDTO slotSetupDTO) throws CubeException{
-        return slotManager.setup(new DotNotationId(slotSetupDTO.getSlotId()), slotSetupDTO);
+        DotNotationId slotId = new DotNotationId(slotSetupDTO.getSlotId());
+        Long expectedVersion = slotSetupDTO.getExpectedVersion();
+        Slot.SetupCubeInfo setupCubeInfo = slotSetupDTO.toSetupCubeInfo();
+        if (expectedVersion == null) {
+            return slotManager.setup(slotId, setupCubeInfo);
+        }
+        if (!slotManager.compareAndSetup(slotId, expectedVersion, setupCubeInfo)) {
+            Slot slot = slotManager.getSlot(slotId);
+            if (slot != null && slot.getSetupVersion() != expectedVersion) {
+                throw SlotException.SETUP_VERSION_CONFLICT;
+            }
+            return false;
+        }
+        return true;
     }
 
     /**
@@ -73,6 +87,36 @@ public class SlotDomain {
         slotManager.removeSlot(new DotNotationId(slotId));
     }
 
+    /**
+     * 分页获取点分前缀下的槽，按各级名称字典序排列
+     */
+    public List<SlotDTO> getSlotList(String prefix, int offset, int limit){
+        return slotManager.getSlotsByPrefix(prefix, offset, limit).stream()
+                .map(SlotConvert::convert2DTO)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 点分前缀下的槽数量
+     */
+    public int countSlot(String prefix){
+        return slotManager.countByPrefix(prefix);
+    }
+
+    /**
+     * 卸载点分前缀下所有槽的安装信息
+     */
+    public int unSetupSlotByPrefix(String prefix){
+        return slotManager.unSetupByPrefix(prefix);
+    }
+
+    /**
+     * 删除点分前缀下的所有槽
+     */
+    public int removeSlotByPrefix(String prefix){
+        return slotManager.removeByPrefix(prefix);
+    }
+
     /**
      * 获取所有槽列表
      * @return
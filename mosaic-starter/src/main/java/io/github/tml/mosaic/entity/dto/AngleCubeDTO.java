@@ -1,7 +1,10 @@
 package io.github.tml.mosaic.entity.dto;
 
+import io.github.tml.mosaic.actuator.AngelState;
 import io.github.tml.mosaic.entity.vo.cube.CubeStatus;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
 
 @NoArgsConstructor
 public class AngleCubeDTO extends CubeDTO{
@@ -10,6 +13,13 @@ public class AngleCubeDTO extends CubeDTO{
 
     private boolean isEnable = DISABLE;
 
+    /**
+     * 执行器中的运行状态，从未启动过时为空
+     */
+    @Getter
+    @Setter
+    private AngelState angelState;
+
     public void enable(){
         this.isEnable = true;
     }
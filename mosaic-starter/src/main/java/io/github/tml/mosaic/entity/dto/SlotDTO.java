@@ -9,6 +9,9 @@ import java.util.stream.Stream;
 @Data
 public class SlotDTO extends Slot {
 
+    // 槽安装版本号
+    private long setupVersion;
+
     public SlotDTO(String slotName) {
         super(slotName);
     }
@@ -1,10 +1,46 @@
 package io.github.tml.mosaic.entity.dto;
 
+import io.github.tml.mosaic.core.tools.guid.GUID;
 import io.github.tml.mosaic.slot.Slot;
 import lombok.Data;
 
 @Data
-public class SlotSetupDTO extends Slot.SetupCubeInfo {
+public class SlotSetupDTO {
 
     private String slotId;
+
+    // 方块唯一Id
+    private GUID cubeId;
+
+    // 调用的拓展包Id
+    private GUID exPackageId;
+
+    // 调用的拓展点Id
+    private GUID exPointId;
+
+    // 需要的返回名称，为空时使用默认返回项
+    private String resName;
+
+    // 安装配置项，为空时使用默认配置
+    private String configId;
+
+    // 期望的槽安装版本号，为空时直接覆盖安装
+    private Long expectedVersion;
+
+    /**
+     * 转换为不可变的槽安装信息
+     */
+    public Slot.SetupCubeInfo toSetupCubeInfo() {
+        Slot.SetupCubeInfo.SetupCubeInfoBuilder builder = Slot.SetupCubeInfo.builder()
+                .cubeId(cubeId)
+                .exPackageId(exPackageId)
+                .exPointId(exPointId);
+        if (resName != null) {
+            builder.resName(resName);
+        }
+        if (configId != null) {
+            builder.configId(configId);
+        }
+        return builder.build();
+    }
 }
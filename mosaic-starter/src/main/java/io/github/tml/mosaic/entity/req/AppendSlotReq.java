@@ -23,4 +23,7 @@ public class AppendSlotReq {
 
     private boolean setupFlag = false;
 
+    // 期望的槽安装版本号，为空时直接覆盖安装
+    private Long expectedVersion;
+
 }
@@ -24,6 +24,7 @@ public class CubeInfoVO {
     private String scope;
     private String className;
     private CubeStatus status;
+    private String angelState;
     private List<ExtensionPackageVO> extensionPackages;
     private CubeConfigVO config;
     private CubeStatisticsVO statistics;
@@ -0,0 +1,52 @@
+package io.github.tml.mosaic.entity.vo.cube;
+
+import io.github.tml.mosaic.cube.factory.support.DefaultCubeManager;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 描述: 存活Cube实例的前端展示对象
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CubeInstanceVO {
+
+    private String instanceId;
+
+    private String cubeId;
+
+    private String name;
+
+    private String scope;
+
+    /**
+     * 正在进行中的调用数
+     */
+    private int referenceCount;
+
+    private long totalUses;
+
+    private long createdAt;
+
+    private long lastUsedAt;
+
+    private long idleMillis;
+
+    public static CubeInstanceVO fromManagedCube(DefaultCubeManager.ManagedCube managedCube) {
+        return CubeInstanceVO.builder()
+                .instanceId(managedCube.getInstanceId().toString())
+                .cubeId(managedCube.getCubeId().toString())
+                .name(managedCube.getCube().getMetaData().getName())
+                .scope(managedCube.getCube().getMetaData().getScope())
+                .referenceCount(managedCube.getReferenceCount())
+                .totalUses(managedCube.getTotalUses())
+                .createdAt(managedCube.getCreatedAt())
+                .lastUsedAt(managedCube.getLastUsedAt())
+                .idleMillis(managedCube.getIdleMillis())
+                .build();
+    }
+}
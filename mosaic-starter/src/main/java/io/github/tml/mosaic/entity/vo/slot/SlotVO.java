@@ -20,4 +20,7 @@ public class SlotVO {
     private String resName;
 
     private boolean setupFlag = false;
+
+    // 槽安装版本号，修改安装时回传用于并发校验
+    private long version;
 }
@@ -1,15 +1,97 @@
 package io.github.tml.mosaic.infrastructure;
 
+import com.alibaba.fastjson.JSON;
+import io.github.tml.mosaic.core.persistence.MosaicPersistenceManager;
+import io.github.tml.mosaic.core.persistence.adapter.file.LocalFileAdapter;
 import io.github.tml.mosaic.slot.SlotRepository;
+import io.github.tml.mosaic.slot.journal.SlotRecord;
+import io.github.tml.mosaic.slot.journal.SlotSnapshot;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * @author welsir
- * @description :
+ * @description : 槽持久化，快照为JSON文件，变更日志每行一条JSON记录
  * @date 2025/7/1
  */
+@Slf4j
+@Component
 public class SlotRepositoryImpl implements SlotRepository {
+
+    private static final String SNAPSHOT_FILE = "snapshot.json";
+
+    private static final String LOG_FILE = "changes.log";
+
+    @Autowired
+    private MosaicPersistenceManager persistenceManager;
+
+    @Override
+    public void appendRecords(List<SlotRecord> records) {
+        LocalFileAdapter adapter = persistenceManager.getLocalFileAdapter();
+        if (adapter == null || records.isEmpty()) {
+            return;
+        }
+        adapter.append(getPath() + LOG_FILE, records.stream().map(JSON::toJSONString).collect(Collectors.toList()));
+    }
+
+    @Override
+    public List<SlotRecord> loadRecords() {
+        LocalFileAdapter adapter = persistenceManager.getLocalFileAdapter();
+        if (adapter == null) {
+            return new ArrayList<>();
+        }
+        List<String> lines = adapter.readLines(getPath() + LOG_FILE);
+        List<SlotRecord> records = new ArrayList<>(lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                records.add(JSON.parseObject(line, SlotRecord.class));
+            } catch (Exception e) {
+                // 进程中断时最后一行可能只写了一半
+                log.warn("skip broken slot change record, line:{} error:{}", i + 1, e.getMessage());
+            }
+        }
+        return records;
+    }
+
+    @Override
+    public void saveSnapshot(SlotSnapshot snapshot) {
+        LocalFileAdapter adapter = persistenceManager.getLocalFileAdapter();
+        if (adapter == null) {
+            return;
+        }
+        // 快照写成功后才清空日志，中间中断时残留的日志记录序号不大于快照序号，回放时被跳过
+        adapter.save(getPath() + SNAPSHOT_FILE, snapshot);
+        adapter.delete(getPath() + LOG_FILE);
+    }
+
+    @Override
+    public SlotSnapshot loadSnapshot() {
+        LocalFileAdapter adapter = persistenceManager.getLocalFileAdapter();
+        if (adapter == null) {
+            return new SlotSnapshot();
+        }
+        String content = adapter.get(getPath() + SNAPSHOT_FILE, String.class);
+        if (content == null || content.trim().isEmpty()) {
+            return new SlotSnapshot();
+        }
+        if (content.trim().startsWith("[")) {
+            // 旧版本的快照只有槽记录数组，没有序号
+            return new SlotSnapshot(0, JSON.parseArray(content, SlotRecord.class));
+        }
+        return JSON.parseObject(content, SlotSnapshot.class);
+    }
+
     @Override
     public String getPath() {
-        return "";
+        return "/slot/";
     }
-}
\ No newline at end of file
+}
@@ -19,6 +19,26 @@ public interface CubeService {
 
     R<?> checkCubeExists(String cubeId);
 
+    /**
+     * 获取单例预实例化耗时报告
+     */
+    R<?> getStartupReport();
+
+    /**
+     * 获取实例缓存统计
+     */
+    R<?> getInstanceCacheStats();
+
+    /**
+     * 获取存活的Cube实例
+     */
+    R<?> getCubeInstances();
+
+    /**
+     * 淘汰空闲的Cube实例
+     */
+    R<?> evictIdleCubes(long idleMillis);
+
     /**
      * 更新Angel Cube的状态（启动/停止）
      * @param statusReq 状态更新请求
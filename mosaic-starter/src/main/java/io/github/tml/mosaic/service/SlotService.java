@@ -11,6 +11,17 @@ public interface SlotService {
 
     List<SlotVO> getSlotList();
 
+    /**
+     * 分页获取点分前缀下的槽，page从1开始
+     */
+    List<SlotVO> getSlotList(String prefix, int page, int size);
+
+    int countSlot(String prefix);
+
+    int unSetupSlotByPrefix(String prefix);
+
+    int deleteSlotByPrefix(String prefix);
+
     CreateSlotResp createOrSetupSlot(AppendSlotReq appendSlotReq);
 
     boolean unSetupSlot(String slotId);
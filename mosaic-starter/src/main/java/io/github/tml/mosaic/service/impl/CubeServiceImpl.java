@@ -8,6 +8,7 @@ import io.github.tml.mosaic.entity.dto.CubeDTO;
 import io.github.tml.mosaic.entity.req.AngelCubeStatusUpdateReq;
 import io.github.tml.mosaic.entity.req.CubeFilterReq;
 import io.github.tml.mosaic.entity.vo.cube.CubeInfoVO;
+import io.github.tml.mosaic.entity.vo.cube.CubeInstanceVO;
 import io.github.tml.mosaic.service.CubeService;
 import io.github.tml.mosaic.util.R;
 import lombok.RequiredArgsConstructor;
@@ -17,6 +18,7 @@ import org.springframework.stereotype.Service;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * Cube信息查询服务
@@ -89,6 +91,34 @@ public class CubeServiceImpl implements CubeService {
         ));
     }
 
+    @Override
+    public R<?> getStartupReport() {
+        return cubeDomain.getStartupReport()
+                .map(R::success)
+                .orElse(R.error("Cube startup report not available"));
+    }
+
+    @Override
+    public R<?> getInstanceCacheStats() {
+        return R.success(cubeDomain.getInstanceCacheStats());
+    }
+
+    @Override
+    public R<?> getCubeInstances() {
+        List<CubeInstanceVO> instances = cubeDomain.getManagedCubes().stream()
+                .map(CubeInstanceVO::fromManagedCube)
+                .collect(Collectors.toList());
+        return R.success(instances);
+    }
+
+    @Override
+    public R<?> evictIdleCubes(long idleMillis) {
+        if (idleMillis < 0) {
+            return R.error("idleMillis must not be negative");
+        }
+        return R.success(cubeDomain.evictIdleCubes(idleMillis));
+    }
+
     @Override
     public R<?> updateAngelCubeStatus(AngelCubeStatusUpdateReq statusReq) {
         String cubeId = statusReq.getCubeId();
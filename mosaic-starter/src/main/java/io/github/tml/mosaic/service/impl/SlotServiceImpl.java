@@ -16,6 +16,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.Resource;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -36,6 +37,33 @@ public class SlotServiceImpl implements SlotService {
         return slotList.stream().map(SlotConvert::convert2VO).collect(Collectors.toList());
     }
 
+    @Override
+    public List<SlotVO> getSlotList(String prefix, int page, int size) {
+        // 页码很大时偏移量超出int范围，直接返回空页，避免溢出为负数后被当作第一页
+        long offset = (Math.max(page, 1) - 1L) * size;
+        if (offset > Integer.MAX_VALUE) {
+            return new ArrayList<>();
+        }
+        return slotDomain.getSlotList(prefix, (int) offset, size).stream()
+                .map(SlotConvert::convert2VO)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public int countSlot(String prefix) {
+        return slotDomain.countSlot(prefix);
+    }
+
+    @Override
+    public int unSetupSlotByPrefix(String prefix) {
+        return slotDomain.unSetupSlotByPrefix(prefix);
+    }
+
+    @Override
+    public int deleteSlotByPrefix(String prefix) {
+        return slotDomain.removeSlotByPrefix(prefix);
+    }
+
     @Override
     public CreateSlotResp createOrSetupSlot(AppendSlotReq appendSlotReq) {
         String slotId = appendSlotReq.getSlotId();
@@ -2,6 +2,7 @@ package io.github.tml.plugin.aiChat.cube;
 
 import io.github.tml.mosaic.cube.external.MCube;
 import io.github.tml.mosaic.cube.external.MosaicCube;
+import io.github.tml.mosaic.cube.ConfigKey;
 import io.github.tml.mosaic.cube.CubeConfig;
 import com.alibaba.fastjson.JSONObject;
 import com.alibaba.fastjson.JSONArray;
@@ -11,6 +12,7 @@ import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.net.URI;
 import java.time.Duration;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 
 import static io.github.tml.plugin.aiChat.config.Constant.PLUGIN_ID;
@@ -24,7 +26,18 @@ import static io.github.tml.plugin.aiChat.config.Constant.DEFAULT_SYSTEM_PROMPT;
 )
 public class AiChatCube extends MosaicCube {
 
-    private HttpClient httpClient;
+    // 请求路径上读取的配置，按槽位直接取值
+    private static final ConfigKey<Integer> RETRY_COUNT = ConfigKey.of("retryCount", Integer.class, 3);
+    private static final ConfigKey<Boolean> ENABLE_LOGGING = ConfigKey.of("enableLogging", Boolean.class, true);
+    private static final ConfigKey<Integer> TIMEOUT = ConfigKey.of("timeout", Integer.class, 30);
+    private static final ConfigKey<String> MODEL = ConfigKey.of("model", String.class, "gpt-3.5-turbo");
+    private static final ConfigKey<Integer> MAX_TOKENS = ConfigKey.of("maxTokens", Integer.class, 2048);
+    private static final ConfigKey<Double> TEMPERATURE = ConfigKey.of("temperature", Double.class, 0.7);
+    private static final ConfigKey<String> API_ENDPOINT =
+            ConfigKey.of("apiEndpoint", String.class, "https://api.openai.com/v1/chat/completions");
+    private static final ConfigKey<String> API_KEY = ConfigKey.of("apiKey", String.class);
+
+    private volatile HttpClient httpClient;
 
     @Override
     public boolean init() {
@@ -53,6 +66,19 @@ public class AiChatCube extends MosaicCube {
         }
     }
 
+    /**
+     * 请求参数每次从快照读取，只有超时时间需要重建HTTP客户端
+     */
+    @Override
+    public boolean onConfigChange(CubeConfig oldConfig, CubeConfig newConfig, Set<String> changedKeys) {
+        if (changedKeys.contains(TIMEOUT.getName())) {
+            this.httpClient = HttpClient.newBuilder()
+                    .connectTimeout(Duration.ofSeconds(newConfig.get(TIMEOUT)))
+                    .build();
+        }
+        return true;
+    }
+
     @Override
     public String cubeId() {
         return PLUGIN_ID;
@@ -74,9 +100,9 @@ public class AiChatCube extends MosaicCube {
         try {
             JSONObject requestBody = buildRequestBody(userMessage, systemPrompt, config);
 
-            int retryCount = config.getConfig("retryCount", Integer.class, 3);
-            boolean enableLogging = config.getConfig("enableLogging", Boolean.class, true);
-            int timeout = config.getConfig("timeout", Integer.class, 30);
+            int retryCount = config.get(RETRY_COUNT);
+            boolean enableLogging = config.get(ENABLE_LOGGING);
+            int timeout = config.get(TIMEOUT);
 
             for (int attempt = 1; attempt <= retryCount; attempt++) {
                 try {
@@ -116,7 +142,7 @@ public class AiChatCube extends MosaicCube {
 
         } catch (Exception e) {
             String errorMsg = "AI调用异常: " + e.getMessage();
-            boolean enableLogging = config.getConfig("enableLogging", Boolean.class, true);
+            boolean enableLogging = config.get(ENABLE_LOGGING);
             if (enableLogging) {
                 System.err.println("[AI-CHAT] " + errorMsg);
                 e.printStackTrace();
@@ -143,8 +169,8 @@ public class AiChatCube extends MosaicCube {
      * 构建HTTP请求
      */
     private HttpRequest buildHttpRequest(JSONObject requestBody, CubeConfig config, int timeout) {
-        String apiEndpoint = config.getConfig("apiEndpoint", String.class, "https://api.openai.com/v1/chat/completions");
-        String apiKey = config.getConfig("apiKey", String.class);
+        String apiEndpoint = config.get(API_ENDPOINT);
+        String apiKey = config.get(API_KEY);
 
         if (apiKey == null || apiKey.trim().isEmpty()) {
             // 如果配置中没有API Key，尝试从环境变量获取
@@ -171,9 +197,9 @@ public class AiChatCube extends MosaicCube {
         JSONObject requestBody = new JSONObject();
 
         // 从配置获取参数
-        String model = config.getConfig("model", String.class, "gpt-3.5-turbo");
-        Integer maxTokens = config.getConfig("maxTokens", Integer.class, 2048);
-        Double temperature = config.getConfig("temperature", Double.class, 0.7);
+        String model = config.get(MODEL);
+        Integer maxTokens = config.get(MAX_TOKENS);
+        Double temperature = config.get(TEMPERATURE);
 
         requestBody.put("model", model);
         requestBody.put("max_tokens", maxTokens);
@@ -50,6 +50,41 @@ public class CubeConfigUpdateListener extends SelectiveMosaicEventListener {
         log.info("Cube definition registered: {}", event.getCubeId());
     }
 
+    /**
+     * 同一方块的配置更新按顺序处理
+     */
+    @Override
+    public Object getPartitionKey(MosaicEvent event) {
+        return event instanceof CubeConfigUpdateEvent ? ((CubeConfigUpdateEvent) event).getCubeId() : null;
+    }
+
+    /**
+     * 批量修改配置、批量安装时同一方块的事件合并后只处理一次
+     */
+    @Override
+    public Object getCoalescingKey(MosaicEvent event) {
+        if (event instanceof CubeConfigUpdateEvent) {
+            return ((CubeConfigUpdateEvent) event).getCubeId();
+        }
+        if (event instanceof CubeDefinitionRegisteredEvent) {
+            return ((CubeDefinitionRegisteredEvent) event).getCubeId();
+        }
+        return null;
+    }
+
+    /**
+     * 合并后的配置更新保留第一次更新前与最后一次更新后的配置
+     */
+    @Override
+    public MosaicEvent coalesce(MosaicEvent previous, MosaicEvent latest) {
+        if (previous instanceof CubeConfigUpdateEvent && latest instanceof CubeConfigUpdateEvent) {
+            CubeConfigUpdateEvent first = (CubeConfigUpdateEvent) previous;
+            CubeConfigUpdateEvent last = (CubeConfigUpdateEvent) latest;
+            return new CubeConfigUpdateEvent(last.getCubeId(), last.getMosaicCube(), first.getBefore(), last.getAfter());
+        }
+        return latest;
+    }
+
     @Override
     public String getListenerName() {
         return "CubeConfigUpdateListener";